@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis;
+
+import org.mini2Dx.core.collisions.PointQuadTree;
+import org.mini2Dx.core.collisions.QuadTree;
+import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.core.engine.geom.CollisionPoint;
+
+import com.artemis.Aspect.Builder;
+
+/**
+ * Maintains a {@link PointQuadTree} of entities by the coordinates of a
+ * {@link Positionable} (e.g. a {@link CollisionPoint})
+ */
+public abstract class PointQuadTreeSystem extends QuadTreeSystem<Positionable, CollisionPoint> {
+
+	/**
+	 * Creates a new PointQuadTreeSystem
+	 * @param aspect The {@link Aspect} to match entities
+	 * @param quadTree The {@link PointQuadTree} (or concurrent variant) to store entities in
+	 */
+	public PointQuadTreeSystem(Builder aspect, QuadTree<CollisionPoint> quadTree) {
+		super(aspect, quadTree);
+	}
+
+	@Override
+	protected CollisionPoint createProxy(int entityId, Positionable shape) {
+		return new CollisionPoint(entityId, shape.getX(), shape.getY());
+	}
+
+	@Override
+	protected boolean syncProxy(CollisionPoint proxy, Positionable shape) {
+		if(proxy.getX() == shape.getX() && proxy.getY() == shape.getY()) {
+			return false;
+		}
+		proxy.forceTo(shape.getX(), shape.getY());
+		return true;
+	}
+}
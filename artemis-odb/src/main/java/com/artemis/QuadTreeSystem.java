@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis;
+
+import org.mini2Dx.core.collisions.QuadTree;
+import org.mini2Dx.core.engine.PositionChangeListener;
+import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.core.engine.SizeChangeListener;
+import org.mini2Dx.core.engine.Sizeable;
+import org.mini2Dx.core.geom.LineSegment;
+import org.mini2Dx.core.geom.Point;
+import org.mini2Dx.core.geom.Shape;
+
+import com.artemis.Aspect.Builder;
+import com.artemis.utils.Bag;
+import com.artemis.utils.BitVector;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Base class for systems that keep a {@link QuadTree} in sync with the
+ * entities matched by an {@link Aspect}.
+ *
+ * Each entity is indexed by a proxy element that carries the entity id. The
+ * entity's own shape only marks the entity as moved when its position changes
+ * and all moves are applied to the {@link QuadTree} in a single pass when this
+ * system is processed. This system should therefore be registered after the
+ * systems that move entities.
+ *
+ * @param <S> The type of shape attached to entities
+ * @param <T> The type of proxy element stored in the {@link QuadTree}
+ */
+public abstract class QuadTreeSystem<S extends Positionable, T extends Positionable> extends BaseEntitySystem {
+	private final QuadTree<T> quadTree;
+	private final Bag<S> shapes = new Bag<S>();
+	private final Bag<T> proxies = new Bag<T>();
+	private final Bag<EntityMovedListener> listeners = new Bag<EntityMovedListener>();
+	private final BitVector indexedEntities = new BitVector();
+	private final BitVector movedEntities = new BitVector();
+	private final Array<T> queryResults = new Array<T>();
+
+	/**
+	 * Creates a new QuadTreeSystem
+	 * @param aspect The {@link Aspect} to match entities
+	 * @param quadTree The {@link QuadTree} to store entities in
+	 */
+	public QuadTreeSystem(Builder aspect, QuadTree<T> quadTree) {
+		super(aspect);
+		this.quadTree = quadTree;
+	}
+
+	/**
+	 * Returns the shape attached to an entity
+	 * @param entityId The entity id
+	 * @return The entity's shape
+	 */
+	protected abstract S getShape(int entityId);
+
+	/**
+	 * Creates the proxy element that will be stored in the {@link QuadTree}
+	 * @param entityId The entity id
+	 * @param shape The entity's shape
+	 * @return A new proxy element matching the shape's current position
+	 */
+	protected abstract T createProxy(int entityId, S shape);
+
+	/**
+	 * Updates a proxy element to match the current state of a shape. This is
+	 * only called while the proxy is not stored in the {@link QuadTree}.
+	 * @param proxy The proxy element
+	 * @param shape The entity's shape
+	 * @return False if the proxy already matched the shape
+	 */
+	protected abstract boolean syncProxy(T proxy, S shape);
+
+	@Override
+	protected void inserted(int entityId) {
+		S shape = getShape(entityId);
+		T proxy = createProxy(entityId, shape);
+		EntityMovedListener listener = listeners.safeGet(entityId);
+		if(listener == null) {
+			listener = new EntityMovedListener(entityId);
+			listeners.set(entityId, listener);
+		}
+		shapes.set(entityId, shape);
+		proxies.set(entityId, proxy);
+		shape.addPostionChangeListener(listener);
+		addShapeListener(shape, listener);
+
+		indexedEntities.set(entityId, quadTree.add(proxy));
+		movedEntities.clear(entityId);
+	}
+
+	@Override
+	protected void removed(int entityId) {
+		S shape = shapes.safeGet(entityId);
+		if(shape == null) {
+			return;
+		}
+		EntityMovedListener listener = listeners.get(entityId);
+		shape.removePositionChangeListener(listener);
+		removeShapeListener(shape, listener);
+
+		if(indexedEntities.get(entityId)) {
+			quadTree.remove(proxies.get(entityId));
+		}
+		shapes.set(entityId, null);
+		proxies.set(entityId, null);
+		indexedEntities.clear(entityId);
+		movedEntities.clear(entityId);
+	}
+
+	/**
+	 * An overridable method to register for additional shape changes (e.g.
+	 * size changes)
+	 * @param shape The entity's shape
+	 * @param listener The listener for the entity
+	 */
+	protected void addShapeListener(S shape, EntityMovedListener listener) {}
+
+	/**
+	 * An overridable method to unregister listeners added by
+	 * {@link #addShapeListener(Positionable, EntityMovedListener)}
+	 * @param shape The entity's shape
+	 * @param listener The listener for the entity
+	 */
+	protected void removeShapeListener(S shape, EntityMovedListener listener) {}
+
+	@Override
+	protected void processSystem() {
+		sync();
+	}
+
+	/**
+	 * Applies all pending entity moves to the {@link QuadTree}. This is called
+	 * automatically each time the system is processed.
+	 */
+	public void sync() {
+		for(int entityId = movedEntities.nextSetBit(0); entityId >= 0; entityId = movedEntities.nextSetBit(entityId + 1)) {
+			T proxy = proxies.safeGet(entityId);
+			if(proxy == null) {
+				continue;
+			}
+			boolean indexed = indexedEntities.get(entityId);
+			if(indexed) {
+				quadTree.remove(proxy);
+			}
+			if(!syncProxy(proxy, shapes.get(entityId)) && indexed) {
+				quadTree.add(proxy);
+				continue;
+			}
+			indexedEntities.set(entityId, quadTree.add(proxy));
+		}
+		movedEntities.clear();
+	}
+
+	/**
+	 * Stores the ids of entities within an area
+	 * @param result The {@link IntBag} to store results in
+	 * @param area The area to search
+	 */
+	public void getEntitiesWithinArea(IntBag result, Shape area) {
+		quadTree.getElementsWithinArea(queryResults, area);
+		storeQueryResults(result);
+	}
+
+	/**
+	 * Stores the ids of entities containing a point
+	 * @param result The {@link IntBag} to store results in
+	 * @param point The point to search
+	 */
+	public void getEntitiesContainingPoint(IntBag result, Point point) {
+		quadTree.getElementsContainingPoint(queryResults, point);
+		storeQueryResults(result);
+	}
+
+	/**
+	 * Stores the ids of entities intersecting a line segment
+	 * @param result The {@link IntBag} to store results in
+	 * @param lineSegment The line segment to search
+	 */
+	public void getEntitiesIntersectingLineSegment(IntBag result, LineSegment lineSegment) {
+		quadTree.getElementsIntersectingLineSegment(queryResults, lineSegment);
+		storeQueryResults(result);
+	}
+
+	private void storeQueryResults(IntBag result) {
+		for(int i = 0; i < queryResults.size; i++) {
+			result.add(queryResults.get(i).getId());
+		}
+		queryResults.clear();
+	}
+
+	/**
+	 * Returns if an entity is currently stored in the {@link QuadTree}
+	 * @param entityId The entity id
+	 * @return False if the entity is not matched by this system or is outside the {@link QuadTree} bounds
+	 */
+	public boolean isIndexed(int entityId) {
+		return indexedEntities.get(entityId);
+	}
+
+	/**
+	 * Returns the {@link QuadTree} maintained by this system
+	 * @return
+	 */
+	public QuadTree<T> getQuadTree() {
+		return quadTree;
+	}
+
+	/**
+	 * Marks an entity as moved when its shape changes
+	 */
+	protected class EntityMovedListener implements PositionChangeListener<Positionable>, SizeChangeListener<Sizeable> {
+		private final int entityId;
+
+		EntityMovedListener(int entityId) {
+			this.entityId = entityId;
+		}
+
+		@Override
+		public void positionChanged(Positionable moved) {
+			movedEntities.set(entityId);
+		}
+
+		@Override
+		public void sizeChanged(Sizeable changed) {
+			movedEntities.set(entityId);
+		}
+	}
+}
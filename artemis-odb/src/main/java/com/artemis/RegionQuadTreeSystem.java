@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis;
+
+import org.mini2Dx.core.collisions.QuadTree;
+import org.mini2Dx.core.collisions.RegionQuadTree;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.engine.geom.CollisionShape;
+
+import com.artemis.Aspect.Builder;
+
+/**
+ * Maintains a {@link RegionQuadTree} of entities with {@link CollisionShape}s.
+ * Entities are indexed by the bounding box of their shape and all queries are
+ * performed against these bounding boxes.
+ */
+public abstract class RegionQuadTreeSystem extends QuadTreeSystem<CollisionShape, CollisionBox> {
+
+	/**
+	 * Creates a new RegionQuadTreeSystem
+	 * @param aspect The {@link Aspect} to match entities
+	 * @param quadTree The {@link RegionQuadTree} (or concurrent variant) to store entities in
+	 */
+	public RegionQuadTreeSystem(Builder aspect, QuadTree<CollisionBox> quadTree) {
+		super(aspect, quadTree);
+	}
+
+	@Override
+	protected CollisionBox createProxy(int entityId, CollisionShape shape) {
+		return new CollisionBox(entityId, shape.getMinX(), shape.getMinY(), shape.getMaxX() - shape.getMinX(),
+				shape.getMaxY() - shape.getMinY());
+	}
+
+	@Override
+	protected boolean syncProxy(CollisionBox proxy, CollisionShape shape) {
+		final float x = shape.getMinX();
+		final float y = shape.getMinY();
+		final float width = shape.getMaxX() - x;
+		final float height = shape.getMaxY() - y;
+
+		if(proxy.getX() == x && proxy.getY() == y && proxy.getWidth() == width && proxy.getHeight() == height) {
+			return false;
+		}
+		proxy.forceTo(x, y, width, height);
+		return true;
+	}
+
+	@Override
+	protected void addShapeListener(CollisionShape shape, EntityMovedListener listener) {
+		shape.addSizeChangeListener(listener);
+	}
+
+	@Override
+	protected void removeShapeListener(CollisionShape shape, EntityMovedListener listener) {
+		shape.removeSizeChangeListener(listener);
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.artemis;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.collisions.RegionQuadTree;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.engine.geom.CollisionShape;
+import org.mini2Dx.core.geom.Rectangle;
+
+import com.artemis.system.test.DummyCollisionComponent;
+import com.artemis.utils.IntBag;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link RegionQuadTreeSystem}
+ */
+public class RegionQuadTreeSystemTest {
+	private MdxWorld world;
+	private DummyRegionQuadTreeSystem system;
+	private RegionQuadTree<CollisionBox> quadTree;
+	private IntBag result;
+
+	@Before
+	public void setUp() {
+		quadTree = new RegionQuadTree<CollisionBox>(4, 0f, 0f, 256f, 256f);
+		system = new DummyRegionQuadTreeSystem(quadTree);
+		result = new IntBag();
+
+		WorldConfiguration configuration = new WorldConfiguration();
+		configuration.setSystem(system);
+		world = new MdxWorld(configuration);
+	}
+
+	@Test
+	public void testEntityAddedAndRemoved() {
+		int entityId = createEntity(10f, 10f);
+		world.process();
+
+		Assert.assertEquals(1, quadTree.getTotalElements());
+		Assert.assertEquals(true, system.isIndexed(entityId));
+		system.getEntitiesWithinArea(result, new Rectangle(0f, 0f, 32f, 32f));
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(entityId, result.get(0));
+
+		world.delete(entityId);
+		world.process();
+
+		Assert.assertEquals(0, quadTree.getTotalElements());
+		Assert.assertEquals(false, system.isIndexed(entityId));
+	}
+
+	@Test
+	public void testMovesAppliedOnProcess() {
+		int entityId = createEntity(10f, 10f);
+		world.process();
+
+		CollisionBox collisionBox = world.getMapper(DummyCollisionComponent.class).get(entityId).collisionBox;
+		collisionBox.set(200f, 200f);
+		collisionBox.set(150f, 150f);
+
+		system.getEntitiesWithinArea(result, new Rectangle(0f, 0f, 32f, 32f));
+		Assert.assertEquals(1, result.size());
+
+		world.process();
+		result.clear();
+		system.getEntitiesWithinArea(result, new Rectangle(0f, 0f, 32f, 32f));
+		Assert.assertEquals(0, result.size());
+		system.getEntitiesWithinArea(result, new Rectangle(140f, 140f, 32f, 32f));
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(entityId, result.get(0));
+		Assert.assertEquals(1, quadTree.getTotalElements());
+	}
+
+	@Test
+	public void testManyEntitiesMoved() {
+		for(int i = 0; i < 64; i++) {
+			createEntity(i * 2f, i * 2f);
+		}
+		world.process();
+		Assert.assertEquals(64, quadTree.getTotalElements());
+
+		IntBag entityIds = system.getEntityIds();
+		for(int i = 0; i < entityIds.size(); i++) {
+			CollisionBox collisionBox = world.getMapper(DummyCollisionComponent.class).get(entityIds.get(i)).collisionBox;
+			collisionBox.add(100f, 100f);
+		}
+		world.process();
+		Assert.assertEquals(64, quadTree.getTotalElements());
+
+		system.getEntitiesWithinArea(result, new Rectangle(100f, 100f, 156f, 156f));
+		Assert.assertEquals(64, result.size());
+	}
+
+	@Test
+	public void testEntityOutsideBounds() {
+		int entityId = createEntity(-100f, -100f);
+		world.process();
+		Assert.assertEquals(false, system.isIndexed(entityId));
+		Assert.assertEquals(0, quadTree.getTotalElements());
+
+		world.getMapper(DummyCollisionComponent.class).get(entityId).collisionBox.set(50f, 50f);
+		world.process();
+		Assert.assertEquals(true, system.isIndexed(entityId));
+		Assert.assertEquals(1, quadTree.getTotalElements());
+	}
+
+	@Test
+	public void testSizeChange() {
+		int entityId = createEntity(10f, 10f);
+		world.process();
+
+		world.getMapper(DummyCollisionComponent.class).get(entityId).collisionBox.setWidth(100f);
+		world.process();
+
+		system.getEntitiesWithinArea(result, new Rectangle(100f, 10f, 8f, 8f));
+		Assert.assertEquals(1, result.size());
+	}
+
+	private int createEntity(float x, float y) {
+		int entityId = world.create();
+		DummyCollisionComponent component = world.getMapper(DummyCollisionComponent.class).create(entityId);
+		component.collisionBox.forceTo(x, y, 4f, 4f);
+		return entityId;
+	}
+
+	private static class DummyRegionQuadTreeSystem extends RegionQuadTreeSystem {
+		private ComponentMapper<DummyCollisionComponent> collisionMapper;
+
+		public DummyRegionQuadTreeSystem(RegionQuadTree<CollisionBox> quadTree) {
+			super(Aspect.all(DummyCollisionComponent.class), quadTree);
+		}
+
+		@Override
+		protected CollisionShape getShape(int entityId) {
+			return collisionMapper.get(entityId).collisionBox;
+		}
+	}
+}
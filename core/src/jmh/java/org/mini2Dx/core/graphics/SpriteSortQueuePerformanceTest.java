@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Performance tests for {@link SpriteSortQueue} using a 20,000 sprite scene
+ * drawn from 8 atlases across 3 layers and 64 rows, and a frame that drains
+ * a handful of sorted sprites between 100 UI draws
+ */
+public class SpriteSortQueuePerformanceTest {
+	private static final int TOTAL_SPRITES = 20000;
+	private static final int SMALL_QUEUE_SPRITES = 8;
+	private static final int SMALL_QUEUE_DRAINS = 100;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public SpriteSortQueue queue = new SpriteSortQueue(TOTAL_SPRITES);
+		public int[] layers = new int[TOTAL_SPRITES];
+		public float[] depths = new float[TOTAL_SPRITES];
+		public Object[] textures = new Object[TOTAL_SPRITES];
+
+		public TestState() {
+			final Random random = new Random(20000);
+			final Object[] atlases = new Object[8];
+			for (int i = 0; i < atlases.length; i++) {
+				atlases[i] = new Object();
+			}
+			for (int i = 0; i < TOTAL_SPRITES; i++) {
+				layers[i] = random.nextInt(3);
+				depths[i] = random.nextInt(64) * 32f;
+				textures[i] = atlases[random.nextInt(atlases.length)];
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@Group("SpriteSortQueue")
+	public void testSortByLayerAndTexture(TestState state) {
+		state.queue.clear();
+		for (int i = 0; i < TOTAL_SPRITES; i++) {
+			state.queue.add(state.layers[i], 0f, state.textures[i]);
+		}
+		state.queue.sort();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@Group("SpriteSortQueue")
+	public void testSortByLayerDepthAndTexture(TestState state) {
+		state.queue.clear();
+		for (int i = 0; i < TOTAL_SPRITES; i++) {
+			state.queue.add(state.layers[i], state.depths[i], state.textures[i]);
+		}
+		state.queue.sort();
+	}
+
+	@Benchmark
+	@BenchmarkMode(value = Mode.AverageTime)
+	@Group("SpriteSortQueue")
+	public void testSortSmallQueues(TestState state) {
+		for (int drain = 0; drain < SMALL_QUEUE_DRAINS; drain++) {
+			state.queue.clear();
+			for (int i = 0; i < SMALL_QUEUE_SPRITES; i++) {
+				final int sprite = drain * SMALL_QUEUE_SPRITES + i;
+				state.queue.add(state.layers[sprite], state.depths[sprite], state.textures[sprite]);
+			}
+			state.queue.sort();
+		}
+	}
+}
@@ -52,6 +52,25 @@ public abstract class GameContainer {
 	 */
 	public abstract void render(Graphics g);
 	
+	/**
+	 * Publishes the current game state for rendering. Only called when the
+	 * game loop is pipelined, in which case update, interpolate and this
+	 * method are called on a separate thread to rendering and must not make
+	 * any OpenGL calls.
+	 * 
+	 * @see SnapshotBuffer
+	 */
+	public void publishSnapshot() {}
+	
+	/**
+	 * Switches rendering to the most recently published game state. Only
+	 * called when the game loop is pipelined. This is called on the rendering
+	 * thread before {@link #render(Graphics)} while no update is in progress.
+	 * 
+	 * @see SnapshotBuffer
+	 */
+	public void consumeSnapshot() {}
+	
 	public abstract void onPause();
 	
 	public abstract void onResume();
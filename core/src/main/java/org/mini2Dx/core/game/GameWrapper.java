@@ -15,15 +15,17 @@ import com.badlogic.gdx.Game;
 import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.Disposable;
 import org.mini2Dx.core.graphics.Graphics;
 import org.mini2Dx.core.graphics.LibGdxGraphics;
 
 /**
  * An abstract implementation of {@link Game} for launching mini2Dx games
  */
-public abstract class GameWrapper implements ApplicationListener {
+public abstract class GameWrapper implements PipelinedApplicationListener {
 	private final GameContainer gameContainer;
 	private final String gameIdentifier;
+	private Graphics graphicsContext;
 
 	/**
 	 * Constructor
@@ -47,7 +49,8 @@ public abstract class GameWrapper implements ApplicationListener {
 	@Override
 	public void create() {
 		initialise(gameIdentifier);
-		gameContainer.start(createGraphicsContext());
+		graphicsContext = createGraphicsContext();
+		gameContainer.start(graphicsContext);
 	}
 
 	@Override
@@ -74,6 +77,22 @@ public abstract class GameWrapper implements ApplicationListener {
 		gameContainer.interpolate(alpha);
 	}
 
+	@Override
+	public void publishSnapshot() {
+		if(gameContainer == null) {
+			return;
+		}
+		gameContainer.publishSnapshot();
+	}
+
+	@Override
+	public void consumeSnapshot() {
+		if(gameContainer == null) {
+			return;
+		}
+		gameContainer.consumeSnapshot();
+	}
+
 	@Override
 	public void render() {
 		if(gameContainer == null) {
@@ -104,6 +123,9 @@ public abstract class GameWrapper implements ApplicationListener {
 			return;
 		}
 		gameContainer.dispose();
+		if(graphicsContext instanceof Disposable) {
+			((Disposable) graphicsContext).dispose();
+		}
 	}
 	
 	/**
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.game;
+
+/**
+ * An {@link ApplicationListener} that supports a pipelined game loop. When
+ * pipelined, update, interpolate and {@link #publishSnapshot()} are called on
+ * a separate update thread while the previous snapshot is rendered.
+ * 
+ * {@link ApplicationListener}s that do not implement this interface can still
+ * be pipelined but will not be notified of snapshots.
+ */
+public interface PipelinedApplicationListener extends ApplicationListener {
+	/**
+	 * Called after interpolate when the game loop is pipelined. The current game state should be copied into a
+	 * snapshot for rendering. This is called on the update thread.
+	 */
+	public void publishSnapshot ();
+
+	/**
+	 * Called before render when the game loop is pipelined. The most recently published snapshot should become the
+	 * snapshot that is rendered. This is called on the rendering thread while the update thread is idle.
+	 */
+	public void consumeSnapshot ();
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.game;
+
+/**
+ * A double-buffered snapshot of game state for use with a pipelined game
+ * loop. The update thread writes into the publish buffer from
+ * {@link GameContainer#publishSnapshot()} while the rendering thread reads the
+ * render buffer. Calling {@link #consume()} from
+ * {@link GameContainer#consumeSnapshot()} swaps the buffers.
+ *
+ * @param <T> The snapshot type
+ */
+public class SnapshotBuffer<T> {
+	private T publishBuffer, renderBuffer;
+	private boolean published = false;
+
+	/**
+	 * Constructor
+	 * @param publishBuffer The initial buffer to publish into
+	 * @param renderBuffer The initial buffer to render from
+	 */
+	public SnapshotBuffer(T publishBuffer, T renderBuffer) {
+		this.publishBuffer = publishBuffer;
+		this.renderBuffer = renderBuffer;
+	}
+
+	/**
+	 * Returns the buffer that the next snapshot should be written into
+	 * @return
+	 */
+	public T getPublishBuffer() {
+		return publishBuffer;
+	}
+
+	/**
+	 * Marks the publish buffer as containing a complete snapshot
+	 */
+	public void publish() {
+		published = true;
+	}
+
+	/**
+	 * Swaps the buffers if a new snapshot has been published since the last
+	 * call to this method
+	 * @return True if the render buffer changed
+	 */
+	public boolean consume() {
+		if(!published) {
+			return false;
+		}
+		T previous = renderBuffer;
+		renderBuffer = publishBuffer;
+		publishBuffer = previous;
+		published = false;
+		return true;
+	}
+
+	/**
+	 * Returns the buffer that should be rendered
+	 * @return
+	 */
+	public T getRenderBuffer() {
+		return renderBuffer;
+	}
+}
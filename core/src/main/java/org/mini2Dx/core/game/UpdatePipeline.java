@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.game;
+
+import java.util.concurrent.Semaphore;
+
+import org.mini2Dx.core.Mdx;
+import org.mini2Dx.core.exception.MdxException;
+
+/**
+ * Runs the update phase of a pipelined game loop on a dedicated thread. Each
+ * frame the game loop dispatches the updates for that frame, renders the
+ * previously published snapshot and then awaits the update thread before
+ * consuming the new snapshot. Snapshots are only published and consumed if
+ * the listener implements {@link PipelinedApplicationListener}.
+ *
+ * Internal usage only: used by the platform game loops.
+ */
+public class UpdatePipeline implements Runnable {
+	private final ApplicationListener listener;
+	private final PipelinedApplicationListener pipelinedListener;
+	private final float targetTimestep;
+	private final Semaphore updateSignal = new Semaphore(0);
+	private final Semaphore completeSignal = new Semaphore(0);
+	private final Thread thread;
+
+	private volatile boolean running = true;
+	private boolean dispatched = false;
+	private int totalUpdates;
+	private float alpha;
+	private Throwable error;
+
+	/**
+	 * Constructor
+	 * @param listener The {@link ApplicationListener} to update
+	 * @param targetTimestep The delta passed to each update
+	 */
+	public UpdatePipeline(ApplicationListener listener, float targetTimestep) {
+		this.listener = listener;
+		this.pipelinedListener = listener instanceof PipelinedApplicationListener
+				? (PipelinedApplicationListener) listener : null;
+		this.targetTimestep = targetTimestep;
+
+		thread = new Thread(this, "mini2Dx Update Thread");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			updateSignal.acquireUninterruptibly();
+			if (!running) {
+				break;
+			}
+			try {
+				for (int i = 0; i < totalUpdates; i++) {
+					Mdx.performanceTracker.markUpdateBegin();
+					listener.update(targetTimestep);
+					Mdx.performanceTracker.markUpdateEnd();
+				}
+				listener.interpolate(alpha);
+				if (pipelinedListener != null) {
+					pipelinedListener.publishSnapshot();
+				}
+			} catch (Throwable t) {
+				error = t;
+			} finally {
+				completeSignal.release();
+			}
+		}
+	}
+
+	/**
+	 * Starts the updates for a frame on the update thread
+	 * @param totalUpdates The amount of times to call update
+	 * @param alpha The interpolation alpha once all updates are complete
+	 */
+	public void dispatch(int totalUpdates, float alpha) {
+		if (dispatched) {
+			throw new MdxException("Previous updates must be awaited before dispatching new updates");
+		}
+		this.totalUpdates = totalUpdates;
+		this.alpha = alpha;
+		dispatched = true;
+		updateSignal.release();
+	}
+
+	/**
+	 * Waits for dispatched updates to complete and then consumes the published
+	 * snapshot on the calling thread. Any exception thrown on the update
+	 * thread is re-thrown on the calling thread.
+	 */
+	public void await() {
+		if (!dispatched) {
+			return;
+		}
+		completeSignal.acquireUninterruptibly();
+		dispatched = false;
+
+		if (error == null) {
+			if (pipelinedListener != null) {
+				pipelinedListener.consumeSnapshot();
+			}
+			return;
+		}
+		Throwable t = error;
+		error = null;
+		if (t instanceof RuntimeException) {
+			throw (RuntimeException) t;
+		}
+		throw new MdxException("Error during pipelined update", t);
+	}
+
+	/**
+	 * Stops the update thread once any dispatched updates are complete
+	 */
+	public void dispose() {
+		await();
+		running = false;
+		updateSignal.release();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,327 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Draws lines, rectangles, circles, triangles and polygons as vertex coloured
+ * quads through a {@link Batch} using a single white texel. Shapes therefore
+ * batch with sprites drawn through the same {@link Batch} rather than
+ * requiring the batch to be ended for a separate shape renderer.
+ * 
+ * Triangles are submitted as quads with a repeated final vertex.
+ */
+public class BatchShapeRenderer implements Disposable {
+	private static final int VERTEX_SIZE = 5;
+	private static final int QUAD_SIZE = VERTEX_SIZE * 4;
+	private static final float TEXEL_CENTER = 0.5f;
+
+	private final Batch batch;
+
+	private Texture texture;
+	private float color;
+	private float[] vertices = new float[QUAD_SIZE * 4];
+	private int totalQuads;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param batch
+	 *            The {@link Batch} to draw shapes through
+	 */
+	public BatchShapeRenderer(Batch batch) {
+		super();
+		this.batch = batch;
+	}
+
+	/**
+	 * Sets the packed color applied to the vertices of subsequent shapes
+	 * 
+	 * @param color
+	 *            The packed color, see
+	 *            {@link com.badlogic.gdx.graphics.Color#toFloatBits()}
+	 */
+	public void setColor(float color) {
+		this.color = color;
+	}
+
+	/**
+	 * Draws a line
+	 * 
+	 * @param x1
+	 *            The x coordinate of the start point
+	 * @param y1
+	 *            The y coordinate of the start point
+	 * @param x2
+	 *            The x coordinate of the end point
+	 * @param y2
+	 *            The y coordinate of the end point
+	 * @param width
+	 *            The line width
+	 */
+	public void line(float x1, float y1, float x2, float y2, float width) {
+		addLine(x1, y1, x2, y2, width);
+		flush();
+	}
+
+	/**
+	 * Draws a filled rectangle
+	 * 
+	 * @param x
+	 *            The x coordinate
+	 * @param y
+	 *            The y coordinate
+	 * @param width
+	 *            The width
+	 * @param height
+	 *            The height
+	 */
+	public void rect(float x, float y, float width, float height) {
+		addQuad(x, y, x, y + height, x + width, y + height, x + width, y);
+		flush();
+	}
+
+	/**
+	 * Draws a rectangle outline
+	 * 
+	 * @param x
+	 *            The x coordinate
+	 * @param y
+	 *            The y coordinate
+	 * @param width
+	 *            The width
+	 * @param height
+	 *            The height
+	 * @param lineWidth
+	 *            The width of the outline
+	 */
+	public void rectLine(float x, float y, float width, float height, float lineWidth) {
+		addLine(x, y, x + width, y, lineWidth);
+		addLine(x, y, x, y + height, lineWidth);
+		addLine(x + width, y, x + width, y + height, lineWidth);
+		addLine(x, y + height, x + width, y + height, lineWidth);
+		flush();
+	}
+
+	/**
+	 * Draws a filled triangle
+	 * 
+	 * @param x1
+	 *            The x coordinate of the first point
+	 * @param y1
+	 *            The y coordinate of the first point
+	 * @param x2
+	 *            The x coordinate of the second point
+	 * @param y2
+	 *            The y coordinate of the second point
+	 * @param x3
+	 *            The x coordinate of the third point
+	 * @param y3
+	 *            The y coordinate of the third point
+	 */
+	public void triangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+		addQuad(x1, y1, x2, y2, x3, y3, x3, y3);
+		flush();
+	}
+
+	/**
+	 * Draws a triangle outline
+	 * 
+	 * @param x1
+	 *            The x coordinate of the first point
+	 * @param y1
+	 *            The y coordinate of the first point
+	 * @param x2
+	 *            The x coordinate of the second point
+	 * @param y2
+	 *            The y coordinate of the second point
+	 * @param x3
+	 *            The x coordinate of the third point
+	 * @param y3
+	 *            The y coordinate of the third point
+	 * @param lineWidth
+	 *            The width of the outline
+	 */
+	public void triangleLine(float x1, float y1, float x2, float y2, float x3, float y3, float lineWidth) {
+		addLine(x1, y1, x2, y2, lineWidth);
+		addLine(x2, y2, x3, y3, lineWidth);
+		addLine(x3, y3, x1, y1, lineWidth);
+		flush();
+	}
+
+	/**
+	 * Draws a filled polygon
+	 * 
+	 * @param vertices
+	 *            The x,y pairs of the polygon's points
+	 * @param triangles
+	 *            The indices of the points forming the polygon's triangles
+	 */
+	public void polygon(float[] vertices, short[] triangles) {
+		for (int i = 0; i + 2 < triangles.length; i += 3) {
+			final int a = triangles[i] * 2;
+			final int b = triangles[i + 1] * 2;
+			final int c = triangles[i + 2] * 2;
+			addQuad(vertices[a], vertices[a + 1], vertices[b], vertices[b + 1], vertices[c], vertices[c + 1],
+					vertices[c], vertices[c + 1]);
+		}
+		flush();
+	}
+
+	/**
+	 * Draws a polygon outline
+	 * 
+	 * @param vertices
+	 *            The x,y pairs of the polygon's points
+	 * @param lineWidth
+	 *            The width of the outline
+	 */
+	public void polygonLine(float[] vertices, float lineWidth) {
+		final int length = vertices.length - (vertices.length % 2);
+		for (int i = 0; i < length; i += 2) {
+			final int next = (i + 2) % length;
+			addLine(vertices[i], vertices[i + 1], vertices[next], vertices[next + 1], lineWidth);
+		}
+		flush();
+	}
+
+	/**
+	 * Draws a filled circle
+	 * 
+	 * @param centerX
+	 *            The x coordinate of the center
+	 * @param centerY
+	 *            The y coordinate of the center
+	 * @param radius
+	 *            The radius
+	 */
+	public void circle(float centerX, float centerY, float radius) {
+		final int segments = getSegments(radius);
+		final float angle = MathUtils.PI2 / segments;
+		/* Each quad covers two triangles of the fan around the center */
+		for (int i = 0; i < segments; i += 2) {
+			final float x1 = centerX + radius * MathUtils.cos(angle * i);
+			final float y1 = centerY + radius * MathUtils.sin(angle * i);
+			final float x2 = centerX + radius * MathUtils.cos(angle * (i + 1));
+			final float y2 = centerY + radius * MathUtils.sin(angle * (i + 1));
+			final int end = Math.min(i + 2, segments);
+			final float x3 = centerX + radius * MathUtils.cos(angle * end);
+			final float y3 = centerY + radius * MathUtils.sin(angle * end);
+			addQuad(centerX, centerY, x1, y1, x2, y2, x3, y3);
+		}
+		flush();
+	}
+
+	/**
+	 * Draws a circle outline
+	 * 
+	 * @param centerX
+	 *            The x coordinate of the center
+	 * @param centerY
+	 *            The y coordinate of the center
+	 * @param radius
+	 *            The radius
+	 * @param lineWidth
+	 *            The width of the outline
+	 */
+	public void circleLine(float centerX, float centerY, float radius, float lineWidth) {
+		final int segments = getSegments(radius);
+		final float angle = MathUtils.PI2 / segments;
+		float previousX = centerX + radius;
+		float previousY = centerY;
+		for (int i = 1; i <= segments; i++) {
+			final float x = centerX + radius * MathUtils.cos(angle * i);
+			final float y = centerY + radius * MathUtils.sin(angle * i);
+			addLine(previousX, previousY, x, y, lineWidth);
+			previousX = x;
+			previousY = y;
+		}
+		flush();
+	}
+
+	private int getSegments(float radius) {
+		return Math.max(1, (int) (6 * (float) Math.cbrt(radius)));
+	}
+
+	private void addLine(float x1, float y1, float x2, float y2, float width) {
+		float tx = y2 - y1;
+		float ty = x1 - x2;
+		final float length = (float) Math.sqrt(tx * tx + ty * ty);
+		if (length > 0f) {
+			final float scale = width * 0.5f / length;
+			tx *= scale;
+			ty *= scale;
+		}
+		addQuad(x1 + tx, y1 + ty, x1 - tx, y1 - ty, x2 - tx, y2 - ty, x2 + tx, y2 + ty);
+	}
+
+	private void addQuad(float x1, float y1, float x2, float y2, float x3, float y3, float x4, float y4) {
+		int offset = totalQuads * QUAD_SIZE;
+		if (offset + QUAD_SIZE > vertices.length) {
+			final float[] expanded = new float[vertices.length * 2];
+			System.arraycopy(vertices, 0, expanded, 0, offset);
+			vertices = expanded;
+		}
+		offset = addVertex(offset, x1, y1);
+		offset = addVertex(offset, x2, y2);
+		offset = addVertex(offset, x3, y3);
+		addVertex(offset, x4, y4);
+		totalQuads++;
+	}
+
+	private int addVertex(int offset, float x, float y) {
+		vertices[offset] = x;
+		vertices[offset + 1] = y;
+		vertices[offset + 2] = color;
+		vertices[offset + 3] = TEXEL_CENTER;
+		vertices[offset + 4] = TEXEL_CENTER;
+		return offset + VERTEX_SIZE;
+	}
+
+	private void flush() {
+		if (totalQuads == 0) {
+			return;
+		}
+		batch.draw(getTexture(), vertices, 0, totalQuads * QUAD_SIZE);
+		totalQuads = 0;
+	}
+
+	/**
+	 * Returns the white texel shapes are drawn with, creating it if required
+	 * 
+	 * @return A 1x1 white {@link Texture}
+	 */
+	public Texture getTexture() {
+		if (texture == null) {
+			Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+			pixmap.setColor(1f, 1f, 1f, 1f);
+			pixmap.fill();
+			texture = new Texture(pixmap);
+			pixmap.dispose();
+		}
+		return texture;
+	}
+
+	@Override
+	public void dispose() {
+		if (texture == null) {
+			return;
+		}
+		texture.dispose();
+		texture = null;
+	}
+}
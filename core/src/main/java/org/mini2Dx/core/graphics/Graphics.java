@@ -30,6 +30,12 @@ import org.mini2Dx.core.geom.Shape;
 
 /**
  * Common interface to graphics rendering functionality
+ * 
+ * Lines, rectangles, circles, triangles and polygons are drawn through the
+ * same batch as sprites and textures. They therefore use the shader set by
+ * {@link #setShaderProgram(ShaderProgram)} and the blend function set by
+ * {@link #setBlendFunction(int, int)}, and outline widths scale with the
+ * current transformation.
  */
 public interface Graphics {
 
@@ -633,7 +639,8 @@ public interface Graphics {
 	public void disableBlending();
 
 	/**
-	 * Applies a {@link ShaderProgram} to this instance
+	 * Applies a {@link ShaderProgram} to this instance. The shader also
+	 * applies to shapes.
 	 * 
 	 * @param shaderProgram
 	 *            The {@link ShaderProgram} to apply
@@ -653,7 +660,7 @@ public interface Graphics {
 	public void clearShaderProgram();
 
 	/**
-	 * Sets the blend function to be applied
+	 * Sets the blend function to be applied to sprites, textures and shapes
 	 * 
 	 * <a href=
 	 * "http://lessie2d.tumblr.com/post/28673280483/opengl-blend-function-cheat-sheet-well-this-is"
@@ -677,6 +684,61 @@ public interface Graphics {
 	 */
 	public void flush();
 
+	/**
+	 * Returns the draw calls, batch flushes, texture binds, shader switches
+	 * and renderer transitions counted during the previous frame
+	 * 
+	 * @return The {@link RenderStatistics} for this context
+	 */
+	public RenderStatistics getRenderStatistics();
+
+	/**
+	 * Begins counting render operations under a name until
+	 * {@link #endRenderStatisticsScope()} is called. The counts are available
+	 * from {@link #getRenderStatistics()} the following frame.
+	 * 
+	 * @param name
+	 *            The scope name
+	 */
+	public void beginRenderStatisticsScope(String name);
+
+	/**
+	 * Ends the most recently begun render statistics scope
+	 */
+	public void endRenderStatisticsScope();
+
+	/**
+	 * Begins deferring {@link #drawSprite(Sprite)},
+	 * {@link #drawTextureRegion(TextureRegion, float, float)} and
+	 * {@link #drawTexture(Texture, float, float)} calls (and their overloads)
+	 * so that they are drawn ordered by layer, depth and texture instead of in
+	 * the order they were called. Sprites with equal keys keep their call
+	 * order.
+	 * 
+	 * Deferred sprites are drawn when {@link #endSpriteSorting()} is called or
+	 * before any other draw operation, transformation, clip, shader, blending
+	 * or flush takes effect.
+	 */
+	public void beginSpriteSorting();
+
+	/**
+	 * Sets the sort key applied to sprites drawn after this call while sprite
+	 * sorting is active. Resets to layer 0, depth 0 when
+	 * {@link #beginSpriteSorting()} is called.
+	 * 
+	 * @param layer
+	 *            The layer. Lower layers are drawn first.
+	 * @param depth
+	 *            The depth within the layer (e.g. the y coordinate for
+	 *            painter's ordering). Lower depths are drawn first.
+	 */
+	public void setSpriteSortKey(int layer, float depth);
+
+	/**
+	 * Draws all deferred sprites and returns to drawing in call order
+	 */
+	public void endSpriteSorting();
+
 	/**
 	 * Returns the line height used
 	 * 
@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A reusable buffer of {@link Graphics} calls recorded by
+ * {@link RecordingGraphics} and executed by {@link GraphicsCommandReplayer}.
+ * 
+ * Commands are stored as opcodes and integer arguments in one array, floating
+ * point arguments in a second and object references in a third so that
+ * recording a frame does not allocate once the buffer has grown to fit it.
+ * {@link Sprite}s and vertex arrays are copied into pooled instances owned by
+ * the buffer. Other objects (textures, fonts, strings, etc.) are referenced
+ * and must not be modified until the buffer has been replayed.
+ * 
+ * A buffer must not be recorded to while it is being replayed. To build a
+ * frame on one thread while another frame is replayed, alternate between two
+ * buffers.
+ */
+public class GraphicsCommandBuffer {
+	static final int DRAW_LINE_SEGMENT = 0;
+	static final int DRAW_RECT = 1;
+	static final int FILL_RECT = 2;
+	static final int DRAW_CIRCLE = 3;
+	static final int FILL_CIRCLE = 4;
+	static final int DRAW_TRIANGLE = 5;
+	static final int FILL_TRIANGLE = 6;
+	static final int DRAW_POLYGON = 7;
+	static final int FILL_POLYGON = 8;
+	static final int DRAW_STRING = 9;
+	static final int DRAW_STRING_ALIGNED = 10;
+	static final int DRAW_TEXTURE = 11;
+	static final int DRAW_TEXTURE_REGION = 12;
+	static final int DRAW_SPRITE = 13;
+	static final int DRAW_SPRITE_AT = 14;
+	static final int DRAW_SPRITE_CACHE = 15;
+	static final int DRAW_STAGE = 16;
+	static final int DRAW_PARTICLE_EFFECT = 17;
+	static final int DRAW_NINE_PATCH = 18;
+	static final int DRAW_NINE_PATCH_DRAWABLE = 19;
+	static final int DRAW_TILED_DRAWABLE = 20;
+	static final int DRAW_FONT_CACHE = 21;
+	static final int ROTATE = 22;
+	static final int SET_ROTATION = 23;
+	static final int SCALE = 24;
+	static final int SET_SCALE = 25;
+	static final int CLEAR_SCALING = 26;
+	static final int TRANSLATE = 27;
+	static final int SET_TRANSLATION = 28;
+	static final int SET_CLIP = 29;
+	static final int REMOVE_CLIP = 30;
+	static final int SET_TINT = 31;
+	static final int SET_TINT_BITS = 32;
+	static final int REMOVE_TINT = 33;
+	static final int SET_FONT = 34;
+	static final int ENABLE_BLENDING = 35;
+	static final int DISABLE_BLENDING = 36;
+	static final int SET_SHADER_PROGRAM = 37;
+	static final int CLEAR_SHADER_PROGRAM = 38;
+	static final int SET_BLEND_FUNCTION = 39;
+	static final int CLEAR_BLEND_FUNCTION = 40;
+	static final int FLUSH = 41;
+	static final int BEGIN_STATISTICS_SCOPE = 42;
+	static final int END_STATISTICS_SCOPE = 43;
+	static final int SET_LINE_HEIGHT = 44;
+	static final int SET_COLOR = 45;
+	static final int SET_BACKGROUND_COLOR = 46;
+	static final int BEGIN_SPRITE_SORTING = 47;
+	static final int SET_SPRITE_SORT_KEY = 48;
+	static final int END_SPRITE_SORTING = 49;
+
+	final IntArray commands = new IntArray(true, 256);
+	final FloatArray floats = new FloatArray(true, 1024);
+	final Array<Object> objects = new Array<Object>(true, 256);
+
+	private final Array<Sprite> sprites = new Array<Sprite>(true, 16);
+	private final Array<float[]> vertices = new Array<float[]>(true, 4);
+	private final Array<short[]> triangles = new Array<short[]>(true, 4);
+	private int totalCommands, totalSprites, totalVertices, totalTriangles;
+
+	/**
+	 * Removes all commands, keeping the allocated storage for reuse
+	 */
+	public void clear() {
+		commands.clear();
+		floats.clear();
+		objects.clear();
+		totalCommands = 0;
+		totalSprites = 0;
+		totalVertices = 0;
+		totalTriangles = 0;
+	}
+
+	/**
+	 * Returns the amount of commands recorded
+	 * 
+	 * @return 0 if the buffer is empty
+	 */
+	public int getTotalCommands() {
+		return totalCommands;
+	}
+
+	/**
+	 * Returns if no commands have been recorded
+	 * 
+	 * @return True if the buffer is empty
+	 */
+	public boolean isEmpty() {
+		return totalCommands == 0;
+	}
+
+	void command(int opcode) {
+		commands.add(opcode);
+		totalCommands++;
+	}
+
+	void command(int opcode, float arg1, float arg2) {
+		command(opcode);
+		floats.add(arg1);
+		floats.add(arg2);
+	}
+
+	void command(int opcode, float arg1, float arg2, float arg3) {
+		command(opcode, arg1, arg2);
+		floats.add(arg3);
+	}
+
+	void command(int opcode, float arg1, float arg2, float arg3, float arg4) {
+		command(opcode, arg1, arg2, arg3);
+		floats.add(arg4);
+	}
+
+	void command(int opcode, Object object) {
+		command(opcode);
+		objects.add(object);
+	}
+
+	void command(int opcode, Object object, float arg1, float arg2, float arg3, float arg4) {
+		command(opcode, arg1, arg2, arg3, arg4);
+		objects.add(object);
+	}
+
+	void addInt(int value) {
+		commands.add(value);
+	}
+
+	void addFloat(float value) {
+		floats.add(value);
+	}
+
+	void addObject(Object object) {
+		objects.add(object);
+	}
+
+	Sprite copy(Sprite sprite) {
+		if (totalSprites == sprites.size) {
+			sprites.add(new Sprite());
+		}
+		final Sprite result = sprites.get(totalSprites++);
+		result.set(sprite);
+		return result;
+	}
+
+	float[] copy(float[] source) {
+		if (totalVertices == vertices.size) {
+			vertices.add(new float[source.length]);
+		}
+		float[] result = vertices.get(totalVertices);
+		if (result.length != source.length) {
+			result = new float[source.length];
+			vertices.set(totalVertices, result);
+		}
+		totalVertices++;
+		System.arraycopy(source, 0, result, 0, source.length);
+		return result;
+	}
+
+	short[] copy(short[] source) {
+		if (totalTriangles == triangles.size) {
+			triangles.add(new short[source.length]);
+		}
+		short[] result = triangles.get(totalTriangles);
+		if (result.length != source.length) {
+			result = new short[source.length];
+			triangles.set(totalTriangles, result);
+		}
+		totalTriangles++;
+		System.arraycopy(source, 0, result, 0, source.length);
+		return result;
+	}
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
+import com.badlogic.gdx.scenes.scene2d.utils.TiledDrawable;
+import com.badlogic.gdx.utils.Array;
+import org.mini2Dx.core.exception.MdxException;
+import org.mini2Dx.core.font.GameFont;
+import org.mini2Dx.core.font.GameFontCache;
+
+/**
+ * Executes the commands in a {@link GraphicsCommandBuffer} against a
+ * {@link Graphics} instance, typically {@link LibGdxGraphics} on the OpenGL
+ * thread.
+ * 
+ * Colors are replayed using {@link Color} instances owned by the replayer
+ * rather than the buffer, so a buffer can be cleared and recorded to again
+ * while the {@link Graphics} instance still references the colors of the
+ * previous frame.
+ */
+public class GraphicsCommandReplayer {
+	private final Array<Color> colors = new Array<Color>(true, 16);
+	private final Array<Color> tints = new Array<Color>(true, 4);
+	private final Array<Color> backgroundColors = new Array<Color>(true, 1);
+
+	private int totalColors, totalTints, totalBackgroundColors;
+
+	/**
+	 * Executes all commands in a {@link GraphicsCommandBuffer}
+	 * 
+	 * @param commandBuffer
+	 *            The {@link GraphicsCommandBuffer} to execute
+	 * @param g
+	 *            The {@link Graphics} instance to execute the commands against
+	 */
+	public void replay(GraphicsCommandBuffer commandBuffer, Graphics g) {
+		final int[] commands = commandBuffer.commands.items;
+		final float[] floats = commandBuffer.floats.items;
+		final Object[] objects = commandBuffer.objects.items;
+		final int totalInts = commandBuffer.commands.size;
+
+		int i = 0, f = 0, o = 0;
+		totalColors = 0;
+		totalTints = 0;
+		totalBackgroundColors = 0;
+
+		while (i < totalInts) {
+			switch (commands[i++]) {
+			case GraphicsCommandBuffer.DRAW_LINE_SEGMENT:
+				g.drawLineSegment(floats[f], floats[f + 1], floats[f + 2], floats[f + 3]);
+				f += 4;
+				break;
+			case GraphicsCommandBuffer.DRAW_RECT:
+				g.drawRect(floats[f], floats[f + 1], floats[f + 2], floats[f + 3]);
+				f += 4;
+				break;
+			case GraphicsCommandBuffer.FILL_RECT:
+				g.fillRect(floats[f], floats[f + 1], floats[f + 2], floats[f + 3]);
+				f += 4;
+				break;
+			case GraphicsCommandBuffer.DRAW_CIRCLE:
+				g.drawCircle(floats[f], floats[f + 1], floats[f + 2]);
+				f += 3;
+				break;
+			case GraphicsCommandBuffer.FILL_CIRCLE:
+				g.fillCircle(floats[f], floats[f + 1], floats[f + 2]);
+				f += 3;
+				break;
+			case GraphicsCommandBuffer.DRAW_TRIANGLE:
+				g.drawTriangle(floats[f], floats[f + 1], floats[f + 2], floats[f + 3], floats[f + 4], floats[f + 5]);
+				f += 6;
+				break;
+			case GraphicsCommandBuffer.FILL_TRIANGLE:
+				g.fillTriangle(floats[f], floats[f + 1], floats[f + 2], floats[f + 3], floats[f + 4], floats[f + 5]);
+				f += 6;
+				break;
+			case GraphicsCommandBuffer.DRAW_POLYGON:
+				g.drawPolygon((float[]) objects[o++]);
+				break;
+			case GraphicsCommandBuffer.FILL_POLYGON:
+				g.fillPolygon((float[]) objects[o], (short[]) objects[o + 1]);
+				o += 2;
+				break;
+			case GraphicsCommandBuffer.DRAW_STRING:
+				g.drawString((String) objects[o++], floats[f], floats[f + 1]);
+				f += 2;
+				break;
+			case GraphicsCommandBuffer.DRAW_STRING_ALIGNED:
+				g.drawString((String) objects[o++], floats[f], floats[f + 1], floats[f + 2], commands[i++]);
+				f += 3;
+				break;
+			case GraphicsCommandBuffer.DRAW_TEXTURE:
+				g.drawTexture((Texture) objects[o++], floats[f], floats[f + 1], floats[f + 2], floats[f + 3],
+						commands[i++] == 1);
+				f += 4;
+				break;
+			case GraphicsCommandBuffer.DRAW_TEXTURE_REGION:
+				g.drawTextureRegion((TextureRegion) objects[o++], floats[f], floats[f + 1], floats[f + 2],
+						floats[f + 3], floats[f + 4]);
+				f += 5;
+				break;
+			case GraphicsCommandBuffer.DRAW_SPRITE:
+				g.drawSprite((Sprite) objects[o++]);
+				break;
+			case GraphicsCommandBuffer.DRAW_SPRITE_AT:
+				g.drawSprite((Sprite) objects[o++], floats[f], floats[f + 1]);
+				f += 2;
+				break;
+			case GraphicsCommandBuffer.DRAW_SPRITE_CACHE:
+				g.drawSpriteCache((SpriteCache) objects[o++], commands[i++]);
+				break;
+			case GraphicsCommandBuffer.DRAW_STAGE:
+				g.drawStage((Stage) objects[o++]);
+				break;
+			case GraphicsCommandBuffer.DRAW_PARTICLE_EFFECT:
+				g.drawParticleEffect((ParticleEffect) objects[o++]);
+				break;
+			case GraphicsCommandBuffer.DRAW_NINE_PATCH:
+				g.drawNinePatch((NinePatch) objects[o++], floats[f], floats[f + 1], floats[f + 2], floats[f + 3]);
+				f += 4;
+				break;
+			case GraphicsCommandBuffer.DRAW_NINE_PATCH_DRAWABLE:
+				g.drawNinePatch((NinePatchDrawable) objects[o++], floats[f], floats[f + 1], floats[f + 2],
+						floats[f + 3]);
+				f += 4;
+				break;
+			case GraphicsCommandBuffer.DRAW_TILED_DRAWABLE:
+				g.drawTiledDrawable((TiledDrawable) objects[o++], floats[f], floats[f + 1], floats[f + 2],
+						floats[f + 3]);
+				f += 4;
+				break;
+			case GraphicsCommandBuffer.DRAW_FONT_CACHE:
+				g.drawFontCache((GameFontCache) objects[o++]);
+				break;
+			case GraphicsCommandBuffer.ROTATE:
+				g.rotate(floats[f], floats[f + 1], floats[f + 2]);
+				f += 3;
+				break;
+			case GraphicsCommandBuffer.SET_ROTATION:
+				g.setRotation(floats[f], floats[f + 1], floats[f + 2]);
+				f += 3;
+				break;
+			case GraphicsCommandBuffer.SCALE:
+				g.scale(floats[f], floats[f + 1]);
+				f += 2;
+				break;
+			case GraphicsCommandBuffer.SET_SCALE:
+				g.setScale(floats[f], floats[f + 1]);
+				f += 2;
+				break;
+			case GraphicsCommandBuffer.CLEAR_SCALING:
+				g.clearScaling();
+				break;
+			case GraphicsCommandBuffer.TRANSLATE:
+				g.translate(floats[f], floats[f + 1]);
+				f += 2;
+				break;
+			case GraphicsCommandBuffer.SET_TRANSLATION:
+				g.setTranslation(floats[f], floats[f + 1]);
+				f += 2;
+				break;
+			case GraphicsCommandBuffer.SET_CLIP:
+				g.setClip(floats[f], floats[f + 1], floats[f + 2], floats[f + 3]);
+				f += 4;
+				break;
+			case GraphicsCommandBuffer.REMOVE_CLIP:
+				g.removeClip();
+				break;
+			case GraphicsCommandBuffer.SET_TINT:
+				if (commands[i++] == 0) {
+					g.setTint(null);
+					break;
+				}
+				g.setTint(obtainColor(tints, totalTints++, floats, f));
+				f += 4;
+				break;
+			case GraphicsCommandBuffer.SET_TINT_BITS:
+				g.setTint(floats[f++]);
+				break;
+			case GraphicsCommandBuffer.REMOVE_TINT:
+				g.removeTint();
+				break;
+			case GraphicsCommandBuffer.SET_FONT:
+				g.setFont((GameFont) objects[o++]);
+				break;
+			case GraphicsCommandBuffer.ENABLE_BLENDING:
+				g.enableBlending();
+				break;
+			case GraphicsCommandBuffer.DISABLE_BLENDING:
+				g.disableBlending();
+				break;
+			case GraphicsCommandBuffer.SET_SHADER_PROGRAM:
+				g.setShaderProgram((ShaderProgram) objects[o++]);
+				break;
+			case GraphicsCommandBuffer.CLEAR_SHADER_PROGRAM:
+				g.clearShaderProgram();
+				break;
+			case GraphicsCommandBuffer.SET_BLEND_FUNCTION:
+				g.setBlendFunction(commands[i], commands[i + 1]);
+				i += 2;
+				break;
+			case GraphicsCommandBuffer.CLEAR_BLEND_FUNCTION:
+				g.clearBlendFunction();
+				break;
+			case GraphicsCommandBuffer.FLUSH:
+				g.flush();
+				break;
+			case GraphicsCommandBuffer.BEGIN_STATISTICS_SCOPE:
+				g.beginRenderStatisticsScope((String) objects[o++]);
+				break;
+			case GraphicsCommandBuffer.END_STATISTICS_SCOPE:
+				g.endRenderStatisticsScope();
+				break;
+			case GraphicsCommandBuffer.SET_LINE_HEIGHT:
+				g.setLineHeight(commands[i++]);
+				break;
+			case GraphicsCommandBuffer.SET_COLOR:
+				g.setColor(obtainColor(colors, totalColors++, floats, f));
+				f += 4;
+				break;
+			case GraphicsCommandBuffer.SET_BACKGROUND_COLOR:
+				g.setBackgroundColor(obtainColor(backgroundColors, totalBackgroundColors++, floats, f));
+				f += 4;
+				break;
+			case GraphicsCommandBuffer.BEGIN_SPRITE_SORTING:
+				g.beginSpriteSorting();
+				break;
+			case GraphicsCommandBuffer.SET_SPRITE_SORT_KEY:
+				g.setSpriteSortKey(commands[i++], floats[f++]);
+				break;
+			case GraphicsCommandBuffer.END_SPRITE_SORTING:
+				g.endSpriteSorting();
+				break;
+			default:
+				throw new MdxException("Unknown graphics command " + commands[i - 1] + " at index " + (i - 1));
+			}
+		}
+	}
+
+	private Color obtainColor(Array<Color> pool, int index, float[] floats, int offset) {
+		if (index == pool.size) {
+			pool.add(new Color());
+		}
+		final Color result = pool.get(index);
+		result.set(floats[offset], floats[offset + 1], floats[offset + 2], floats[offset + 3]);
+		return result;
+	}
+}
@@ -16,10 +16,12 @@ import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteCache;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TiledDrawable;
+import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.NumberUtils;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import org.mini2Dx.core.font.GameFont;
@@ -41,7 +43,18 @@ public class HeadlessGraphics implements Graphics {
 	private int windowWidth, windowHeight;
 
 	private int lineHeight;
+	private boolean rendering;
 	private Rectangle clip;
+	private GameFont font;
+	private final RenderStatistics renderStatistics = new RenderStatistics();
+	/* Stands in for the white texel shapes are batched with */
+	private final Object shapeTexture = new Object();
+	/* Stands in for the default font LibGdxGraphics creates */
+	private final Object defaultFont = new Object();
+	private final SpriteSortQueue spriteSortQueue = new SpriteSortQueue();
+	private boolean sortingSprites;
+	private int sortLayer;
+	private float sortDepth;
 	
 	public HeadlessGraphics() {
 
@@ -67,15 +80,21 @@ public class HeadlessGraphics implements Graphics {
 
 	@Override
 	public void preRender(int gameWidth, int gameHeight) {
+		renderStatistics.beginFrame();
+		sortingSprites = false;
+		spriteSortQueue.clear();
 		this.windowWidth = gameWidth;
 		this.windowHeight = gameHeight;
+		rendering = false;
 	}
 
 	@Override
 	public void postRender() {
+		endRendering();
 		resetTransformations();
 		clearShaderProgram();
 		clearBlendFunction();
+		renderStatistics.endFrame();
 	}
 	
 	@Override
@@ -85,135 +104,196 @@ public class HeadlessGraphics implements Graphics {
 
 	@Override
 	public void drawLineSegment(float x1, float y1, float x2, float y2) {
+		beginRendering();
+		renderStatistics.markSprite(shapeTexture);
 	}
 
 	@Override
 	public void drawRect(float x, float y, float width, float height) {
+		beginRendering();
+		renderStatistics.markSprite(shapeTexture);
 	}
 
 	@Override
 	public void fillRect(float x, float y, float width, float height) {
+		beginRendering();
+		renderStatistics.markSprite(shapeTexture);
 	}
 
 	@Override
 	public void drawCircle(float centerX, float centerY, int radius) {
+		beginRendering();
+		renderStatistics.markSprite(shapeTexture);
 	}
 	
 	@Override
 	public void drawCircle(float centerX, float centerY, float radius) {
+		beginRendering();
+		renderStatistics.markSprite(shapeTexture);
 	}
 
 	@Override
 	public void fillCircle(float centerX, float centerY, int radius) {
+		beginRendering();
+		renderStatistics.markSprite(shapeTexture);
 	}
 
 	@Override
 	public void fillCircle(float centerX, float centerY, float radius) {
+		beginRendering();
+		renderStatistics.markSprite(shapeTexture);
 	}
 	
 	@Override
 	public void drawTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+		beginRendering();
+		renderStatistics.markSprite(shapeTexture);
 	}
 	
 	@Override
 	public void fillTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+		beginRendering();
+		renderStatistics.markSprite(shapeTexture);
 	}
 	
 	@Override
 	public void drawPolygon(float[] vertices) {
+		beginRendering();
+		renderStatistics.markSprite(shapeTexture);
 	}
 	
 	@Override
 	public void fillPolygon(float [] vertices, short [] triangles) {
+		beginRendering();
+		renderStatistics.markSprite(shapeTexture);
 	}
 
 	@Override
 	public void drawString(String text, float x, float y) {
+		beginRendering();
+		renderStatistics.markSprite(font == null ? defaultFont : font);
 	}
 
 	@Override
 	public void drawString(String text, float x, float y, float targetWidth) {
+		drawString(text, x, y, targetWidth, Align.left);
 	}
 
 	@Override
 	public void drawString(String text, float x, float y, float targetWidth, int horizontalAlign) {
+		beginRendering();
+		renderStatistics.markSprite(font == null ? defaultFont : font);
 	}
 
 	@Override
 	public void drawTexture(Texture texture, float x, float y) {
+		markSortableSprite(texture);
 	}
 
 	@Override
 	public void drawTexture(Texture texture, float x, float y, boolean flipY) {
+		markSortableSprite(texture);
 	}
 
 	@Override
 	public void drawTexture(Texture texture, float x, float y, float width, float height) {
+		markSortableSprite(texture);
 	}
 
 	@Override
 	public void drawTexture(Texture texture, float x, float y, float width, float height, boolean flipY) {
+		markSortableSprite(texture);
 	}
 
 	@Override
 	public void drawTextureRegion(TextureRegion textureRegion, float x, float y) {
+		markSortableSprite(textureRegion.getTexture());
 	}
 
 	@Override
 	public void drawTextureRegion(TextureRegion textureRegion, float x, float y, float width, float height) {
+		markSortableSprite(textureRegion.getTexture());
 	}
 	
 	@Override
 	public void drawTextureRegion(TextureRegion textureRegion, float x, float y, float width, float height,
 			float rotation) {
+		markSortableSprite(textureRegion.getTexture());
 	}
 
 	@Override
 	public void drawShape(Shape shape) {
+		shape.draw(this);
 	}
 
 	@Override
 	public void fillShape(Shape shape) {
+		shape.fill(this);
 	}
 
 	@Override
 	public void drawSprite(Sprite sprite) {
+		markSortableSprite(sprite.getTexture());
 	}
 
 	@Override
 	public void drawSprite(Sprite sprite, float x, float y) {
+		markSortableSprite(sprite.getTexture());
 	}
 
 	@Override
 	public void drawSpriteCache(SpriteCache spriteCache, int cacheId) {
+		beginRendering();
+		renderStatistics.markSpriteCache();
 	}
 
 	@Override
 	public void drawStage(Stage stage) {
+		endRendering();
+
+		if (!stage.getRoot().isVisible()) {
+			return;
+		}
+		renderStatistics.markSprite(stage);
+		renderStatistics.markFlush();
 	}
 
 	@Override
 	public void drawParticleEffect(ParticleEffect effect) {
+		beginRendering();
+		renderStatistics.markSprite(effect);
 	}
 
 	@Override
 	public void drawNinePatch(NinePatch ninePatch, float x, float y, float width, float height) {
+		beginRendering();
+		renderStatistics.markSprite(ninePatch.getTexture());
 	}
 
 	@Override
 	public void drawNinePatch(NinePatchDrawable ninePatchDrawable, float x, float y, float width, float height) {
+		beginRendering();
+		renderStatistics.markSprite(ninePatchDrawable.getPatch().getTexture());
 	}
 	
 	@Override
 	public void drawTiledDrawable(TiledDrawable tiledDrawable, float x, float y, float width, float height) {
+		beginRendering();
+		renderStatistics.markSprite(tiledDrawable.getRegion().getTexture());
 	}
 	
 	@Override
 	public void drawFontCache(GameFontCache fontCache) {
+		beginRendering();
+		renderStatistics.markSprite(fontCache);
 	}
 
 	@Override
 	public void rotate(float degrees, float x, float y) {
+		if (MathUtils.isZero(degrees)) {
+			return;
+		}
+		endRendering();
 		this.rotation += degrees;
 		this.rotation = this.rotation % 360f;
 		this.rotationX = x;
@@ -222,6 +302,12 @@ public class HeadlessGraphics implements Graphics {
 	
 	@Override
 	public void setRotation(float degrees, float x, float y) {
+		if(MathUtils.isEqual(this.rotation, degrees) &&
+				MathUtils.isEqual(this.rotationX, x) &&
+				MathUtils.isEqual(this.rotationY, y)) {
+			return;
+		}
+		endRendering();
 		this.rotation = degrees;
 		this.rotation = this.rotation % 360f;
 		this.rotationX = x;
@@ -230,46 +316,72 @@ public class HeadlessGraphics implements Graphics {
 
 	@Override
 	public void scale(float scaleX, float scaleY) {
+		if (MathUtils.isEqual(1f, scaleX) && MathUtils.isEqual(1f, scaleY)) {
+			return;
+		}
+		endRendering();
 		this.scaleX *= scaleX;
 		this.scaleY *= scaleY;
 	}
 	
 	@Override
 	public void setScale(float scaleX, float scaleY) {
+		if (MathUtils.isEqual(this.scaleX, scaleX) && MathUtils.isEqual(this.scaleY, scaleY)) {
+			return;
+		}
+		endRendering();
 		this.scaleX = scaleX;
 		this.scaleY = scaleY;
 	}
 
 	@Override
 	public void clearScaling() {
+		if (MathUtils.isEqual(this.scaleX, 1f) && MathUtils.isEqual(this.scaleY, 1f)) {
+			return;
+		}
+		endRendering();
 		scaleX = 1f;
 		scaleY = 1f;
 	}
 
 	@Override
 	public void translate(float translateX, float translateY) {
+		if (MathUtils.isZero(translateX) && MathUtils.isZero(translateY)) {
+			return;
+		}
+		endRendering();
 		this.translationX += translateX;
 		this.translationY += translateY;
 	}
 	
 	@Override
 	public void setTranslation(float translateX, float translateY) {
+		if (MathUtils.isEqual(this.translationX, translateX) && MathUtils.isEqual(this.translationY, translateY)) {
+			return;
+		}
+		endRendering();
 		this.translationX = translateX;
 		this.translationY = translateY;
 	}
 
 	@Override
 	public void setClip(float x, float y, float width, float height) {
+		endRendering();
 		clip = new Rectangle(x, y, width, height);
 	}
 
 	@Override
 	public void setClip(Rectangle clip) {
+		endRendering();
 		this.clip = clip;
 	}
 
 	@Override
 	public Rectangle removeClip() {
+		if (clip == null) {
+			return null;
+		}
+		endRendering();
 		Rectangle result = clip;
 		clip = null;
 		return result;
@@ -303,6 +415,10 @@ public class HeadlessGraphics implements Graphics {
 
 	@Override
 	public void setFont(GameFont font) {
+		if (font == null) {
+			return;
+		}
+		this.font = font;
 	}
 
 	@Override
@@ -311,14 +427,18 @@ public class HeadlessGraphics implements Graphics {
 
 	@Override
 	public void enableBlending() {
+		renderSortedSprites();
 	}
 
 	@Override
 	public void disableBlending() {
+		renderSortedSprites();
 	}
 
 	@Override
 	public void setShaderProgram(ShaderProgram shaderProgram) {
+		renderSortedSprites();
+		renderStatistics.markShader(shaderProgram);
 	}
 
 	@Override
@@ -328,18 +448,94 @@ public class HeadlessGraphics implements Graphics {
 
 	@Override
 	public void clearShaderProgram() {
+		renderSortedSprites();
+		renderStatistics.markShader(null);
 	}
 
 	@Override
 	public void setBlendFunction(int srcFunc, int dstFunc) {
+		renderSortedSprites();
 	}
 
 	@Override
 	public void clearBlendFunction() {
+		renderSortedSprites();
+	}
+
+	@Override
+	public RenderStatistics getRenderStatistics() {
+		return renderStatistics;
+	}
+
+	@Override
+	public void beginRenderStatisticsScope(String name) {
+		renderStatistics.beginScope(name);
+	}
+
+	@Override
+	public void endRenderStatisticsScope() {
+		renderStatistics.endScope();
+	}
+
+	@Override
+	public void beginSpriteSorting() {
+		sortingSprites = true;
+		sortLayer = 0;
+		sortDepth = 0f;
+	}
+
+	@Override
+	public void setSpriteSortKey(int layer, float depth) {
+		sortLayer = layer;
+		sortDepth = depth;
+	}
+
+	@Override
+	public void endSpriteSorting() {
+		renderSortedSprites();
+		sortingSprites = false;
+	}
+
+	private void markSortableSprite(Object texture) {
+		if (sortingSprites) {
+			rendering = true;
+			spriteSortQueue.add(sortLayer, sortDepth, texture);
+			return;
+		}
+		beginRendering();
+		renderStatistics.markSprite(texture);
+	}
+
+	private void renderSortedSprites() {
+		for (int i = 0; i < spriteSortQueue.size(); i++) {
+			renderStatistics.markSprite(spriteSortQueue.getTexture(spriteSortQueue.get(i)));
+		}
+		spriteSortQueue.clear();
 	}
 
 	@Override
 	public void flush() {
+		renderSortedSprites();
+		renderStatistics.markFlush();
+	}
+
+	/**
+	 * Counts the same work as LibGdxGraphics when it begins its sprite batch
+	 */
+	private void beginRendering() {
+		renderSortedSprites();
+		rendering = true;
+	}
+
+	/**
+	 * Counts the same work as LibGdxGraphics when it ends its sprite batch
+	 */
+	private void endRendering() {
+		if (rendering) {
+			renderSortedSprites();
+			renderStatistics.markFlush();
+		}
+		rendering = false;
 	}
 
 	/**
@@ -392,7 +588,7 @@ public class HeadlessGraphics implements Graphics {
 
 	@Override
 	public GameFont getFont() {
-		return null;
+		return font;
 	}
 
 	@Override
@@ -19,7 +19,6 @@ import com.badlogic.gdx.graphics.g2d.SpriteCache;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
-import com.badlogic.gdx.math.EarClippingTriangulator;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector3;
@@ -27,6 +26,10 @@ import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TiledDrawable;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.NumberUtils;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import org.mini2Dx.core.font.BitmapFont;
@@ -39,15 +42,19 @@ import org.mini2Dx.core.geom.Shape;
 /**
  * LibGDX implementation of {@link Graphics}
  */
-public class LibGdxGraphics implements Graphics {
+public class LibGdxGraphics implements Graphics, Disposable {
 	private static final String LOGGING_TAG = LibGdxGraphics.class.getSimpleName();
+	private static final int SORTED_TEXTURE = 0;
+	private static final int SORTED_TEXTURE_REGION = 1;
+	private static final int SORTED_SPRITE = 2;
+	private static final int SPRITE_VERTICES = 20;
 
 	private final GameWrapper gameWrapper;
 	private final SpriteBatch spriteBatch;
-	private final ShapeTextureCache colorTextureCache;
+	private final BatchShapeRenderer batchShapeRenderer;
 	private final ShapeRenderer shapeRenderer;
 	private final PolygonSpriteBatch polygonSpriteBatch;
-	private final EarClippingTriangulator triangulator = new EarClippingTriangulator();
+	private final Color tintedColor = new Color();
 	
 	private Color color, backgroundColor;
 	private Color tint, defaultTint;
@@ -62,12 +69,19 @@ public class LibGdxGraphics implements Graphics {
 
 	private int defaultBlendSrcFunc = GL20.GL_SRC_ALPHA, defaultBlendDstFunc = GL20.GL_ONE_MINUS_SRC_ALPHA;
 	private int lineHeight;
-	private boolean rendering, renderingShapes, renderingStage;
+	private boolean rendering, renderingStage;
 	private Rectangle clip;
-	
-	private float [] triangleVertices = new float[6];
-	//3 edge polygon by default, expanded as needed during rendering
-	private float [] polygonRenderData = new float[15];
+	private final RenderStatistics renderStatistics = new RenderStatistics();
+
+	private final SpriteSortQueue spriteSortQueue = new SpriteSortQueue();
+	private final IntArray sortedTypes = new IntArray();
+	private final IntArray sortedOffsets = new IntArray();
+	private final FloatArray sortedData = new FloatArray();
+	private final Array<Object> sortedSources = new Array<Object>();
+	private final Color sortedTint = new Color();
+	private boolean sortingSprites;
+	private int sortLayer;
+	private float sortDepth;
 
 	public LibGdxGraphics(GameWrapper gameWrapper, SpriteBatch spriteBatch, PolygonSpriteBatch polygonSpriteBatch, ShapeRenderer shapeRenderer) {
 		super();
@@ -88,7 +102,7 @@ public class LibGdxGraphics implements Graphics {
 		lineHeight = 1;
 		color = Color.WHITE;
 		backgroundColor = Color.BLACK;
-		colorTextureCache = new ShapeTextureCache();
+		batchShapeRenderer = new BatchShapeRenderer(spriteBatch);
 
 		translationX = 0;
 		translationY = 0;
@@ -104,6 +118,9 @@ public class LibGdxGraphics implements Graphics {
 
 	@Override
 	public void preRender(int gameWidth, int gameHeight) {
+		renderStatistics.beginFrame();
+		sortingSprites = false;
+		clearSortedSprites();
 		this.windowWidth = gameWidth;
 		this.windowHeight = gameHeight;
 
@@ -127,6 +144,7 @@ public class LibGdxGraphics implements Graphics {
 		resetTransformations();
 		clearShaderProgram();
 		clearBlendFunction();
+		renderStatistics.endFrame();
 	}
 
 	@Override
@@ -134,25 +152,29 @@ public class LibGdxGraphics implements Graphics {
 		return new Stage(viewport, spriteBatch);
 	}
 
-	private void beginShapeRendering(ShapeType shapeType){
+	/**
+	 * Disposes the shape texture and default shader created by this instance
+	 */
+	@Override
+	public void dispose() {
+		batchShapeRenderer.dispose();
+		if (defaultShader == null) {
+			return;
+		}
+		defaultShader.dispose();
+		defaultShader = null;
+	}
+
+	private void beginShapeRendering(Color color) {
 		beginRendering();
-		endRendering();
-		setupDepthBuffer(false);
-		renderingShapes = true;
-		shapeRenderer.begin(shapeType);
-		Gdx.gl.glEnable(GL20.GL_BLEND);
-		Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-		shapeRenderer.setColor(color);
+		renderStatistics.markSprite(batchShapeRenderer);
+		batchShapeRenderer.setColor(color.toFloatBits());
 	}
 
 	@Override
 	public void drawLineSegment(float x1, float y1, float x2, float y2) {
-		beginShapeRendering(ShapeType.Filled);
-
-		shapeRenderer.rectLine(x1, y1, x2, y2, lineHeight);
-		shapeRenderer.end();
-
-		beginRendering();
+		beginShapeRendering(color);
+		batchShapeRenderer.line(x1, y1, x2, y2, lineHeight);
 	}
 
 	@Override
@@ -160,33 +182,25 @@ public class LibGdxGraphics implements Graphics {
 		int roundWidth = MathUtils.round(width);
 		int roundHeight = MathUtils.round(height);
 
-		beginShapeRendering(ShapeType.Filled);
-
-		shapeRenderer.rectLine(x, y, x + roundWidth, y, lineHeight);
-		shapeRenderer.rectLine(x, y, x , y + roundHeight, lineHeight);
-		shapeRenderer.rectLine(x + roundWidth, y, x + roundWidth, y + roundHeight, lineHeight);
-		shapeRenderer.rectLine(x, y + roundHeight, x + roundWidth, y + roundHeight, lineHeight);
-		shapeRenderer.end();
-
-		beginRendering();
+		beginShapeRendering(color);
+		batchShapeRenderer.rectLine(x, y, roundWidth, roundHeight, lineHeight);
 	}
 
 	@Override
 	public void fillRect(float x, float y, float width, float height) {
-		beginRendering();
-		
-		spriteBatch.draw(colorTextureCache.getFilledRectangleTexture(color), x, y, 0, 0, width, height, 1f, 1f, 0, 0, 0,
-				1, 1, false, false);
+		/* Filled rectangles have always been tinted like sprites */
+		if (tint != null) {
+			beginShapeRendering(tintedColor.set(color).mul(tint));
+		} else {
+			beginShapeRendering(color);
+		}
+		batchShapeRenderer.rect(x, y, width, height);
 	}
 
 	@Override
 	public void drawCircle(float centerX, float centerY, int radius) {
-		beginShapeRendering(ShapeType.Line);
-
-		shapeRenderer.circle(centerX, centerY, radius);
-		shapeRenderer.end();
-
-		beginRendering();
+		beginShapeRendering(color);
+		batchShapeRenderer.circleLine(centerX, centerY, radius, 1f);
 	}
 	
 	@Override
@@ -196,12 +210,8 @@ public class LibGdxGraphics implements Graphics {
 
 	@Override
 	public void fillCircle(float centerX, float centerY, int radius) {
-		beginShapeRendering(ShapeType.Filled);
-
-		shapeRenderer.circle(centerX, centerY, radius);
-		shapeRenderer.end();
-		
-		beginRendering();
+		beginShapeRendering(color);
+		batchShapeRenderer.circle(centerX, centerY, radius);
 	}
 
 	@Override
@@ -211,62 +221,26 @@ public class LibGdxGraphics implements Graphics {
 	
 	@Override
 	public void drawTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
-		triangleVertices[0] = x1;
-		triangleVertices[1] = y1;
-		triangleVertices[2] = x2;
-		triangleVertices[3] = y2;
-		triangleVertices[4] = x3;
-		triangleVertices[5] = y3;
-		drawPolygon(triangleVertices);
+		beginShapeRendering(color);
+		batchShapeRenderer.triangleLine(x1, y1, x2, y2, x3, y3, 1f);
 	}
 	
 	@Override
 	public void fillTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
-		triangleVertices[0] = x1;
-		triangleVertices[1] = y1;
-		triangleVertices[2] = x2;
-		triangleVertices[3] = y2;
-		triangleVertices[4] = x3;
-		triangleVertices[5] = y3;
-		fillPolygon(triangleVertices, triangulator.computeTriangles(triangleVertices).items);
+		beginShapeRendering(color);
+		batchShapeRenderer.triangle(x1, y1, x2, y2, x3, y3);
 	}
 	
 	@Override
 	public void drawPolygon(float[] vertices) {
-		beginShapeRendering(ShapeType.Line);
-
-		shapeRenderer.polygon(vertices);
-		shapeRenderer.end();
-
-		beginRendering();
+		beginShapeRendering(color);
+		batchShapeRenderer.polygonLine(vertices, 1f);
 	}
 	
 	@Override
 	public void fillPolygon(float [] vertices, short [] triangles) {
-		beginRendering();
-		endRendering();
-		
-		renderingShapes = true;
-		if(vertices.length * 5 > polygonRenderData.length) {
-			polygonRenderData = new float[vertices.length * 5];
-		}
-		
-		int totalPoints = vertices.length / 2;
-		for(int i = 0; i < totalPoints; i++) {
-			int verticesIndex = i * 2;
-			int renderIndex = i * 5;
-			polygonRenderData[renderIndex] = vertices[verticesIndex];
-			polygonRenderData[renderIndex + 1] = vertices[verticesIndex + 1];
-			polygonRenderData[renderIndex + 2] = color.toFloatBits();
-			polygonRenderData[renderIndex + 3] = vertices[verticesIndex];
-			polygonRenderData[renderIndex + 4] = vertices[verticesIndex + 1];
-		}
-		
-		polygonSpriteBatch.begin();
-		polygonSpriteBatch.draw(colorTextureCache.getFilledRectangleTexture(color), polygonRenderData, 0, vertices.length * 5, triangles, 0, triangles.length);
-		polygonSpriteBatch.end();
-		
-		beginRendering();
+		beginShapeRendering(color);
+		batchShapeRenderer.polygon(vertices, triangles);
 	}
 
 	@Override
@@ -275,6 +249,7 @@ public class LibGdxGraphics implements Graphics {
 			return;
 		}
 		beginRendering();
+		renderStatistics.markSprite(font);
 		font.setColor(color);
 		font.draw(this, text, x, y);
 	}
@@ -290,6 +265,7 @@ public class LibGdxGraphics implements Graphics {
 			return;
 		}
 		beginRendering();
+		renderStatistics.markSprite(font);
 		font.setColor(color);
 		font.draw(this, text, x, y, targetWidth, horizontalAlign, true);
 	}
@@ -311,7 +287,20 @@ public class LibGdxGraphics implements Graphics {
 
 	@Override
 	public void drawTexture(Texture texture, float x, float y, float width, float height, boolean flipY) {
+		if (sortingSprites) {
+			beginSpriteBatch();
+			final int offset = sortedData.size;
+			sortedData.add(x);
+			sortedData.add(y);
+			sortedData.add(width);
+			sortedData.add(height);
+			sortedData.add(flipY ? 1f : 0f);
+			sortedData.add(getTintBits());
+			addSortedSprite(SORTED_TEXTURE, texture, texture, offset);
+			return;
+		}
 		beginRendering();
+		renderStatistics.markSprite(texture);
 		spriteBatch.draw(texture, x, y, 0, 0, width, height, 1f, 1f, 0, 0, 0, texture.getWidth(), texture.getHeight(),
 				false, flipY);
 	}
@@ -329,7 +318,20 @@ public class LibGdxGraphics implements Graphics {
 	@Override
 	public void drawTextureRegion(TextureRegion textureRegion, float x, float y, float width, float height,
 			float rotation) {
+		if (sortingSprites) {
+			beginSpriteBatch();
+			final int offset = sortedData.size;
+			sortedData.add(x);
+			sortedData.add(y);
+			sortedData.add(width);
+			sortedData.add(height);
+			sortedData.add(rotation);
+			sortedData.add(getTintBits());
+			addSortedSprite(SORTED_TEXTURE_REGION, textureRegion, textureRegion.getTexture(), offset);
+			return;
+		}
 		beginRendering();
+		renderStatistics.markSprite(textureRegion.getTexture());
 		spriteBatch.draw(textureRegion, x, y, 0f, 0f, width, height, 1f, 1f, rotation);
 	}
 
@@ -345,13 +347,24 @@ public class LibGdxGraphics implements Graphics {
 
 	@Override
 	public void drawSprite(Sprite sprite) {
+		if (sortingSprites) {
+			beginSpriteBatch();
+			addSortedSprite(sprite);
+			return;
+		}
 		beginRendering();
+		renderStatistics.markSprite(sprite.getTexture());
 		sprite.draw(spriteBatch);
 	}
 
 	@Override
 	public void drawSprite(Sprite sprite, float x, float y) {
-		beginRendering();
+		if (sortingSprites) {
+			beginSpriteBatch();
+		} else {
+			beginRendering();
+			renderStatistics.markSprite(sprite.getTexture());
+		}
 		float oldX = sprite.getX();
 		float oldY = sprite.getY();
 		Color oldTint = sprite.getColor();
@@ -359,7 +372,11 @@ public class LibGdxGraphics implements Graphics {
 		if (tint != null)
 			sprite.setColor(tint);
 		sprite.setPosition(x, y);
-		sprite.draw(spriteBatch);
+		if (sortingSprites) {
+			addSortedSprite(sprite);
+		} else {
+			sprite.draw(spriteBatch);
+		}
 		sprite.setPosition(oldX, oldY);
 		sprite.setColor(oldTint);
 	}
@@ -371,6 +388,7 @@ public class LibGdxGraphics implements Graphics {
 		spriteCache.getTransformMatrix().set(spriteBatch.getTransformMatrix().cpy());
 		Gdx.gl.glEnable(GL20.GL_BLEND);
 
+		renderStatistics.markSpriteCache();
 		spriteCache.begin();
 		spriteCache.draw(cacheId);
 		spriteCache.end();
@@ -392,9 +410,11 @@ public class LibGdxGraphics implements Graphics {
 		polygonSpriteBatch.setProjectionMatrix(stageCamera.combined);
 		shapeRenderer.setProjectionMatrix(stageCamera.combined);
 		
+		renderStatistics.markSprite(stage);
 		spriteBatch.begin();
 		stage.getRoot().draw(spriteBatch, 1);
 		spriteBatch.end();
+		renderStatistics.markFlush();
 		
 		endRendering();
 		renderingStage = false;
@@ -403,30 +423,35 @@ public class LibGdxGraphics implements Graphics {
 	@Override
 	public void drawParticleEffect(ParticleEffect effect) {
 		beginRendering();
+		renderStatistics.markSprite(effect);
 		effect.render(spriteBatch);
 	}
 
 	@Override
 	public void drawNinePatch(NinePatch ninePatch, float x, float y, float width, float height) {
 		beginRendering();
+		renderStatistics.markSprite(ninePatch.getTexture());
 		ninePatch.draw(spriteBatch, x, y, width, height);
 	}
 
 	@Override
 	public void drawNinePatch(NinePatchDrawable ninePatchDrawable, float x, float y, float width, float height) {
 		beginRendering();
+		renderStatistics.markSprite(ninePatchDrawable.getPatch().getTexture());
 		ninePatchDrawable.draw(spriteBatch, x, y, width, height);
 	}
 	
 	@Override
 	public void drawTiledDrawable(TiledDrawable tiledDrawable, float x, float y, float width, float height) {
 		beginRendering();
+		renderStatistics.markSprite(tiledDrawable.getRegion().getTexture());
 		tiledDrawable.draw(spriteBatch, x, y, width, height);
 	}
 	
 	@Override
 	public void drawFontCache(GameFontCache fontCache) {
 		beginRendering();
+		renderStatistics.markSprite(fontCache);
 		fontCache.draw(this);
 	}
 
@@ -607,16 +632,20 @@ public class LibGdxGraphics implements Graphics {
 
 	@Override
 	public void enableBlending() {
+		renderSortedSprites();
 		spriteBatch.enableBlending();
 	}
 
 	@Override
 	public void disableBlending() {
+		renderSortedSprites();
 		spriteBatch.disableBlending();
 	}
 
 	@Override
 	public void setShaderProgram(ShaderProgram shaderProgram) {
+		renderSortedSprites();
+		renderStatistics.markShader(shaderProgram == defaultShader ? null : shaderProgram);
 		spriteBatch.setShader(shaderProgram);
 	}
 
@@ -627,29 +656,140 @@ public class LibGdxGraphics implements Graphics {
 
 	@Override
 	public void clearShaderProgram() {
+		renderSortedSprites();
+		renderStatistics.markShader(null);
 		spriteBatch.setShader(defaultShader);
 	}
 
 	@Override
 	public void setBlendFunction(int srcFunc, int dstFunc) {
+		renderSortedSprites();
 		spriteBatch.setBlendFunction(srcFunc, dstFunc);
 	}
 
 	@Override
 	public void clearBlendFunction() {
+		renderSortedSprites();
 		spriteBatch.setBlendFunction(defaultBlendSrcFunc, defaultBlendDstFunc);
 	}
 
 	@Override
 	public void flush() {
+		renderSortedSprites();
+		renderStatistics.markFlush();
 		spriteBatch.flush();
 	}
 
+	@Override
+	public RenderStatistics getRenderStatistics() {
+		return renderStatistics;
+	}
+
+	@Override
+	public void beginRenderStatisticsScope(String name) {
+		renderStatistics.beginScope(name);
+	}
+
+	@Override
+	public void endRenderStatisticsScope() {
+		renderStatistics.endScope();
+	}
+
+	@Override
+	public void beginSpriteSorting() {
+		sortingSprites = true;
+		sortLayer = 0;
+		sortDepth = 0f;
+	}
+
+	@Override
+	public void setSpriteSortKey(int layer, float depth) {
+		sortLayer = layer;
+		sortDepth = depth;
+	}
+
+	@Override
+	public void endSpriteSorting() {
+		renderSortedSprites();
+		sortingSprites = false;
+	}
+
+	private float getTintBits() {
+		return tint == null ? Color.WHITE.toFloatBits() : tint.toFloatBits();
+	}
+
+	private void addSortedSprite(Sprite sprite) {
+		final int offset = sortedData.size;
+		sortedData.addAll(sprite.getVertices(), 0, SPRITE_VERTICES);
+		addSortedSprite(SORTED_SPRITE, sprite.getTexture(), sprite.getTexture(), offset);
+	}
+
+	private void addSortedSprite(int type, Object source, Texture texture, int offset) {
+		spriteSortQueue.add(sortLayer, sortDepth, texture);
+		sortedTypes.add(type);
+		sortedOffsets.add(offset);
+		sortedSources.add(source);
+	}
+
+	/**
+	 * Draws sprites deferred by {@link #beginSpriteSorting()} in sorted order
+	 */
+	private void renderSortedSprites() {
+		if (spriteSortQueue.size() == 0) {
+			return;
+		}
+		final float[] data = sortedData.items;
+		for (int i = 0; i < spriteSortQueue.size(); i++) {
+			final int index = spriteSortQueue.get(i);
+			final int offset = sortedOffsets.get(index);
+			renderStatistics.markSprite(spriteSortQueue.getTexture(index));
+
+			switch (sortedTypes.get(index)) {
+			case SORTED_TEXTURE:
+				final Texture texture = (Texture) sortedSources.get(index);
+				Color.abgr8888ToColor(sortedTint, data[offset + 5]);
+				spriteBatch.setColor(sortedTint);
+				spriteBatch.draw(texture, data[offset], data[offset + 1], 0, 0, data[offset + 2], data[offset + 3],
+						1f, 1f, 0, 0, 0, texture.getWidth(), texture.getHeight(), false, data[offset + 4] == 1f);
+				break;
+			case SORTED_TEXTURE_REGION:
+				Color.abgr8888ToColor(sortedTint, data[offset + 5]);
+				spriteBatch.setColor(sortedTint);
+				spriteBatch.draw((TextureRegion) sortedSources.get(index), data[offset], data[offset + 1], 0f, 0f,
+						data[offset + 2], data[offset + 3], 1f, 1f, data[offset + 4]);
+				break;
+			case SORTED_SPRITE:
+				spriteBatch.draw((Texture) sortedSources.get(index), data, offset, SPRITE_VERTICES);
+				break;
+			}
+		}
+		clearSortedSprites();
+		// Sorted textures set their own tint so the current tint must always be restored
+		spriteBatch.setColor(tint == null ? Color.WHITE : tint);
+	}
+
+	private void clearSortedSprites() {
+		spriteSortQueue.clear();
+		sortedTypes.clear();
+		sortedOffsets.clear();
+		sortedData.clear();
+		sortedSources.clear();
+	}
+
+	/**
+	 * Draws any deferred sprites and then begins the {@link SpriteBatch} if
+	 * required
+	 */
+	private void beginRendering() {
+		renderSortedSprites();
+		beginSpriteBatch();
+	}
+
 	/**
 	 * This method allows for translation, scaling, etc. to be set before the
 	 * {@link SpriteBatch} begins
 	 */
-	private void beginRendering() {
+	private void beginSpriteBatch() {
 		if (!rendering) {
 			if(!renderingStage) {
 				applyTransformations();
@@ -669,11 +809,10 @@ public class LibGdxGraphics implements Graphics {
 	private void endRendering() {
 		if (rendering) {
 			if(!renderingStage) {
+				renderSortedSprites();
 				undoTransformations();
+				renderStatistics.markFlush();
 				spriteBatch.end();
-				if (renderingShapes) {
-					shapeRenderer.end();
-				}
 
 				if (clip != null) {
 					Gdx.gl.glClearDepthf(1f);
@@ -683,7 +822,6 @@ public class LibGdxGraphics implements Graphics {
 			}
 		}
 		rendering = false;
-		renderingShapes = false;
 	}
 
 	private void setupDepthBuffer(boolean beginSpriteBatch) {
@@ -0,0 +1,696 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
+import com.badlogic.gdx.scenes.scene2d.utils.TiledDrawable;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import org.mini2Dx.core.font.GameFont;
+import org.mini2Dx.core.font.GameFontCache;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.core.geom.Shape;
+
+/**
+ * Implementation of {@link Graphics} that records calls into a
+ * {@link GraphicsCommandBuffer} instead of rendering them. The buffer can then
+ * be executed against another {@link Graphics} instance (e.g.
+ * {@link LibGdxGraphics}) using a {@link GraphicsCommandReplayer}.
+ * 
+ * Recording does not require an OpenGL context, allowing render lists to be
+ * built on a separate thread to the one replaying them. State (colors,
+ * transformations, clips, etc.) is tracked locally so that getters return
+ * the values as they will be when the commands are replayed.
+ */
+public class RecordingGraphics implements Graphics {
+	private final Graphics target;
+	private final OrthographicCamera camera = new OrthographicCamera();
+
+	private GraphicsCommandBuffer commandBuffer;
+
+	private Color color, backgroundColor, tint, defaultTint;
+	/* Holds the tint set through setTint(float) so recording does not allocate */
+	private final Color packedTint = new Color();
+	private GameFont font;
+	private ShaderProgram shaderProgram;
+
+	private float translationX, translationY;
+	private float scaleX, scaleY;
+	private float rotation, rotationX, rotationY;
+	private int windowWidth, windowHeight;
+	private int lineHeight;
+	private Rectangle clip;
+
+	/**
+	 * Constructor. Creates a new {@link GraphicsCommandBuffer} to record to.
+	 * 
+	 * @param target
+	 *            The {@link Graphics} instance that commands will be replayed
+	 *            against. Initial state is copied from this instance.
+	 */
+	public RecordingGraphics(Graphics target) {
+		this(target, new GraphicsCommandBuffer());
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param target
+	 *            The {@link Graphics} instance that commands will be replayed
+	 *            against. Initial state is copied from this instance.
+	 * @param commandBuffer
+	 *            The {@link GraphicsCommandBuffer} to record to
+	 */
+	public RecordingGraphics(Graphics target, GraphicsCommandBuffer commandBuffer) {
+		super();
+		this.target = target;
+		this.commandBuffer = commandBuffer;
+
+		color = target.getColor();
+		backgroundColor = target.getBackgroundColor();
+		defaultTint = target.getTint();
+		tint = defaultTint;
+		font = target.getFont();
+		lineHeight = target.getLineHeight();
+		windowWidth = target.getWindowWidth();
+		windowHeight = target.getWindowHeight();
+		resetTransformations();
+	}
+
+	/**
+	 * Returns the {@link GraphicsCommandBuffer} currently being recorded to
+	 * 
+	 * @return The current {@link GraphicsCommandBuffer}
+	 */
+	public GraphicsCommandBuffer getCommandBuffer() {
+		return commandBuffer;
+	}
+
+	/**
+	 * Sets the {@link GraphicsCommandBuffer} to record subsequent commands to
+	 * 
+	 * @param commandBuffer
+	 *            The {@link GraphicsCommandBuffer} to record to
+	 */
+	public void setCommandBuffer(GraphicsCommandBuffer commandBuffer) {
+		if (commandBuffer == null) {
+			return;
+		}
+		this.commandBuffer = commandBuffer;
+	}
+
+	/**
+	 * Clears the current {@link GraphicsCommandBuffer} and resets the tint so
+	 * that a new frame can be recorded
+	 */
+	@Override
+	public void preRender(int gameWidth, int gameHeight) {
+		this.windowWidth = gameWidth;
+		this.windowHeight = gameHeight;
+		tint = defaultTint;
+		commandBuffer.clear();
+	}
+
+	/**
+	 * Resets transformations, shader program and blend function to match the
+	 * state the replaying {@link Graphics} instance will be in after
+	 * {@link Graphics#postRender()}
+	 */
+	@Override
+	public void postRender() {
+		resetTransformations();
+		shaderProgram = null;
+	}
+
+	@Override
+	public Stage createStage(Viewport viewport) {
+		return target.createStage(viewport);
+	}
+
+	@Override
+	public void drawLineSegment(float x1, float y1, float x2, float y2) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_LINE_SEGMENT, x1, y1, x2, y2);
+	}
+
+	@Override
+	public void drawRect(float x, float y, float width, float height) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_RECT, x, y, width, height);
+	}
+
+	@Override
+	public void fillRect(float x, float y, float width, float height) {
+		commandBuffer.command(GraphicsCommandBuffer.FILL_RECT, x, y, width, height);
+	}
+
+	@Override
+	public void drawCircle(float centerX, float centerY, int radius) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_CIRCLE, centerX, centerY, radius);
+	}
+
+	@Override
+	public void drawCircle(float centerX, float centerY, float radius) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_CIRCLE, centerX, centerY, radius);
+	}
+
+	@Override
+	public void fillCircle(float centerX, float centerY, int radius) {
+		commandBuffer.command(GraphicsCommandBuffer.FILL_CIRCLE, centerX, centerY, radius);
+	}
+
+	@Override
+	public void fillCircle(float centerX, float centerY, float radius) {
+		commandBuffer.command(GraphicsCommandBuffer.FILL_CIRCLE, centerX, centerY, radius);
+	}
+
+	@Override
+	public void drawTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_TRIANGLE, x1, y1, x2, y2);
+		commandBuffer.addFloat(x3);
+		commandBuffer.addFloat(y3);
+	}
+
+	@Override
+	public void fillTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+		commandBuffer.command(GraphicsCommandBuffer.FILL_TRIANGLE, x1, y1, x2, y2);
+		commandBuffer.addFloat(x3);
+		commandBuffer.addFloat(y3);
+	}
+
+	@Override
+	public void drawPolygon(float[] vertices) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_POLYGON, commandBuffer.copy(vertices));
+	}
+
+	@Override
+	public void fillPolygon(float[] vertices, short[] triangles) {
+		commandBuffer.command(GraphicsCommandBuffer.FILL_POLYGON, commandBuffer.copy(vertices));
+		commandBuffer.addObject(commandBuffer.copy(triangles));
+	}
+
+	@Override
+	public void drawString(String text, float x, float y) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_STRING, x, y);
+		commandBuffer.addObject(text);
+	}
+
+	@Override
+	public void drawString(String text, float x, float y, float targetWidth) {
+		drawString(text, x, y, targetWidth, Align.left);
+	}
+
+	@Override
+	public void drawString(String text, float x, float y, float targetWidth, int horizontalAlign) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_STRING_ALIGNED, x, y, targetWidth);
+		commandBuffer.addObject(text);
+		commandBuffer.addInt(horizontalAlign);
+	}
+
+	@Override
+	public void drawTexture(Texture texture, float x, float y) {
+		drawTexture(texture, x, y, texture.getWidth(), texture.getHeight());
+	}
+
+	@Override
+	public void drawTexture(Texture texture, float x, float y, boolean flipY) {
+		drawTexture(texture, x, y, texture.getWidth(), texture.getHeight(), flipY);
+	}
+
+	@Override
+	public void drawTexture(Texture texture, float x, float y, float width, float height) {
+		drawTexture(texture, x, y, width, height, true);
+	}
+
+	@Override
+	public void drawTexture(Texture texture, float x, float y, float width, float height, boolean flipY) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_TEXTURE, texture, x, y, width, height);
+		commandBuffer.addInt(flipY ? 1 : 0);
+	}
+
+	@Override
+	public void drawTextureRegion(TextureRegion textureRegion, float x, float y) {
+		drawTextureRegion(textureRegion, x, y, textureRegion.getRegionWidth(), textureRegion.getRegionHeight());
+	}
+
+	@Override
+	public void drawTextureRegion(TextureRegion textureRegion, float x, float y, float width, float height) {
+		drawTextureRegion(textureRegion, x, y, width, height, 0f);
+	}
+
+	@Override
+	public void drawTextureRegion(TextureRegion textureRegion, float x, float y, float width, float height,
+			float rotation) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_TEXTURE_REGION, textureRegion, x, y, width, height);
+		commandBuffer.addFloat(rotation);
+	}
+
+	@Override
+	public void drawShape(Shape shape) {
+		shape.draw(this);
+	}
+
+	@Override
+	public void fillShape(Shape shape) {
+		shape.fill(this);
+	}
+
+	@Override
+	public void drawSprite(Sprite sprite) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_SPRITE, commandBuffer.copy(sprite));
+	}
+
+	@Override
+	public void drawSprite(Sprite sprite, float x, float y) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_SPRITE_AT, x, y);
+		commandBuffer.addObject(commandBuffer.copy(sprite));
+	}
+
+	@Override
+	public void drawSpriteCache(SpriteCache spriteCache, int cacheId) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_SPRITE_CACHE, spriteCache);
+		commandBuffer.addInt(cacheId);
+	}
+
+	@Override
+	public void drawStage(Stage stage) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_STAGE, stage);
+	}
+
+	@Override
+	public void drawParticleEffect(ParticleEffect effect) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_PARTICLE_EFFECT, effect);
+	}
+
+	@Override
+	public void drawNinePatch(NinePatch ninePatch, float x, float y, float width, float height) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_NINE_PATCH, ninePatch, x, y, width, height);
+	}
+
+	@Override
+	public void drawNinePatch(NinePatchDrawable ninePatchDrawable, float x, float y, float width, float height) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_NINE_PATCH_DRAWABLE, ninePatchDrawable, x, y, width, height);
+	}
+
+	@Override
+	public void drawTiledDrawable(TiledDrawable tiledDrawable, float x, float y, float width, float height) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_TILED_DRAWABLE, tiledDrawable, x, y, width, height);
+	}
+
+	@Override
+	public void drawFontCache(GameFontCache fontCache) {
+		commandBuffer.command(GraphicsCommandBuffer.DRAW_FONT_CACHE, fontCache);
+	}
+
+	@Override
+	public void rotate(float degrees, float x, float y) {
+		if (MathUtils.isZero(degrees)) {
+			return;
+		}
+		this.rotation += degrees;
+		this.rotation = this.rotation % 360f;
+		this.rotationX = x;
+		this.rotationY = y;
+		commandBuffer.command(GraphicsCommandBuffer.ROTATE, degrees, x, y);
+	}
+
+	@Override
+	public void setRotation(float degrees, float x, float y) {
+		this.rotation = degrees % 360f;
+		this.rotationX = x;
+		this.rotationY = y;
+		commandBuffer.command(GraphicsCommandBuffer.SET_ROTATION, degrees, x, y);
+	}
+
+	@Override
+	public void scale(float scaleX, float scaleY) {
+		if (MathUtils.isEqual(1f, scaleX) && MathUtils.isEqual(1f, scaleY)) {
+			return;
+		}
+		this.scaleX *= scaleX;
+		this.scaleY *= scaleY;
+		commandBuffer.command(GraphicsCommandBuffer.SCALE, scaleX, scaleY);
+	}
+
+	@Override
+	public void setScale(float scaleX, float scaleY) {
+		this.scaleX = scaleX;
+		this.scaleY = scaleY;
+		commandBuffer.command(GraphicsCommandBuffer.SET_SCALE, scaleX, scaleY);
+	}
+
+	@Override
+	public void clearScaling() {
+		scaleX = 1f;
+		scaleY = 1f;
+		commandBuffer.command(GraphicsCommandBuffer.CLEAR_SCALING);
+	}
+
+	@Override
+	public void translate(float translateX, float translateY) {
+		if (MathUtils.isZero(translateX) && MathUtils.isZero(translateY)) {
+			return;
+		}
+		this.translationX += translateX;
+		this.translationY += translateY;
+		commandBuffer.command(GraphicsCommandBuffer.TRANSLATE, translateX, translateY);
+	}
+
+	@Override
+	public void setTranslation(float translateX, float translateY) {
+		this.translationX = translateX;
+		this.translationY = translateY;
+		commandBuffer.command(GraphicsCommandBuffer.SET_TRANSLATION, translateX, translateY);
+	}
+
+	@Override
+	public void setClip(float x, float y, float width, float height) {
+		if (MathUtils.isEqual(0f, x) && MathUtils.isEqual(0f, y) && MathUtils.isEqual(getViewportWidth(), width)
+				&& MathUtils.isEqual(getViewportHeight(), height)) {
+			clip = null;
+		} else if (clip == null) {
+			clip = new Rectangle(x, y, width, height);
+		} else {
+			clip.set(x, y, width, height);
+		}
+		commandBuffer.command(GraphicsCommandBuffer.SET_CLIP, x, y, width, height);
+	}
+
+	@Override
+	public void setClip(Rectangle clip) {
+		setClip(clip.getX(), clip.getY(), clip.getWidth(), clip.getHeight());
+	}
+
+	@Override
+	public Rectangle removeClip() {
+		if (clip == null) {
+			return null;
+		}
+		commandBuffer.command(GraphicsCommandBuffer.REMOVE_CLIP);
+
+		Rectangle result = clip;
+		clip = null;
+		return result;
+	}
+
+	@Override
+	public Rectangle peekClip() {
+		Rectangle result = new Rectangle();
+		peekClip(result);
+		return result;
+	}
+
+	@Override
+	public void peekClip(Rectangle rectangle) {
+		if (clip == null) {
+			rectangle.set(0f, 0f, getViewportWidth(), getViewportHeight());
+		} else {
+			rectangle.set(clip);
+		}
+	}
+
+	@Override
+	public void setTint(Color tint) {
+		this.tint = tint;
+		commandBuffer.command(GraphicsCommandBuffer.SET_TINT);
+		addColor(tint);
+	}
+
+	@Override
+	public void setTint(float tint) {
+		Color.abgr8888ToColor(packedTint, tint);
+		this.tint = packedTint;
+		commandBuffer.command(GraphicsCommandBuffer.SET_TINT_BITS);
+		commandBuffer.addFloat(tint);
+	}
+
+	@Override
+	public void setFont(GameFont font) {
+		if (font == null) {
+			return;
+		}
+		this.font = font;
+		commandBuffer.command(GraphicsCommandBuffer.SET_FONT, font);
+	}
+
+	@Override
+	public void removeTint() {
+		tint = defaultTint;
+		commandBuffer.command(GraphicsCommandBuffer.REMOVE_TINT);
+	}
+
+	@Override
+	public void enableBlending() {
+		commandBuffer.command(GraphicsCommandBuffer.ENABLE_BLENDING);
+	}
+
+	@Override
+	public void disableBlending() {
+		commandBuffer.command(GraphicsCommandBuffer.DISABLE_BLENDING);
+	}
+
+	@Override
+	public void setShaderProgram(ShaderProgram shaderProgram) {
+		this.shaderProgram = shaderProgram;
+		commandBuffer.command(GraphicsCommandBuffer.SET_SHADER_PROGRAM, shaderProgram);
+	}
+
+	@Override
+	public ShaderProgram getShaderProgram() {
+		return shaderProgram;
+	}
+
+	@Override
+	public void clearShaderProgram() {
+		shaderProgram = null;
+		commandBuffer.command(GraphicsCommandBuffer.CLEAR_SHADER_PROGRAM);
+	}
+
+	@Override
+	public void setBlendFunction(int srcFunc, int dstFunc) {
+		commandBuffer.command(GraphicsCommandBuffer.SET_BLEND_FUNCTION);
+		commandBuffer.addInt(srcFunc);
+		commandBuffer.addInt(dstFunc);
+	}
+
+	@Override
+	public void clearBlendFunction() {
+		commandBuffer.command(GraphicsCommandBuffer.CLEAR_BLEND_FUNCTION);
+	}
+
+	@Override
+	public void flush() {
+		commandBuffer.command(GraphicsCommandBuffer.FLUSH);
+	}
+
+	/**
+	 * Returns the {@link RenderStatistics} of the {@link Graphics} instance
+	 * commands are replayed against
+	 */
+	@Override
+	public RenderStatistics getRenderStatistics() {
+		return target.getRenderStatistics();
+	}
+
+	@Override
+	public void beginRenderStatisticsScope(String name) {
+		commandBuffer.command(GraphicsCommandBuffer.BEGIN_STATISTICS_SCOPE, name);
+	}
+
+	@Override
+	public void endRenderStatisticsScope() {
+		commandBuffer.command(GraphicsCommandBuffer.END_STATISTICS_SCOPE);
+	}
+
+	@Override
+	public void beginSpriteSorting() {
+		commandBuffer.command(GraphicsCommandBuffer.BEGIN_SPRITE_SORTING);
+	}
+
+	@Override
+	public void setSpriteSortKey(int layer, float depth) {
+		commandBuffer.command(GraphicsCommandBuffer.SET_SPRITE_SORT_KEY);
+		commandBuffer.addInt(layer);
+		commandBuffer.addFloat(depth);
+	}
+
+	@Override
+	public void endSpriteSorting() {
+		commandBuffer.command(GraphicsCommandBuffer.END_SPRITE_SORTING);
+	}
+
+	private void addColor(Color color) {
+		if (color == null) {
+			commandBuffer.addInt(0);
+			return;
+		}
+		commandBuffer.addInt(1);
+		commandBuffer.addFloat(color.r);
+		commandBuffer.addFloat(color.g);
+		commandBuffer.addFloat(color.b);
+		commandBuffer.addFloat(color.a);
+	}
+
+	private void resetTransformations() {
+		this.translationX = 0;
+		this.translationY = 0;
+		this.scaleX = 1f;
+		this.scaleY = 1f;
+		this.rotation = 0f;
+		this.rotationX = 0f;
+		this.rotationY = 0f;
+	}
+
+	@Override
+	public int getLineHeight() {
+		return lineHeight;
+	}
+
+	@Override
+	public void setLineHeight(int lineHeight) {
+		if (lineHeight <= 0) {
+			return;
+		}
+		this.lineHeight = lineHeight;
+		commandBuffer.command(GraphicsCommandBuffer.SET_LINE_HEIGHT);
+		commandBuffer.addInt(lineHeight);
+	}
+
+	@Override
+	public Color getColor() {
+		return color;
+	}
+
+	/**
+	 * Sets the {@link Color} to draw with. The values are copied at the time
+	 * of recording so the instance can be modified afterwards.
+	 */
+	@Override
+	public void setColor(Color color) {
+		if (color == null) {
+			return;
+		}
+		this.color = color;
+		commandBuffer.command(GraphicsCommandBuffer.SET_COLOR, color.r, color.g, color.b, color.a);
+	}
+
+	@Override
+	public Color getBackgroundColor() {
+		return backgroundColor;
+	}
+
+	@Override
+	public void setBackgroundColor(Color backgroundColor) {
+		if (backgroundColor == null) {
+			return;
+		}
+		this.backgroundColor = backgroundColor;
+		commandBuffer.command(GraphicsCommandBuffer.SET_BACKGROUND_COLOR, backgroundColor.r, backgroundColor.g,
+				backgroundColor.b, backgroundColor.a);
+	}
+
+	@Override
+	public GameFont getFont() {
+		return font;
+	}
+
+	@Override
+	public Color getTint() {
+		return tint;
+	}
+
+	@Override
+	public float getScaleX() {
+		return scaleX;
+	}
+
+	@Override
+	public float getScaleY() {
+		return scaleY;
+	}
+
+	@Override
+	public float getTranslationX() {
+		return translationX;
+	}
+
+	@Override
+	public float getTranslationY() {
+		return translationY;
+	}
+
+	@Override
+	public float getRotation() {
+		return rotation;
+	}
+
+	@Override
+	public float getRotationX() {
+		return rotationX;
+	}
+
+	@Override
+	public float getRotationY() {
+		return rotationY;
+	}
+
+	/**
+	 * Returns the projection matrix that will be applied during replay for
+	 * the current transformations
+	 */
+	@Override
+	public Matrix4 getProjectionMatrix() {
+		camera.setToOrtho(true, getViewportWidth(), getViewportHeight());
+		if (translationX != 0f || translationY != 0f) {
+			camera.translate(translationX, translationY);
+		}
+		camera.update();
+
+		if (rotation != 0f) {
+			camera.rotateAround(new Vector3(rotationX, rotationY, 0), new Vector3(0, 0, 1), -rotation);
+		}
+		camera.update();
+		return camera.combined.cpy();
+	}
+
+	@Override
+	public boolean isWindowReady() {
+		return target.isWindowReady();
+	}
+
+	@Override
+	public int getWindowWidth() {
+		return windowWidth;
+	}
+
+	@Override
+	public int getWindowHeight() {
+		return windowHeight;
+	}
+
+	@Override
+	public float getViewportWidth() {
+		return MathUtils.round(windowWidth / scaleX);
+	}
+
+	@Override
+	public float getViewportHeight() {
+		return MathUtils.round(windowHeight / scaleY);
+	}
+}
@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Counts the render operations that drive rendering cost during each frame,
+ * both for the whole frame and per named scope.
+ * 
+ * Operations are counted as a batching pipeline would perform them: sprites
+ * are batched until the texture or shader changes, another renderer is used
+ * or the batch is flushed explicitly, at which point a flush and a draw call
+ * are counted. Shapes are counted as sprites drawn from a shared texture.
+ * {@link com.badlogic.gdx.graphics.g2d.SpriteCache} draws each count as one
+ * draw call. Flushes caused by a full batch are not
+ * counted.
+ * 
+ * Counts are available for the previous frame once {@link #endFrame()} has
+ * been called by the {@link Graphics} implementation.
+ */
+public class RenderStatistics {
+	/**
+	 * No renderer has been used yet this frame
+	 */
+	public static final int PIPELINE_NONE = 0;
+	/**
+	 * Sprites, textures, text and shapes
+	 */
+	public static final int PIPELINE_SPRITE_BATCH = 1;
+	/**
+	 * Cached sprites
+	 */
+	public static final int PIPELINE_SPRITE_CACHE = 2;
+
+	private final Counters frame = new Counters();
+	private final Counters previousFrame = new Counters();
+	private final ObjectMap<String, Counters> scopes = new ObjectMap<String, Counters>();
+	private final ObjectMap<String, Counters> previousScopes = new ObjectMap<String, Counters>();
+	private final Array<Counters> scopeStack = new Array<Counters>();
+	private final Array<Counters> scopeStarts = new Array<Counters>();
+	private final Array<Counters> counterPool = new Array<Counters>();
+
+	private int pipeline = PIPELINE_NONE;
+	private Object texture, shader;
+	private int batchedSprites;
+
+	/**
+	 * Counts a sprite drawn by a sprite batch
+	 * @param texture The texture (or other object owning the texture) drawn from
+	 */
+	public void markSprite(Object texture) {
+		setPipeline(PIPELINE_SPRITE_BATCH);
+		if (texture != this.texture) {
+			flushBatch();
+			frame.textureBinds++;
+			this.texture = texture;
+		}
+		frame.sprites++;
+		batchedSprites++;
+	}
+
+	/**
+	 * Counts a cache drawn by a sprite cache
+	 */
+	public void markSpriteCache() {
+		setPipeline(PIPELINE_SPRITE_CACHE);
+		frame.drawCalls++;
+	}
+
+	/**
+	 * Counts a change of the shader used by sprite batches
+	 * @param shader The new shader or null for the default shader
+	 */
+	public void markShader(Object shader) {
+		if (shader == this.shader) {
+			return;
+		}
+		flushBatch();
+		this.shader = shader;
+		frame.shaderSwitches++;
+	}
+
+	/**
+	 * Counts an explicit flush of the current batch
+	 */
+	public void markFlush() {
+		flushBatch();
+	}
+
+	private void setPipeline(int pipeline) {
+		if (this.pipeline == pipeline) {
+			return;
+		}
+		flushBatch();
+		if (this.pipeline != PIPELINE_NONE) {
+			frame.pipelineTransitions++;
+		}
+		this.pipeline = pipeline;
+		texture = null;
+	}
+
+	private void flushBatch() {
+		if (batchedSprites == 0) {
+			return;
+		}
+		batchedSprites = 0;
+		frame.batchFlushes++;
+		frame.drawCalls++;
+	}
+
+	/**
+	 * Begins counting operations under a name until {@link #endScope()} is
+	 * called. Scopes may be nested and the same name may be used multiple
+	 * times per frame, in which case the counts are summed. Sprites still
+	 * batched when a scope ends are counted by the scope that flushes them.
+	 * @param name The scope name
+	 */
+	public void beginScope(String name) {
+		Counters scope = scopes.get(name);
+		if (scope == null) {
+			scope = obtainCounters();
+			scopes.put(name, scope);
+		}
+		final Counters start = obtainCounters();
+		start.set(frame);
+		scopeStack.add(scope);
+		scopeStarts.add(start);
+	}
+
+	/**
+	 * Ends the most recently begun scope
+	 */
+	public void endScope() {
+		if (scopeStack.size == 0) {
+			return;
+		}
+		final Counters scope = scopeStack.pop();
+		final Counters start = scopeStarts.pop();
+		scope.addDifference(frame, start);
+		counterPool.add(start);
+	}
+
+	/**
+	 * Marks the beginning of a frame
+	 */
+	public void beginFrame() {
+		frame.reset();
+		pipeline = PIPELINE_NONE;
+		texture = null;
+		batchedSprites = 0;
+	}
+
+	/**
+	 * Marks the end of a frame, making its counts available
+	 */
+	public void endFrame() {
+		while (scopeStack.size > 0) {
+			endScope();
+		}
+		flushBatch();
+		previousFrame.set(frame);
+
+		for (Counters counters : previousScopes.values()) {
+			counterPool.add(counters);
+		}
+		previousScopes.clear();
+		previousScopes.putAll(scopes);
+		scopes.clear();
+	}
+
+	private Counters obtainCounters() {
+		final Counters result = counterPool.size > 0 ? counterPool.pop() : new Counters();
+		result.reset();
+		return result;
+	}
+
+	/**
+	 * Returns the counts of the previous frame
+	 * @return The {@link Counters} for the whole frame
+	 */
+	public Counters getFrame() {
+		return previousFrame;
+	}
+
+	/**
+	 * Returns the counts of a named scope during the previous frame
+	 * @param name The scope name
+	 * @return Null if the scope was not used during the previous frame
+	 */
+	public Counters getScope(String name) {
+		return previousScopes.get(name);
+	}
+
+	/**
+	 * Returns the names of the scopes used during the previous frame
+	 * @return The scope names
+	 */
+	public ObjectMap.Keys<String> getScopeNames() {
+		return previousScopes.keys();
+	}
+
+	/**
+	 * Render operation counts for a frame or scope
+	 */
+	public static class Counters {
+		int drawCalls, batchFlushes, textureBinds, shaderSwitches, pipelineTransitions, sprites;
+
+		void set(Counters counters) {
+			drawCalls = counters.drawCalls;
+			batchFlushes = counters.batchFlushes;
+			textureBinds = counters.textureBinds;
+			shaderSwitches = counters.shaderSwitches;
+			pipelineTransitions = counters.pipelineTransitions;
+			sprites = counters.sprites;
+		}
+
+		void addDifference(Counters end, Counters start) {
+			drawCalls += end.drawCalls - start.drawCalls;
+			batchFlushes += end.batchFlushes - start.batchFlushes;
+			textureBinds += end.textureBinds - start.textureBinds;
+			shaderSwitches += end.shaderSwitches - start.shaderSwitches;
+			pipelineTransitions += end.pipelineTransitions - start.pipelineTransitions;
+			sprites += end.sprites - start.sprites;
+		}
+
+		void reset() {
+			drawCalls = 0;
+			batchFlushes = 0;
+			textureBinds = 0;
+			shaderSwitches = 0;
+			pipelineTransitions = 0;
+			sprites = 0;
+		}
+
+		/**
+		 * Returns the amount of draw calls submitted to the GPU
+		 * @return The amount of draw calls
+		 */
+		public int getDrawCalls() {
+			return drawCalls;
+		}
+
+		/**
+		 * Returns the amount of times a sprite batch was flushed
+		 * @return The amount of flushes
+		 */
+		public int getBatchFlushes() {
+			return batchFlushes;
+		}
+
+		/**
+		 * Returns the amount of times a different texture was bound
+		 * @return The amount of texture binds
+		 */
+		public int getTextureBinds() {
+			return textureBinds;
+		}
+
+		/**
+		 * Returns the amount of times the shader changed
+		 * @return The amount of shader switches
+		 */
+		public int getShaderSwitches() {
+			return shaderSwitches;
+		}
+
+		/**
+		 * Returns the amount of times rendering switched between the sprite
+		 * batch and sprite caches
+		 * @return The amount of transitions
+		 */
+		public int getPipelineTransitions() {
+			return pipelineTransitions;
+		}
+
+		/**
+		 * Returns the amount of sprites and shapes drawn through batches
+		 * @return The amount of sprites
+		 */
+		public int getSprites() {
+			return sprites;
+		}
+	}
+}
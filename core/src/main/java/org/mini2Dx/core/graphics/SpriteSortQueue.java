@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Orders deferred sprite submissions by layer, then depth, then texture
+ * using a stable sort so that submissions with equal keys keep their
+ * submission order. Small queues are insertion sorted and larger queues are
+ * radix sorted 8 bits at a time, so the cost of a sort follows the size of
+ * the queue rather than the range of its keys.
+ * 
+ * Textures are assigned identifiers in the order they are first submitted
+ * after {@link #clear()}, so sprites sharing a layer and depth are grouped by
+ * texture and can be drawn with the fewest batch flushes.
+ */
+public class SpriteSortQueue {
+	/**
+	 * The lowest layer that can be sorted. Layers outside the range are
+	 * clamped.
+	 */
+	public static final int MIN_LAYER = Short.MIN_VALUE;
+	/**
+	 * The highest layer that can be sorted. Layers outside the range are
+	 * clamped.
+	 */
+	public static final int MAX_LAYER = Short.MAX_VALUE;
+	/**
+	 * The amount of textures that can be distinguished by the sort. Further
+	 * textures share the last identifier.
+	 */
+	public static final int MAX_TEXTURES = 1 << 16;
+
+	private static final int INSERTION_SORT_THRESHOLD = 64;
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX_SIZE = 1 << RADIX_BITS;
+	private static final int RADIX_MASK = RADIX_SIZE - 1;
+
+	private final ObjectIntMap<Object> textureIds = new ObjectIntMap<Object>();
+	private final int[] counts = new int[RADIX_SIZE];
+
+	private long[] keys, swapKeys;
+	private int[] order, swapOrder;
+	private Object[] textures;
+	private int size;
+	private boolean sorted = true;
+
+	/**
+	 * Constructor with an initial capacity of 128 sprites
+	 */
+	public SpriteSortQueue() {
+		this(128);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param initialCapacity
+	 *            The amount of sprites to allocate storage for
+	 */
+	public SpriteSortQueue(int initialCapacity) {
+		super();
+		initialCapacity = Math.max(1, initialCapacity);
+		keys = new long[initialCapacity];
+		swapKeys = new long[initialCapacity];
+		order = new int[initialCapacity];
+		swapOrder = new int[initialCapacity];
+		textures = new Object[initialCapacity];
+	}
+
+	/**
+	 * Adds a sprite to the queue
+	 * 
+	 * @param layer
+	 *            The layer of the sprite. Lower layers are drawn first.
+	 * @param depth
+	 *            The depth of the sprite within its layer (e.g. its y
+	 *            coordinate). Lower depths are drawn first.
+	 * @param texture
+	 *            The texture the sprite is drawn from
+	 * @return The submission index of the sprite
+	 */
+	public int add(int layer, float depth, Object texture) {
+		if (size == keys.length) {
+			ensureCapacity(size * 2);
+		}
+		int textureId = MAX_TEXTURES - 1;
+		if (texture != null) {
+			textureId = textureIds.get(texture, -1);
+			if (textureId < 0) {
+				textureId = Math.min(textureIds.size, MAX_TEXTURES - 1);
+				textureIds.put(texture, textureId);
+			}
+		}
+		final int index = size++;
+		keys[index] = toKey(layer, depth, textureId);
+		order[index] = index;
+		textures[index] = texture;
+		sorted = false;
+		return index;
+	}
+
+	/**
+	 * Sorts the queue. Called automatically by {@link #get(int)} if sprites
+	 * were added since the last sort.
+	 */
+	public void sort() {
+		if (sorted) {
+			return;
+		}
+		sorted = true;
+
+		if (size < INSERTION_SORT_THRESHOLD) {
+			insertionSort();
+			return;
+		}
+		for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+			radixPass(shift);
+		}
+	}
+
+	private void insertionSort() {
+		for (int i = 1; i < size; i++) {
+			final long key = keys[i];
+			final int index = order[i];
+			/* Keys are unsigned so compare them with the sign bit flipped */
+			final long signedKey = key ^ Long.MIN_VALUE;
+			int j = i - 1;
+			while (j >= 0 && (keys[j] ^ Long.MIN_VALUE) > signedKey) {
+				keys[j + 1] = keys[j];
+				order[j + 1] = order[j];
+				j--;
+			}
+			keys[j + 1] = key;
+			order[j + 1] = index;
+		}
+	}
+
+	private void radixPass(int shift) {
+		final int digit = (int) ((keys[0] >>> shift) & RADIX_MASK);
+		boolean uniform = true;
+		for (int i = 0; i < size; i++) {
+			final int value = (int) ((keys[i] >>> shift) & RADIX_MASK);
+			counts[value]++;
+			uniform &= value == digit;
+		}
+		if (uniform) {
+			counts[digit] = 0;
+			return;
+		}
+
+		int total = 0;
+		for (int i = 0; i < RADIX_SIZE; i++) {
+			final int count = counts[i];
+			counts[i] = total;
+			total += count;
+		}
+		for (int i = 0; i < size; i++) {
+			final int position = counts[(int) ((keys[i] >>> shift) & RADIX_MASK)]++;
+			swapKeys[position] = keys[i];
+			swapOrder[position] = order[i];
+		}
+		for (int i = 0; i < RADIX_SIZE; i++) {
+			counts[i] = 0;
+		}
+
+		final long[] previousKeys = keys;
+		keys = swapKeys;
+		swapKeys = previousKeys;
+		final int[] previousOrder = order;
+		order = swapOrder;
+		swapOrder = previousOrder;
+	}
+
+	/**
+	 * Returns the submission index of the sprite at a position in sorted
+	 * order
+	 * 
+	 * @param position
+	 *            The position in sorted order
+	 * @return The index returned by {@link #add(int, float, Object)} for the
+	 *         sprite
+	 */
+	public int get(int position) {
+		sort();
+		return order[position];
+	}
+
+	/**
+	 * Returns the texture of a sprite
+	 * 
+	 * @param index
+	 *            The submission index of the sprite
+	 * @return The texture passed to {@link #add(int, float, Object)}
+	 */
+	public Object getTexture(int index) {
+		return textures[index];
+	}
+
+	/**
+	 * Returns the amount of sprites in the queue
+	 * 
+	 * @return 0 if the queue is empty
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all sprites and texture identifiers from the queue
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			textures[i] = null;
+		}
+		size = 0;
+		sorted = true;
+		textureIds.clear();
+	}
+
+	private void ensureCapacity(int capacity) {
+		final long[] newKeys = new long[capacity];
+		System.arraycopy(keys, 0, newKeys, 0, size);
+		keys = newKeys;
+		swapKeys = new long[capacity];
+
+		final int[] newOrder = new int[capacity];
+		System.arraycopy(order, 0, newOrder, 0, size);
+		order = newOrder;
+		swapOrder = new int[capacity];
+
+		final Object[] newTextures = new Object[capacity];
+		System.arraycopy(textures, 0, newTextures, 0, size);
+		textures = newTextures;
+	}
+
+	/**
+	 * Packs a layer, depth and texture identifier into an unsigned sort key
+	 * 
+	 * @param layer
+	 *            The layer, clamped to {@link #MIN_LAYER} and
+	 *            {@link #MAX_LAYER}
+	 * @param depth
+	 *            The depth
+	 * @param textureId
+	 *            The texture identifier, between 0 and {@link #MAX_TEXTURES}
+	 *            - 1
+	 * @return The sort key
+	 */
+	static long toKey(int layer, float depth, int textureId) {
+		final long layerBits = Math.max(MIN_LAYER, Math.min(MAX_LAYER, layer)) - MIN_LAYER;
+		/* Flip the sign bit of positive floats and all bits of negative floats to order them as unsigned integers */
+		final int depthBits = Float.floatToIntBits(depth == 0f ? 0f : depth);
+		final long sortableDepth = (depthBits ^ ((depthBits >> 31) | 0x80000000)) & 0xFFFFFFFFL;
+		return (layerBits << 48) | (sortableDepth << 16) | (textureId & 0xFFFFL);
+	}
+}
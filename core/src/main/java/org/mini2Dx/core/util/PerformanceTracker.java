@@ -16,6 +16,7 @@ import com.badlogic.gdx.utils.Align;
 import org.mini2Dx.core.font.FontGlyphLayout;
 import org.mini2Dx.core.game.GameContainer;
 import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.core.graphics.RenderStatistics;
 
 /**
  * Tracks the following performance metrics during gameplay:<br>
@@ -24,18 +25,30 @@ import org.mini2Dx.core.graphics.Graphics;
  * <li>Average update durations</li>
  * <li>Frames per second</li>
  * <li>Current memory usage</li>
+ * <li>Optionally, draw calls, batch flushes, texture binds, shader switches
+ * and renderer transitions during the previous frame</li>
  * </ul>
+ * 
+ * Update metrics are synchronized as updates may be marked on a separate
+ * thread to rendering when the game loop is pipelined.
  */
 public class PerformanceTracker {
 	private static final String DURATION_PREFIX = "Avg update duration:: ";
 	private static final String UPDATE_PREFIX = "Updates / second:: ";
 	private static final String FRAMES_PREFIX = "Frames / second:: ";
 	private static final String MEMORY_PREFIX = "Memory usage:: ";
+	private static final String DRAW_CALLS_PREFIX = "Draw calls:: ";
+	private static final String FLUSHES_PREFIX = " (flushes:: ";
+	private static final String TEXTURE_BINDS_PREFIX = "Texture binds:: ";
+	private static final String SHADER_SWITCHES_PREFIX = "Shader switches:: ";
+	private static final String TRANSITIONS_PREFIX = "Renderer transitions:: ";
 	private static final String MS = "ms";
+	private static final int TOTAL_GENERAL_MESSAGES = 4;
 
 	private final RollingAverage averageUpdateDuration = new RollingAverage(GameContainer.TARGET_FPS);
-	private final String[] messages = new String[4];
+	private final String[] messages = new String[TOTAL_GENERAL_MESSAGES + 4];
 	private long lastMessagesUpdate = 0L;
+	private boolean renderStatisticsVisible = false;
 
 	private long updateSecondStart;
 	private int updates;
@@ -53,13 +66,13 @@ public class PerformanceTracker {
 		super();
 		updateSecondStart = System.nanoTime();
 		frameSecondStart = System.nanoTime();
-		updateMessages();
+		updateMessages(null);
 	}
 
 	/**
 	 * Internal usage only: marks the beginning of update operations
 	 */
-	public void markUpdateBegin() {
+	public synchronized void markUpdateBegin() {
 		long time = System.nanoTime();
 
 		if (time - updateSecondStart >= 1000000000) {
@@ -75,7 +88,7 @@ public class PerformanceTracker {
 	/**
 	 * Internal usage only: marks the end of update operations
 	 */
-	public void markUpdateEnd() {
+	public synchronized void markUpdateEnd() {
 		long time = System.nanoTime();
 		long updateDuration = time - updateStart;
 
@@ -101,7 +114,7 @@ public class PerformanceTracker {
 	 * 
 	 * @return
 	 */
-	public int getUpdatesPerSecond() {
+	public synchronized int getUpdatesPerSecond() {
 		return updatesPerSecond;
 	}
 
@@ -119,7 +132,7 @@ public class PerformanceTracker {
 	 * 
 	 * @return The average duration in nanoseconds
 	 */
-	public double getAverageUpdateDuration() {
+	public synchronized double getAverageUpdateDuration() {
 		return averageUpdateDuration.getAverage();
 	}
 
@@ -150,6 +163,27 @@ public class PerformanceTracker {
 		return Runtime.getRuntime().freeMemory();
 	}
 
+	/**
+	 * Returns if the {@link RenderStatistics} of the previous frame are drawn
+	 * 
+	 * @return False by default
+	 */
+	public boolean isRenderStatisticsVisible() {
+		return renderStatisticsVisible;
+	}
+
+	/**
+	 * Sets if the {@link RenderStatistics} of the previous frame are drawn
+	 * below the other values
+	 * 
+	 * @param renderStatisticsVisible
+	 *            True if draw calls, flushes, texture binds, shader switches
+	 *            and renderer transitions should be drawn
+	 */
+	public void setRenderStatisticsVisible(boolean renderStatisticsVisible) {
+		this.renderStatisticsVisible = renderStatisticsVisible;
+	}
+
 	/**
 	 * Draws the current values to screen
 	 * 
@@ -181,10 +215,10 @@ public class PerformanceTracker {
 	 *            ignored and the text is left aligned
 	 */
 	public void draw(Graphics g, float x, float y, float targetWidth, int horizontalAlign) {
-		updateMessages();
+		updateMessages(g);
 		float lineHeight = getLineHeight(g);
 
-		for (int i = 0; i < messages.length; i++) {
+		for (int i = 0; i < getTotalMessages(); i++) {
 			if (targetWidth < 0f) {
 				g.drawString(messages[i], x, y + (lineHeight * i) + (1f * i));
 			} else {
@@ -221,7 +255,7 @@ public class PerformanceTracker {
 	 *            The {@link Graphics} context
 	 */
 	public void drawInBottomLeft(Graphics g) {
-		float textHeight = (getLineHeight(g) * messages.length) + messages.length;
+		float textHeight = (getLineHeight(g) * getTotalMessages()) + getTotalMessages();
 		draw(g, 0f, g.getViewportHeight() - textHeight - 1f, -1f, Align.left);
 	}
 
@@ -233,7 +267,7 @@ public class PerformanceTracker {
 	 */
 	public void drawInBottomRight(Graphics g) {
 		float textWidth = getLineWidth(g);
-		float textHeight = (getLineHeight(g) * messages.length) + messages.length;
+		float textHeight = (getLineHeight(g) * getTotalMessages()) + getTotalMessages();
 		draw(g, g.getViewportWidth() - textWidth - 1f, g.getViewportHeight() - textHeight - 1f, textWidth, Align.right);
 	}
 
@@ -243,7 +277,7 @@ public class PerformanceTracker {
 		}
 
 		float lineWidth = 0f;
-		for (int i = 0; i < messages.length; i++) {
+		for (int i = 0; i < getTotalMessages(); i++) {
 			glyphLayout.setText(messages[i]);
 			if (glyphLayout.getWidth() > lineWidth) {
 				lineWidth = glyphLayout.getWidth();
@@ -258,7 +292,7 @@ public class PerformanceTracker {
 		}
 
 		float lineHeight = 0f;
-		for (int i = 0; i < messages.length; i++) {
+		for (int i = 0; i < getTotalMessages(); i++) {
 			glyphLayout.setText(messages[i]);
 			if (glyphLayout.getHeight() > lineHeight) {
 				lineHeight = glyphLayout.getHeight();
@@ -267,6 +301,10 @@ public class PerformanceTracker {
 		return lineHeight;
 	}
 
+	private int getTotalMessages() {
+		return renderStatisticsVisible ? messages.length : TOTAL_GENERAL_MESSAGES;
+	}
+
 	private String getHumanReadableByteValue(long bytes) {
 		int unit = 1024;
 		if (bytes < unit)
@@ -276,7 +314,7 @@ public class PerformanceTracker {
 		return String.format("%.1f %sB", bytes / Math.pow(unit, exp), pre);
 	}
 
-	private void updateMessages() {
+	private synchronized void updateMessages(Graphics g) {
 		long currentTime = System.currentTimeMillis();
 		if(currentTime - lastMessagesUpdate < 1000L) {
 			return;
@@ -289,5 +327,12 @@ public class PerformanceTracker {
 		messages[2] = FRAMES_PREFIX + framesPerSecond;
 		messages[3] = MEMORY_PREFIX + getHumanReadableByteValue(getUsedMemory()) + "/"
 				+ getHumanReadableByteValue(getTotalMemory());
+
+		RenderStatistics.Counters counters = g == null ? null : g.getRenderStatistics().getFrame();
+		messages[4] = DRAW_CALLS_PREFIX + (counters == null ? 0 : counters.getDrawCalls()) + FLUSHES_PREFIX
+				+ (counters == null ? 0 : counters.getBatchFlushes()) + ")";
+		messages[5] = TEXTURE_BINDS_PREFIX + (counters == null ? 0 : counters.getTextureBinds());
+		messages[6] = SHADER_SWITCHES_PREFIX + (counters == null ? 0 : counters.getShaderSwitches());
+		messages[7] = TRANSITIONS_PREFIX + (counters == null ? 0 : counters.getPipelineTransitions());
 	}
 }
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.game;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.exception.MdxException;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link UpdatePipeline}
+ */
+public class UpdatePipelineTest {
+	private static final float TIMESTEP = 1f / 60f;
+	private static final int[] UPDATES_PER_FRAME = new int[] { 1, 0, 2, 1, 3, 1, 1, 0, 5, 1 };
+
+	private DummyApplicationListener listener;
+	private UpdatePipeline updatePipeline;
+
+	@Before
+	public void setUp() {
+		listener = new DummyApplicationListener();
+		updatePipeline = new UpdatePipeline(listener, TIMESTEP);
+	}
+
+	@After
+	public void teardown() {
+		updatePipeline.dispose();
+	}
+
+	@Test
+	public void testRendersPreviousFrameSnapshot() {
+		DummyApplicationListener serialListener = new DummyApplicationListener();
+		for (int i = 0; i < UPDATES_PER_FRAME.length; i++) {
+			for (int j = 0; j < UPDATES_PER_FRAME[i]; j++) {
+				serialListener.update(TIMESTEP);
+			}
+			serialListener.interpolate(0f);
+			serialListener.publishSnapshot();
+			serialListener.consumeSnapshot();
+			serialListener.render();
+
+			updatePipeline.dispatch(UPDATES_PER_FRAME[i], 0f);
+			listener.render();
+			updatePipeline.await();
+		}
+
+		Assert.assertEquals(serialListener.totalUpdates, listener.totalUpdates);
+		Assert.assertEquals(serialListener.renderedUpdates.size, listener.renderedUpdates.size);
+		Assert.assertEquals(0, listener.renderedUpdates.get(0));
+		for (int i = 1; i < UPDATES_PER_FRAME.length; i++) {
+			Assert.assertEquals(serialListener.renderedUpdates.get(i - 1), listener.renderedUpdates.get(i));
+		}
+	}
+
+	@Test
+	public void testUpdatesRunOnSeparateThread() {
+		updatePipeline.dispatch(1, 0f);
+		updatePipeline.await();
+		Assert.assertNotNull(listener.updateThread);
+		Assert.assertNotSame(Thread.currentThread(), listener.updateThread);
+	}
+
+	@Test
+	public void testNonPipelinedListener() {
+		final int[] totalUpdates = new int[1];
+		UpdatePipeline pipeline = new UpdatePipeline(new ApplicationListener() {
+			@Override
+			public void update(float delta) {
+				totalUpdates[0]++;
+			}
+
+			@Override
+			public void interpolate(float alpha) {
+			}
+
+			@Override
+			public void render() {
+			}
+
+			@Override
+			public void create() {
+			}
+
+			@Override
+			public void resize(int width, int height) {
+			}
+
+			@Override
+			public void pause() {
+			}
+
+			@Override
+			public void resume() {
+			}
+
+			@Override
+			public void dispose() {
+			}
+		}, TIMESTEP);
+		pipeline.dispatch(3, 0f);
+		pipeline.await();
+		pipeline.dispose();
+		Assert.assertEquals(3, totalUpdates[0]);
+	}
+
+	@Test(expected = MdxException.class)
+	public void testDispatchWithoutAwait() {
+		updatePipeline.dispatch(1, 0f);
+		updatePipeline.dispatch(1, 0f);
+	}
+
+	@Test
+	public void testUpdateExceptionRethrown() {
+		listener.throwOnUpdate = true;
+		updatePipeline.dispatch(1, 0f);
+		try {
+			updatePipeline.await();
+			Assert.fail("Expected exception from update thread");
+		} catch (IllegalStateException e) {
+		}
+		listener.throwOnUpdate = false;
+		updatePipeline.dispatch(1, 0f);
+		updatePipeline.await();
+	}
+
+	private static class DummyApplicationListener implements PipelinedApplicationListener {
+		private final SnapshotBuffer<int[]> snapshots = new SnapshotBuffer<int[]>(new int[1], new int[1]);
+		private final IntArray renderedUpdates = new IntArray();
+		private int totalUpdates;
+		private Thread updateThread;
+		private boolean throwOnUpdate;
+
+		@Override
+		public void update(float delta) {
+			if (throwOnUpdate) {
+				throw new IllegalStateException();
+			}
+			updateThread = Thread.currentThread();
+			totalUpdates++;
+		}
+
+		@Override
+		public void interpolate(float alpha) {
+		}
+
+		@Override
+		public void publishSnapshot() {
+			snapshots.getPublishBuffer()[0] = totalUpdates;
+			snapshots.publish();
+		}
+
+		@Override
+		public void consumeSnapshot() {
+			snapshots.consume();
+		}
+
+		@Override
+		public void render() {
+			renderedUpdates.add(snapshots.getRenderBuffer()[0]);
+		}
+
+		@Override
+		public void create() {
+		}
+
+		@Override
+		public void resize(int width, int height) {
+		}
+
+		@Override
+		public void pause() {
+		}
+
+		@Override
+		public void resume() {
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+}
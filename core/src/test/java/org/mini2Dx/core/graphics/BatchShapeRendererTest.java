@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.lib.legacy.ClassImposteriser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+
+/**
+ * Unit tests for {@link BatchShapeRenderer}
+ */
+public class BatchShapeRendererTest {
+	private static final int QUAD_SIZE = 20;
+
+	private Mockery mockery;
+	private Batch batch;
+	private BatchShapeRenderer shapeRenderer;
+
+	@Before
+	public void setUp() {
+		mockery = new Mockery();
+		mockery.setImposteriser(ClassImposteriser.INSTANCE);
+		batch = mockery.mock(Batch.class);
+
+		shapeRenderer = new BatchShapeRenderer(batch) {
+			@Override
+			public Texture getTexture() {
+				return null;
+			}
+		};
+	}
+
+	@After
+	public void teardown() {
+		mockery.assertIsSatisfied();
+	}
+
+	@Test
+	public void testLine() {
+		expectQuads(1);
+		shapeRenderer.line(0f, 0f, 10f, 10f, 2f);
+	}
+
+	@Test
+	public void testRect() {
+		expectQuads(1);
+		shapeRenderer.rect(0f, 0f, 10f, 10f);
+	}
+
+	@Test
+	public void testRectLine() {
+		expectQuads(4);
+		shapeRenderer.rectLine(0f, 0f, 10f, 10f, 1f);
+	}
+
+	@Test
+	public void testTriangle() {
+		expectQuads(1);
+		shapeRenderer.triangle(0f, 0f, 10f, 0f, 5f, 10f);
+
+		expectQuads(3);
+		shapeRenderer.triangleLine(0f, 0f, 10f, 0f, 5f, 10f, 1f);
+	}
+
+	@Test
+	public void testPolygon() {
+		final float[] vertices = new float[] { 0f, 0f, 10f, 0f, 10f, 10f, 0f, 10f };
+
+		expectQuads(2);
+		shapeRenderer.polygon(vertices, new short[] { 0, 1, 2, 2, 3, 0 });
+
+		expectQuads(4);
+		shapeRenderer.polygonLine(vertices, 1f);
+	}
+
+	@Test
+	public void testCircle() {
+		/* Radius 8 uses 12 segments, two per quad */
+		expectQuads(6);
+		shapeRenderer.circle(0f, 0f, 8f);
+
+		/* Radius 2 uses 7 segments, the last quad covers one segment */
+		expectQuads(4);
+		shapeRenderer.circle(0f, 0f, 2f);
+
+		expectQuads(12);
+		shapeRenderer.circleLine(0f, 0f, 8f, 1f);
+	}
+
+	@Test
+	public void testManyQuadsExpandsVertices() {
+		/* Radius 1000 uses 60 segments */
+		expectQuads(60);
+		shapeRenderer.circleLine(0f, 0f, 1000f, 1f);
+	}
+
+	private void expectQuads(final int totalQuads) {
+		mockery.checking(new Expectations() {
+			{
+				oneOf(batch).draw(with(aNull(Texture.class)), with(any(float[].class)), with(equal(0)),
+						with(equal(totalQuads * QUAD_SIZE)));
+			}
+		});
+	}
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.Sequence;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.exception.MdxException;
+import org.mini2Dx.core.geom.Rectangle;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.Align;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link RecordingGraphics} and {@link GraphicsCommandReplayer}
+ */
+public class RecordingGraphicsTest {
+	private Mockery mockery;
+	private Graphics target;
+
+	private RecordingGraphics recordingGraphics;
+	private GraphicsCommandReplayer replayer;
+
+	@Before
+	public void setUp() {
+		mockery = new Mockery();
+		target = mockery.mock(Graphics.class);
+
+		mockery.checking(new Expectations() {
+			{
+				oneOf(target).getColor();
+				will(returnValue(Color.WHITE));
+				oneOf(target).getBackgroundColor();
+				will(returnValue(Color.BLACK));
+				oneOf(target).getTint();
+				will(returnValue(Color.WHITE));
+				oneOf(target).getFont();
+				will(returnValue(null));
+				oneOf(target).getLineHeight();
+				will(returnValue(1));
+				oneOf(target).getWindowWidth();
+				will(returnValue(800));
+				oneOf(target).getWindowHeight();
+				will(returnValue(600));
+			}
+		});
+		recordingGraphics = new RecordingGraphics(target);
+		replayer = new GraphicsCommandReplayer();
+	}
+
+	@After
+	public void teardown() {
+		mockery.assertIsSatisfied();
+	}
+
+	@Test
+	public void testReplayInOrder() {
+		final float[] vertices = new float[] { 0f, 0f, 10f, 0f, 5f, 10f };
+		final short[] triangles = new short[] { 0, 1, 2 };
+
+		recordingGraphics.preRender(800, 600);
+		recordingGraphics.setColor(Color.RED);
+		recordingGraphics.fillRect(1f, 2f, 3f, 4f);
+		recordingGraphics.translate(5f, 6f);
+		recordingGraphics.drawLineSegment(1f, 2f, 3f, 4f);
+		recordingGraphics.fillTriangle(1f, 2f, 3f, 4f, 5f, 6f);
+		recordingGraphics.fillPolygon(vertices, triangles);
+		recordingGraphics.drawString("test", 7f, 8f, 100f);
+		recordingGraphics.setClip(0f, 0f, 10f, 10f);
+		recordingGraphics.setBlendFunction(1, 2);
+		recordingGraphics.drawCircle(9f, 10f, 11);
+		recordingGraphics.removeClip();
+		recordingGraphics.flush();
+		recordingGraphics.postRender();
+		Assert.assertEquals(12, recordingGraphics.getCommandBuffer().getTotalCommands());
+
+		final Sequence sequence = mockery.sequence("replay");
+		mockery.checking(new Expectations() {
+			{
+				oneOf(target).setColor(with(equal(Color.RED)));
+				inSequence(sequence);
+				oneOf(target).fillRect(1f, 2f, 3f, 4f);
+				inSequence(sequence);
+				oneOf(target).translate(5f, 6f);
+				inSequence(sequence);
+				oneOf(target).drawLineSegment(1f, 2f, 3f, 4f);
+				inSequence(sequence);
+				oneOf(target).fillTriangle(1f, 2f, 3f, 4f, 5f, 6f);
+				inSequence(sequence);
+				oneOf(target).fillPolygon(with(equal(vertices)), with(equal(triangles)));
+				inSequence(sequence);
+				oneOf(target).drawString("test", 7f, 8f, 100f, Align.left);
+				inSequence(sequence);
+				oneOf(target).setClip(0f, 0f, 10f, 10f);
+				inSequence(sequence);
+				oneOf(target).setBlendFunction(1, 2);
+				inSequence(sequence);
+				oneOf(target).drawCircle(9f, 10f, 11f);
+				inSequence(sequence);
+				oneOf(target).removeClip();
+				inSequence(sequence);
+				oneOf(target).flush();
+				inSequence(sequence);
+			}
+		});
+		replayer.replay(recordingGraphics.getCommandBuffer(), target);
+	}
+
+	@Test
+	public void testArgumentsCopiedWhenRecorded() {
+		final Color color = new Color(1f, 0f, 0f, 1f);
+		final float[] vertices = new float[] { 0f, 0f, 10f, 0f, 5f, 10f };
+
+		recordingGraphics.preRender(800, 600);
+		recordingGraphics.setColor(color);
+		recordingGraphics.drawPolygon(vertices);
+		color.set(0f, 1f, 0f, 1f);
+		vertices[0] = 100f;
+
+		mockery.checking(new Expectations() {
+			{
+				oneOf(target).setColor(with(equal(new Color(1f, 0f, 0f, 1f))));
+				oneOf(target).drawPolygon(with(equal(new float[] { 0f, 0f, 10f, 0f, 5f, 10f })));
+			}
+		});
+		replayer.replay(recordingGraphics.getCommandBuffer(), target);
+	}
+
+	@Test
+	public void testPreRenderClearsBuffer() {
+		recordingGraphics.preRender(800, 600);
+		recordingGraphics.fillRect(1f, 2f, 3f, 4f);
+		recordingGraphics.fillRect(1f, 2f, 3f, 4f);
+		Assert.assertEquals(2, recordingGraphics.getCommandBuffer().getTotalCommands());
+
+		recordingGraphics.preRender(800, 600);
+		Assert.assertTrue(recordingGraphics.getCommandBuffer().isEmpty());
+		recordingGraphics.fillRect(5f, 6f, 7f, 8f);
+
+		mockery.checking(new Expectations() {
+			{
+				oneOf(target).fillRect(5f, 6f, 7f, 8f);
+			}
+		});
+		replayer.replay(recordingGraphics.getCommandBuffer(), target);
+	}
+
+	@Test
+	public void testSetTintBitsReusesColor() {
+		recordingGraphics.preRender(800, 600);
+		recordingGraphics.setTint(Color.RED.toFloatBits());
+		final Color tint = recordingGraphics.getTint();
+		Assert.assertEquals(Color.RED.toFloatBits(), tint.toFloatBits());
+
+		recordingGraphics.setTint(Color.BLUE.toFloatBits());
+		Assert.assertSame(tint, recordingGraphics.getTint());
+		Assert.assertEquals(Color.BLUE.toFloatBits(), tint.toFloatBits());
+	}
+
+	@Test(expected = MdxException.class)
+	public void testReplayUnknownCommand() {
+		recordingGraphics.preRender(800, 600);
+		recordingGraphics.getCommandBuffer().command(-1);
+		replayer.replay(recordingGraphics.getCommandBuffer(), target);
+	}
+
+	@Test
+	public void testStateTracked() {
+		recordingGraphics.preRender(800, 600);
+		recordingGraphics.translate(10f, 20f);
+		recordingGraphics.translate(5f, 5f);
+		recordingGraphics.scale(2f, 2f);
+		recordingGraphics.setLineHeight(3);
+
+		Assert.assertEquals(15f, recordingGraphics.getTranslationX());
+		Assert.assertEquals(25f, recordingGraphics.getTranslationY());
+		Assert.assertEquals(2f, recordingGraphics.getScaleX());
+		Assert.assertEquals(400f, recordingGraphics.getViewportWidth());
+		Assert.assertEquals(3, recordingGraphics.getLineHeight());
+
+		Assert.assertEquals(new Rectangle(0f, 0f, 400f, 300f), recordingGraphics.peekClip());
+		recordingGraphics.setClip(10f, 10f, 50f, 50f);
+		Assert.assertEquals(new Rectangle(10f, 10f, 50f, 50f), recordingGraphics.peekClip());
+		Assert.assertEquals(new Rectangle(10f, 10f, 50f, 50f), recordingGraphics.removeClip());
+		Assert.assertNull(recordingGraphics.removeClip());
+
+		recordingGraphics.postRender();
+		Assert.assertEquals(0f, recordingGraphics.getTranslationX());
+		Assert.assertEquals(1f, recordingGraphics.getScaleX());
+	}
+}
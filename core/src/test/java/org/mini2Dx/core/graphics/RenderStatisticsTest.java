@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.lib.legacy.ClassImposteriser;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link RenderStatistics}
+ */
+public class RenderStatisticsTest {
+	private final Object texture1 = new Object();
+	private final Object texture2 = new Object();
+
+	private RenderStatistics renderStatistics;
+
+	@Before
+	public void setUp() {
+		renderStatistics = new RenderStatistics();
+	}
+
+	@Test
+	public void testAlternatingTextures() {
+		renderStatistics.beginFrame();
+		renderStatistics.markSprite(texture1);
+		renderStatistics.markSprite(texture2);
+		renderStatistics.markSprite(texture1);
+		renderStatistics.markSprite(texture1);
+		renderStatistics.endFrame();
+
+		RenderStatistics.Counters frame = renderStatistics.getFrame();
+		Assert.assertEquals(4, frame.getSprites());
+		Assert.assertEquals(3, frame.getTextureBinds());
+		Assert.assertEquals(3, frame.getBatchFlushes());
+		Assert.assertEquals(3, frame.getDrawCalls());
+		Assert.assertEquals(0, frame.getPipelineTransitions());
+	}
+
+	@Test
+	public void testPipelineTransitions() {
+		renderStatistics.beginFrame();
+		renderStatistics.markSprite(texture1);
+		renderStatistics.markSpriteCache();
+		renderStatistics.markSprite(texture1);
+		renderStatistics.markSpriteCache();
+		renderStatistics.endFrame();
+
+		RenderStatistics.Counters frame = renderStatistics.getFrame();
+		Assert.assertEquals(3, frame.getPipelineTransitions());
+		Assert.assertEquals(2, frame.getTextureBinds());
+		Assert.assertEquals(2, frame.getBatchFlushes());
+		Assert.assertEquals(4, frame.getDrawCalls());
+	}
+
+	@Test
+	public void testShaderSwitches() {
+		final Object shader1 = new Object();
+		final Object shader2 = new Object();
+
+		renderStatistics.beginFrame();
+		renderStatistics.markShader(shader1);
+		renderStatistics.markSprite(texture1);
+		renderStatistics.markShader(shader1);
+		renderStatistics.markShader(shader2);
+		renderStatistics.markSprite(texture1);
+		renderStatistics.endFrame();
+
+		RenderStatistics.Counters frame = renderStatistics.getFrame();
+		Assert.assertEquals(2, frame.getShaderSwitches());
+		Assert.assertEquals(1, frame.getTextureBinds());
+		Assert.assertEquals(2, frame.getBatchFlushes());
+		Assert.assertEquals(2, frame.getDrawCalls());
+	}
+
+	@Test
+	public void testScopes() {
+		renderStatistics.beginFrame();
+		renderStatistics.beginScope("ui");
+		renderStatistics.markSprite(texture1);
+		renderStatistics.markSprite(texture2);
+		renderStatistics.endScope();
+		renderStatistics.beginScope("world");
+		renderStatistics.markSpriteCache();
+		renderStatistics.endScope();
+		renderStatistics.beginScope("ui");
+		renderStatistics.markSprite(texture1);
+		renderStatistics.endScope();
+
+		Assert.assertNull(renderStatistics.getScope("ui"));
+		renderStatistics.endFrame();
+
+		RenderStatistics.Counters ui = renderStatistics.getScope("ui");
+		Assert.assertEquals(3, ui.getSprites());
+		Assert.assertEquals(3, ui.getTextureBinds());
+		Assert.assertEquals(1, ui.getBatchFlushes());
+		Assert.assertEquals(1, ui.getDrawCalls());
+		Assert.assertEquals(1, ui.getPipelineTransitions());
+
+		RenderStatistics.Counters world = renderStatistics.getScope("world");
+		Assert.assertEquals(0, world.getSprites());
+		Assert.assertEquals(1, world.getBatchFlushes());
+		Assert.assertEquals(2, world.getDrawCalls());
+		Assert.assertEquals(1, world.getPipelineTransitions());
+
+		RenderStatistics.Counters frame = renderStatistics.getFrame();
+		Assert.assertEquals(3, frame.getBatchFlushes());
+		Assert.assertEquals(4, frame.getDrawCalls());
+
+		renderStatistics.beginFrame();
+		renderStatistics.endFrame();
+		Assert.assertNull(renderStatistics.getScope("ui"));
+		Assert.assertEquals(0, renderStatistics.getFrame().getDrawCalls());
+	}
+
+	@Test
+	public void testPreviousFrameAvailableDuringFrame() {
+		renderStatistics.beginFrame();
+		renderStatistics.markSprite(texture1);
+		renderStatistics.endFrame();
+
+		renderStatistics.beginFrame();
+		renderStatistics.markSprite(texture1);
+		renderStatistics.markSprite(texture2);
+		Assert.assertEquals(1, renderStatistics.getFrame().getSprites());
+		renderStatistics.endFrame();
+		Assert.assertEquals(2, renderStatistics.getFrame().getSprites());
+	}
+
+	@Test
+	public void testHeadlessGraphics() {
+		Graphics g = new HeadlessGraphics();
+		g.preRender(800, 600);
+		g.fillRect(0f, 0f, 32f, 32f);
+		g.drawLineSegment(0f, 0f, 32f, 32f);
+		g.fillRect(0f, 0f, 32f, 32f);
+		g.beginRenderStatisticsScope("hud");
+		g.flush();
+		g.endRenderStatisticsScope();
+		g.postRender();
+
+		/* Shapes share a single texel so they batch together */
+		RenderStatistics.Counters frame = g.getRenderStatistics().getFrame();
+		Assert.assertEquals(3, frame.getSprites());
+		Assert.assertEquals(1, frame.getTextureBinds());
+		Assert.assertEquals(1, frame.getBatchFlushes());
+		Assert.assertEquals(1, frame.getDrawCalls());
+		Assert.assertEquals(0, frame.getPipelineTransitions());
+		Assert.assertEquals(0, frame.getShaderSwitches());
+
+		RenderStatistics.Counters hud = g.getRenderStatistics().getScope("hud");
+		Assert.assertEquals(1, hud.getBatchFlushes());
+		Assert.assertEquals(1, hud.getDrawCalls());
+	}
+
+	@Test
+	public void testHeadlessGraphicsCountsTextStageAndShaders() {
+		final Mockery mockery = new Mockery();
+		mockery.setImposteriser(ClassImposteriser.INSTANCE);
+		final ShaderProgram shader = mockery.mock(ShaderProgram.class);
+		final Stage stage = mockery.mock(Stage.class);
+		final Group root = mockery.mock(Group.class);
+		mockery.checking(new Expectations() {
+			{
+				allowing(stage).getRoot();
+				will(returnValue(root));
+				allowing(root).isVisible();
+				will(returnValue(true));
+			}
+		});
+
+		Graphics g = new HeadlessGraphics();
+		g.preRender(800, 600);
+		g.drawString("text", 0f, 0f);
+		g.fillRect(0f, 0f, 32f, 32f);
+		g.setShaderProgram(shader);
+		g.fillRect(0f, 0f, 32f, 32f);
+		/* Setting no shader restores the default shader */
+		g.setShaderProgram(null);
+		/* Transformations that change nothing do not end the batch */
+		g.translate(0f, 0f);
+		g.fillRect(0f, 0f, 32f, 32f);
+		g.translate(10f, 0f);
+		g.drawStage(stage);
+		g.postRender();
+
+		RenderStatistics.Counters frame = g.getRenderStatistics().getFrame();
+		Assert.assertEquals(5, frame.getSprites());
+		Assert.assertEquals(3, frame.getTextureBinds());
+		Assert.assertEquals(5, frame.getBatchFlushes());
+		Assert.assertEquals(2, frame.getShaderSwitches());
+		mockery.assertIsSatisfied();
+	}
+
+	@Test
+	public void testHeadlessSpriteSorting() {
+		final Mockery mockery = new Mockery();
+		mockery.setImposteriser(ClassImposteriser.INSTANCE);
+		final Texture atlas1 = mockery.mock(Texture.class, "atlas1");
+		final Texture atlas2 = mockery.mock(Texture.class, "atlas2");
+
+		Graphics g = new HeadlessGraphics();
+		g.preRender(800, 600);
+		g.beginSpriteSorting();
+		for (int i = 0; i < 10; i++) {
+			g.drawTexture(i % 2 == 0 ? atlas1 : atlas2, 0f, 0f, 32f, 32f);
+		}
+		/* Non-sortable draws render the deferred sprites first */
+		g.fillRect(0f, 0f, 32f, 32f);
+
+		g.setSpriteSortKey(1, 0f);
+		g.drawTexture(atlas1, 0f, 0f, 32f, 32f);
+		g.setSpriteSortKey(0, 0f);
+		g.drawTexture(atlas2, 0f, 0f, 32f, 32f);
+		g.endSpriteSorting();
+		g.postRender();
+
+		RenderStatistics.Counters frame = g.getRenderStatistics().getFrame();
+		Assert.assertEquals(13, frame.getSprites());
+		Assert.assertEquals(5, frame.getTextureBinds());
+		Assert.assertEquals(5, frame.getBatchFlushes());
+		mockery.assertIsSatisfied();
+	}
+}
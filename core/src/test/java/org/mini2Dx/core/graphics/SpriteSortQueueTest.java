@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.core.graphics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link SpriteSortQueue}
+ */
+public class SpriteSortQueueTest {
+	private final Object texture1 = new Object();
+	private final Object texture2 = new Object();
+
+	private SpriteSortQueue queue;
+
+	@Before
+	public void setUp() {
+		queue = new SpriteSortQueue(4);
+	}
+
+	@Test
+	public void testSortsByLayerThenDepthThenTexture() {
+		queue.add(1, 0f, texture1);
+		queue.add(0, 5f, texture1);
+		queue.add(0, 5f, texture2);
+		queue.add(0, 5f, texture1);
+		queue.add(0, -2.5f, texture2);
+		queue.add(-1, 100f, texture2);
+
+		assertOrder(5, 4, 1, 3, 2, 0);
+	}
+
+	@Test
+	public void testStableWithinEqualKeys() {
+		for (int i = 0; i < 10; i++) {
+			queue.add(0, 0f, texture1);
+		}
+		assertOrder(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+	}
+
+	@Test
+	public void testNullTexture() {
+		queue.add(0, 0f, null);
+		queue.add(0, 0f, texture1);
+		assertOrder(1, 0);
+		Assert.assertNull(queue.getTexture(0));
+		Assert.assertEquals(texture1, queue.getTexture(1));
+	}
+
+	@Test
+	public void testClear() {
+		queue.add(0, 1f, texture1);
+		queue.add(0, 0f, texture2);
+		assertOrder(1, 0);
+
+		queue.clear();
+		Assert.assertEquals(0, queue.size());
+
+		/* Texture identifiers are reassigned after clearing */
+		queue.add(0, 0f, texture2);
+		queue.add(0, 0f, texture1);
+		queue.add(0, 0f, texture2);
+		assertOrder(0, 2, 1);
+	}
+
+	@Test
+	public void testMatchesStableSort() {
+		assertMatchesStableSort(5000);
+	}
+
+	@Test
+	public void testSmallQueueMatchesStableSort() {
+		assertMatchesStableSort(40);
+	}
+
+	@Test
+	public void testSortAfterAddingToSortedQueue() {
+		queue.add(0, 2f, texture1);
+		queue.add(0, 1f, texture1);
+		assertOrder(1, 0);
+
+		queue.add(0, 0f, texture2);
+		queue.add(0, 1f, texture1);
+		assertOrder(2, 1, 3, 0);
+	}
+
+	@Test
+	public void testSyntheticSceneFlushes() {
+		final int totalSprites = 20000;
+		final Random random = new Random(20000);
+		final Object[] atlases = new Object[8];
+		for (int i = 0; i < atlases.length; i++) {
+			atlases[i] = new Object();
+		}
+
+		final int[] layers = new int[totalSprites];
+		final float[] depths = new float[totalSprites];
+		final Object[] textures = new Object[totalSprites];
+		for (int i = 0; i < totalSprites; i++) {
+			layers[i] = random.nextInt(3);
+			depths[i] = random.nextInt(64) * 32f;
+			textures[i] = atlases[random.nextInt(atlases.length)];
+		}
+
+		final RenderStatistics renderStatistics = new RenderStatistics();
+		renderStatistics.beginFrame();
+		for (int i = 0; i < totalSprites; i++) {
+			renderStatistics.markSprite(textures[i]);
+		}
+		renderStatistics.endFrame();
+		final int unsortedFlushes = renderStatistics.getFrame().getBatchFlushes();
+
+		/* Layer and texture only */
+		for (int i = 0; i < totalSprites; i++) {
+			queue.add(layers[i], 0f, textures[i]);
+		}
+		final int layerFlushes = getSortedFlushes(renderStatistics);
+		queue.clear();
+
+		/* Painter's order by row within each layer */
+		for (int i = 0; i < totalSprites; i++) {
+			queue.add(layers[i], depths[i], textures[i]);
+		}
+		final int depthFlushes = getSortedFlushes(renderStatistics);
+
+		Assert.assertTrue(unsortedFlushes > 17000);
+		Assert.assertEquals(3 * atlases.length, layerFlushes);
+		Assert.assertTrue(depthFlushes <= 3 * 64 * atlases.length);
+		Assert.assertTrue(depthFlushes < unsortedFlushes / 10);
+	}
+
+	private void assertMatchesStableSort(int totalSprites) {
+		final Random random = new Random(5021);
+		final Object[] textures = new Object[12];
+		for (int i = 0; i < textures.length; i++) {
+			textures[i] = new Object();
+		}
+
+		final List<int[]> expected = new ArrayList<int[]>();
+		final List<Object> firstSeen = new ArrayList<Object>();
+		final float[] depths = new float[totalSprites];
+		for (int i = 0; i < depths.length; i++) {
+			final int layer = random.nextInt(7) - 3;
+			depths[i] = (random.nextInt(200) - 100) * 0.5f;
+			final Object texture = textures[random.nextInt(textures.length)];
+			if (!firstSeen.contains(texture)) {
+				firstSeen.add(texture);
+			}
+			expected.add(new int[] { layer, i, firstSeen.indexOf(texture) });
+			queue.add(layer, depths[i], texture);
+		}
+		Collections.sort(expected, new Comparator<int[]>() {
+			@Override
+			public int compare(int[] o1, int[] o2) {
+				if (o1[0] != o2[0]) {
+					return o1[0] < o2[0] ? -1 : 1;
+				}
+				final int depth = Float.compare(depths[o1[1]], depths[o2[1]]);
+				if (depth != 0) {
+					return depth;
+				}
+				return o1[2] - o2[2];
+			}
+		});
+
+		Assert.assertEquals(expected.size(), queue.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals(expected.get(i)[1], queue.get(i));
+		}
+	}
+
+	private int getSortedFlushes(RenderStatistics renderStatistics) {
+		renderStatistics.beginFrame();
+		for (int i = 0; i < queue.size(); i++) {
+			renderStatistics.markSprite(queue.getTexture(queue.get(i)));
+		}
+		renderStatistics.endFrame();
+		return renderStatistics.getFrame().getBatchFlushes();
+	}
+
+	private void assertOrder(int... expected) {
+		Assert.assertEquals(expected.length, queue.size());
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertEquals(expected[i], queue.get(i));
+		}
+	}
+}
@@ -24,6 +24,7 @@ import org.mini2Dx.core.Mdx;
 import org.mini2Dx.core.audio.Mini2DxAudio;
 import org.mini2Dx.core.game.ApplicationListener;
 import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.game.UpdatePipeline;
 import org.mini2Dx.desktop.DesktopGameWrapper;
 import org.mini2Dx.desktop.DesktopMini2DxConfig;
 
@@ -150,6 +151,7 @@ public class DesktopMini2DxGame implements Application {
 		float maximumDelta = 1f / config.targetFPS;
 		float accumulator = 0f;
 		float targetTimestep = config.targetTimestep;
+		UpdatePipeline updatePipeline = config.pipelineUpdates ? new UpdatePipeline(listener, targetTimestep) : null;
 
 		boolean wasPaused = false;
 		while (running) {
@@ -242,17 +244,31 @@ public class DesktopMini2DxGame implements Application {
 
 				accumulator += delta;
 
-				while (accumulator >= targetTimestep) {
-					Mdx.performanceTracker.markUpdateBegin();
+				if (updatePipeline != null) {
 					input.update();
 					input.processEvents();
-					listener.update(targetTimestep);
-					Mdx.performanceTracker.markUpdateEnd();
-					accumulator -= targetTimestep;
-				}
-				listener.interpolate(accumulator / targetTimestep);
 
-				listener.render();
+					int totalUpdates = 0;
+					while (accumulator >= targetTimestep) {
+						totalUpdates++;
+						accumulator -= targetTimestep;
+					}
+					updatePipeline.dispatch(totalUpdates, accumulator / targetTimestep);
+					listener.render();
+					updatePipeline.await();
+				} else {
+					while (accumulator >= targetTimestep) {
+						Mdx.performanceTracker.markUpdateBegin();
+						input.update();
+						input.processEvents();
+						listener.update(targetTimestep);
+						Mdx.performanceTracker.markUpdateEnd();
+						accumulator -= targetTimestep;
+					}
+					listener.interpolate(accumulator / targetTimestep);
+
+					listener.render();
+				}
 				Display.update(false);
 			} else {
 				// Sleeps to avoid wasting CPU in an empty loop.
@@ -270,6 +286,9 @@ public class DesktopMini2DxGame implements Application {
 				Display.sync(frameRate);
 			}
 		}
+		if (updatePipeline != null) {
+			updatePipeline.dispose();
+		}
 
 		synchronized (lifecycleListeners) {
 			for (LifecycleListener listener : lifecycleListeners) {
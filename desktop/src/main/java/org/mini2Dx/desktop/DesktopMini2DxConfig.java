@@ -36,6 +36,14 @@ public class DesktopMini2DxConfig extends LwjglApplicationConfiguration {
 	 * To stop rendering when not the foreground window, use backgroundFPS -1.
 	 */
 	public boolean pauseWhenBackground = false;
+	/**
+	 * True if updates should run on a separate thread to rendering. Each frame
+	 * renders the snapshot published by the previous frame's updates while
+	 * the current frame's updates execute.
+	 * 
+	 * @see org.mini2Dx.core.game.GameContainer#publishSnapshot()
+	 */
+	public boolean pipelineUpdates = false;
 	
 	public DesktopMini2DxConfig(String gameIdentifier) {
 		this.gameIdentifier = gameIdentifier;
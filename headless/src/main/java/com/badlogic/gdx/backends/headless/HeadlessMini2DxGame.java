@@ -15,11 +15,17 @@
  ******************************************************************************/
 package com.badlogic.gdx.backends.headless;
 
+import java.nio.file.Paths;
+
 import org.mini2Dx.core.Mdx;
 import org.mini2Dx.core.game.ApplicationListener;
 import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.game.UpdatePipeline;
 import org.mini2Dx.headless.HeadlessGameWrapper;
 import org.mini2Dx.headless.HeadlessMini2DxConfig;
+import org.mini2Dx.headless.replay.TickRecorder;
+import org.mini2Dx.headless.replay.TickReplayResult;
+import org.mini2Dx.headless.replay.TickReplayer;
 
 import com.badlogic.gdx.Application;
 import com.badlogic.gdx.ApplicationLogger;
@@ -46,6 +52,10 @@ import com.badlogic.gdx.utils.TimeUtils;
  * LibGDX's LwjglApplication class</a>
  * 
  * The executeGame loop follows mini2Dx sequence: update, interpolate, render and tries to stay close to targetFps 
+ * 
+ * The executeSimulation loop (see {@link HeadlessMini2DxConfig#simulate}) only calls update, either as fast as possible or at a multiple of real time
+ * 
+ * The executeReplay loop (see {@link HeadlessMini2DxConfig#replayFile}) replays a recorded tick log as fast as possible
  */
 public class HeadlessMini2DxGame implements Application {
 	protected final HeadlessMini2DxConfig config;
@@ -54,7 +64,9 @@ public class HeadlessMini2DxGame implements Application {
 	protected final HeadlessFiles files;
 	protected final MockInput input;
 	protected final HeadlessNet net;
+	protected final GameContainer game;
 	protected final ApplicationListener listener;
+	protected final TickRecorder tickRecorder;
 	protected Thread mainLoopThread;
 	protected boolean running = true;
 	protected final Array<Runnable> runnables = new Array<Runnable>();
@@ -63,12 +75,23 @@ public class HeadlessMini2DxGame implements Application {
 	protected int logLevel = LOG_INFO;
 	protected ApplicationLogger applicationLogger;
 	protected String preferencesdir;
+	protected volatile long totalTicks;
+	protected volatile long simulationStartTime, simulationEndTime;
+	protected volatile TickReplayResult replayResult;
 
 	public HeadlessMini2DxGame(GameContainer game, HeadlessMini2DxConfig config) {
 		setApplicationLogger(new HeadlessApplicationLogger());
 		
 		this.config = config;
-		listener = new HeadlessGameWrapper(game, config.gameIdentifier);
+		this.game = game;
+		if (config.recordFile != null && config.replayFile == null) {
+			tickRecorder = new TickRecorder(new HeadlessGameWrapper(game, config.gameIdentifier), game,
+					Paths.get(config.recordFile), config.checksumInterval);
+			listener = tickRecorder;
+		} else {
+			tickRecorder = null;
+			listener = new HeadlessGameWrapper(game, config.gameIdentifier);
+		}
 
 		this.files = new HeadlessFiles();
 		this.net = new HeadlessNet();
@@ -101,7 +124,13 @@ public class HeadlessMini2DxGame implements Application {
 			@Override
 			public void run() {
 				try {
-					HeadlessMini2DxGame.this.executeGame();
+					if (config.replayFile != null) {
+						HeadlessMini2DxGame.this.executeReplay();
+					} else if (config.simulate) {
+						HeadlessMini2DxGame.this.executeSimulation();
+					} else {
+						HeadlessMini2DxGame.this.executeGame();
+					}
 				} catch (Throwable t) {
 					if (t instanceof RuntimeException)
 						throw (RuntimeException) t;
@@ -123,6 +152,7 @@ public class HeadlessMini2DxGame implements Application {
 		long fpsDeltaNanos = (long) (maximumDelta*1000000000f);
 		float accumulator = 0f;
 		float targetTimestep = config.targetTimestep;
+		UpdatePipeline updatePipeline = config.pipelineUpdates ? new UpdatePipeline(listener, targetTimestep) : null;
 
 		while (running) {
 
@@ -144,21 +174,90 @@ public class HeadlessMini2DxGame implements Application {
 
 			accumulator += delta;
 
-			while (accumulator >= targetTimestep) {
-				Mdx.performanceTracker.markUpdateBegin();
-				listener.update(targetTimestep);
-				Mdx.performanceTracker.markUpdateEnd();
-				accumulator -= targetTimestep;
-			}
-			listener.interpolate(accumulator / targetTimestep);
+			if (updatePipeline != null) {
+				int totalUpdates = 0;
+				while (accumulator >= targetTimestep) {
+					totalUpdates++;
+					accumulator -= targetTimestep;
+				}
+				updatePipeline.dispatch(totalUpdates, accumulator / targetTimestep);
+				listener.render();
+				updatePipeline.await();
+			} else {
+				while (accumulator >= targetTimestep) {
+					Mdx.performanceTracker.markUpdateBegin();
+					listener.update(targetTimestep);
+					Mdx.performanceTracker.markUpdateEnd();
+					accumulator -= targetTimestep;
+				}
+				listener.interpolate(accumulator / targetTimestep);
 
-			listener.render();
+				listener.render();
+			}
 
 			if (frameRate > 0) {
 				graphics.sleepTillDeltaTime(fpsDeltaNanos);
 			}
 		}
+		if (updatePipeline != null) {
+			updatePipeline.dispose();
+		}
+		disposeGame();
+	}
+
+	void executeSimulation() {
+		listener.create();
+
+		float targetTimestep = config.targetTimestep;
+		long tickDurationNanos = 0L;
+		if (config.simulationSpeed > 0f) {
+			tickDurationNanos = (long) ((targetTimestep * 1000000000.0) / config.simulationSpeed);
+		}
+		simulationStartTime = System.nanoTime();
+		long nextTickTime = simulationStartTime;
+
+		while (running) {
+			graphics.updateTime();
+			graphics.incrementFrameId();
+
+			executeRunnables();
+			// If one of the runnables set running to false, for example after
+			// an exit().
+			if (!running) {
+				break;
+			}
+
+			Mdx.performanceTracker.markUpdateBegin();
+			listener.update(targetTimestep);
+			Mdx.performanceTracker.markUpdateEnd();
+			totalTicks++;
+
+			if (tickDurationNanos > 0L) {
+				nextTickTime += tickDurationNanos;
+				long sleepTimeNanos = nextTickTime - System.nanoTime();
+				if (sleepTimeNanos > 0L) {
+					try {
+						Thread.sleep(sleepTimeNanos / 1000000L, (int) (sleepTimeNanos % 1000000L));
+					} catch (InterruptedException e) {}
+				}
+			}
+		}
+		simulationEndTime = System.nanoTime();
+		log("HeadlessMini2DxGame", "Simulated " + totalTicks + " ticks at " + getTicksPerSecond() + " ticks/second");
+		disposeGame();
+	}
 
+	void executeReplay() {
+		listener.create();
+
+		executeRunnables();
+		TickReplayer tickReplayer = new TickReplayer(listener, game, Paths.get(config.replayFile));
+		replayResult = tickReplayer.replay();
+		log("HeadlessMini2DxGame", "Replayed " + config.replayFile + ": " + replayResult);
+		disposeGame();
+	}
+
+	private void disposeGame() {
 		synchronized (lifecycleListeners) {
 			for (LifecycleListener listener : lifecycleListeners) {
 				listener.pause();
@@ -169,6 +268,49 @@ public class HeadlessMini2DxGame implements Application {
 		listener.dispose();
 	}
 
+	/**
+	 * Returns the total number of updates executed in simulation mode
+	 * @return 0 if not simulating
+	 */
+	public long getTotalTicks() {
+		return totalTicks;
+	}
+
+	/**
+	 * Returns the average number of updates executed per second of real time
+	 * in simulation mode
+	 * @return 0 if not simulating
+	 */
+	public double getTicksPerSecond() {
+		if (simulationStartTime == 0L) {
+			return 0.0;
+		}
+		long endTime = simulationEndTime == 0L ? System.nanoTime() : simulationEndTime;
+		long elapsedNanos = endTime - simulationStartTime;
+		if (elapsedNanos <= 0L) {
+			return 0.0;
+		}
+		return (totalTicks * 1000000000.0) / elapsedNanos;
+	}
+
+	/**
+	 * Returns the result of replaying {@link HeadlessMini2DxConfig#replayFile}
+	 * @return Null if not replaying or the replay has not completed
+	 */
+	public TickReplayResult getReplayResult() {
+		return replayResult;
+	}
+
+	/**
+	 * Returns the recorder when {@link HeadlessMini2DxConfig#recordFile} is
+	 * set. Input events to be recorded should be passed to the recorder, e.g.
+	 * by calling {@link TickRecorder#install()} once the game has been created.
+	 * @return Null if not recording
+	 */
+	public TickRecorder getTickRecorder() {
+		return tickRecorder;
+	}
+
 	public boolean executeRunnables() {
 		synchronized (runnables) {
 			for (int i = runnables.size - 1; i >= 0; i--) {
@@ -0,0 +1,417 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.badlogic.gdx.backends.headless;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mini2Dx.core.Mdx;
+import org.mini2Dx.core.game.ApplicationListener;
+import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.desktop.playerdata.DesktopPlayerData;
+import org.mini2Dx.desktop.serialization.DesktopXmlSerializer;
+import org.mini2Dx.headless.HeadlessMini2DxConfig;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationLogger;
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.LifecycleListener;
+import com.badlogic.gdx.Net;
+import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.backends.headless.mock.audio.MockAudio;
+import com.badlogic.gdx.backends.headless.mock.graphics.Mini2DxHostedMockGraphics;
+import com.badlogic.gdx.backends.headless.mock.input.MockInput;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Clipboard;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Runs many independent headless games inside a single JVM. Each game is a
+ * {@link HeadlessMini2DxInstance} scheduled on a shared
+ * {@link ScheduledExecutorService} instead of owning a main loop thread.
+ *
+ * The host installs itself as {@link Gdx#app} and initialises the stateless
+ * {@link Gdx} and {@link Mdx} services (e.g. {@link Mdx#xml}) once. Calls to
+ * {@link #postRunnable(Runnable)}, {@link #exit()}, {@link Gdx#graphics} timing,
+ * {@link #getApplicationListener()}, {@link Mdx#performanceTracker},
+ * {@link Mdx#di} and {@link Mdx#playerData} are routed to the instance ticking
+ * on the calling thread so that games do not interfere with each other.
+ *
+ * Each instance ticks at targetTimestep / simulationSpeed, or as fast as
+ * possible if simulationSpeed is 0 or less. Only update is called - games
+ * should keep per-match state in their {@link GameContainer} rather than in
+ * other static fields (e.g. UiContainer state), which are shared by all
+ * games on the host.
+ */
+public class HeadlessMini2DxHost implements Application {
+	private static final String LOGGING_TAG = HeadlessMini2DxHost.class.getSimpleName();
+	private static final ThreadLocal<HeadlessMini2DxInstance> CURRENT_INSTANCE = new ThreadLocal<HeadlessMini2DxInstance>();
+
+	protected final HeadlessMini2DxConfig config;
+	protected final ScheduledThreadPoolExecutor executor;
+	protected final Mini2DxHostedMockGraphics graphics;
+	protected final MockAudio audio;
+	protected final HeadlessFiles files;
+	protected final MockInput input;
+	protected final HeadlessNet net;
+	protected final Array<HeadlessMini2DxInstance> instances = new Array<HeadlessMini2DxInstance>();
+	protected final Array<LifecycleListener> lifecycleListeners = new Array<LifecycleListener>();
+	protected final ObjectMap<String, Preferences> preferences = new ObjectMap<String, Preferences>();
+	protected int logLevel = LOG_INFO;
+	protected ApplicationLogger applicationLogger;
+	protected volatile boolean running = true;
+
+	/**
+	 * Constructor. Uses a thread per available processor.
+	 * @param config The host configuration. The gameIdentifier is used for {@link Mdx#playerData}.
+	 */
+	public HeadlessMini2DxHost(HeadlessMini2DxConfig config) {
+		this(config, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor
+	 * @param config The host configuration. The gameIdentifier is used for {@link Mdx#playerData}.
+	 * @param totalThreads The amount of threads to tick games on
+	 */
+	public HeadlessMini2DxHost(HeadlessMini2DxConfig config, int totalThreads) {
+		setApplicationLogger(new HeadlessApplicationLogger());
+
+		this.config = config;
+		this.files = new HeadlessFiles();
+		this.net = new HeadlessNet();
+		// the following elements are not applicable for headless applications
+		// they are only implemented as mock objects
+		this.graphics = new Mini2DxHostedMockGraphics(config);
+		this.audio = new MockAudio();
+		this.input = new MockInput();
+
+		this.executor = new ScheduledThreadPoolExecutor(totalThreads, new HostThreadFactory());
+		executor.setRemoveOnCancelPolicy(true);
+
+		initialiseLibGDX();
+		initialiseMini2Dx();
+	}
+
+	private void initialiseLibGDX() {
+		Gdx.app = this;
+		Gdx.graphics = graphics;
+		Gdx.audio = audio;
+		Gdx.files = files;
+		Gdx.input = input;
+		Gdx.net = net;
+	}
+
+	private void initialiseMini2Dx() {
+		Mdx.xml = new DesktopXmlSerializer();
+		Mdx.di = new Mini2DxHostedDependencyInjection();
+		Mdx.playerData = new Mini2DxHostedPlayerData(new DesktopPlayerData(config.gameIdentifier));
+		Mdx.performanceTracker = new Mini2DxHostedPerformanceTracker();
+	}
+
+	/**
+	 * Schedules a new game on this host
+	 * @param game The {@link GameContainer} to run
+	 * @param config The configuration for the game. runGame, simulate and pipelineUpdates are ignored.
+	 * @return The {@link HeadlessMini2DxInstance} for querying metrics or stopping the game
+	 */
+	public HeadlessMini2DxInstance launch(GameContainer game, HeadlessMini2DxConfig config) {
+		if (!running) {
+			throw new IllegalStateException("Cannot launch games after the host has been shutdown");
+		}
+		HeadlessMini2DxInstance instance = new HeadlessMini2DxInstance(this, game, config);
+		synchronized (instances) {
+			instances.add(instance);
+		}
+		if (instance.isUnthrottled()) {
+			executor.execute(instance);
+		} else {
+			long tickDurationNanos = (long) ((config.targetTimestep * 1000000000.0) / config.simulationSpeed);
+			instance.setFuture(executor.scheduleAtFixedRate(instance, 0L, tickDurationNanos, TimeUnit.NANOSECONDS));
+		}
+		return instance;
+	}
+
+	/**
+	 * Stops all games, waits for them to be disposed and then stops the host's threads
+	 * @throws InterruptedException Thrown if the calling thread is interrupted
+	 */
+	public void shutdown() throws InterruptedException {
+		running = false;
+		Array<HeadlessMini2DxInstance> remaining = getInstances();
+		for (int i = 0; i < remaining.size; i++) {
+			remaining.get(i).stop();
+		}
+		for (int i = 0; i < remaining.size; i++) {
+			remaining.get(i).awaitTermination();
+		}
+		synchronized (lifecycleListeners) {
+			for (LifecycleListener listener : lifecycleListeners) {
+				listener.pause();
+				listener.dispose();
+			}
+		}
+		executor.shutdown();
+		executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns a copy of the games that are still running
+	 * @return An empty {@link Array} if no games are running
+	 */
+	public Array<HeadlessMini2DxInstance> getInstances() {
+		synchronized (instances) {
+			return new Array<HeadlessMini2DxInstance>(instances);
+		}
+	}
+
+	/**
+	 * Returns the total amount of games still running
+	 * @return 0 if no games are running
+	 */
+	public int getTotalInstances() {
+		synchronized (instances) {
+			return instances.size;
+		}
+	}
+
+	/**
+	 * Returns the game currently ticking on the calling thread
+	 * @return Null if the calling thread is not ticking a game
+	 */
+	public static HeadlessMini2DxInstance getCurrentInstance() {
+		return CURRENT_INSTANCE.get();
+	}
+
+	void setCurrentInstance(HeadlessMini2DxInstance instance) {
+		if (instance == null) {
+			CURRENT_INSTANCE.remove();
+		} else {
+			CURRENT_INSTANCE.set(instance);
+		}
+	}
+
+	void execute(HeadlessMini2DxInstance instance) {
+		executor.execute(instance);
+	}
+
+	void removeInstance(HeadlessMini2DxInstance instance) {
+		synchronized (instances) {
+			instances.removeValue(instance, true);
+		}
+	}
+
+	@Override
+	public ApplicationListener getApplicationListener() {
+		HeadlessMini2DxInstance instance = getCurrentInstance();
+		if (instance == null) {
+			return null;
+		}
+		return instance.getApplicationListener();
+	}
+
+	@Override
+	public Audio getAudio() {
+		return audio;
+	}
+
+	@Override
+	public Files getFiles() {
+		return files;
+	}
+
+	@Override
+	public Graphics getGraphics() {
+		return graphics;
+	}
+
+	@Override
+	public Input getInput() {
+		return input;
+	}
+
+	@Override
+	public Net getNet() {
+		return net;
+	}
+
+	@Override
+	public ApplicationType getType() {
+		return ApplicationType.HeadlessDesktop;
+	}
+
+	@Override
+	public int getVersion() {
+		return 0;
+	}
+
+	@Override
+	public long getJavaHeap() {
+		return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+	}
+
+	@Override
+	public long getNativeHeap() {
+		return getJavaHeap();
+	}
+
+	@Override
+	public Preferences getPreferences(String name) {
+		synchronized (preferences) {
+			if (preferences.containsKey(name)) {
+				return preferences.get(name);
+			}
+			Preferences prefs = new HeadlessPreferences(name, config.preferencesDirectory);
+			preferences.put(name, prefs);
+			return prefs;
+		}
+	}
+
+	@Override
+	public Clipboard getClipboard() {
+		// no clipboards for headless apps
+		return null;
+	}
+
+	/**
+	 * Posts a {@link Runnable} to the game ticking on the calling thread. If
+	 * called from outside a game, the {@link Runnable} is executed on one of
+	 * the host's threads.
+	 */
+	@Override
+	public void postRunnable(Runnable runnable) {
+		HeadlessMini2DxInstance instance = getCurrentInstance();
+		if (instance == null) {
+			executor.execute(runnable);
+			return;
+		}
+		instance.postRunnable(runnable);
+	}
+
+	@Override
+	public void debug(String tag, String message) {
+		if (logLevel >= LOG_DEBUG) {
+			System.out.println(tag + ": " + message);
+		}
+	}
+
+	@Override
+	public void debug(String tag, String message, Throwable exception) {
+		if (logLevel >= LOG_DEBUG) {
+			System.out.println(tag + ": " + message);
+			exception.printStackTrace(System.out);
+		}
+	}
+
+	@Override
+	public void log(String tag, String message) {
+		if (logLevel >= LOG_INFO) {
+			System.out.println(tag + ": " + message);
+		}
+	}
+
+	@Override
+	public void log(String tag, String message, Throwable exception) {
+		if (logLevel >= LOG_INFO) {
+			System.out.println(tag + ": " + message);
+			exception.printStackTrace(System.out);
+		}
+	}
+
+	@Override
+	public void error(String tag, String message) {
+		if (logLevel >= LOG_ERROR) {
+			System.err.println(tag + ": " + message);
+		}
+	}
+
+	@Override
+	public void error(String tag, String message, Throwable exception) {
+		if (logLevel >= LOG_ERROR) {
+			System.err.println(tag + ": " + message);
+			exception.printStackTrace(System.err);
+		}
+	}
+
+	@Override
+	public void setLogLevel(int logLevel) {
+		this.logLevel = logLevel;
+	}
+
+	@Override
+	public int getLogLevel() {
+		return logLevel;
+	}
+
+	@Override
+	public void setApplicationLogger(ApplicationLogger applicationLogger) {
+		this.applicationLogger = applicationLogger;
+	}
+
+	@Override
+	public ApplicationLogger getApplicationLogger() {
+		return applicationLogger;
+	}
+
+	/**
+	 * Stops the game ticking on the calling thread. If called from outside a
+	 * game, the host is shutdown.
+	 */
+	@Override
+	public void exit() {
+		HeadlessMini2DxInstance instance = getCurrentInstance();
+		if (instance != null) {
+			instance.stop();
+			return;
+		}
+		Thread shutdownThread = new Thread(LOGGING_TAG + " Shutdown") {
+			@Override
+			public void run() {
+				try {
+					shutdown();
+				} catch (InterruptedException e) {
+				}
+			}
+		};
+		shutdownThread.start();
+	}
+
+	@Override
+	public void addLifecycleListener(LifecycleListener listener) {
+		synchronized (lifecycleListeners) {
+			lifecycleListeners.add(listener);
+		}
+	}
+
+	@Override
+	public void removeLifecycleListener(LifecycleListener listener) {
+		synchronized (lifecycleListeners) {
+			lifecycleListeners.removeValue(listener, true);
+		}
+	}
+
+	private static class HostThreadFactory implements ThreadFactory {
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			return new Thread(runnable, "Headless Host Thread " + threadCount.incrementAndGet());
+		}
+	}
+}
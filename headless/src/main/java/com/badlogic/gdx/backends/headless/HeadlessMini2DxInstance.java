@@ -0,0 +1,277 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.badlogic.gdx.backends.headless;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+
+import org.mini2Dx.core.di.DependencyInjection;
+import org.mini2Dx.core.game.ApplicationListener;
+import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.playerdata.PlayerData;
+import org.mini2Dx.core.util.PerformanceTracker;
+import org.mini2Dx.core.util.RollingAverage;
+import org.mini2Dx.desktop.di.DesktopDependencyInjection;
+import org.mini2Dx.desktop.playerdata.DesktopPlayerData;
+import org.mini2Dx.headless.HeadlessGameWrapper;
+import org.mini2Dx.headless.HeadlessMini2DxConfig;
+
+import com.badlogic.gdx.backends.headless.mock.graphics.Mini2DxMockGraphics;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * A single game running on a {@link HeadlessMini2DxHost}. Each tick executes
+ * any posted {@link Runnable}s and a single update with the configured
+ * targetTimestep. Ticks of the same instance never overlap but different
+ * instances tick in parallel on the host's threads. Each instance has its own
+ * {@link PerformanceTracker}, {@link DependencyInjection} and
+ * {@link PlayerData}.
+ *
+ * Instances are created via {@link HeadlessMini2DxHost#launch(GameContainer, HeadlessMini2DxConfig)}
+ */
+public class HeadlessMini2DxInstance implements Runnable {
+	private static final String LOGGING_TAG = HeadlessMini2DxInstance.class.getSimpleName();
+	private static final int UPDATE_DURATION_SAMPLES = 60;
+
+	private final HeadlessMini2DxHost host;
+	private final HeadlessMini2DxConfig config;
+	private final ApplicationListener listener;
+	private final Mini2DxMockGraphics graphics;
+	private final PerformanceTracker performanceTracker;
+	private final DependencyInjection dependencyInjection;
+	private final PlayerData playerData;
+	private final Array<Runnable> runnables = new Array<Runnable>();
+	private final Array<Runnable> executedRunnables = new Array<Runnable>();
+	private final RollingAverage averageUpdateDuration = new RollingAverage(UPDATE_DURATION_SAMPLES);
+	private final CountDownLatch terminationLatch = new CountDownLatch(1);
+
+	private volatile boolean running = true;
+	private volatile boolean disposed = false;
+	private volatile ScheduledFuture<?> future;
+	private boolean created = false;
+
+	private volatile long totalTicks;
+	private volatile long maxUpdateDuration;
+	private volatile long startTime, endTime;
+	private volatile Throwable error;
+
+	HeadlessMini2DxInstance(HeadlessMini2DxHost host, GameContainer game, HeadlessMini2DxConfig config) {
+		this.host = host;
+		this.config = config;
+		this.graphics = new Mini2DxMockGraphics(config);
+		this.performanceTracker = new PerformanceTracker();
+		this.dependencyInjection = new DesktopDependencyInjection();
+		this.playerData = new DesktopPlayerData(config.gameIdentifier);
+		this.listener = new HeadlessGameWrapper(game, config.gameIdentifier) {
+			@Override
+			public void initialise(String gameIdentifier) {
+				//Shared services are initialised once by the host
+			}
+		};
+	}
+
+	@Override
+	public void run() {
+		if (disposed) {
+			return;
+		}
+		host.setCurrentInstance(this);
+		try {
+			tick();
+		} catch (Throwable t) {
+			error = t;
+			running = false;
+			host.error(LOGGING_TAG, "Stopping " + config.gameIdentifier + " due to error", t);
+			dispose();
+		} finally {
+			host.setCurrentInstance(null);
+		}
+		if (!disposed && isUnthrottled()) {
+			host.execute(this);
+		}
+	}
+
+	private void tick() {
+		if (!created) {
+			listener.create();
+			created = true;
+			startTime = System.nanoTime();
+		}
+		graphics.updateTime();
+		graphics.incrementFrameId();
+
+		executeRunnables();
+		// If one of the runnables set running to false, for example after
+		// an exit().
+		if (running) {
+			long updateStart = System.nanoTime();
+			performanceTracker.markUpdateBegin();
+			listener.update(config.targetTimestep);
+			performanceTracker.markUpdateEnd();
+			long updateDuration = System.nanoTime() - updateStart;
+
+			averageUpdateDuration.mark(updateDuration);
+			if (updateDuration > maxUpdateDuration) {
+				maxUpdateDuration = updateDuration;
+			}
+			totalTicks++;
+		}
+		if (!running) {
+			dispose();
+		}
+	}
+
+	private void dispose() {
+		disposed = true;
+		endTime = System.nanoTime();
+		try {
+			if (created) {
+				listener.pause();
+				listener.dispose();
+			}
+		} finally {
+			if (future != null) {
+				future.cancel(false);
+			}
+			host.removeInstance(this);
+			terminationLatch.countDown();
+		}
+	}
+
+	private void executeRunnables() {
+		synchronized (runnables) {
+			for (int i = runnables.size - 1; i >= 0; i--) {
+				executedRunnables.add(runnables.get(i));
+			}
+			runnables.clear();
+		}
+		while (executedRunnables.size > 0) {
+			executedRunnables.pop().run();
+		}
+	}
+
+	/**
+	 * Posts a {@link Runnable} to be executed at the beginning of this
+	 * instance's next tick
+	 * @param runnable The {@link Runnable} to execute
+	 */
+	public void postRunnable(Runnable runnable) {
+		synchronized (runnables) {
+			runnables.add(runnable);
+		}
+	}
+
+	/**
+	 * Stops this instance. The game is disposed during its next tick.
+	 */
+	public void stop() {
+		running = false;
+	}
+
+	/**
+	 * Blocks until this instance has been disposed
+	 * @throws InterruptedException Thrown if the calling thread is interrupted
+	 */
+	public void awaitTermination() throws InterruptedException {
+		terminationLatch.await();
+	}
+
+	/**
+	 * Returns if this instance is still ticking
+	 * @return False once the game has been disposed
+	 */
+	public boolean isRunning() {
+		return !disposed;
+	}
+
+	/**
+	 * Returns the total number of updates executed by this instance
+	 * @return 0 if the game has not ticked yet
+	 */
+	public long getTotalTicks() {
+		return totalTicks;
+	}
+
+	/**
+	 * Returns the average number of updates executed per second of real time
+	 * @return 0 if the game has not ticked yet
+	 */
+	public double getTicksPerSecond() {
+		if (startTime == 0L) {
+			return 0.0;
+		}
+		long elapsedNanos = (disposed ? endTime : System.nanoTime()) - startTime;
+		if (elapsedNanos <= 0L) {
+			return 0.0;
+		}
+		return (totalTicks * 1000000000.0) / elapsedNanos;
+	}
+
+	/**
+	 * Returns the rolling average duration of update()
+	 * @return The average duration in nanoseconds
+	 */
+	public double getAverageUpdateDuration() {
+		return averageUpdateDuration.getAverage();
+	}
+
+	/**
+	 * Returns the longest duration of update() since the game started
+	 * @return The duration in nanoseconds
+	 */
+	public long getMaxUpdateDuration() {
+		return maxUpdateDuration;
+	}
+
+	/**
+	 * Returns the error that stopped this instance
+	 * @return Null if the instance is running or was stopped normally
+	 */
+	public Throwable getError() {
+		return error;
+	}
+
+	public HeadlessMini2DxConfig getConfig() {
+		return config;
+	}
+
+	public ApplicationListener getApplicationListener() {
+		return listener;
+	}
+
+	public Mini2DxMockGraphics getGraphics() {
+		return graphics;
+	}
+
+	public PerformanceTracker getPerformanceTracker() {
+		return performanceTracker;
+	}
+
+	public DependencyInjection getDependencyInjection() {
+		return dependencyInjection;
+	}
+
+	public PlayerData getPlayerData() {
+		return playerData;
+	}
+
+	boolean isUnthrottled() {
+		return config.simulationSpeed <= 0f;
+	}
+
+	void setFuture(ScheduledFuture<?> future) {
+		this.future = future;
+		if (disposed) {
+			future.cancel(false);
+		}
+	}
+}
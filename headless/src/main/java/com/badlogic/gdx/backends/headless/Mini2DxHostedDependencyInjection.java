@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.badlogic.gdx.backends.headless;
+
+import org.mini2Dx.core.Mdx;
+import org.mini2Dx.core.di.BeanUtils;
+import org.mini2Dx.core.di.DependencyInjection;
+import org.mini2Dx.desktop.di.DesktopDependencyInjection;
+
+/**
+ * The {@link Mdx#di} shared by all games running on a
+ * {@link HeadlessMini2DxHost}. Calls are delegated to the
+ * {@link DependencyInjection} of the {@link HeadlessMini2DxInstance} currently
+ * ticking on the calling thread so that each game has its own beans.
+ */
+public class Mini2DxHostedDependencyInjection extends DesktopDependencyInjection {
+
+	@Override
+	public <T> void presetSingleton(T ref, Class<T> clazz) {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.presetSingleton(ref, clazz);
+			return;
+		}
+		instance.getDependencyInjection().presetSingleton(ref, clazz);
+	}
+
+	@Override
+	public <T> void presetSingleton(Class<T> clazz) throws Exception {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.presetSingleton(clazz);
+			return;
+		}
+		instance.getDependencyInjection().presetSingleton(clazz);
+	}
+
+	@Override
+	public <T> void presetPrototype(Class<T> clazz) throws Exception {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.presetPrototype(clazz);
+			return;
+		}
+		instance.getDependencyInjection().presetPrototype(clazz);
+	}
+
+	@Override
+	public void scan(String... packageNames) throws Exception {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.scan(packageNames);
+			return;
+		}
+		instance.getDependencyInjection().scan(packageNames);
+	}
+
+	@Override
+	public void shutdown() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.shutdown();
+			return;
+		}
+		instance.getDependencyInjection().shutdown();
+	}
+
+	@Override
+	public <T> T getBean(Class<T> clazz) {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return super.getBean(clazz);
+		}
+		return instance.getDependencyInjection().getBean(clazz);
+	}
+
+	@Override
+	public BeanUtils beanUtils() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return super.beanUtils();
+		}
+		return instance.getDependencyInjection().beanUtils();
+	}
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.badlogic.gdx.backends.headless;
+
+import org.mini2Dx.core.Mdx;
+import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.core.util.PerformanceTracker;
+
+/**
+ * The {@link Mdx#performanceTracker} shared by all games running on a
+ * {@link HeadlessMini2DxHost}. Calls are delegated to the
+ * {@link PerformanceTracker} of the {@link HeadlessMini2DxInstance} currently
+ * ticking on the calling thread.
+ */
+public class Mini2DxHostedPerformanceTracker extends PerformanceTracker {
+
+	@Override
+	public void markUpdateBegin() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.markUpdateBegin();
+			return;
+		}
+		instance.getPerformanceTracker().markUpdateBegin();
+	}
+
+	@Override
+	public void markUpdateEnd() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.markUpdateEnd();
+			return;
+		}
+		instance.getPerformanceTracker().markUpdateEnd();
+	}
+
+	@Override
+	public void markFrame() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.markFrame();
+			return;
+		}
+		instance.getPerformanceTracker().markFrame();
+	}
+
+	@Override
+	public int getUpdatesPerSecond() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return super.getUpdatesPerSecond();
+		}
+		return instance.getPerformanceTracker().getUpdatesPerSecond();
+	}
+
+	@Override
+	public int getFramesPerSecond() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return super.getFramesPerSecond();
+		}
+		return instance.getPerformanceTracker().getFramesPerSecond();
+	}
+
+	@Override
+	public double getAverageUpdateDuration() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return super.getAverageUpdateDuration();
+		}
+		return instance.getPerformanceTracker().getAverageUpdateDuration();
+	}
+
+	@Override
+	public boolean isRenderStatisticsVisible() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return super.isRenderStatisticsVisible();
+		}
+		return instance.getPerformanceTracker().isRenderStatisticsVisible();
+	}
+
+	@Override
+	public void setRenderStatisticsVisible(boolean renderStatisticsVisible) {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.setRenderStatisticsVisible(renderStatisticsVisible);
+			return;
+		}
+		instance.getPerformanceTracker().setRenderStatisticsVisible(renderStatisticsVisible);
+	}
+
+	@Override
+	public void draw(Graphics g, float x, float y) {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.draw(g, x, y);
+			return;
+		}
+		instance.getPerformanceTracker().draw(g, x, y);
+	}
+
+	@Override
+	public void draw(Graphics g, float x, float y, float targetWidth, int horizontalAlign) {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.draw(g, x, y, targetWidth, horizontalAlign);
+			return;
+		}
+		instance.getPerformanceTracker().draw(g, x, y, targetWidth, horizontalAlign);
+	}
+
+	@Override
+	public void drawInTopLeft(Graphics g) {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.drawInTopLeft(g);
+			return;
+		}
+		instance.getPerformanceTracker().drawInTopLeft(g);
+	}
+
+	@Override
+	public void drawInTopRight(Graphics g) {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.drawInTopRight(g);
+			return;
+		}
+		instance.getPerformanceTracker().drawInTopRight(g);
+	}
+
+	@Override
+	public void drawInBottomLeft(Graphics g) {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.drawInBottomLeft(g);
+			return;
+		}
+		instance.getPerformanceTracker().drawInBottomLeft(g);
+	}
+
+	@Override
+	public void drawInBottomRight(Graphics g) {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			super.drawInBottomRight(g);
+			return;
+		}
+		instance.getPerformanceTracker().drawInBottomRight(g);
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.badlogic.gdx.backends.headless;
+
+import org.mini2Dx.core.Mdx;
+import org.mini2Dx.core.playerdata.PlayerData;
+import org.mini2Dx.core.playerdata.PlayerDataException;
+import org.mini2Dx.core.serialization.GameDataSerializable;
+
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * The {@link Mdx#playerData} shared by all games running on a
+ * {@link HeadlessMini2DxHost}. Calls are delegated to the {@link PlayerData}
+ * of the {@link HeadlessMini2DxInstance} currently ticking on the calling
+ * thread so that each game reads and writes its own gameIdentifier's data.
+ */
+public class Mini2DxHostedPlayerData implements PlayerData {
+	private final PlayerData hostPlayerData;
+
+	/**
+	 * Constructor
+	 * @param hostPlayerData The {@link PlayerData} to use when called from outside a game
+	 */
+	public Mini2DxHostedPlayerData(PlayerData hostPlayerData) {
+		this.hostPlayerData = hostPlayerData;
+	}
+
+	private PlayerData getPlayerData() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return hostPlayerData;
+		}
+		return instance.getPlayerData();
+	}
+
+	@Override
+	public FileHandle getFileHandle(String... filepath) {
+		return getPlayerData().getFileHandle(filepath);
+	}
+
+	@Override
+	public String readString(String... filepath) throws PlayerDataException {
+		return getPlayerData().readString(filepath);
+	}
+
+	@Override
+	public void writeString(String content, String... filepath) throws PlayerDataException {
+		getPlayerData().writeString(content, filepath);
+	}
+
+	@Override
+	public <T extends GameDataSerializable> void readBytes(T result, String... filepath) throws PlayerDataException {
+		getPlayerData().readBytes(result, filepath);
+	}
+
+	@Override
+	public <T extends GameDataSerializable> void writeBytes(T obj, String... filepath) throws PlayerDataException {
+		getPlayerData().writeBytes(obj, filepath);
+	}
+
+	@Override
+	public <T> T readXml(Class<T> clazz, String... filepath) throws PlayerDataException {
+		return getPlayerData().readXml(clazz, filepath);
+	}
+
+	@Override
+	public <T> void writeXml(T object, String... filepath) throws PlayerDataException {
+		getPlayerData().writeXml(object, filepath);
+	}
+
+	@Override
+	public <T> T readJson(Class<T> clazz, String... filepath) throws PlayerDataException {
+		return getPlayerData().readJson(clazz, filepath);
+	}
+
+	@Override
+	public <T> void writeJson(T object, String... filepath) throws PlayerDataException {
+		getPlayerData().writeJson(object, filepath);
+	}
+
+	@Override
+	public boolean hasFile(String... filepath) throws PlayerDataException {
+		return getPlayerData().hasFile(filepath);
+	}
+
+	@Override
+	public boolean hasDirectory(String... path) throws PlayerDataException {
+		return getPlayerData().hasDirectory(path);
+	}
+
+	@Override
+	public void createDirectory(String... path) throws PlayerDataException {
+		getPlayerData().createDirectory(path);
+	}
+
+	@Override
+	public boolean delete(String... path) throws PlayerDataException {
+		return getPlayerData().delete(path);
+	}
+
+	@Override
+	public void wipe() throws PlayerDataException {
+		getPlayerData().wipe();
+	}
+}
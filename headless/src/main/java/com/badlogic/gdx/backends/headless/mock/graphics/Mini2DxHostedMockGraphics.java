@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.badlogic.gdx.backends.headless.mock.graphics;
+
+import org.mini2Dx.headless.HeadlessMini2DxConfig;
+
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.backends.headless.HeadlessMini2DxHost;
+import com.badlogic.gdx.backends.headless.HeadlessMini2DxInstance;
+
+/**
+ * The {@link Graphics} instance shared by all games running on a
+ * {@link HeadlessMini2DxHost}. Frame timing is delegated to the graphics of
+ * the {@link HeadlessMini2DxInstance} currently ticking on the calling thread.
+ */
+public class Mini2DxHostedMockGraphics extends Mini2DxMockGraphics {
+
+	public Mini2DxHostedMockGraphics(HeadlessMini2DxConfig config) {
+		super(config);
+	}
+
+	@Override
+	public long getFrameId() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return super.getFrameId();
+		}
+		return instance.getGraphics().getFrameId();
+	}
+
+	@Override
+	public float getDeltaTime() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return super.getDeltaTime();
+		}
+		return instance.getGraphics().getDeltaTime();
+	}
+
+	@Override
+	public float getRawDeltaTime() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return super.getRawDeltaTime();
+		}
+		return instance.getGraphics().getRawDeltaTime();
+	}
+
+	@Override
+	public int getFramesPerSecond() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return super.getFramesPerSecond();
+		}
+		return instance.getGraphics().getFramesPerSecond();
+	}
+
+	@Override
+	public int getWidth() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return super.getWidth();
+		}
+		return instance.getGraphics().getWidth();
+	}
+
+	@Override
+	public int getHeight() {
+		HeadlessMini2DxInstance instance = HeadlessMini2DxHost.getCurrentInstance();
+		if (instance == null) {
+			return super.getHeight();
+		}
+		return instance.getGraphics().getHeight();
+	}
+}
@@ -43,6 +43,51 @@ public class HeadlessMini2DxConfig extends HeadlessApplicationConfiguration {
 	 */
 	public boolean runGame = true;
 	
+	/**
+	 * True if updates should run on a separate thread to rendering. Each frame
+	 * renders the snapshot published by the previous frame's updates while
+	 * the current frame's updates execute.
+	 * 
+	 * @see org.mini2Dx.core.game.GameContainer#publishSnapshot()
+	 */
+	public boolean pipelineUpdates = false;
+	
+	/**
+	 * True if the game should only be updated. When simulating,
+	 * interpolate and render are never called and update is called with
+	 * targetTimestep as fast as possible or at simulationSpeed.
+	 */
+	public boolean simulate = false;
+	
+	/**
+	 * The multiple of real time to simulate at (e.g. 2.0 = twice as fast as
+	 * real time). Values of 0 or less simulate as fast as possible.
+	 */
+	public float simulationSpeed = 0f;
+	
+	/**
+	 * If set, update ticks and input events are recorded to this file
+	 * 
+	 * @see org.mini2Dx.headless.replay.TickRecorder
+	 */
+	public String recordFile = null;
+	
+	/**
+	 * If set, the tick log in this file is replayed as fast as possible
+	 * instead of running the game loop. Tick duration percentiles are logged
+	 * once the replay completes.
+	 * 
+	 * @see org.mini2Dx.headless.replay.TickReplayer
+	 */
+	public String replayFile = null;
+	
+	/**
+	 * The amount of ticks between state checksums when recording. Only used
+	 * if the game implements
+	 * {@link org.mini2Dx.headless.replay.ReplayChecksumProvider}
+	 */
+	public int checksumInterval = 60;
+	
 	public HeadlessMini2DxConfig(String gameIdentifier) {
 		this.gameIdentifier = gameIdentifier;
 	}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.headless.replay;
+
+import org.mini2Dx.core.exception.MdxException;
+
+/**
+ * Thrown when a replayed game's state checksum does not match the recorded
+ * checksum
+ */
+public class ReplayDesyncException extends MdxException {
+	private static final long serialVersionUID = 2919736104468917364L;
+
+	private final long tick, expectedChecksum, actualChecksum;
+
+	public ReplayDesyncException(long tick, long expectedChecksum, long actualChecksum) {
+		super("Replay desynced at tick " + tick + ". Expected checksum " + expectedChecksum + " but was "
+				+ actualChecksum);
+		this.tick = tick;
+		this.expectedChecksum = expectedChecksum;
+		this.actualChecksum = actualChecksum;
+	}
+
+	public long getTick() {
+		return tick;
+	}
+
+	public long getExpectedChecksum() {
+		return expectedChecksum;
+	}
+
+	public long getActualChecksum() {
+		return actualChecksum;
+	}
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.headless.replay;
+
+/**
+ * Constants for the binary tick log written by {@link TickRecorder} and read
+ * by {@link TickReplayer}.
+ *
+ * The log begins with {@link #MAGIC}, {@link #VERSION} and the checksum
+ * interval followed by a stream of records. Each record is a single type
+ * byte followed by its payload.
+ */
+final class TickLog {
+	static final int MAGIC = 0x4D445852;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 12;
+	/**
+	 * The largest possible record size (type + 4 ints)
+	 */
+	static final int MAX_RECORD_SIZE = 17;
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * update(delta): float delta
+	 */
+	static final byte TICK = 1;
+	/**
+	 * State checksum after a tick: long tick, long checksum
+	 */
+	static final byte CHECKSUM = 2;
+	static final byte KEY_DOWN = 3;
+	static final byte KEY_UP = 4;
+	static final byte KEY_TYPED = 5;
+	static final byte TOUCH_DOWN = 6;
+	static final byte TOUCH_UP = 7;
+	static final byte TOUCH_DRAGGED = 8;
+	static final byte MOUSE_MOVED = 9;
+	static final byte SCROLLED = 10;
+
+	private TickLog() {
+	}
+}
@@ -0,0 +1,344 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.headless.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.mini2Dx.core.exception.MdxException;
+import org.mini2Dx.core.game.ApplicationListener;
+import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.game.PipelinedApplicationListener;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputProcessor;
+
+/**
+ * Wraps an {@link ApplicationListener} and records each update(delta) tick
+ * and any input events passed to this recorder into a binary log for replay
+ * by {@link TickReplayer}.
+ *
+ * Records are appended to a buffer which is streamed to a {@link FileChannel}
+ * as it fills. If the {@link GameContainer} implements
+ * {@link ReplayChecksumProvider}, its checksum is recorded every
+ * checksumInterval ticks.
+ *
+ * Input events are forwarded to the delegate {@link InputProcessor} after
+ * being recorded. Input must be passed to this recorder (rather than the game
+ * directly) for it to be replayed, e.g. by calling {@link #install()}, and,
+ * like update, must be called on the game loop thread (e.g. via
+ * Gdx.app.postRunnable) so that events are recorded in the order the game
+ * receives them.
+ */
+public class TickRecorder implements PipelinedApplicationListener, InputProcessor {
+	private final ApplicationListener listener;
+	private final GameContainer gameContainer;
+	private final int checksumInterval;
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(TickLog.BUFFER_SIZE);
+
+	private InputProcessor inputProcessor;
+	private long totalTicks;
+	private boolean closed = false;
+
+	/**
+	 * Constructor
+	 * @param listener The {@link ApplicationListener} to record
+	 * @param gameContainer The {@link GameContainer} being updated by the listener
+	 * @param path The file to record to. Any existing file is overwritten.
+	 * @param checksumInterval The amount of ticks between checksums. 0 or less disables checksums.
+	 */
+	public TickRecorder(ApplicationListener listener, GameContainer gameContainer, Path path, int checksumInterval) {
+		this.listener = listener;
+		this.gameContainer = gameContainer;
+		this.checksumInterval = checksumInterval;
+
+		try {
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+		} catch (IOException e) {
+			throw new MdxException("Unable to open " + path + " for recording", e);
+		}
+		buffer.putInt(TickLog.MAGIC);
+		buffer.putInt(TickLog.VERSION);
+		buffer.putInt(checksumInterval);
+	}
+
+	@Override
+	public void update(float delta) {
+		ensureCapacity();
+		buffer.put(TickLog.TICK);
+		buffer.putFloat(delta);
+
+		listener.update(delta);
+		totalTicks++;
+
+		if (checksumInterval <= 0 || totalTicks % checksumInterval != 0) {
+			return;
+		}
+		if (!(gameContainer instanceof ReplayChecksumProvider)) {
+			return;
+		}
+		ensureCapacity();
+		buffer.put(TickLog.CHECKSUM);
+		buffer.putLong(totalTicks);
+		buffer.putLong(((ReplayChecksumProvider) gameContainer).getReplayChecksum());
+	}
+
+	/**
+	 * Writes any buffered records to the file
+	 */
+	public void flush() {
+		if (closed) {
+			return;
+		}
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} catch (IOException e) {
+			throw new MdxException("Unable to write tick log", e);
+		} finally {
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Flushes any buffered records and closes the file. Called automatically
+	 * by {@link #dispose()}.
+	 */
+	public void close() {
+		if (closed) {
+			return;
+		}
+		flush();
+		closed = true;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw new MdxException("Unable to close tick log", e);
+		}
+	}
+
+	private void ensureCapacity() {
+		if (closed) {
+			throw new MdxException("Cannot record to a closed tick log");
+		}
+		if (buffer.remaining() < TickLog.MAX_RECORD_SIZE) {
+			flush();
+		}
+	}
+
+	/**
+	 * Installs this recorder as the {@link Gdx#input} {@link InputProcessor}.
+	 * The previously installed {@link InputProcessor} becomes the delegate
+	 * that receives input events once they have been recorded.
+	 */
+	public void install() {
+		InputProcessor currentInputProcessor = Gdx.input.getInputProcessor();
+		if (currentInputProcessor == this) {
+			return;
+		}
+		inputProcessor = currentInputProcessor;
+		Gdx.input.setInputProcessor(this);
+	}
+
+	/**
+	 * Returns the {@link InputProcessor} that receives input events once they
+	 * have been recorded
+	 * @return Null if input is forwarded to the current {@link Gdx#input}
+	 *         processor or the {@link GameContainer}
+	 */
+	public InputProcessor getInputProcessor() {
+		return inputProcessor;
+	}
+
+	/**
+	 * Sets the {@link InputProcessor} that receives input events once they
+	 * have been recorded
+	 * @param inputProcessor Null to forward input to the current
+	 *            {@link Gdx#input} processor or the {@link GameContainer}
+	 */
+	public void setInputProcessor(InputProcessor inputProcessor) {
+		if (inputProcessor == this) {
+			throw new MdxException("A TickRecorder cannot delegate input to itself");
+		}
+		this.inputProcessor = inputProcessor;
+	}
+
+	private InputProcessor getDelegate() {
+		if (inputProcessor != null) {
+			return inputProcessor;
+		}
+		if (Gdx.input != null && Gdx.input.getInputProcessor() != null && Gdx.input.getInputProcessor() != this) {
+			return Gdx.input.getInputProcessor();
+		}
+		if (gameContainer instanceof InputProcessor) {
+			return (InputProcessor) gameContainer;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the total number of ticks recorded
+	 * @return 0 if no ticks have been recorded
+	 */
+	public long getTotalTicks() {
+		return totalTicks;
+	}
+
+	@Override
+	public boolean keyDown(int keycode) {
+		ensureCapacity();
+		buffer.put(TickLog.KEY_DOWN);
+		buffer.putInt(keycode);
+
+		InputProcessor delegate = getDelegate();
+		return delegate != null && delegate.keyDown(keycode);
+	}
+
+	@Override
+	public boolean keyUp(int keycode) {
+		ensureCapacity();
+		buffer.put(TickLog.KEY_UP);
+		buffer.putInt(keycode);
+
+		InputProcessor delegate = getDelegate();
+		return delegate != null && delegate.keyUp(keycode);
+	}
+
+	@Override
+	public boolean keyTyped(char character) {
+		ensureCapacity();
+		buffer.put(TickLog.KEY_TYPED);
+		buffer.putChar(character);
+
+		InputProcessor delegate = getDelegate();
+		return delegate != null && delegate.keyTyped(character);
+	}
+
+	@Override
+	public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+		ensureCapacity();
+		buffer.put(TickLog.TOUCH_DOWN);
+		buffer.putInt(screenX);
+		buffer.putInt(screenY);
+		buffer.putInt(pointer);
+		buffer.putInt(button);
+
+		InputProcessor delegate = getDelegate();
+		return delegate != null && delegate.touchDown(screenX, screenY, pointer, button);
+	}
+
+	@Override
+	public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+		ensureCapacity();
+		buffer.put(TickLog.TOUCH_UP);
+		buffer.putInt(screenX);
+		buffer.putInt(screenY);
+		buffer.putInt(pointer);
+		buffer.putInt(button);
+
+		InputProcessor delegate = getDelegate();
+		return delegate != null && delegate.touchUp(screenX, screenY, pointer, button);
+	}
+
+	@Override
+	public boolean touchDragged(int screenX, int screenY, int pointer) {
+		ensureCapacity();
+		buffer.put(TickLog.TOUCH_DRAGGED);
+		buffer.putInt(screenX);
+		buffer.putInt(screenY);
+		buffer.putInt(pointer);
+
+		InputProcessor delegate = getDelegate();
+		return delegate != null && delegate.touchDragged(screenX, screenY, pointer);
+	}
+
+	@Override
+	public boolean mouseMoved(int screenX, int screenY) {
+		ensureCapacity();
+		buffer.put(TickLog.MOUSE_MOVED);
+		buffer.putInt(screenX);
+		buffer.putInt(screenY);
+
+		InputProcessor delegate = getDelegate();
+		return delegate != null && delegate.mouseMoved(screenX, screenY);
+	}
+
+	@Override
+	public boolean scrolled(int amount) {
+		ensureCapacity();
+		buffer.put(TickLog.SCROLLED);
+		buffer.putInt(amount);
+
+		InputProcessor delegate = getDelegate();
+		return delegate != null && delegate.scrolled(amount);
+	}
+
+	@Override
+	public void create() {
+		listener.create();
+	}
+
+	@Override
+	public void resize(int width, int height) {
+		listener.resize(width, height);
+	}
+
+	@Override
+	public void interpolate(float alpha) {
+		listener.interpolate(alpha);
+	}
+
+	@Override
+	public void publishSnapshot() {
+		if (listener instanceof PipelinedApplicationListener) {
+			((PipelinedApplicationListener) listener).publishSnapshot();
+		}
+	}
+
+	@Override
+	public void consumeSnapshot() {
+		if (listener instanceof PipelinedApplicationListener) {
+			((PipelinedApplicationListener) listener).consumeSnapshot();
+		}
+	}
+
+	@Override
+	public void render() {
+		listener.render();
+	}
+
+	@Override
+	public void pause() {
+		listener.pause();
+	}
+
+	@Override
+	public void resume() {
+		listener.resume();
+	}
+
+	@Override
+	public void dispose() {
+		try {
+			listener.dispose();
+		} finally {
+			close();
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.headless.replay;
+
+import com.badlogic.gdx.utils.LongArray;
+
+/**
+ * The result of a {@link TickReplayer} run. Stores the duration of every
+ * replayed update for reporting throughput and tick duration percentiles.
+ */
+public class TickReplayResult {
+	private final LongArray tickDurations;
+	private final long totalDuration;
+	private final int totalChecksums;
+
+	TickReplayResult(LongArray tickDurations, long totalDuration, int totalChecksums) {
+		this.tickDurations = new LongArray(tickDurations);
+		this.tickDurations.sort();
+		this.totalDuration = totalDuration;
+		this.totalChecksums = totalChecksums;
+	}
+
+	/**
+	 * Returns the total number of ticks replayed
+	 * @return 0 if the log contained no ticks
+	 */
+	public int getTotalTicks() {
+		return tickDurations.size;
+	}
+
+	/**
+	 * Returns the total number of checksums verified
+	 * @return 0 if the log contained no checksums
+	 */
+	public int getTotalChecksums() {
+		return totalChecksums;
+	}
+
+	/**
+	 * Returns the wall clock duration of the replay including input dispatch
+	 * and log decoding
+	 * @return The duration in milliseconds
+	 */
+	public double getTotalDuration() {
+		return totalDuration / 1000000.0;
+	}
+
+	/**
+	 * Returns the average number of ticks replayed per second
+	 * @return 0 if the log contained no ticks
+	 */
+	public double getTicksPerSecond() {
+		if (totalDuration <= 0L) {
+			return 0.0;
+		}
+		return (tickDurations.size * 1000000000.0) / totalDuration;
+	}
+
+	/**
+	 * Returns the mean duration of update()
+	 * @return The duration in milliseconds
+	 */
+	public double getMeanTickDuration() {
+		if (tickDurations.size == 0) {
+			return 0.0;
+		}
+		double sum = 0.0;
+		for (int i = 0; i < tickDurations.size; i++) {
+			sum += tickDurations.get(i);
+		}
+		return sum / tickDurations.size / 1000000.0;
+	}
+
+	/**
+	 * Returns the duration of update() at the given percentile using the
+	 * nearest-rank method
+	 * @param percentile The percentile between 0 and 100 (e.g. 99.9)
+	 * @return The duration in milliseconds
+	 */
+	public double getTickDurationPercentile(double percentile) {
+		if (tickDurations.size == 0) {
+			return 0.0;
+		}
+		int rank = (int) Math.ceil((percentile / 100.0) * tickDurations.size);
+		int index = Math.min(tickDurations.size - 1, Math.max(0, rank - 1));
+		return tickDurations.get(index) / 1000000.0;
+	}
+
+	/**
+	 * Returns the longest duration of update()
+	 * @return The duration in milliseconds
+	 */
+	public double getMaxTickDuration() {
+		if (tickDurations.size == 0) {
+			return 0.0;
+		}
+		return tickDurations.peek() / 1000000.0;
+	}
+
+	@Override
+	public String toString() {
+		return "TickReplayResult [totalTicks=" + getTotalTicks() + ", ticksPerSecond=" + getTicksPerSecond()
+				+ ", mean=" + getMeanTickDuration() + "ms, p50=" + getTickDurationPercentile(50.0) + "ms, p90="
+				+ getTickDurationPercentile(90.0) + "ms, p99=" + getTickDurationPercentile(99.0) + "ms, p99.9="
+				+ getTickDurationPercentile(99.9) + "ms, max=" + getMaxTickDuration() + "ms]";
+	}
+}
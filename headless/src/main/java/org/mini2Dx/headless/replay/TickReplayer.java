@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.headless.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.mini2Dx.core.exception.MdxException;
+import org.mini2Dx.core.game.ApplicationListener;
+import org.mini2Dx.core.game.GameContainer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.utils.LongArray;
+
+/**
+ * Replays a tick log written by {@link TickRecorder} as fast as possible.
+ * Recorded input events are dispatched to the current {@link InputProcessor}
+ * (or the delegate of an installed {@link TickRecorder}) and each tick calls
+ * update with the exact recorded delta. interpolate and render are never
+ * called.
+ *
+ * If the {@link GameContainer} implements {@link ReplayChecksumProvider},
+ * recorded checksums are verified and a {@link ReplayDesyncException} is
+ * thrown on the first mismatch.
+ */
+public class TickReplayer {
+	private final ApplicationListener listener;
+	private final GameContainer gameContainer;
+	private final Path path;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(TickLog.BUFFER_SIZE);
+
+	private FileChannel channel;
+	private InputProcessor inputProcessor;
+
+	/**
+	 * Constructor
+	 * @param listener The {@link ApplicationListener} to update. create() must already have been called.
+	 * @param gameContainer The {@link GameContainer} being updated by the listener
+	 * @param path The tick log to replay
+	 */
+	public TickReplayer(ApplicationListener listener, GameContainer gameContainer, Path path) {
+		this.listener = listener;
+		this.gameContainer = gameContainer;
+		this.path = path;
+	}
+
+	/**
+	 * Replays the entire tick log
+	 * @return The {@link TickReplayResult} containing tick duration statistics
+	 */
+	public TickReplayResult replay() {
+		try {
+			channel = FileChannel.open(path, StandardOpenOption.READ);
+			try {
+				return replayLog();
+			} finally {
+				channel.close();
+			}
+		} catch (IOException e) {
+			throw new MdxException("Unable to replay " + path, e);
+		}
+	}
+
+	private TickReplayResult replayLog() throws IOException {
+		buffer.clear();
+		buffer.flip();
+
+		if (!ensureAvailable(TickLog.HEADER_SIZE) || buffer.getInt() != TickLog.MAGIC) {
+			throw new MdxException(path + " is not a tick log");
+		}
+		int version = buffer.getInt();
+		if (version != TickLog.VERSION) {
+			throw new MdxException("Unsupported tick log version " + version);
+		}
+		int checksumInterval = buffer.getInt();
+
+		LongArray tickDurations = new LongArray(checksumInterval > 0 ? checksumInterval * 64 : 4096);
+		int totalChecksums = 0;
+		long replayStart = System.nanoTime();
+
+		while (ensureAvailable(1)) {
+			byte type = buffer.get();
+			switch (type) {
+			case TickLog.TICK: {
+				ensureRecord(4);
+				float delta = buffer.getFloat();
+				long updateStart = System.nanoTime();
+				listener.update(delta);
+				tickDurations.add(System.nanoTime() - updateStart);
+				break;
+			}
+			case TickLog.CHECKSUM: {
+				ensureRecord(16);
+				long tick = buffer.getLong();
+				long expectedChecksum = buffer.getLong();
+				if (gameContainer instanceof ReplayChecksumProvider) {
+					long actualChecksum = ((ReplayChecksumProvider) gameContainer).getReplayChecksum();
+					if (actualChecksum != expectedChecksum) {
+						throw new ReplayDesyncException(tick, expectedChecksum, actualChecksum);
+					}
+					totalChecksums++;
+				}
+				break;
+			}
+			case TickLog.KEY_DOWN: {
+				ensureRecord(4);
+				int keycode = buffer.getInt();
+				InputProcessor inputProcessor = getInputProcessor();
+				if (inputProcessor != null) {
+					inputProcessor.keyDown(keycode);
+				}
+				break;
+			}
+			case TickLog.KEY_UP: {
+				ensureRecord(4);
+				int keycode = buffer.getInt();
+				InputProcessor inputProcessor = getInputProcessor();
+				if (inputProcessor != null) {
+					inputProcessor.keyUp(keycode);
+				}
+				break;
+			}
+			case TickLog.KEY_TYPED: {
+				ensureRecord(2);
+				char character = buffer.getChar();
+				InputProcessor inputProcessor = getInputProcessor();
+				if (inputProcessor != null) {
+					inputProcessor.keyTyped(character);
+				}
+				break;
+			}
+			case TickLog.TOUCH_DOWN:
+			case TickLog.TOUCH_UP: {
+				ensureRecord(16);
+				int screenX = buffer.getInt();
+				int screenY = buffer.getInt();
+				int pointer = buffer.getInt();
+				int button = buffer.getInt();
+				InputProcessor inputProcessor = getInputProcessor();
+				if (inputProcessor == null) {
+					break;
+				}
+				if (type == TickLog.TOUCH_DOWN) {
+					inputProcessor.touchDown(screenX, screenY, pointer, button);
+				} else {
+					inputProcessor.touchUp(screenX, screenY, pointer, button);
+				}
+				break;
+			}
+			case TickLog.TOUCH_DRAGGED: {
+				ensureRecord(12);
+				int screenX = buffer.getInt();
+				int screenY = buffer.getInt();
+				int pointer = buffer.getInt();
+				InputProcessor inputProcessor = getInputProcessor();
+				if (inputProcessor != null) {
+					inputProcessor.touchDragged(screenX, screenY, pointer);
+				}
+				break;
+			}
+			case TickLog.MOUSE_MOVED: {
+				ensureRecord(8);
+				int screenX = buffer.getInt();
+				int screenY = buffer.getInt();
+				InputProcessor inputProcessor = getInputProcessor();
+				if (inputProcessor != null) {
+					inputProcessor.mouseMoved(screenX, screenY);
+				}
+				break;
+			}
+			case TickLog.SCROLLED: {
+				ensureRecord(4);
+				int amount = buffer.getInt();
+				InputProcessor inputProcessor = getInputProcessor();
+				if (inputProcessor != null) {
+					inputProcessor.scrolled(amount);
+				}
+				break;
+			}
+			default:
+				throw new MdxException("Unknown tick log record type " + type);
+			}
+		}
+		return new TickReplayResult(tickDurations, System.nanoTime() - replayStart, totalChecksums);
+	}
+
+	private void ensureRecord(int bytes) throws IOException {
+		if (!ensureAvailable(bytes)) {
+			throw new MdxException("Unexpected end of tick log " + path);
+		}
+	}
+
+	/**
+	 * Reads from the file until the buffer contains at least the specified
+	 * amount of bytes
+	 * @return False if the end of the file was reached first
+	 */
+	private boolean ensureAvailable(int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) {
+			return true;
+		}
+		buffer.compact();
+		try {
+			while (buffer.position() < bytes) {
+				if (channel.read(buffer) < 0) {
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			buffer.flip();
+		}
+	}
+
+	/**
+	 * Sets the {@link InputProcessor} that recorded input events are
+	 * dispatched to
+	 * @param inputProcessor Null to dispatch to the current {@link Gdx#input}
+	 *            processor or the {@link GameContainer}
+	 */
+	public void setInputProcessor(InputProcessor inputProcessor) {
+		this.inputProcessor = inputProcessor;
+	}
+
+	private InputProcessor getInputProcessor() {
+		if (inputProcessor != null) {
+			return inputProcessor;
+		}
+		if (Gdx.input != null && Gdx.input.getInputProcessor() != null) {
+			InputProcessor currentInputProcessor = Gdx.input.getInputProcessor();
+			if (!(currentInputProcessor instanceof TickRecorder)) {
+				return currentInputProcessor;
+			}
+			//Dispatch to the recorder's delegate so replayed input is not recorded again
+			TickRecorder tickRecorder = (TickRecorder) currentInputProcessor;
+			if (tickRecorder.getInputProcessor() != null) {
+				return tickRecorder.getInputProcessor();
+			}
+		}
+		if (gameContainer instanceof InputProcessor) {
+			return (InputProcessor) gameContainer;
+		}
+		return null;
+	}
+}
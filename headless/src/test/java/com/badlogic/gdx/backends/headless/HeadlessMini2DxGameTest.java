@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.badlogic.gdx.backends.headless;
+
+import org.junit.Test;
+import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.game.SnapshotBuffer;
+import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.headless.HeadlessMini2DxConfig;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.IntArray;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link HeadlessMini2DxGame}
+ */
+public class HeadlessMini2DxGameTest {
+	private static final long TIMEOUT_MILLIS = 10000L;
+	private static final int SIMULATION_TICKS = 1000;
+
+	@Test
+	public void testPipelinedUpdates() throws InterruptedException {
+		HeadlessMini2DxConfig config = new HeadlessMini2DxConfig(HeadlessMini2DxGameTest.class.getSimpleName());
+		config.pipelineUpdates = true;
+
+		PipelinedGame game = new PipelinedGame();
+		HeadlessMini2DxGame application = new HeadlessMini2DxGame(game, config);
+		long timeout = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (game.totalFrames < 10 && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10L);
+		}
+		application.stop();
+
+		Assert.assertTrue(game.totalFrames >= 10);
+		Assert.assertNotNull(game.updateThread);
+		Assert.assertNotNull(game.renderThread);
+		Assert.assertNotSame(game.updateThread, game.renderThread);
+		Assert.assertTrue(game.renderedUpdates.peek() > 0);
+		for (int i = 1; i < game.renderedUpdates.size; i++) {
+			Assert.assertTrue(game.renderedUpdates.get(i) >= game.renderedUpdates.get(i - 1));
+			Assert.assertTrue(game.renderedUpdates.get(i) <= game.publishedUpdates.get(i));
+		}
+	}
+
+	@Test
+	public void testSimulationRunsFixedTicks() throws InterruptedException {
+		SimulatedGame game = simulate(SIMULATION_TICKS, 0f);
+		Assert.assertEquals(SIMULATION_TICKS, game.totalUpdates);
+		Assert.assertEquals(0, game.totalInterpolates);
+		Assert.assertEquals(0, game.totalRenders);
+	}
+
+	@Test
+	public void testSimulationIsDeterministic() throws InterruptedException {
+		SimulatedGame game1 = simulate(SIMULATION_TICKS, 0f);
+		SimulatedGame game2 = simulate(SIMULATION_TICKS, 0f);
+		Assert.assertEquals(game1.totalUpdates, game2.totalUpdates);
+		Assert.assertEquals(game1.seed, game2.seed);
+		Assert.assertEquals(game1.x, game2.x, 0f);
+	}
+
+	@Test
+	public void testSimulationAtMultipleOfRealTime() throws InterruptedException {
+		long startTime = System.nanoTime();
+		SimulatedGame game = simulate(60, 4f);
+		long elapsedMillis = (System.nanoTime() - startTime) / 1000000L;
+		Assert.assertEquals(60, game.totalUpdates);
+		//60 ticks at 4x real time should take at least 1/4 of a second
+		Assert.assertTrue(elapsedMillis >= 200L);
+	}
+
+	private SimulatedGame simulate(int totalTicks, float simulationSpeed) throws InterruptedException {
+		HeadlessMini2DxConfig config = new HeadlessMini2DxConfig(HeadlessMini2DxGameTest.class.getSimpleName());
+		config.simulate = true;
+		config.simulationSpeed = simulationSpeed;
+
+		SimulatedGame game = new SimulatedGame(totalTicks);
+		HeadlessMini2DxGame application = new HeadlessMini2DxGame(game, config);
+		long timeout = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (!game.disposed && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10L);
+		}
+		application.stop();
+
+		Assert.assertTrue(game.disposed);
+		Assert.assertEquals(totalTicks, application.getTotalTicks());
+		return game;
+	}
+
+	private static class SimulatedGame extends GameContainer {
+		private final int maxTicks;
+		private int totalUpdates, totalInterpolates, totalRenders;
+		private long seed = 12345L;
+		private float x;
+		private volatile boolean disposed;
+
+		public SimulatedGame(int maxTicks) {
+			this.maxTicks = maxTicks;
+		}
+
+		@Override
+		public void initialise() {
+		}
+
+		@Override
+		public void update(float delta) {
+			seed = (seed * 6364136223846793005L) + 1442695040888963407L;
+			x += ((seed >>> 40) & 0xFF) * delta;
+			totalUpdates++;
+			if (totalUpdates == maxTicks) {
+				Gdx.app.exit();
+			}
+		}
+
+		@Override
+		public void interpolate(float alpha) {
+			totalInterpolates++;
+		}
+
+		@Override
+		public void render(Graphics g) {
+			totalRenders++;
+		}
+
+		@Override
+		public void onPause() {
+		}
+
+		@Override
+		public void onResume() {
+		}
+
+		@Override
+		public void dispose() {
+			disposed = true;
+		}
+	}
+
+	private static class PipelinedGame extends GameContainer {
+		private final SnapshotBuffer<int[]> snapshots = new SnapshotBuffer<int[]>(new int[1], new int[1]);
+		private final IntArray renderedUpdates = new IntArray();
+		private final IntArray publishedUpdates = new IntArray();
+		private volatile int totalFrames;
+		private volatile int totalUpdates;
+		private Thread updateThread, renderThread;
+
+		@Override
+		public void initialise() {
+		}
+
+		@Override
+		public void update(float delta) {
+			updateThread = Thread.currentThread();
+			totalUpdates++;
+		}
+
+		@Override
+		public void interpolate(float alpha) {
+		}
+
+		@Override
+		public void publishSnapshot() {
+			snapshots.getPublishBuffer()[0] = totalUpdates;
+			snapshots.publish();
+		}
+
+		@Override
+		public void consumeSnapshot() {
+			snapshots.consume();
+		}
+
+		@Override
+		public void render(Graphics g) {
+			renderThread = Thread.currentThread();
+			renderedUpdates.add(snapshots.getRenderBuffer()[0]);
+			publishedUpdates.add(totalUpdates);
+			totalFrames++;
+		}
+
+		@Override
+		public void onPause() {
+		}
+
+		@Override
+		public void onResume() {
+		}
+	}
+}
@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.badlogic.gdx.backends.headless;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.Mdx;
+import org.mini2Dx.core.di.BeanUtils;
+import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.headless.HeadlessMini2DxConfig;
+
+import com.badlogic.gdx.Gdx;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link HeadlessMini2DxHost} and {@link HeadlessMini2DxInstance}
+ */
+public class HeadlessMini2DxHostTest {
+	private static final int TOTAL_THREADS = 2;
+	private static final int RUNNABLE_INTERVAL = 10;
+
+	private HeadlessMini2DxHost host;
+
+	@Before
+	public void setUp() {
+		host = new HeadlessMini2DxHost(new HeadlessMini2DxConfig(HeadlessMini2DxHostTest.class.getSimpleName()),
+				TOTAL_THREADS);
+	}
+
+	@After
+	public void teardown() throws InterruptedException {
+		host.shutdown();
+	}
+
+	@Test
+	public void testInstancesAreIsolated() throws InterruptedException {
+		HostedGame[] games = new HostedGame[4];
+		HeadlessMini2DxInstance[] instances = new HeadlessMini2DxInstance[games.length];
+		for (int i = 0; i < games.length; i++) {
+			HeadlessMini2DxConfig config = new HeadlessMini2DxConfig("game" + i);
+			config.width = 100 * (i + 1);
+			games[i] = new HostedGame((i + 1) * 50, config.width);
+			instances[i] = host.launch(games[i], config);
+		}
+		for (int i = 0; i < instances.length; i++) {
+			instances[i].awaitTermination();
+		}
+
+		for (int i = 0; i < games.length; i++) {
+			HostedGame game = games[i];
+			Assert.assertNull(instances[i].getError());
+			Assert.assertFalse(instances[i].isRunning());
+			Assert.assertTrue(game.disposed);
+			Assert.assertEquals(game.maxTicks, game.totalUpdates);
+			Assert.assertEquals(game.maxTicks, instances[i].getTotalTicks());
+			Assert.assertEquals(game.maxTicks / RUNNABLE_INTERVAL, game.totalRunnables.get());
+			Assert.assertSame(instances[i], game.instance);
+			Assert.assertFalse(game.instanceMismatch);
+			Assert.assertFalse(game.graphicsMismatch);
+			Assert.assertFalse(game.overlappingTicks);
+		}
+		Assert.assertEquals(0, host.getTotalInstances());
+	}
+
+	@Test
+	public void testStopOneInstance() throws InterruptedException {
+		HostedGame game1 = new HostedGame(-1, 640);
+		HostedGame game2 = new HostedGame(-1, 640);
+		HeadlessMini2DxInstance instance1 = host.launch(game1, new HeadlessMini2DxConfig("game1"));
+		HeadlessMini2DxInstance instance2 = host.launch(game2, new HeadlessMini2DxConfig("game2"));
+
+		instance1.stop();
+		instance1.awaitTermination();
+		Assert.assertTrue(game1.disposed);
+		Assert.assertFalse(instance1.isRunning());
+		Assert.assertTrue(instance2.isRunning());
+		Assert.assertFalse(game2.disposed);
+
+		long totalTicks = instance2.getTotalTicks();
+		while (instance2.getTotalTicks() == totalTicks) {
+			Thread.sleep(1L);
+		}
+		Assert.assertEquals(1, host.getTotalInstances());
+
+		host.shutdown();
+		Assert.assertTrue(game2.disposed);
+		Assert.assertEquals(0, host.getTotalInstances());
+	}
+
+	@Test
+	public void testErrorOnlyStopsFailingInstance() throws InterruptedException {
+		HostedGame game1 = new HostedGame(100, 640);
+		HostedGame game2 = new HostedGame(100, 640);
+		game1.errorTick = 5;
+		HeadlessMini2DxInstance instance1 = host.launch(game1, new HeadlessMini2DxConfig("game1"));
+		HeadlessMini2DxInstance instance2 = host.launch(game2, new HeadlessMini2DxConfig("game2"));
+		instance1.awaitTermination();
+		instance2.awaitTermination();
+
+		Assert.assertNotNull(instance1.getError());
+		Assert.assertEquals(5, instance1.getTotalTicks());
+		Assert.assertTrue(game1.disposed);
+		Assert.assertNull(instance2.getError());
+		Assert.assertEquals(100, instance2.getTotalTicks());
+	}
+
+	@Test
+	public void testServicesAreIsolated() throws InterruptedException {
+		ServicesGame game1 = new ServicesGame(50, true);
+		ServicesGame game2 = new ServicesGame(50, false);
+		HeadlessMini2DxInstance instance1 = host.launch(game1, new HeadlessMini2DxConfig("game1"));
+		HeadlessMini2DxInstance instance2 = host.launch(game2, new HeadlessMini2DxConfig("game2"));
+		instance1.awaitTermination();
+		instance2.awaitTermination();
+
+		Assert.assertNull(instance1.getError());
+		Assert.assertNull(instance2.getError());
+		Assert.assertFalse(game1.servicesMismatch);
+		Assert.assertFalse(game2.servicesMismatch);
+
+		Assert.assertTrue(instance1.getPerformanceTracker().isRenderStatisticsVisible());
+		Assert.assertFalse(instance2.getPerformanceTracker().isRenderStatisticsVisible());
+		Assert.assertFalse(Mdx.performanceTracker.isRenderStatisticsVisible());
+
+		Assert.assertSame(instance1.getDependencyInjection().beanUtils(), game1.beanUtils);
+		Assert.assertSame(instance2.getDependencyInjection().beanUtils(), game2.beanUtils);
+		Assert.assertNotSame(game1.beanUtils, game2.beanUtils);
+
+		Assert.assertEquals(instance1.getPlayerData().getFileHandle("save").path(), game1.saveFilePath);
+		Assert.assertEquals(instance2.getPlayerData().getFileHandle("save").path(), game2.saveFilePath);
+		Assert.assertFalse(game1.saveFilePath.equals(game2.saveFilePath));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testLaunchAfterShutdown() throws InterruptedException {
+		host.shutdown();
+		host.launch(new HostedGame(1, 640), new HeadlessMini2DxConfig("game"));
+	}
+
+	private static class HostedGame extends GameContainer {
+		private final int maxTicks;
+		private final int expectedWidth;
+		private final AtomicInteger activeTicks = new AtomicInteger();
+		private final AtomicInteger totalRunnables = new AtomicInteger();
+
+		private volatile HeadlessMini2DxInstance instance;
+		private volatile int totalUpdates;
+		private volatile int errorTick = -1;
+		private volatile boolean instanceMismatch, graphicsMismatch, overlappingTicks, disposed;
+
+		public HostedGame(int maxTicks, int expectedWidth) {
+			this.maxTicks = maxTicks;
+			this.expectedWidth = expectedWidth;
+		}
+
+		@Override
+		public void initialise() {
+		}
+
+		@Override
+		public void update(float delta) {
+			if (activeTicks.incrementAndGet() > 1) {
+				overlappingTicks = true;
+			}
+			if (totalUpdates == errorTick) {
+				activeTicks.decrementAndGet();
+				throw new IllegalStateException();
+			}
+			if (instance == null) {
+				instance = HeadlessMini2DxHost.getCurrentInstance();
+			} else if (instance != HeadlessMini2DxHost.getCurrentInstance()) {
+				instanceMismatch = true;
+			}
+			if (Gdx.graphics.getWidth() != expectedWidth || Gdx.graphics.getFrameId() != totalUpdates) {
+				graphicsMismatch = true;
+			}
+			totalUpdates++;
+			if (totalUpdates % RUNNABLE_INTERVAL == RUNNABLE_INTERVAL / 2) {
+				Gdx.app.postRunnable(new Runnable() {
+					@Override
+					public void run() {
+						if (instance != HeadlessMini2DxHost.getCurrentInstance()) {
+							instanceMismatch = true;
+						}
+						totalRunnables.incrementAndGet();
+					}
+				});
+			}
+			if (totalUpdates == maxTicks) {
+				Gdx.app.exit();
+			}
+			activeTicks.decrementAndGet();
+		}
+
+		@Override
+		public void interpolate(float alpha) {
+		}
+
+		@Override
+		public void render(Graphics g) {
+		}
+
+		@Override
+		public void onPause() {
+		}
+
+		@Override
+		public void onResume() {
+		}
+
+		@Override
+		public void dispose() {
+			disposed = true;
+		}
+	}
+
+	private static class ServicesGame extends HostedGame {
+		private final boolean renderStatisticsVisible;
+
+		private volatile BeanUtils beanUtils;
+		private volatile String saveFilePath;
+		private volatile boolean servicesMismatch;
+
+		public ServicesGame(int maxTicks, boolean renderStatisticsVisible) {
+			super(maxTicks, 640);
+			this.renderStatisticsVisible = renderStatisticsVisible;
+		}
+
+		@Override
+		public void initialise() {
+			Mdx.performanceTracker.setRenderStatisticsVisible(renderStatisticsVisible);
+			beanUtils = Mdx.di.beanUtils();
+			saveFilePath = Mdx.playerData.getFileHandle("save").path();
+		}
+
+		@Override
+		public void update(float delta) {
+			if (Mdx.performanceTracker.isRenderStatisticsVisible() != renderStatisticsVisible
+					|| Mdx.di.beanUtils() != beanUtils) {
+				servicesMismatch = true;
+			}
+			super.update(delta);
+		}
+	}
+}
@@ -0,0 +1,301 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.headless.replay;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.game.ApplicationListener;
+import org.mini2Dx.core.game.GameContainer;
+import org.mini2Dx.core.graphics.Graphics;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.backends.headless.mock.input.MockInput;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link TickRecorder} and {@link TickReplayer}
+ */
+public class TickRecorderTest {
+	private static final float DELTA = 1f / 60f;
+	private static final int TOTAL_TICKS = 600;
+	private static final int CHECKSUM_INTERVAL = 60;
+
+	private Input previousInput;
+	private Path path;
+
+	@Before
+	public void setUp() throws IOException {
+		previousInput = Gdx.input;
+		Gdx.input = new ProcessorInput();
+		path = Files.createTempFile(TickRecorderTest.class.getSimpleName(), ".bin");
+	}
+
+	@After
+	public void teardown() throws IOException {
+		Gdx.input = previousInput;
+		Files.deleteIfExists(path);
+	}
+
+	@Test
+	public void testInstalledRecorderForwardsInput() {
+		ReplayGame game = new ReplayGame();
+		Gdx.input.setInputProcessor(game);
+
+		TickRecorder tickRecorder = new TickRecorder(new GameListener(game), game, path, CHECKSUM_INTERVAL);
+		tickRecorder.install();
+		Assert.assertSame(tickRecorder, Gdx.input.getInputProcessor());
+		Assert.assertSame(game, tickRecorder.getInputProcessor());
+
+		//Installing twice must not make the recorder its own delegate
+		tickRecorder.install();
+		Assert.assertSame(game, tickRecorder.getInputProcessor());
+
+		Assert.assertTrue(Gdx.input.getInputProcessor().keyDown(5));
+		Assert.assertTrue(Gdx.input.getInputProcessor().touchDown(1, 2, 0, 0));
+		Assert.assertEquals(2, game.totalInputs);
+		tickRecorder.close();
+	}
+
+	@Test
+	public void testRecordThenReplay() {
+		ReplayGame recordedGame = new ReplayGame();
+		record(recordedGame);
+
+		ReplayGame replayedGame = new ReplayGame();
+		Gdx.input.setInputProcessor(replayedGame);
+		TickReplayResult result = new TickReplayer(new GameListener(replayedGame), replayedGame, path).replay();
+
+		Assert.assertEquals(TOTAL_TICKS, result.getTotalTicks());
+		Assert.assertEquals(TOTAL_TICKS / CHECKSUM_INTERVAL, result.getTotalChecksums());
+		Assert.assertEquals(recordedGame.totalUpdates, replayedGame.totalUpdates);
+		Assert.assertEquals(recordedGame.totalInputs, replayedGame.totalInputs);
+		Assert.assertEquals(recordedGame.getReplayChecksum(), replayedGame.getReplayChecksum());
+	}
+
+	@Test
+	public void testReplayWithInstalledRecorder() throws IOException {
+		ReplayGame recordedGame = new ReplayGame();
+		record(recordedGame);
+
+		ReplayGame replayedGame = new ReplayGame();
+		Gdx.input.setInputProcessor(replayedGame);
+		Path secondPath = Files.createTempFile(TickRecorderTest.class.getSimpleName(), ".bin");
+		try {
+			TickRecorder tickRecorder = new TickRecorder(new GameListener(replayedGame), replayedGame, secondPath,
+					CHECKSUM_INTERVAL);
+			tickRecorder.install();
+			new TickReplayer(new GameListener(replayedGame), replayedGame, path).replay();
+			tickRecorder.close();
+		} finally {
+			Files.deleteIfExists(secondPath);
+		}
+		Assert.assertEquals(recordedGame.totalInputs, replayedGame.totalInputs);
+		Assert.assertEquals(recordedGame.getReplayChecksum(), replayedGame.getReplayChecksum());
+	}
+
+	@Test
+	public void testReplayDesync() {
+		record(new ReplayGame());
+
+		ReplayGame replayedGame = new ReplayGame();
+		replayedGame.state = 1L;
+		Gdx.input.setInputProcessor(replayedGame);
+		try {
+			new TickReplayer(new GameListener(replayedGame), replayedGame, path).replay();
+			Assert.fail("Expected ReplayDesyncException");
+		} catch (ReplayDesyncException e) {
+			Assert.assertEquals(CHECKSUM_INTERVAL, e.getTick());
+		}
+	}
+
+	private void record(ReplayGame game) {
+		Gdx.input.setInputProcessor(game);
+		TickRecorder tickRecorder = new TickRecorder(new GameListener(game), game, path, CHECKSUM_INTERVAL);
+		tickRecorder.install();
+
+		for (int i = 0; i < TOTAL_TICKS; i++) {
+			InputProcessor inputProcessor = Gdx.input.getInputProcessor();
+			if (i % 7 == 0) {
+				inputProcessor.keyDown(i % 100);
+			}
+			if (i % 11 == 0) {
+				inputProcessor.touchDown(i, i * 2, 0, 0);
+				inputProcessor.touchDragged(i + 1, i * 2 + 1, 0);
+				inputProcessor.touchUp(i + 2, i * 2 + 2, 0, 0);
+			}
+			if (i % 13 == 0) {
+				inputProcessor.keyTyped((char) ('a' + (i % 26)));
+				inputProcessor.mouseMoved(i, i);
+				inputProcessor.scrolled(i % 3 - 1);
+			}
+			if (i % 17 == 0) {
+				inputProcessor.keyUp(i % 100);
+			}
+			tickRecorder.update(DELTA);
+		}
+		tickRecorder.close();
+		Assert.assertEquals(TOTAL_TICKS, tickRecorder.getTotalTicks());
+	}
+
+	private static class ProcessorInput extends MockInput {
+		private InputProcessor inputProcessor;
+
+		@Override
+		public void setInputProcessor(InputProcessor processor) {
+			this.inputProcessor = processor;
+		}
+
+		@Override
+		public InputProcessor getInputProcessor() {
+			return inputProcessor;
+		}
+	}
+
+	private static class GameListener implements ApplicationListener {
+		private final GameContainer gameContainer;
+
+		public GameListener(GameContainer gameContainer) {
+			this.gameContainer = gameContainer;
+		}
+
+		@Override
+		public void update(float delta) {
+			gameContainer.update(delta);
+		}
+
+		@Override
+		public void interpolate(float alpha) {
+			gameContainer.interpolate(alpha);
+		}
+
+		@Override
+		public void create() {
+		}
+
+		@Override
+		public void resize(int width, int height) {
+		}
+
+		@Override
+		public void render() {
+		}
+
+		@Override
+		public void pause() {
+		}
+
+		@Override
+		public void resume() {
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+
+	private static class ReplayGame extends GameContainer implements InputProcessor, ReplayChecksumProvider {
+		private long state;
+		private int totalUpdates, totalInputs;
+
+		private void mix(long value) {
+			state = (state * 31L) + value;
+			totalInputs++;
+		}
+
+		@Override
+		public long getReplayChecksum() {
+			return state;
+		}
+
+		@Override
+		public void initialise() {
+		}
+
+		@Override
+		public void update(float delta) {
+			state = (state * 31L) + Float.floatToIntBits(delta);
+			totalUpdates++;
+		}
+
+		@Override
+		public void interpolate(float alpha) {
+		}
+
+		@Override
+		public void render(Graphics g) {
+		}
+
+		@Override
+		public void onPause() {
+		}
+
+		@Override
+		public void onResume() {
+		}
+
+		@Override
+		public boolean keyDown(int keycode) {
+			mix(keycode);
+			return true;
+		}
+
+		@Override
+		public boolean keyUp(int keycode) {
+			mix(-keycode);
+			return true;
+		}
+
+		@Override
+		public boolean keyTyped(char character) {
+			mix(character);
+			return true;
+		}
+
+		@Override
+		public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+			mix(screenX * 1000L + screenY);
+			return true;
+		}
+
+		@Override
+		public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+			mix(-(screenX * 1000L + screenY));
+			return true;
+		}
+
+		@Override
+		public boolean touchDragged(int screenX, int screenY, int pointer) {
+			mix(screenX * 7L + screenY);
+			return true;
+		}
+
+		@Override
+		public boolean mouseMoved(int screenX, int screenY) {
+			mix(screenX * 13L + screenY);
+			return true;
+		}
+
+		@Override
+		public boolean scrolled(int amount) {
+			mix(amount);
+			return true;
+		}
+	}
+}
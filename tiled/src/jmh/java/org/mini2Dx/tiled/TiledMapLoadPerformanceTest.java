@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Base64Coder;
+import com.badlogic.gdx.utils.XmlReader;
+import com.badlogic.gdx.utils.XmlReader.Element;
+
+/**
+ * Load time performance tests for {@link TiledParser} against a document tree
+ * based parse of the same map. Run with the gc profiler to compare
+ * allocations.
+ */
+@Threads(value=1)
+public class TiledMapLoadPerformanceTest {
+	private static final int MAP_SIZE_IN_TILES = 1000;
+	private static final int TOTAL_LAYERS = 3;
+	private static final int TOTAL_TILES = 4096;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		@Param({ "csv", "zlib" })
+		public String encoding;
+
+		public FileHandle tmxFile;
+		public TiledParser tiledParser;
+		public FilledTileCounter filledTileCounter;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			File file = File.createTempFile("mini2Dx-jmh-", ".tmx");
+			tmxFile = new FileHandle(file);
+			tmxFile.writeString(generateTmx(encoding), false, "UTF-8");
+
+			filledTileCounter = new FilledTileCounter();
+			tiledParser = new TiledParser();
+			tiledParser.addListener(filledTileCounter);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			tmxFile.delete();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public int testStreamingParser(TestState state) throws IOException {
+		state.filledTileCounter.totalFilledTiles = 0;
+		state.tiledParser.parseTmx(state.tmxFile);
+		return state.filledTileCounter.totalFilledTiles;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public int testDocumentParser(TestState state) throws DataFormatException {
+		int result = 0;
+		Element root = new XmlReader().parse(state.tmxFile);
+		for (Element layerElement : root.getChildrenByName("layer")) {
+			int width = layerElement.getIntAttribute("width");
+			int height = layerElement.getIntAttribute("height");
+			TileLayer layer = new TileLayer(width, height);
+
+			Element data = layerElement.getChildByName("data");
+			if (data.getAttribute("encoding").equals("csv")) {
+				String[] array = data.getText().split(",");
+				for (int y = 0; y < height; y++) {
+					for (int x = 0; x < width; x++) {
+						layer.setPackedTile(x, y, (int) Long.parseLong(array[y * width + x].trim()));
+					}
+				}
+			} else {
+				byte[] bytes = Base64Coder.decode(data.getText());
+				Inflater zlib = new Inflater();
+				zlib.setInput(bytes, 0, bytes.length);
+				byte[] temp = new byte[4];
+				for (int y = 0; y < height; y++) {
+					for (int x = 0; x < width; x++) {
+						zlib.inflate(temp, 0, 4);
+						layer.setPackedTile(x, y, (temp[0] & 0xFF) | (temp[1] & 0xFF) << 8 | (temp[2] & 0xFF) << 16
+								| (temp[3] & 0xFF) << 24);
+					}
+				}
+				zlib.end();
+			}
+			result += layer.getTotalFilledTiles();
+		}
+		return result;
+	}
+
+	private static String generateTmx(String encoding) throws IOException {
+		final StringBuilder result = new StringBuilder();
+		result.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		result.append("<map version=\"1.2\" orientation=\"orthogonal\" renderorder=\"right-down\" width=\"" + MAP_SIZE_IN_TILES
+				+ "\" height=\"" + MAP_SIZE_IN_TILES + "\" tilewidth=\"32\" tileheight=\"32\" infinite=\"0\">\n");
+		for (int layer = 0; layer < TOTAL_LAYERS; layer++) {
+			result.append(" <layer id=\"" + (layer + 1) + "\" name=\"Layer" + layer + "\" width=\"" + MAP_SIZE_IN_TILES
+					+ "\" height=\"" + MAP_SIZE_IN_TILES + "\">\n");
+			if (encoding.equals("csv")) {
+				result.append("  <data encoding=\"csv\">\n");
+				for (int y = 0; y < MAP_SIZE_IN_TILES; y++) {
+					for (int x = 0; x < MAP_SIZE_IN_TILES; x++) {
+						result.append(MathUtils.random(0, TOTAL_TILES));
+						if (x < MAP_SIZE_IN_TILES - 1 || y < MAP_SIZE_IN_TILES - 1) {
+							result.append(',');
+						}
+					}
+					result.append('\n');
+				}
+			} else {
+				result.append("  <data encoding=\"base64\" compression=\"zlib\">\n   ");
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DeflaterOutputStream outputStream = new DeflaterOutputStream(bytes);
+				for (int i = 0; i < MAP_SIZE_IN_TILES * MAP_SIZE_IN_TILES; i++) {
+					int tileId = MathUtils.random(0, TOTAL_TILES);
+					outputStream.write(tileId);
+					outputStream.write(tileId >> 8);
+					outputStream.write(tileId >> 16);
+					outputStream.write(tileId >> 24);
+				}
+				outputStream.close();
+				result.append(Base64Coder.encode(bytes.toByteArray()));
+				result.append('\n');
+			}
+			result.append("  </data>\n");
+			result.append(" </layer>\n");
+		}
+		result.append("</map>\n");
+		return result.toString();
+	}
+
+	private static class FilledTileCounter implements TiledParserListener {
+		private int totalFilledTiles;
+
+		@Override
+		public void onBeginParsing(String orientation, String staggerAxis, String staggerIndex, Color backgroundColor,
+				int width, int height, int tileWidth, int tileHeight, int sideLength) {
+		}
+
+		@Override
+		public void onMapPropertyParsed(String propertyName, String value) {
+		}
+
+		@Override
+		public void onTilePropertiesParsed(Tile tile) {
+		}
+
+		@Override
+		public void onTilesetParsed(Tileset parsedTileset) {
+		}
+
+		@Override
+		public void onTileLayerParsed(TileLayer parsedLayer) {
+			totalFilledTiles += parsedLayer.getTotalFilledTiles();
+		}
+
+		@Override
+		public void onObjectGroupParsed(TiledObjectGroup parsedObjectGroup) {
+		}
+
+		@Override
+		public void onGroupLayerParsed(GroupLayer parsedLayer) {
+		}
+
+		@Override
+		public void onObjectTemplateParsed(TiledObjectTemplate parsedObjectTemplate) {
+		}
+	}
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.core.graphics.HeadlessGraphics;
+import org.mini2Dx.core.graphics.Sprite;
+import org.mini2Dx.tiled.renderer.OrthogonalTileLayerRenderer;
+import org.mini2Dx.tiled.renderer.TileRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Performance tests for rendering a large {@link TiledMap} with many
+ * {@link Tileset}s through {@link HeadlessGraphics}
+ */
+@Threads(value=1)
+public class TiledMapRenderPerformanceTest {
+	private static final int TOTAL_TILESETS = 16;
+	private static final int TILESET_SIZE_IN_TILES = 16;
+	private static final int MAP_SIZE_IN_TILES = 256;
+	private static final int TOTAL_LAYERS = 3;
+	private static final int TILE_SIZE = 32;
+	private static final int VIEWPORT_WIDTH = 1920;
+	private static final int VIEWPORT_HEIGHT = 1080;
+
+	@State(Scope.Thread)
+	public static class TestState {
+		public TiledMap tiledMap;
+		public OrthogonalTileLayerRenderer tileLayerRenderer;
+		public Graphics graphics;
+		public File tmxFile;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			tmxFile = File.createTempFile("mini2Dx-jmh-", ".tmx");
+			new FileHandle(tmxFile).writeString(generateTmx(), false, "UTF-8");
+			tiledMap = new TiledMap(new FileHandle(tmxFile), false, false);
+
+			final Sprite sprite = new Sprite();
+			for (int i = 0; i < tiledMap.getTilesets().size; i++) {
+				final Tileset tileset = tiledMap.getTilesets().get(i);
+				for (int x = 0; x < tileset.getWidthInTiles(); x++) {
+					for (int y = 0; y < tileset.getHeightInTiles(); y++) {
+						tileset.getTile(x, y).setTileRenderer(new SpriteTileRenderer(sprite));
+					}
+				}
+			}
+			// Tileset textures are never loaded so layers are drawn directly via the renderer
+			tileLayerRenderer = new OrthogonalTileLayerRenderer(tiledMap, false);
+			graphics = new HeadlessGraphics() {
+				@Override
+				public float getViewportWidth() {
+					return VIEWPORT_WIDTH;
+				}
+
+				@Override
+				public float getViewportHeight() {
+					return VIEWPORT_HEIGHT;
+				}
+			};
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			tileLayerRenderer.dispose();
+			tmxFile.delete();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	public void testRenderViewport(TestState state) {
+		for (int i = 0; i < TOTAL_LAYERS; i++) {
+			state.tileLayerRenderer.drawLayer(state.graphics, state.tiledMap.getTileLayer(i), 0, 0, 0, 0,
+					VIEWPORT_WIDTH / TILE_SIZE, VIEWPORT_HEIGHT / TILE_SIZE);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	public int testGetTileAtEveryPosition(TestState state) {
+		int result = 0;
+		for (int x = 0; x < MAP_SIZE_IN_TILES; x++) {
+			for (int y = 0; y < MAP_SIZE_IN_TILES; y++) {
+				if (state.tiledMap.getTile(x, y, 0) != null) {
+					result++;
+				}
+			}
+		}
+		return result;
+	}
+
+	private static String generateTmx() {
+		final StringBuilder result = new StringBuilder();
+		result.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		result.append("<map version=\"1.2\" orientation=\"orthogonal\" renderorder=\"right-down\" width=\"" + MAP_SIZE_IN_TILES
+				+ "\" height=\"" + MAP_SIZE_IN_TILES + "\" tilewidth=\"" + TILE_SIZE + "\" tileheight=\"" + TILE_SIZE
+				+ "\" infinite=\"0\">\n");
+
+		final int tilesPerTileset = TILESET_SIZE_IN_TILES * TILESET_SIZE_IN_TILES;
+		final int tilesetSize = TILESET_SIZE_IN_TILES * TILE_SIZE;
+		for (int i = 0; i < TOTAL_TILESETS; i++) {
+			result.append(" <tileset firstgid=\"" + ((i * tilesPerTileset) + 1) + "\" name=\"tileset" + i
+					+ "\" tilewidth=\"" + TILE_SIZE + "\" tileheight=\"" + TILE_SIZE + "\" tilecount=\"" + tilesPerTileset
+					+ "\" columns=\"" + TILESET_SIZE_IN_TILES + "\">\n");
+			result.append("  <image source=\"tileset" + i + ".png\" width=\"" + tilesetSize + "\" height=\"" + tilesetSize
+					+ "\"/>\n");
+			result.append(" </tileset>\n");
+		}
+		for (int layer = 0; layer < TOTAL_LAYERS; layer++) {
+			result.append(" <layer id=\"" + (layer + 1) + "\" name=\"Layer" + layer + "\" width=\"" + MAP_SIZE_IN_TILES
+					+ "\" height=\"" + MAP_SIZE_IN_TILES + "\">\n");
+			result.append("  <data encoding=\"csv\">\n");
+			for (int y = 0; y < MAP_SIZE_IN_TILES; y++) {
+				for (int x = 0; x < MAP_SIZE_IN_TILES; x++) {
+					result.append(MathUtils.random(1, TOTAL_TILESETS * tilesPerTileset));
+					if (x < MAP_SIZE_IN_TILES - 1 || y < MAP_SIZE_IN_TILES - 1) {
+						result.append(',');
+					}
+				}
+				result.append('\n');
+			}
+			result.append("  </data>\n");
+			result.append(" </layer>\n");
+		}
+		result.append("</map>\n");
+		return result.toString();
+	}
+
+	private static class SpriteTileRenderer implements TileRenderer {
+		private final Sprite sprite;
+
+		public SpriteTileRenderer(Sprite sprite) {
+			this.sprite = sprite;
+		}
+
+		@Override
+		public void update(float delta) {
+		}
+
+		@Override
+		public void draw(Graphics g, int renderX, int renderY) {
+			g.drawSprite(sprite, renderX, renderY);
+		}
+
+		@Override
+		public void draw(Graphics g, int renderX, int renderY, boolean flipH, boolean flipV, boolean flipD) {
+			g.drawSprite(sprite, renderX, renderY);
+		}
+
+		@Override
+		public Sprite getCurrentTileImage() {
+			return sprite;
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+}
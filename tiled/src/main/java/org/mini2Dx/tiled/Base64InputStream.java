@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * Decodes base64 text from a {@link Reader} as it is read. Whitespace is
+ * ignored and decoding stops at the first padding character.
+ */
+class Base64InputStream extends InputStream {
+	private static final int BUFFER_SIZE = 4096;
+	private static final byte[] DECODE_TABLE = new byte[128];
+
+	static {
+		for (int i = 0; i < DECODE_TABLE.length; i++) {
+			DECODE_TABLE[i] = -1;
+		}
+		for (int i = 0; i < 26; i++) {
+			DECODE_TABLE['A' + i] = (byte) i;
+			DECODE_TABLE['a' + i] = (byte) (26 + i);
+		}
+		for (int i = 0; i < 10; i++) {
+			DECODE_TABLE['0' + i] = (byte) (52 + i);
+		}
+		DECODE_TABLE['+'] = 62;
+		DECODE_TABLE['/'] = 63;
+	}
+
+	private final Reader reader;
+	private final char[] chars = new char[BUFFER_SIZE];
+	private final byte[] singleByte = new byte[1];
+
+	private int charPosition, charLimit;
+	private int bits, totalBits;
+	private boolean endOfData;
+
+	public Base64InputStream(Reader reader) {
+		this.reader = reader;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (read(singleByte, 0, 1) < 1) {
+			return -1;
+		}
+		return singleByte[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) throws IOException {
+		int count = 0;
+		while (count < length) {
+			if (totalBits >= 8) {
+				totalBits -= 8;
+				bytes[offset + count] = (byte) (bits >> totalBits);
+				count++;
+				continue;
+			}
+			if (charPosition == charLimit) {
+				if (endOfData) {
+					break;
+				}
+				charLimit = Math.max(reader.read(chars, 0, chars.length), 0);
+				charPosition = 0;
+				if (charLimit == 0) {
+					endOfData = true;
+					break;
+				}
+			}
+			final char c = chars[charPosition++];
+			if (c == '=') {
+				endOfData = true;
+				charPosition = charLimit;
+				continue;
+			}
+			if (c >= DECODE_TABLE.length || DECODE_TABLE[c] < 0) {
+				continue;
+			}
+			bits = (bits << 6) | DECODE_TABLE[c];
+			totalBits += 6;
+		}
+		if (count == 0 && length > 0) {
+			return -1;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,545 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.mini2Dx.tiled.exception.TiledException;
+
+/**
+ * A {@link TileLayer} of a Tiled infinite map. Tiles are stored in fixed-size
+ * chunks which are kept compressed in memory and only decompressed
+ * (made resident) around a focus point set with {@link #setFocus(int, int)}.
+ * A background thread pages chunks in and out so the render thread never
+ * waits on decompression; tiles in chunks that are not resident read as empty.
+ * 
+ * Tile coordinates are relative to the top-left of the layer's bounds, i.e.
+ * tile (0,0) of this layer is tile ({@link #getStartX()},
+ * {@link #getStartY()}) in Tiled.
+ */
+public class ChunkedTileLayer extends TileLayer {
+	private static final ExecutorService CHUNK_LOADER = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			final Thread thread = new Thread(runnable, "mini2Dx-chunk-loader");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private final int startX, startY;
+	private final int chunkWidth, chunkHeight;
+	private final int widthInChunks, heightInChunks;
+	private final TileChunk[] chunks;
+	private final Array<TileChunk> residentChunks = new Array<TileChunk>(false, 16, TileChunk.class);
+	private final Array<TileChunk> wantedChunks = new Array<TileChunk>(false, 16, TileChunk.class);
+	private final AtomicBoolean updateScheduled = new AtomicBoolean(false);
+	private final AtomicBoolean residencyChanged = new AtomicBoolean(false);
+	private final Runnable updateTask = new Runnable() {
+		@Override
+		public void run() {
+			updateScheduled.set(false);
+			updateResidentChunks(focusX, focusY);
+		}
+	};
+
+	private volatile int focusX, focusY;
+	private volatile int maxResidentChunks = TiledMap.MAX_RESIDENT_CHUNKS;
+	private volatile int totalFilledTiles;
+	private long updateId;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param startX
+	 *            The x coordinate in Tiled of the first tile of the layer
+	 * @param startY
+	 *            The y coordinate in Tiled of the first tile of the layer
+	 * @param width
+	 *            The width of the layer in tiles
+	 * @param height
+	 *            The height of the layer in tiles
+	 * @param chunkWidth
+	 *            The width of each chunk in tiles
+	 * @param chunkHeight
+	 *            The height of each chunk in tiles
+	 */
+	public ChunkedTileLayer(int startX, int startY, int width, int height, int chunkWidth, int chunkHeight) {
+		super(width, height, new int[0], 0);
+		this.startX = startX;
+		this.startY = startY;
+		this.chunkWidth = chunkWidth;
+		this.chunkHeight = chunkHeight;
+
+		widthInChunks = (width + chunkWidth - 1) / chunkWidth;
+		heightInChunks = (height + chunkHeight - 1) / chunkHeight;
+		chunks = new TileChunk[widthInChunks * heightInChunks];
+	}
+
+	/**
+	 * Sets the tiles of a chunk
+	 * 
+	 * @param tiledX
+	 *            The x coordinate in Tiled of the chunk's first tile
+	 * @param tiledY
+	 *            The y coordinate in Tiled of the chunk's first tile
+	 * @param data
+	 *            The packed tiles of the chunk compressed with
+	 *            {@link #compress(int[])}
+	 * @param totalFilledTiles
+	 *            The total tiles with content in the chunk
+	 */
+	synchronized void putChunk(int tiledX, int tiledY, byte[] data, int totalFilledTiles) {
+		final int chunkX = (tiledX - startX) / chunkWidth;
+		final int chunkY = (tiledY - startY) / chunkHeight;
+		final TileChunk chunk = getOrCreateChunk(chunkX, chunkY);
+		synchronized (chunk) {
+			this.totalFilledTiles += totalFilledTiles - chunk.totalFilledTiles;
+			chunk.totalFilledTiles = totalFilledTiles;
+			chunk.data = data;
+			chunk.dirty = false;
+			if (chunk.tiles != null) {
+				decompress(data, chunk.tiles);
+			}
+		}
+	}
+
+	/**
+	 * Sets the point that chunks are kept resident around and schedules the
+	 * background loader to page chunks in and out. Returns immediately.
+	 * 
+	 * @param tileX
+	 *            The x coordinate in tiles
+	 * @param tileY
+	 *            The y coordinate in tiles
+	 */
+	public void setFocus(int tileX, int tileY) {
+		focusX = tileX;
+		focusY = tileY;
+		if (updateScheduled.compareAndSet(false, true)) {
+			CHUNK_LOADER.execute(updateTask);
+		}
+	}
+
+	/**
+	 * Pages chunks in and out around a focus point on the calling thread.
+	 * The chunks closest to the focus point are made resident up to
+	 * {@link #getMaxResidentChunks()} and all others are released.
+	 * 
+	 * @param tileX
+	 *            The x coordinate in tiles
+	 * @param tileY
+	 *            The y coordinate in tiles
+	 */
+	public synchronized void updateResidentChunks(int tileX, int tileY) {
+		updateId++;
+		final int focusChunkX = floorDiv(tileX, chunkWidth);
+		final int focusChunkY = floorDiv(tileY, chunkHeight);
+		final int maxChunks = maxResidentChunks;
+		final int maxRadius = Math.max(widthInChunks, heightInChunks)
+				+ Math.max(Math.abs(focusChunkX), Math.abs(focusChunkY));
+
+		wantedChunks.clear();
+		for (int radius = 0; radius <= maxRadius && wantedChunks.size < maxChunks; radius++) {
+			for (int chunkY = focusChunkY - radius; chunkY <= focusChunkY + radius; chunkY++) {
+				if (chunkY < 0 || chunkY >= heightInChunks) {
+					continue;
+				}
+				final boolean edgeRow = chunkY == focusChunkY - radius || chunkY == focusChunkY + radius;
+				final int step = edgeRow ? 1 : Math.max(1, radius * 2);
+				for (int chunkX = focusChunkX - radius; chunkX <= focusChunkX + radius; chunkX += step) {
+					if (chunkX < 0 || chunkX >= widthInChunks) {
+						continue;
+					}
+					final TileChunk chunk = chunks[(chunkY * widthInChunks) + chunkX];
+					if (chunk == null || wantedChunks.size >= maxChunks) {
+						continue;
+					}
+					chunk.wantedId = updateId;
+					wantedChunks.add(chunk);
+				}
+			}
+		}
+
+		boolean changed = false;
+		for (int i = residentChunks.size - 1; i >= 0; i--) {
+			final TileChunk chunk = residentChunks.get(i);
+			if (chunk.wantedId == updateId) {
+				continue;
+			}
+			chunk.unload();
+			residentChunks.removeIndex(i);
+			changed = true;
+		}
+		for (int i = 0; i < wantedChunks.size; i++) {
+			final TileChunk chunk = wantedChunks.get(i);
+			if (chunk.tiles != null) {
+				continue;
+			}
+			chunk.load(chunkWidth * chunkHeight);
+			residentChunks.add(chunk);
+			changed = true;
+		}
+		wantedChunks.clear();
+		if (changed) {
+			residencyChanged.set(true);
+		}
+	}
+
+	/**
+	 * Returns if chunks have been paged in or out since the last call to this
+	 * method. Used by renderers to rebuild cached geometry.
+	 * 
+	 * @return True if the resident chunks have changed
+	 */
+	public boolean pollResidencyChanged() {
+		return residencyChanged.getAndSet(false);
+	}
+
+	/**
+	 * Returns if the chunk containing a tile is resident
+	 * 
+	 * @param tileX
+	 *            The x coordinate in tiles
+	 * @param tileY
+	 *            The y coordinate in tiles
+	 * @return False if the tile is not in a resident chunk
+	 */
+	public boolean isResident(int tileX, int tileY) {
+		final TileChunk chunk = getChunk(tileX, tileY);
+		return chunk != null && chunk.tiles != null;
+	}
+
+	/**
+	 * Returns if a chunk is resident
+	 * 
+	 * @param chunkX
+	 *            The x coordinate in chunks
+	 * @param chunkY
+	 *            The y coordinate in chunks
+	 * @return False if the chunk does not exist or is not resident
+	 */
+	public boolean isChunkResident(int chunkX, int chunkY) {
+		if (chunkX < 0 || chunkY < 0 || chunkX >= widthInChunks || chunkY >= heightInChunks) {
+			return false;
+		}
+		final TileChunk chunk = chunks[(chunkY * widthInChunks) + chunkX];
+		return chunk != null && chunk.tiles != null;
+	}
+
+	@Override
+	public int getPackedTile(int x, int y) {
+		final TileChunk chunk = getChunk(x, y);
+		if (chunk == null) {
+			return 0;
+		}
+		final int[] tiles = chunk.tiles;
+		if (tiles == null) {
+			return 0;
+		}
+		return tiles[((y % chunkHeight) * chunkWidth) + (x % chunkWidth)];
+	}
+
+	/**
+	 * Sets the packed tile at a given coordinate on the layer. If the chunk
+	 * is not resident it is decompressed on the calling thread. When this
+	 * exceeds {@link #getMaxResidentChunks()}, the resident chunks furthest from
+	 * the edited chunk are released.
+	 */
+	@Override
+	public synchronized void setPackedTile(int x, int y, int packedTile) {
+		if (x < 0 || y < 0 || x >= getWidth() || y >= getHeight()) {
+			throw new ArrayIndexOutOfBoundsException("Tile " + x + "," + y + " is outside of the layer");
+		}
+		final TileChunk chunk = getOrCreateChunk(x / chunkWidth, y / chunkHeight);
+		if (chunk.tiles == null) {
+			chunk.load(chunkWidth * chunkHeight);
+			residentChunks.add(chunk);
+			releaseFurthestChunks(chunk);
+			residencyChanged.set(true);
+		}
+		synchronized (chunk) {
+			final int index = ((y % chunkHeight) * chunkWidth) + (x % chunkWidth);
+			final boolean wasFilled = (chunk.tiles[index] & MASK_TILE_ID) != 0;
+			final boolean isFilled = (packedTile & MASK_TILE_ID) != 0;
+			chunk.tiles[index] = packedTile;
+			chunk.dirty = true;
+
+			if (wasFilled == isFilled) {
+				return;
+			}
+			chunk.totalFilledTiles += isFilled ? 1 : -1;
+			totalFilledTiles += isFilled ? 1 : -1;
+		}
+	}
+
+	@Override
+	public void getPackedRow(int y, int[] result, int offset) {
+		getPackedRegion(0, y, getWidth(), 1, result, offset);
+	}
+
+	@Override
+	public void getPackedRegion(int startX, int startY, int regionWidth, int regionHeight, int[] result) {
+		getPackedRegion(startX, startY, regionWidth, regionHeight, result, 0);
+	}
+
+	private void getPackedRegion(int startX, int startY, int regionWidth, int regionHeight, int[] result,
+			int offset) {
+		for (int y = 0; y < regionHeight; y++) {
+			for (int x = 0; x < regionWidth; x++) {
+				result[offset + (y * regionWidth) + x] = getPackedTile(startX + x, startY + y);
+			}
+		}
+	}
+
+	@Override
+	public void setPackedRegion(int startX, int startY, int regionWidth, int regionHeight, int[] packedTiles) {
+		for (int y = 0; y < regionHeight; y++) {
+			for (int x = 0; x < regionWidth; x++) {
+				setPackedTile(startX + x, startY + y, packedTiles[(y * regionWidth) + x]);
+			}
+		}
+	}
+
+	/**
+	 * Not supported. Chunked layers are not stored in a single array.
+	 * 
+	 * @throws TiledException
+	 *             Always
+	 */
+	@Override
+	int[] getPackedTiles() {
+		throw new TiledException("Infinite layer " + getName() + " is stored in chunks and has no single tile array");
+	}
+
+	@Override
+	public int getTotalFilledTiles() {
+		return totalFilledTiles;
+	}
+
+	private void releaseFurthestChunks(TileChunk keepChunk) {
+		while (residentChunks.size > maxResidentChunks) {
+			int furthestIndex = -1;
+			int furthestDistance = -1;
+			for (int i = 0; i < residentChunks.size; i++) {
+				final TileChunk chunk = residentChunks.get(i);
+				if (chunk == keepChunk) {
+					continue;
+				}
+				final int distance = Math.max(Math.abs(chunk.chunkX - keepChunk.chunkX),
+						Math.abs(chunk.chunkY - keepChunk.chunkY));
+				if (distance > furthestDistance) {
+					furthestDistance = distance;
+					furthestIndex = i;
+				}
+			}
+			if (furthestIndex < 0) {
+				return;
+			}
+			residentChunks.removeIndex(furthestIndex).unload();
+		}
+	}
+
+	private TileChunk getChunk(int x, int y) {
+		if (x < 0 || y < 0 || x >= getWidth() || y >= getHeight()) {
+			return null;
+		}
+		return chunks[((y / chunkHeight) * widthInChunks) + (x / chunkWidth)];
+	}
+
+	private TileChunk getOrCreateChunk(int chunkX, int chunkY) {
+		final int index = (chunkY * widthInChunks) + chunkX;
+		if (chunks[index] == null) {
+			chunks[index] = new TileChunk(chunkX, chunkY, compress(new int[chunkWidth * chunkHeight]));
+		}
+		return chunks[index];
+	}
+
+	/**
+	 * Returns the x coordinate in Tiled of tile 0 of this layer
+	 * 
+	 * @return The offset in tiles
+	 */
+	public int getStartX() {
+		return startX;
+	}
+
+	/**
+	 * Returns the y coordinate in Tiled of tile 0 of this layer
+	 * 
+	 * @return The offset in tiles
+	 */
+	public int getStartY() {
+		return startY;
+	}
+
+	/**
+	 * Returns the width of each chunk
+	 * 
+	 * @return The width in tiles
+	 */
+	public int getChunkWidth() {
+		return chunkWidth;
+	}
+
+	/**
+	 * Returns the height of each chunk
+	 * 
+	 * @return The height in tiles
+	 */
+	public int getChunkHeight() {
+		return chunkHeight;
+	}
+
+	/**
+	 * Returns the width of the layer in chunks
+	 * 
+	 * @return
+	 */
+	public int getWidthInChunks() {
+		return widthInChunks;
+	}
+
+	/**
+	 * Returns the height of the layer in chunks
+	 * 
+	 * @return
+	 */
+	public int getHeightInChunks() {
+		return heightInChunks;
+	}
+
+	/**
+	 * Returns the amount of chunks currently decompressed in memory
+	 * 
+	 * @return
+	 */
+	public synchronized int getTotalResidentChunks() {
+		return residentChunks.size;
+	}
+
+	/**
+	 * Returns the maximum amount of chunks kept decompressed in memory
+	 * 
+	 * @return Defaults to {@link TiledMap#MAX_RESIDENT_CHUNKS}
+	 */
+	public int getMaxResidentChunks() {
+		return maxResidentChunks;
+	}
+
+	/**
+	 * Sets the maximum amount of chunks kept decompressed in memory. Applied
+	 * on the next update of the resident chunks.
+	 * 
+	 * @param maxResidentChunks
+	 *            The amount of chunks
+	 */
+	public void setMaxResidentChunks(int maxResidentChunks) {
+		this.maxResidentChunks = Math.max(1, maxResidentChunks);
+	}
+
+	private static int floorDiv(int value, int divisor) {
+		final int result = value / divisor;
+		if ((value % divisor) != 0 && ((value < 0) != (divisor < 0))) {
+			return result - 1;
+		}
+		return result;
+	}
+
+	static byte[] compress(int[] packedTiles) {
+		final byte[] bytes = new byte[packedTiles.length * 4];
+		for (int i = 0; i < packedTiles.length; i++) {
+			bytes[(i * 4)] = (byte) packedTiles[i];
+			bytes[(i * 4) + 1] = (byte) (packedTiles[i] >>> 8);
+			bytes[(i * 4) + 2] = (byte) (packedTiles[i] >>> 16);
+			bytes[(i * 4) + 3] = (byte) (packedTiles[i] >>> 24);
+		}
+		final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(bytes);
+			deflater.finish();
+			final byte[] buffer = new byte[bytes.length + 64];
+			int length = 0;
+			while (!deflater.finished()) {
+				length += deflater.deflate(buffer, length, buffer.length - length);
+			}
+			final byte[] result = new byte[length];
+			System.arraycopy(buffer, 0, result, 0, length);
+			return result;
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static void decompress(byte[] data, int[] result) {
+		final byte[] bytes = new byte[result.length * 4];
+		final Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(data);
+			int length = 0;
+			while (length < bytes.length && !inflater.finished()) {
+				length += inflater.inflate(bytes, length, bytes.length - length);
+			}
+		} catch (DataFormatException e) {
+			throw new GdxRuntimeException(e);
+		} finally {
+			inflater.end();
+		}
+		for (int i = 0; i < result.length; i++) {
+			result[i] = (bytes[(i * 4)] & 0xFF) | ((bytes[(i * 4) + 1] & 0xFF) << 8)
+					| ((bytes[(i * 4) + 2] & 0xFF) << 16) | ((bytes[(i * 4) + 3] & 0xFF) << 24);
+		}
+	}
+
+	private static class TileChunk {
+		final int chunkX, chunkY;
+		volatile int[] tiles;
+		byte[] data;
+		boolean dirty;
+		int totalFilledTiles;
+		long wantedId;
+
+		TileChunk(int chunkX, int chunkY, byte[] data) {
+			this.chunkX = chunkX;
+			this.chunkY = chunkY;
+			this.data = data;
+		}
+
+		synchronized void load(int totalTiles) {
+			if (tiles != null) {
+				return;
+			}
+			final int[] result = new int[totalTiles];
+			decompress(data, result);
+			tiles = result;
+		}
+
+		synchronized void unload() {
+			if (tiles == null) {
+				return;
+			}
+			if (dirty) {
+				data = compress(tiles);
+				dirty = false;
+			}
+			tiles = null;
+		}
+	}
+}
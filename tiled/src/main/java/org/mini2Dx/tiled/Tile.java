@@ -23,6 +23,7 @@ public class Tile implements Disposable {
 	private int tileId;
 	private TileRenderer tileRenderer;
 	private ObjectMap<String, String> properties;
+	private boolean opaque;
 
 	public void update(float delta) {
 		if (tileRenderer == null) {
@@ -107,6 +108,21 @@ public class Tile implements Disposable {
 		this.tileId = tileId;
 	}
 
+	/**
+	 * Returns if every pixel of this tile's image is fully opaque. Only
+	 * computed when {@link TiledMap#OCCLUSION_CULLING} is enabled before the
+	 * tileset textures are loaded.
+	 * 
+	 * @return True if the tile hides anything drawn beneath it
+	 */
+	public boolean isOpaque() {
+		return opaque;
+	}
+
+	public void setOpaque(boolean opaque) {
+		this.opaque = opaque;
+	}
+
 	public TileRenderer getTileRenderer() {
 		return tileRenderer;
 	}
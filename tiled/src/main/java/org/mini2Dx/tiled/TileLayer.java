@@ -11,26 +11,79 @@
  */
 package org.mini2Dx.tiled;
 
-import com.badlogic.gdx.math.MathUtils;
+import java.nio.IntBuffer;
 
-import java.util.BitSet;
+import com.badlogic.gdx.math.MathUtils;
 
 /**
  * Represents a tile layer with in a {@link TiledMap}
+ * 
+ * Tiles are stored in a single row-major array. Each value is a packed tile
+ * using the TMX gid encoding: the tile id in the low bits and the flip flags
+ * in the high bits. Layers loaded from a binary map are bulk copied from the
+ * mapped file into the array.
  */
 public class TileLayer extends Layer {
-	private final int[][] tiles;
-	private final BitSet flipHorizontally;
-	private final BitSet flipVertically;
-	private final BitSet flipDiagonally;
+	/**
+	 * Packed tile flag for tiles flipped horizontally
+	 */
+	public static final int FLAG_FLIP_HORIZONTALLY = 0x80000000;
+	/**
+	 * Packed tile flag for tiles flipped vertically
+	 */
+	public static final int FLAG_FLIP_VERTICALLY = 0x40000000;
+	/**
+	 * Packed tile flag for tiles flipped (anti) diagonally
+	 */
+	public static final int FLAG_FLIP_DIAGONALLY = 0x20000000;
+	/**
+	 * Mask for all packed tile flip flags
+	 */
+	public static final int MASK_FLIP_FLAGS = FLAG_FLIP_HORIZONTALLY | FLAG_FLIP_VERTICALLY | FLAG_FLIP_DIAGONALLY;
+	/**
+	 * Mask for the tile id of a packed tile
+	 */
+	public static final int MASK_TILE_ID = ~MASK_FLIP_FLAGS;
+
+	private final int width, height;
+	private int[] tiles;
+	private IntBuffer mappedTiles;
+	private int totalFilledTiles;
+	TileOcclusionMask occlusionMask;
 
 	public TileLayer(int width, int height) {
+		this(width, height, new int[width * height], 0);
+	}
+
+	/**
+	 * Constructor for layers loaded from existing tile data
+	 * @param width The width in tiles
+	 * @param height The height in tiles
+	 * @param tiles The packed tiles in row-major order. Single tiles are read
+	 *            directly from the buffer until the layer is modified or
+	 *            bulk copied, at which point the buffer is copied into the
+	 *            layer.
+	 * @param totalFilledTiles The total tiles with content in the data
+	 */
+	TileLayer(int width, int height, IntBuffer tiles, int totalFilledTiles) {
+		this(width, height, (int[]) null, totalFilledTiles);
+		this.mappedTiles = tiles;
+	}
+
+	/**
+	 * Constructor for layers that take ownership of an array of tile data
+	 * @param width The width in tiles
+	 * @param height The height in tiles
+	 * @param tiles The packed tiles in row-major order
+	 * @param totalFilledTiles The total tiles with content in the data
+	 */
+	TileLayer(int width, int height, int[] tiles, int totalFilledTiles) {
 		super(LayerType.TILE);
 
-		tiles = new int[width][height];
-		flipHorizontally = new BitSet(width * height);
-		flipVertically = new BitSet(width * height);
-		flipDiagonally = new BitSet(width * height);
+		this.width = width;
+		this.height = height;
+		this.tiles = tiles;
+		this.totalFilledTiles = totalFilledTiles;
 	}
 
 	/**
@@ -43,7 +96,7 @@ public class TileLayer extends Layer {
 	 * @return 0 if there is no tile
 	 */
 	public int getTileId(int x, int y) {
-		return tiles[x][y];
+		return getPackedTile(x, y) & MASK_TILE_ID;
 	}
 
 	/**
@@ -57,7 +110,7 @@ public class TileLayer extends Layer {
 	 *            0 if there is no tile
 	 */
 	public void setTileId(int x, int y, int id) {
-		tiles[x][y] = id;
+		setPackedTile(x, y, (getPackedTile(x, y) & MASK_FLIP_FLAGS) | (id & MASK_TILE_ID));
 	}
 	
 	/**
@@ -74,10 +127,129 @@ public class TileLayer extends Layer {
 	 * @param flipD True if the tile is flipped (anti) diagonally - rotation
 	 */
 	public void setTileId(int x, int y, int id, boolean flipH, boolean flipV, boolean flipD) {
-		tiles[x][y] = id;
-		setFlippedHorizontally(x, y, flipH);
-		setFlippedVertically(x, y, flipV);
-		setFlippedDiagonally(x, y, flipD);
+		int packedTile = id & MASK_TILE_ID;
+		if (flipH) {
+			packedTile |= FLAG_FLIP_HORIZONTALLY;
+		}
+		if (flipV) {
+			packedTile |= FLAG_FLIP_VERTICALLY;
+		}
+		if (flipD) {
+			packedTile |= FLAG_FLIP_DIAGONALLY;
+		}
+		setPackedTile(x, y, packedTile);
+	}
+
+	/**
+	 * Returns the packed tile (tile id and flip flags) at a given coordinate
+	 * on the layer
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @return 0 if there is no tile
+	 */
+	public int getPackedTile(int x, int y) {
+		final int index = getIndex(x, y);
+		if (tiles == null) {
+			return mappedTiles.get(index);
+		}
+		return tiles[index];
+	}
+
+	/**
+	 * Sets the packed tile (tile id and flip flags) at a given coordinate on
+	 * the layer
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @param packedTile
+	 *            The tile id combined with any of {@link #FLAG_FLIP_HORIZONTALLY},
+	 *            {@link #FLAG_FLIP_VERTICALLY} and {@link #FLAG_FLIP_DIAGONALLY}
+	 */
+	public void setPackedTile(int x, int y, int packedTile) {
+		setPackedTile(getIndex(x, y), packedTile);
+	}
+
+	private void setPackedTile(int index, int packedTile) {
+		final int[] tiles = getTiles();
+		final int previousPackedTile = tiles[index];
+		final boolean wasFilled = (previousPackedTile & MASK_TILE_ID) != 0;
+		final boolean isFilled = (packedTile & MASK_TILE_ID) != 0;
+		tiles[index] = packedTile;
+		if (occlusionMask != null && previousPackedTile != packedTile) {
+			occlusionMask.updateCell(this, index % width, index / width);
+		}
+
+		if (wasFilled == isFilled) {
+			return;
+		}
+		totalFilledTiles += isFilled ? 1 : -1;
+	}
+
+	/**
+	 * Copies a row of packed tiles into an array
+	 * 
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @param result
+	 *            The array to copy into. Must have space for {@link #getWidth()} tiles after offset.
+	 * @param offset
+	 *            The index in the result to start copying into
+	 */
+	public void getPackedRow(int y, int[] result, int offset) {
+		System.arraycopy(getTiles(), getIndex(0, y), result, offset, width);
+	}
+
+	/**
+	 * Copies a rectangular region of packed tiles into an array in row-major
+	 * order
+	 * 
+	 * @param startX
+	 *            The x coordinate in tiles to start from
+	 * @param startY
+	 *            The y coordinate in tiles to start from
+	 * @param regionWidth
+	 *            The width of the region in tiles
+	 * @param regionHeight
+	 *            The height of the region in tiles
+	 * @param result
+	 *            The array to copy into. Must have space for regionWidth * regionHeight tiles.
+	 */
+	public void getPackedRegion(int startX, int startY, int regionWidth, int regionHeight, int[] result) {
+		checkRegionBounds(startX, startY, regionWidth, regionHeight);
+		final int[] tiles = getTiles();
+		for (int y = 0; y < regionHeight; y++) {
+			System.arraycopy(tiles, getIndex(startX, startY + y), result, y * regionWidth, regionWidth);
+		}
+	}
+
+	/**
+	 * Sets a rectangular region of packed tiles from an array in row-major
+	 * order
+	 * 
+	 * @param startX
+	 *            The x coordinate in tiles to start from
+	 * @param startY
+	 *            The y coordinate in tiles to start from
+	 * @param regionWidth
+	 *            The width of the region in tiles
+	 * @param regionHeight
+	 *            The height of the region in tiles
+	 * @param packedTiles
+	 *            The packed tiles to set
+	 */
+	public void setPackedRegion(int startX, int startY, int regionWidth, int regionHeight, int[] packedTiles) {
+		checkRegionBounds(startX, startY, regionWidth, regionHeight);
+		for (int y = 0; y < regionHeight; y++) {
+			final int rowIndex = getIndex(startX, startY + y);
+			for (int x = 0; x < regionWidth; x++) {
+				setPackedTile(rowIndex + x, packedTiles[(y * regionWidth) + x]);
+			}
+		}
 	}
 	
 	/**
@@ -87,7 +259,7 @@ public class TileLayer extends Layer {
 	 * @return True if flipped horizontally
 	 */
 	public boolean isFlippedHorizontally(int x, int y) {
-		return flipHorizontally.get(getBitIndex(x, y));
+		return (getPackedTile(x, y) & FLAG_FLIP_HORIZONTALLY) != 0;
 	}
 	
 	/**
@@ -97,7 +269,7 @@ public class TileLayer extends Layer {
 	 * @param flip True if flipped horizontally
 	 */
 	public void setFlippedHorizontally(int x, int y, boolean flip) {
-		flipHorizontally.set(getBitIndex(x, y), flip);
+		setFlag(x, y, FLAG_FLIP_HORIZONTALLY, flip);
 	}
 	
 	/**
@@ -107,7 +279,7 @@ public class TileLayer extends Layer {
 	 * @return True if flipped vertically
 	 */
 	public boolean isFlippedVertically(int x, int y) {
-		return flipVertically.get(getBitIndex(x, y));
+		return (getPackedTile(x, y) & FLAG_FLIP_VERTICALLY) != 0;
 	}
 	
 	/**
@@ -117,7 +289,7 @@ public class TileLayer extends Layer {
 	 * @param flip True if flipped vertically
 	 */
 	public void setFlippedVertically(int x, int y, boolean flip) {
-		flipVertically.set(getBitIndex(x, y), flip);
+		setFlag(x, y, FLAG_FLIP_VERTICALLY, flip);
 	}
 	
 	/**
@@ -127,7 +299,7 @@ public class TileLayer extends Layer {
 	 * @return True if flipped diagonally
 	 */
 	public boolean isFlippedDiagonally(int x, int y) {
-		return flipDiagonally.get(getBitIndex(x, y));
+		return (getPackedTile(x, y) & FLAG_FLIP_DIAGONALLY) != 0;
 	}
 	
 	/**
@@ -137,7 +309,29 @@ public class TileLayer extends Layer {
 	 * @param flip True if flipped diagonally
 	 */
 	public void setFlippedDiagonally(int x, int y, boolean flip) {
-		flipDiagonally.set(getBitIndex(x, y), flip);
+		setFlag(x, y, FLAG_FLIP_DIAGONALLY, flip);
+	}
+
+	private void setFlag(int x, int y, int flag, boolean value) {
+		final int packedTile = getPackedTile(x, y);
+		setPackedTile(x, y, value ? packedTile | flag : packedTile & ~flag);
+	}
+
+	/**
+	 * Returns the underlying packed tile data. The array must not be modified.
+	 * @return The packed tiles in row-major order
+	 */
+	int[] getPackedTiles() {
+		return getTiles();
+	}
+
+	private int[] getTiles() {
+		if (tiles == null) {
+			tiles = new int[width * height];
+			mappedTiles.get(tiles);
+			mappedTiles = null;
+		}
+		return tiles;
 	}
 
 	/**
@@ -145,7 +339,7 @@ public class TileLayer extends Layer {
 	 * @return The width in tiles
 	 */
 	public int getWidth() {
-		return tiles.length;
+		return width;
 	}
 
 	/**
@@ -153,11 +347,26 @@ public class TileLayer extends Layer {
 	 * @return The height in tiles
 	 */
 	public int getHeight() {
-		return tiles[0].length;
+		return height;
 	}
 	
-	private int getBitIndex(int x, int y) {
-		return (y * tiles.length) + x;
+	private int getIndex(int x, int y) {
+		checkBounds(x, y);
+		return (y * width) + x;
+	}
+
+	private void checkBounds(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			throw new ArrayIndexOutOfBoundsException("Tile " + x + "," + y + " is outside of the layer");
+		}
+	}
+
+	private void checkRegionBounds(int startX, int startY, int regionWidth, int regionHeight) {
+		if (regionWidth <= 0 || regionHeight <= 0) {
+			return;
+		}
+		checkBounds(startX, startY);
+		checkBounds(startX + regionWidth - 1, startY + regionHeight - 1);
 	}
 
 	/**
@@ -173,17 +382,7 @@ public class TileLayer extends Layer {
 	 * @return
 	 */
 	public int getTotalEmptyTiles() {
-		int result = 0;
-
-		for(int x = 0; x < getWidth(); x++) {
-			for(int y = 0; y < getHeight(); y++) {
-				if(getTileId(x, y) >= 1) {
-					continue;
-				}
-				result++;
-			}
-		}
-		return result;
+		return (width * height) - getTotalFilledTiles();
 	}
 
 	/**
@@ -191,16 +390,6 @@ public class TileLayer extends Layer {
 	 * @return
 	 */
 	public int getTotalFilledTiles() {
-		int result = 0;
-
-		for(int x = 0; x < getWidth(); x++) {
-			for(int y = 0; y < getHeight(); y++) {
-				if(getTileId(x, y) < 1) {
-					continue;
-				}
-				result++;
-			}
-		}
-		return result;
+		return totalFilledTiles;
 	}
 }
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * A dense lookup table from tile ID (gid) to {@link Tile} and {@link Tileset}.
+ * Replaces scanning every {@link Tileset} with {@link Tileset#contains(int)}
+ * for each tile rendered.
+ */
+public class TileLookup {
+	private Tile[] tiles = new Tile[0];
+	private Tileset[] tilesets = new Tileset[0];
+
+	/**
+	 * Rebuilds the lookup table. Must be called whenever {@link Tileset}s are
+	 * added or removed.
+	 * 
+	 * @param tilesets
+	 *            The {@link Tileset}s of the map
+	 */
+	public void rebuild(Array<Tileset> tilesets) {
+		int maxGid = 0;
+		for (int i = 0; i < tilesets.size; i++) {
+			maxGid = Math.max(maxGid, tilesets.get(i).getLastGid());
+		}
+
+		final Tile[] tiles = new Tile[maxGid + 1];
+		final Tileset[] gidTilesets = new Tileset[maxGid + 1];
+		// Iterate in reverse so earlier tilesets take priority, matching a
+		// linear scan of the tilesets
+		for (int i = tilesets.size - 1; i >= 0; i--) {
+			final Tileset tileset = tilesets.get(i);
+			for (int gid = Math.max(1, tileset.getFirstGid()); gid <= tileset.getLastGid(); gid++) {
+				tiles[gid] = tileset.getTile(gid);
+				gidTilesets[gid] = tileset;
+			}
+		}
+		this.tiles = tiles;
+		this.tilesets = gidTilesets;
+	}
+
+	/**
+	 * Returns the {@link Tile} for the given tile ID
+	 * 
+	 * @param tileId
+	 *            The tile ID to look up
+	 * @return Null if there is no {@link Tile} with the given ID
+	 */
+	public Tile getTile(int tileId) {
+		final Tile[] tiles = this.tiles;
+		if (tileId < 1 || tileId >= tiles.length) {
+			return null;
+		}
+		return tiles[tileId];
+	}
+
+	/**
+	 * Returns the highest tile ID in the lookup table
+	 * 
+	 * @return 0 if there are no tiles
+	 */
+	public int getMaxTileId() {
+		return Math.max(0, tiles.length - 1);
+	}
+
+	/**
+	 * Returns the {@link Tileset} containing the given tile ID
+	 * 
+	 * @param tileId
+	 *            The tile ID to look up
+	 * @return Null if no {@link Tileset} contains the tile ID
+	 */
+	public Tileset getTileset(int tileId) {
+		final Tileset[] tilesets = this.tilesets;
+		if (tileId < 1 || tileId >= tilesets.length) {
+			return null;
+		}
+		return tilesets[tileId];
+	}
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.mini2Dx.tiled.renderer.AnimatedTileRenderer;
+
+import java.util.Arrays;
+
+/**
+ * Stores the index of the top-most {@link TileLayer} with a fully opaque tile
+ * in each cell of a {@link TiledMap}. Tiles on lower layers in the same cell
+ * are hidden and can be skipped by renderers.
+ * 
+ * Tile opacity comes from {@link Tile#isOpaque()}. Animated tiles and tiles
+ * smaller than the map's tile size never occlude. {@link ChunkedTileLayer}s
+ * and layers of a different size to the map are ignored. The mask is rebuilt
+ * by {@link #update()} when layers are added or their visibility changes.
+ * Setting a tile only updates the cell it is in, and cells whose top-most
+ * opaque layer changed are reported by {@link #pollChangedCells(IntArray)} so
+ * renderers can rebuild just the affected chunks.
+ */
+public class TileOcclusionMask {
+	/**
+	 * The value returned by {@link #getTopOpaqueLayer(int, int)} for cells
+	 * without an opaque tile
+	 */
+	public static final int NO_LAYER = -1;
+	/**
+	 * The amount of changed cells kept before the whole mask is rebuilt
+	 * instead
+	 */
+	public static final int MAX_CHANGED_CELLS = 1024;
+
+	private final TiledMap tiledMap;
+	private final int width, height;
+	private final int[] topOpaqueLayers;
+	private final IntArray changedCells = new IntArray();
+
+	private boolean[] layerVisibility = new boolean[0];
+	private boolean built;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param tiledMap
+	 *            The {@link TiledMap} to compute occlusion for
+	 */
+	public TileOcclusionMask(TiledMap tiledMap) {
+		super();
+		this.tiledMap = tiledMap;
+		this.width = tiledMap.getWidth();
+		this.height = tiledMap.getHeight();
+		this.topOpaqueLayers = new int[width * height];
+	}
+
+	/**
+	 * Rebuilds the mask if layers were added or their visibility changed
+	 * since it was last built, or if too many cells changed to track
+	 * individually
+	 * 
+	 * @return True if the mask was rebuilt
+	 */
+	public boolean update() {
+		if (built && !isLayerChanged()) {
+			return false;
+		}
+		rebuild();
+		return true;
+	}
+
+	/**
+	 * Rebuilds the mask immediately
+	 */
+	public void rebuild() {
+		final int totalLayers = tiledMap.getLayers().size;
+		if (layerVisibility.length != totalLayers) {
+			layerVisibility = new boolean[totalLayers];
+		}
+		Arrays.fill(topOpaqueLayers, NO_LAYER);
+		changedCells.clear();
+
+		for (int i = 0; i < totalLayers; i++) {
+			final TileLayer layer = getOccludingLayer(i);
+			if (layer == null) {
+				continue;
+			}
+			layer.occlusionMask = this;
+			layerVisibility[i] = layer.isVisible();
+			if (TiledMap.STRICT_LAYER_VISIBILITY && !layer.isVisible()) {
+				continue;
+			}
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					if (isOpaque(layer.getPackedTile(x, y))) {
+						topOpaqueLayers[(y * width) + x] = i;
+					}
+				}
+			}
+		}
+		built = true;
+	}
+
+	/**
+	 * Called when a tile is set to recompute the top-most opaque layer of its
+	 * cell
+	 * 
+	 * @param layer
+	 *            The {@link TileLayer} the tile was set on
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 */
+	void updateCell(TileLayer layer, int x, int y) {
+		if (!built || layer.getIndex() >= layerVisibility.length || getOccludingLayer(layer.getIndex()) != layer) {
+			return;
+		}
+		int topOpaqueLayer = NO_LAYER;
+		for (int i = layerVisibility.length - 1; i >= 0; i--) {
+			final TileLayer occludingLayer = getOccludingLayer(i);
+			if (occludingLayer == null) {
+				continue;
+			}
+			if (TiledMap.STRICT_LAYER_VISIBILITY && !layerVisibility[i]) {
+				continue;
+			}
+			if (isOpaque(occludingLayer.getPackedTile(x, y))) {
+				topOpaqueLayer = i;
+				break;
+			}
+		}
+
+		final int index = (y * width) + x;
+		final int previousTopOpaqueLayer = topOpaqueLayers[index];
+		if (previousTopOpaqueLayer == topOpaqueLayer) {
+			return;
+		}
+		topOpaqueLayers[index] = topOpaqueLayer;
+		if (changedCells.size >= MAX_CHANGED_CELLS * 4) {
+			// Too many edits since the last poll, rebuild everything instead
+			built = false;
+			changedCells.clear();
+			return;
+		}
+		changedCells.add(x);
+		changedCells.add(y);
+		changedCells.add(previousTopOpaqueLayer);
+		changedCells.add(topOpaqueLayer);
+	}
+
+	/**
+	 * Moves the cells whose top-most opaque layer changed since the last call
+	 * to this method or {@link #rebuild()} into an array. Each cell is stored
+	 * as its x and y coordinate followed by the previous and current result of
+	 * {@link #getTopOpaqueLayer(int, int)}. Tiles on layers between the two
+	 * (inclusive) may have changed visibility.
+	 * 
+	 * @param result
+	 *            The array to add the changed cells to
+	 */
+	public void pollChangedCells(IntArray result) {
+		result.addAll(changedCells);
+		changedCells.clear();
+	}
+
+	private boolean isLayerChanged() {
+		if (layerVisibility.length != tiledMap.getLayers().size) {
+			return true;
+		}
+		for (int i = 0; i < layerVisibility.length; i++) {
+			final TileLayer layer = getOccludingLayer(i);
+			if (layer == null) {
+				continue;
+			}
+			if (layer.isVisible() != layerVisibility[i]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private TileLayer getOccludingLayer(int index) {
+		final Layer layer = tiledMap.getLayers().get(index);
+		if (!layer.getLayerType().equals(LayerType.TILE)) {
+			return null;
+		}
+		if (layer instanceof ChunkedTileLayer) {
+			return null;
+		}
+		final TileLayer tileLayer = (TileLayer) layer;
+		if (tileLayer.getWidth() != width || tileLayer.getHeight() != height) {
+			return null;
+		}
+		return tileLayer;
+	}
+
+	private boolean isOpaque(int packedTile) {
+		final int tileId = packedTile & TileLayer.MASK_TILE_ID;
+		if (tileId < 1) {
+			return false;
+		}
+		final Tile tile = tiledMap.getTile(tileId);
+		if (tile == null || !tile.isOpaque()) {
+			return false;
+		}
+		if (tile.getTileRenderer() instanceof AnimatedTileRenderer) {
+			return false;
+		}
+		final Tileset tileset = tiledMap.getTileset(tileId);
+		if (tileset == null) {
+			return false;
+		}
+		if ((packedTile & TileLayer.FLAG_FLIP_DIAGONALLY) != 0) {
+			return tileset.getTileHeight() >= tiledMap.getTileWidth()
+					&& tileset.getTileWidth() >= tiledMap.getTileHeight();
+		}
+		return tileset.getTileWidth() >= tiledMap.getTileWidth() && tileset.getTileHeight() >= tiledMap.getTileHeight();
+	}
+
+	/**
+	 * Returns if a tile is hidden by an opaque tile on a higher layer
+	 * 
+	 * @param layerIndex
+	 *            The index of the layer the tile is on
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @return False if the tile may be visible
+	 */
+	public boolean isOccluded(int layerIndex, int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return false;
+		}
+		return topOpaqueLayers[(y * width) + x] > layerIndex;
+	}
+
+	/**
+	 * Returns the index of the top-most layer with an opaque tile in a cell
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @return {@link #NO_LAYER} if no layer has an opaque tile in the cell
+	 */
+	public int getTopOpaqueLayer(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return NO_LAYER;
+		}
+		return topOpaqueLayers[(y * width) + x];
+	}
+}
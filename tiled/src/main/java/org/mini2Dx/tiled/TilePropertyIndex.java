@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.util.Arrays;
+
+/**
+ * Interns {@link Tile} properties into dense per-tile ID (gid) tables.
+ * 
+ * Properties whose values are all <em>true</em> or <em>false</em> become
+ * flags, stored as bits of a <code>long</code> mask per gid. Properties whose
+ * values are all numbers are stored in a <code>float</code> column per
+ * property. Other properties are only available via
+ * {@link Tile#getProperty(String)}. At most {@link #MAX_FLAGS} flags are
+ * interned, in alphabetical order of property name.
+ */
+public class TilePropertyIndex {
+	/**
+	 * The maximum number of flag properties
+	 */
+	public static final int MAX_FLAGS = 64;
+	/**
+	 * Returned when a property has not been interned
+	 */
+	public static final int NO_PROPERTY = -1;
+
+	private static final int KIND_BOOLEAN = 1;
+	private static final int KIND_NUMERIC = 2;
+	private static final int KIND_OTHER = 4;
+
+	private final ObjectIntMap<String> flagIds = new ObjectIntMap<String>();
+	private final ObjectIntMap<String> numericPropertyIds = new ObjectIntMap<String>();
+	private long[] flags = new long[0];
+	private float[][] numericProperties = new float[0][];
+
+	/**
+	 * Rebuilds the index. Must be called whenever {@link Tileset}s are added
+	 * or tile properties change.
+	 * 
+	 * @param tileLookup
+	 *            The {@link TileLookup} of the map
+	 */
+	public void rebuild(TileLookup tileLookup) {
+		final int maxTileId = tileLookup.getMaxTileId();
+		final ObjectIntMap<String> propertyKinds = new ObjectIntMap<String>();
+		for (int tileId = 1; tileId <= maxTileId; tileId++) {
+			final ObjectMap<String, String> properties = getProperties(tileLookup, tileId);
+			if (properties == null) {
+				continue;
+			}
+			for (ObjectMap.Entry<String, String> property : properties.entries()) {
+				propertyKinds.put(property.key, propertyKinds.get(property.key, 0) | getKind(property.value));
+			}
+		}
+
+		final Array<String> propertyNames = new Array<String>(String.class);
+		for (ObjectIntMap.Entry<String> propertyKind : propertyKinds.entries()) {
+			propertyNames.add(propertyKind.key);
+		}
+		propertyNames.sort();
+
+		flagIds.clear();
+		numericPropertyIds.clear();
+		for (int i = 0; i < propertyNames.size; i++) {
+			final String propertyName = propertyNames.get(i);
+			final int kind = propertyKinds.get(propertyName, KIND_OTHER);
+			if (kind == KIND_BOOLEAN && flagIds.size < MAX_FLAGS) {
+				flagIds.put(propertyName, flagIds.size);
+			} else if (kind == KIND_NUMERIC) {
+				numericPropertyIds.put(propertyName, numericPropertyIds.size);
+			}
+		}
+
+		final long[] flags = new long[maxTileId + 1];
+		final float[][] numericProperties = new float[numericPropertyIds.size][maxTileId + 1];
+		for (int i = 0; i < numericProperties.length; i++) {
+			Arrays.fill(numericProperties[i], Float.NaN);
+		}
+		for (int tileId = 1; tileId <= maxTileId; tileId++) {
+			final ObjectMap<String, String> properties = getProperties(tileLookup, tileId);
+			if (properties == null) {
+				continue;
+			}
+			for (ObjectMap.Entry<String, String> property : properties.entries()) {
+				final int flagId = flagIds.get(property.key, NO_PROPERTY);
+				if (flagId != NO_PROPERTY) {
+					if (Boolean.parseBoolean(property.value)) {
+						flags[tileId] |= 1L << flagId;
+					}
+					continue;
+				}
+				final int numericPropertyId = numericPropertyIds.get(property.key, NO_PROPERTY);
+				if (numericPropertyId != NO_PROPERTY) {
+					numericProperties[numericPropertyId][tileId] = Float.parseFloat(property.value.trim());
+				}
+			}
+		}
+		this.flags = flags;
+		this.numericProperties = numericProperties;
+	}
+
+	private static ObjectMap<String, String> getProperties(TileLookup tileLookup, int tileId) {
+		final Tile tile = tileLookup.getTile(tileId);
+		if (tile == null) {
+			return null;
+		}
+		return tile.getProperties();
+	}
+
+	private static int getKind(String value) {
+		if (value == null) {
+			return KIND_OTHER;
+		}
+		if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+			return KIND_BOOLEAN;
+		}
+		try {
+			Float.parseFloat(value.trim());
+			return KIND_NUMERIC;
+		} catch (NumberFormatException e) {
+			return KIND_OTHER;
+		}
+	}
+
+	/**
+	 * Returns the ID of a flag property
+	 * 
+	 * @param propertyName
+	 *            The property name
+	 * @return {@link #NO_PROPERTY} if the property is not a flag
+	 */
+	public int getFlagId(String propertyName) {
+		return flagIds.get(propertyName, NO_PROPERTY);
+	}
+
+	/**
+	 * Returns the bit mask of a set of flag properties
+	 * 
+	 * @param propertyNames
+	 *            The property names
+	 * @return A mask with the bit of each flag set. Properties that are not
+	 *         flags are ignored.
+	 */
+	public long getFlagMask(String... propertyNames) {
+		long result = 0L;
+		for (int i = 0; i < propertyNames.length; i++) {
+			final int flagId = getFlagId(propertyNames[i]);
+			if (flagId == NO_PROPERTY) {
+				continue;
+			}
+			result |= 1L << flagId;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the flags set for a tile
+	 * 
+	 * @param tileId
+	 *            The tile ID (gid)
+	 * @return A mask with the bit of each flag that is true for the tile
+	 */
+	public long getFlags(int tileId) {
+		final long[] flags = this.flags;
+		if (tileId < 1 || tileId >= flags.length) {
+			return 0L;
+		}
+		return flags[tileId];
+	}
+
+	/**
+	 * Returns if a flag is true for a tile
+	 * 
+	 * @param tileId
+	 *            The tile ID (gid)
+	 * @param flagId
+	 *            The flag ID from {@link #getFlagId(String)}
+	 * @return False if the flag is false, unset or not interned
+	 */
+	public boolean hasFlag(int tileId, int flagId) {
+		if (flagId < 0 || flagId >= MAX_FLAGS) {
+			return false;
+		}
+		return (getFlags(tileId) & (1L << flagId)) != 0L;
+	}
+
+	/**
+	 * Returns the ID of a numeric property
+	 * 
+	 * @param propertyName
+	 *            The property name
+	 * @return {@link #NO_PROPERTY} if the property is not numeric
+	 */
+	public int getNumericPropertyId(String propertyName) {
+		return numericPropertyIds.get(propertyName, NO_PROPERTY);
+	}
+
+	/**
+	 * Returns the value of a numeric property for a tile
+	 * 
+	 * @param tileId
+	 *            The tile ID (gid)
+	 * @param propertyId
+	 *            The property ID from {@link #getNumericPropertyId(String)}
+	 * @param defaultValue
+	 *            The value to return if the tile does not have the property
+	 * @return The property value
+	 */
+	public float getNumericProperty(int tileId, int propertyId, float defaultValue) {
+		final float[][] numericProperties = this.numericProperties;
+		if (propertyId < 0 || propertyId >= numericProperties.length) {
+			return defaultValue;
+		}
+		final float[] values = numericProperties[propertyId];
+		if (tileId < 1 || tileId >= values.length || Float.isNaN(values[tileId])) {
+			return defaultValue;
+		}
+		return values[tileId];
+	}
+}
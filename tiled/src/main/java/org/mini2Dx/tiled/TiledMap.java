@@ -16,6 +16,7 @@ import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
 import org.mini2Dx.core.graphics.Graphics;
 import org.mini2Dx.tiled.exception.TiledException;
@@ -34,8 +35,37 @@ public class TiledMap {
 	 * Set to true to optimise CPU time (at cost of memory usage) for rendering tile layers that are mostly empty
 	 */
 	public static boolean FAST_RENDER_EMPTY_LAYERS = false;
+	/**
+	 * The width and height (in tiles) of each chunk when caching orthogonal tile layers
+	 */
+	public static int CACHED_CHUNK_SIZE = 32;
+	/**
+	 * The maximum amount of chunks to keep cached per cached tile layer. Least recently drawn chunks of a layer are evicted first.
+	 */
+	public static int MAX_CACHED_CHUNKS = 64;
+	/**
+	 * The default maximum amount of chunks to keep decompressed per {@link ChunkedTileLayer} of an infinite map
+	 */
+	public static int MAX_RESIDENT_CHUNKS = 256;
+	/**
+	 * Set to true before loading tileset textures to skip drawing orthogonal tiles hidden by opaque tiles on higher
+	 * layers. Only enable this when all layers are drawn each frame.
+	 */
+	public static boolean OCCLUSION_CULLING = false;
+	/**
+	 * Set to true before loading tileset textures to pack the tileset images of each map into shared textures so
+	 * that tiles from different tilesets can be drawn without flushing the sprite batch. Tilesets must be loaded
+	 * through {@link #loadTilesetTextures()} or its overloads. Has no effect on tilesets loaded from a
+	 * {@link TextureAtlas}.
+	 */
+	public static boolean PACK_TILESET_TEXTURES = false;
+	/**
+	 * The maximum width and height (in pixels) of each texture when {@link #PACK_TILESET_TEXTURES} is enabled
+	 */
+	public static int TILESET_ATLAS_PAGE_SIZE = 2048;
 
 	private final TiledMapData tiledMapData;
+	private TileOcclusionMask occlusionMask;
 
 	private TileLayerRenderer tileLayerRenderer;
 	private TiledObjectGroupRenderer tiledObjectGroupRenderer;
@@ -99,7 +129,7 @@ public class TiledMap {
 			tileLayerRenderer = new IsometricTileLayerRenderer(this, cacheLayers);
 			break;
 		case ISOMETRIC_STAGGERED:
-			// TODO: Add renderer for isometric maps
+			tileLayerRenderer = new IsometricStaggeredTileLayerRenderer(this, cacheLayers);
 			break;
 		case HEXAGONAL:
 			tileLayerRenderer = new HexagonalTileLayerRenderer(this, cacheLayers);
@@ -192,6 +222,32 @@ public class TiledMap {
 		}
 	}
 
+	/**
+	 * Sets the point that {@link ChunkedTileLayer}s of an infinite map keep
+	 * chunks resident around, e.g. the camera or player position. Chunks are
+	 * paged in and out on a background thread. The focus is converted to
+	 * each layer's own coordinates, which start at
+	 * {@link ChunkedTileLayer#getStartX()} and
+	 * {@link ChunkedTileLayer#getStartY()}.
+	 * 
+	 * @param x
+	 *            The x coordinate in pixels
+	 * @param y
+	 *            The y coordinate in pixels
+	 */
+	public void setChunkFocus(float x, float y) {
+		final int tileX = MathUtils.floor(x / getTileWidth());
+		final int tileY = MathUtils.floor(y / getTileHeight());
+		for (int i = 0; i < tiledMapData.getLayers().size; i++) {
+			final Layer layer = tiledMapData.getLayers().get(i);
+			if (!(layer instanceof ChunkedTileLayer)) {
+				continue;
+			}
+			final ChunkedTileLayer chunkedLayer = (ChunkedTileLayer) layer;
+			chunkedLayer.setFocus(tileX - chunkedLayer.getStartX(), tileY - chunkedLayer.getStartY());
+		}
+	}
+
 	/**
 	 * Draws the entire map at the specified coordinates
 	 * 
@@ -508,6 +564,69 @@ public class TiledMap {
 		return tiledMapData.getTile(x, y, layer);
 	}
 
+	/**
+	 * Returns the {@link TilePropertyIndex} of interned tile properties
+	 * 
+	 * @return The {@link TilePropertyIndex}
+	 */
+	public TilePropertyIndex getTilePropertyIndex() {
+		return tiledMapData.getTilePropertyIndex();
+	}
+
+	/**
+	 * Rebuilds the {@link TilePropertyIndex} on next access. Must be called
+	 * after tile properties are changed at runtime.
+	 */
+	public void invalidateTilePropertyIndex() {
+		tiledMapData.invalidateTilePropertyIndex();
+	}
+
+	/**
+	 * Returns the ID of a boolean tile property for use with
+	 * {@link #hasFlag(int, int, int, int)}
+	 * 
+	 * @param propertyName
+	 *            The property name
+	 * @return {@link TilePropertyIndex#NO_PROPERTY} if no tile has the
+	 *         property as a boolean
+	 */
+	public int getFlagId(String propertyName) {
+		return tiledMapData.getTilePropertyIndex().getFlagId(propertyName);
+	}
+
+	/**
+	 * Returns if a boolean property is true for the tile at the given
+	 * coordinate on a specific layer
+	 * 
+	 * @param x
+	 *            The x coordinate (in tiles)
+	 * @param y
+	 *            The y coordinate (in tiles)
+	 * @param layer
+	 *            The layer index
+	 * @param flagId
+	 *            The flag ID from {@link #getFlagId(String)}
+	 * @return False if there is no tile or the property is not true
+	 */
+	public boolean hasFlag(int x, int y, int layer, int flagId) {
+		final Layer tiledLayer = tiledMapData.getLayers().get(layer);
+		if (!tiledLayer.getLayerType().equals(LayerType.TILE)) {
+			return false;
+		}
+		return tiledMapData.getTilePropertyIndex().hasFlag(((TileLayer) tiledLayer).getTileId(x, y), flagId);
+	}
+
+	/**
+	 * Returns the {@link Tileset} containing the given tile ID
+	 * 
+	 * @param tileId
+	 *            The tile ID to search for
+	 * @return Null if no {@link Tileset} contains the tile ID
+	 */
+	public Tileset getTileset(int tileId) {
+		return tiledMapData.getTileset(tileId);
+	}
+
 	/**
 	 * Releases any resources used by this TiledMap including tilesets
 	 */
@@ -675,6 +794,22 @@ public class TiledMap {
 		this.tiledObjectGroupRenderer = tiledObjectGroupRenderer;
 	}
 
+	/**
+	 * Returns the {@link TileOcclusionMask} used to skip hidden tiles
+	 * 
+	 * @return Null if {@link #OCCLUSION_CULLING} is disabled or the map is not
+	 *         orthogonal
+	 */
+	public TileOcclusionMask getOcclusionMask() {
+		if (!OCCLUSION_CULLING || !Orientation.ORTHOGONAL.equals(getOrientation())) {
+			return null;
+		}
+		if (occlusionMask == null) {
+			occlusionMask = new TileOcclusionMask(this);
+		}
+		return occlusionMask;
+	}
+
 	/**
 	 * Returns if this map contains animated tiles
 	 * 
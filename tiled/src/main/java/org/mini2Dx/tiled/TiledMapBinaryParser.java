@@ -0,0 +1,399 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import org.mini2Dx.core.util.FileHandleUtils;
+import org.mini2Dx.tiled.renderer.AnimatedTileRenderer;
+import org.mini2Dx.tiled.renderer.StaticTileRenderer;
+import org.mini2Dx.tiled.renderer.TileFrame;
+import org.mini2Dx.tiled.tileset.ImageTilesetSource;
+import org.mini2Dx.tiled.tileset.TsxTilesetSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Parses binary map files written by {@link TiledMapBinaryWriter} and notifies
+ * any {@link TiledParserListener}s of parsing results in the same order as
+ * {@link TiledParser}.
+ * 
+ * Where possible the file is memory-mapped and each {@link TileLayer} reads
+ * its tiles from a view of the mapped file without any per-tile decoding. The
+ * tile data of a layer is only copied into the layer's array when the layer is
+ * first modified or bulk copied.
+ */
+public class TiledMapBinaryParser implements TiledParserNotifier {
+	/**
+	 * The file extension used for binary map files
+	 */
+	public static final String EXTENSION = "tmb";
+
+	static final int MAGIC = 0x544D4258;
+	static final int VERSION = 1;
+
+	private final Array<TiledParserListener> listeners = new Array<TiledParserListener>();
+
+	/**
+	 * Parses a binary map file and notifies any {@link TiledParserListener}s
+	 * of parsing results
+	 * 
+	 * @param fileHandle
+	 *            A {@link FileHandle} to a file written by
+	 *            {@link TiledMapBinaryWriter}
+	 * @throws IOException
+	 *             Thrown if the map file could not be read
+	 */
+	public void parseTmb(FileHandle fileHandle) throws IOException {
+		final ByteBuffer buffer = mapFile(fileHandle);
+		if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+			throw new GdxRuntimeException(fileHandle.path() + " is not a binary map file");
+		}
+		final int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new GdxRuntimeException("Unsupported binary map version " + version + " in " + fileHandle.path());
+		}
+
+		final String orientation = readString(buffer);
+		final String staggerAxis = readString(buffer);
+		final String staggerIndex = readString(buffer);
+		Color backgroundColor = null;
+		if (readBoolean(buffer)) {
+			backgroundColor = new Color(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+		}
+		final int width = buffer.getInt();
+		final int height = buffer.getInt();
+		final int tileWidth = buffer.getInt();
+		final int tileHeight = buffer.getInt();
+		final int sideLength = buffer.getInt();
+		notifyBeginParsing(orientation, staggerAxis, staggerIndex, backgroundColor, width, height, tileWidth,
+				tileHeight, sideLength);
+
+		final int totalMapProperties = buffer.getInt();
+		for (int i = 0; i < totalMapProperties; i++) {
+			notifyMapPropertyParsed(readString(buffer), readString(buffer));
+		}
+
+		final int totalTilesets = buffer.getInt();
+		for (int i = 0; i < totalTilesets; i++) {
+			loadTileset(buffer, fileHandle);
+		}
+
+		final int totalLayers = buffer.getInt();
+		final Layer[] layers = new Layer[totalLayers];
+		for (int i = 0; i < totalLayers; i++) {
+			layers[i] = loadLayer(buffer, layers);
+		}
+	}
+
+	private ByteBuffer mapFile(FileHandle fileHandle) throws IOException {
+		final File file = fileHandle.type() == FileType.Classpath ? null : fileHandle.file();
+		if (file == null || !file.isFile()) {
+			// Files packaged inside an archive (e.g. Android assets) cannot be mapped
+			return ByteBuffer.wrap(fileHandle.readBytes());
+		}
+		final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel fileChannel = randomAccessFile.getChannel();
+			return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	private void loadTileset(ByteBuffer buffer, FileHandle fileHandle) {
+		final int firstGid = buffer.getInt();
+		final boolean objectTemplateSource = readBoolean(buffer);
+		final byte sourceType = buffer.get();
+
+		final Tileset tileset;
+		if (sourceType == TiledMapBinaryWriter.TILESET_TSX) {
+			final TsxTilesetSource tilesetSource = new TsxTilesetSource(fileHandle, readString(buffer));
+			tileset = new Tileset(firstGid, tilesetSource);
+
+			for (int x = 0; x < tilesetSource.getWidthInTiles(); x++) {
+				for (int y = 0; y < tilesetSource.getHeightInTiles(); y++) {
+					Tile tile = tilesetSource.getTileByPosition(x, y);
+					if (tile == null) {
+						continue;
+					}
+					if (tile.getTileRenderer() == null) {
+						continue;
+					}
+					if (tile.getTileRenderer() instanceof AnimatedTileRenderer) {
+						notifyTilePropertyParsed(tile);
+					} else if (tile.getProperties() != null) {
+						notifyTilePropertyParsed(tile);
+					}
+				}
+			}
+		} else {
+			final String name = readString(buffer);
+			final String imagePath = readString(buffer);
+			final String transparentColor = readString(buffer);
+			final int width = buffer.getInt();
+			final int height = buffer.getInt();
+			final int tileWidth = buffer.getInt();
+			final int tileHeight = buffer.getInt();
+			final int spacing = buffer.getInt();
+			final int margin = buffer.getInt();
+
+			final ImageTilesetSource tilesetSource = new ImageTilesetSource(width, height, tileWidth, tileHeight,
+					spacing, margin);
+			tilesetSource.setName(name);
+			tilesetSource.setTransparentColorValue(transparentColor);
+			tilesetSource.setTilesetImagePath(FileHandleUtils.normalise(fileHandle.sibling(imagePath).path()));
+			tileset = new Tileset(firstGid, tilesetSource);
+
+			final int totalProperties = buffer.getInt();
+			for (int i = 0; i < totalProperties; i++) {
+				tileset.setProperty(readString(buffer), readString(buffer));
+			}
+
+			final int totalTiles = buffer.getInt();
+			for (int i = 0; i < totalTiles; i++) {
+				final Tile tile = tilesetSource.getTile(buffer.getInt(), 0);
+				final int totalTileProperties = buffer.getInt();
+				for (int j = 0; j < totalTileProperties; j++) {
+					tile.setProperty(readString(buffer), readString(buffer));
+				}
+				final int totalFrames = buffer.getInt();
+				if (totalFrames > 0) {
+					final TileFrame[] frames = new TileFrame[totalFrames];
+					for (int j = 0; j < totalFrames; j++) {
+						final int tileId = buffer.getInt();
+						frames[j] = new TileFrame(buffer.getFloat(), tileId);
+					}
+					tile.setTileRenderer(new AnimatedTileRenderer(tilesetSource, frames));
+				}
+				notifyTilePropertyParsed(tile);
+			}
+
+			for (int x = 0; x < tilesetSource.getWidthInTiles(); x++) {
+				for (int y = 0; y < tilesetSource.getHeightInTiles(); y++) {
+					Tile tile = tilesetSource.getTileByPosition(x, y);
+					if (tile.getTileRenderer() != null) {
+						continue;
+					}
+					tile.setTileRenderer(new StaticTileRenderer(tilesetSource, tile));
+				}
+			}
+		}
+
+		if (objectTemplateSource) {
+			TiledMapData.OBJECT_TEMPLATE_TILESET_SOURCES.add(tileset.getSourceInternalUuid());
+		}
+		notifyTilesetParsed(tileset);
+	}
+
+	private Layer loadLayer(ByteBuffer buffer, Layer[] layers) {
+		final byte layerType = buffer.get();
+		final String name = readString(buffer);
+		final boolean visible = readBoolean(buffer);
+		final int totalProperties = buffer.getInt();
+		final String[] properties = new String[Math.max(0, totalProperties) * 2];
+		for (int i = 0; i < properties.length; i++) {
+			properties[i] = readString(buffer);
+		}
+
+		final Layer layer;
+		switch (layerType) {
+		case TiledMapBinaryWriter.LAYER_TILE:
+			layer = loadTileLayer(buffer);
+			break;
+		case TiledMapBinaryWriter.LAYER_OBJECT:
+			layer = loadObjectGroup(buffer);
+			break;
+		case TiledMapBinaryWriter.LAYER_GROUP:
+			final GroupLayer groupLayer = new GroupLayer();
+			final int totalChildren = buffer.getInt();
+			for (int i = 0; i < totalChildren; i++) {
+				groupLayer.getLayers().add(layers[buffer.getInt()]);
+			}
+			layer = groupLayer;
+			break;
+		default:
+			throw new GdxRuntimeException("Unknown layer type " + layerType);
+		}
+		layer.setName(name);
+		layer.setVisible(visible);
+		for (int i = 0; i < properties.length; i += 2) {
+			layer.setProperty(properties[i], properties[i + 1]);
+		}
+
+		switch (layerType) {
+		case TiledMapBinaryWriter.LAYER_TILE:
+			notifyTileLayerParsed((TileLayer) layer);
+			break;
+		case TiledMapBinaryWriter.LAYER_OBJECT:
+			notifyObjectGroupParsed((TiledObjectGroup) layer);
+			break;
+		default:
+			notifyGroupLayerParsed((GroupLayer) layer);
+			break;
+		}
+		return layer;
+	}
+
+	private TileLayer loadTileLayer(ByteBuffer buffer) {
+		final int width = buffer.getInt();
+		final int height = buffer.getInt();
+		final int totalFilledTiles = buffer.getInt();
+		while (buffer.position() % 4 != 0) {
+			buffer.get();
+		}
+
+		final int totalTiles = width * height;
+		final IntBuffer tiles = buffer.slice().asIntBuffer();
+		tiles.limit(totalTiles);
+		buffer.position(buffer.position() + (totalTiles * 4));
+		return new TileLayer(width, height, tiles.slice(), totalFilledTiles);
+	}
+
+	private TiledObjectGroup loadObjectGroup(ByteBuffer buffer) {
+		final TiledObjectGroup objectGroup = new TiledObjectGroup();
+		objectGroup.setWidth(buffer.getInt());
+		objectGroup.setHeight(buffer.getInt());
+
+		final int totalObjects = buffer.getInt();
+		for (int i = 0; i < totalObjects; i++) {
+			final int id = buffer.getInt();
+			final float x = buffer.getFloat();
+			final float y = buffer.getFloat();
+			final float width = buffer.getFloat();
+			final float height = buffer.getFloat();
+
+			final TiledObject object = new TiledObject(id, x, y, width, height);
+			object.setName(readString(buffer));
+			object.setType(readString(buffer));
+			object.setVisible(readBoolean(buffer));
+			object.setGid(buffer.getInt());
+			object.setGidFlipHorizontally(readBoolean(buffer));
+			object.setGidFlipVertically(readBoolean(buffer));
+			object.setGidFlipDiagonally(readBoolean(buffer));
+
+			final int totalProperties = buffer.getInt();
+			for (int j = 0; j < totalProperties; j++) {
+				object.setProperty(readString(buffer), readString(buffer));
+			}
+
+			final TiledObjectShape objectShape = TiledObjectShape.values()[buffer.get()];
+			final int totalVertices = buffer.getInt();
+			float[] vertices = null;
+			if (totalVertices >= 0) {
+				vertices = new float[totalVertices];
+				for (int j = 0; j < totalVertices; j++) {
+					vertices[j] = buffer.getFloat();
+				}
+			}
+			final String text = readString(buffer);
+			object.setShape(objectShape, vertices, text, readBoolean(buffer));
+			objectGroup.getObjects().add(object);
+		}
+		return objectGroup;
+	}
+
+	private static boolean readBoolean(ByteBuffer buffer) {
+		return buffer.get() != 0;
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		final int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		final byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		try {
+			return new String(bytes, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new GdxRuntimeException(e);
+		}
+	}
+
+	@Override
+	public void addListener(TiledParserListener tiledParserListener) {
+		listeners.add(tiledParserListener);
+	}
+
+	@Override
+	public void removeListener(TiledParserListener tiledParserListener) {
+		listeners.removeValue(tiledParserListener, false);
+	}
+
+	@Override
+	public void notifyBeginParsing(String orientation, String staggerAxis, String staggerIndex, Color backgroundColor,
+			int width, int height, int tileWidth, int tileHeight, int sideLength) {
+		for (TiledParserListener tiledParserListener : listeners) {
+			tiledParserListener.onBeginParsing(orientation, staggerAxis, staggerIndex, backgroundColor, width, height,
+					tileWidth, tileHeight, sideLength);
+		}
+	}
+
+	@Override
+	public void notifyMapPropertyParsed(String propertyName, String value) {
+		for (TiledParserListener tiledParserListener : listeners) {
+			tiledParserListener.onMapPropertyParsed(propertyName, value);
+		}
+	}
+
+	@Override
+	public void notifyTilePropertyParsed(Tile tile) {
+		for (TiledParserListener tiledParserListener : listeners) {
+			tiledParserListener.onTilePropertiesParsed(tile);
+		}
+	}
+
+	@Override
+	public void notifyTilesetParsed(Tileset parsedTileset) {
+		for (TiledParserListener tiledParserListener : listeners) {
+			tiledParserListener.onTilesetParsed(parsedTileset);
+		}
+	}
+
+	@Override
+	public void notifyTileLayerParsed(TileLayer parsedLayer) {
+		for (TiledParserListener tiledParserListener : listeners) {
+			tiledParserListener.onTileLayerParsed(parsedLayer);
+		}
+	}
+
+	@Override
+	public void notifyObjectGroupParsed(TiledObjectGroup parsedObjectGroup) {
+		for (TiledParserListener tiledParserListener : listeners) {
+			tiledParserListener.onObjectGroupParsed(parsedObjectGroup);
+		}
+	}
+
+	@Override
+	public void notifyGroupLayerParsed(GroupLayer parsedGroupLayer) {
+		for (TiledParserListener tiledParserListener : listeners) {
+			tiledParserListener.onGroupLayerParsed(parsedGroupLayer);
+		}
+	}
+
+	@Override
+	public void notifyObjectTemplateParsed(TiledObjectTemplate parsedObjectTemplate) {
+		for (TiledParserListener tiledParserListener : listeners) {
+			tiledParserListener.onObjectTemplateParsed(parsedObjectTemplate);
+		}
+	}
+}
@@ -0,0 +1,344 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import org.mini2Dx.tiled.exception.TiledException;
+import org.mini2Dx.tiled.renderer.AnimatedTileRenderer;
+import org.mini2Dx.tiled.renderer.TileFrame;
+import org.mini2Dx.tiled.tileset.ImageTilesetSource;
+import org.mini2Dx.tiled.tileset.TilesetSource;
+import org.mini2Dx.tiled.tileset.TsxTilesetSource;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Converts {@link TiledMapData} into the binary map format read by
+ * {@link TiledMapBinaryParser}. Intended to be run offline as part of an asset
+ * pipeline so that TMX files do not need to be parsed at runtime.
+ * 
+ * Tileset image and TSX paths are stored relative to the map so the binary
+ * file can be placed wherever the original TMX file was.
+ */
+public class TiledMapBinaryWriter {
+	static final byte TILESET_IMAGE = 0;
+	static final byte TILESET_TSX = 1;
+
+	static final byte LAYER_TILE = 0;
+	static final byte LAYER_OBJECT = 1;
+	static final byte LAYER_GROUP = 2;
+
+	/**
+	 * Parses a TMX file and writes it out in the binary map format
+	 * 
+	 * @param tmxFileHandle
+	 *            The TMX file to convert
+	 * @param outputFileHandle
+	 *            The file to write to
+	 * @throws IOException
+	 *             Thrown if the file could not be written
+	 */
+	public void convert(FileHandle tmxFileHandle, FileHandle outputFileHandle) throws IOException {
+		final TiledMapData tiledMapData = new TiledMapData(new TiledParser(), tmxFileHandle);
+		try {
+			write(tiledMapData, outputFileHandle);
+		} finally {
+			tiledMapData.dispose();
+		}
+	}
+
+	/**
+	 * Writes {@link TiledMapData} to a file in the binary map format
+	 * 
+	 * @param tiledMapData
+	 *            The {@link TiledMapData} to write
+	 * @param outputFileHandle
+	 *            The file to write to
+	 * @throws IOException
+	 *             Thrown if the file could not be written
+	 * @throws TiledException
+	 *             Thrown if the map contains a {@link ChunkedTileLayer}
+	 */
+	public void write(TiledMapData tiledMapData, FileHandle outputFileHandle) throws IOException {
+		checkLayers(tiledMapData);
+		final OutputStream outputStream = outputFileHandle.write(false);
+		try {
+			write(tiledMapData, outputStream);
+		} finally {
+			outputStream.close();
+		}
+	}
+
+	/**
+	 * Writes {@link TiledMapData} to an {@link OutputStream} in the binary map
+	 * format
+	 * 
+	 * @param tiledMapData
+	 *            The {@link TiledMapData} to write
+	 * @param outputStream
+	 *            The {@link OutputStream} to write to
+	 * @throws IOException
+	 *             Thrown if the data could not be written
+	 * @throws TiledException
+	 *             Thrown if the map contains a {@link ChunkedTileLayer}
+	 */
+	public void write(TiledMapData tiledMapData, OutputStream outputStream) throws IOException {
+		checkLayers(tiledMapData);
+		final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+		final String mapDirectory = tiledMapData.getFileHandle().parent().path();
+
+		output.writeInt(TiledMapBinaryParser.MAGIC);
+		output.writeInt(TiledMapBinaryParser.VERSION);
+
+		writeString(output, tiledMapData.getOrientation().name());
+		writeString(output, tiledMapData.getStaggerAxis() != null ? tiledMapData.getStaggerAxis().name() : null);
+		writeString(output, tiledMapData.getStaggerIndex() != null ? tiledMapData.getStaggerIndex().name() : null);
+		final Color backgroundColor = tiledMapData.getBackgroundColor();
+		output.writeBoolean(backgroundColor != null);
+		if (backgroundColor != null) {
+			output.writeFloat(backgroundColor.r);
+			output.writeFloat(backgroundColor.g);
+			output.writeFloat(backgroundColor.b);
+			output.writeFloat(backgroundColor.a);
+		}
+		output.writeInt(tiledMapData.getWidth());
+		output.writeInt(tiledMapData.getHeight());
+		output.writeInt(tiledMapData.getTileWidth());
+		output.writeInt(tiledMapData.getTileHeight());
+		output.writeInt(tiledMapData.getSideLength());
+		writeProperties(output, tiledMapData.getProperties());
+
+		final Array<Tileset> tilesets = tiledMapData.getTilesets();
+		output.writeInt(tilesets.size);
+		for (int i = 0; i < tilesets.size; i++) {
+			writeTileset(output, tilesets.get(i), mapDirectory);
+		}
+
+		final Array<Layer> layers = tiledMapData.getLayers();
+		output.writeInt(layers.size);
+		for (int i = 0; i < layers.size; i++) {
+			writeLayer(output, layers, layers.get(i));
+		}
+		output.flush();
+	}
+
+	private void writeTileset(DataOutputStream output, Tileset tileset, String mapDirectory) throws IOException {
+		output.writeInt(tileset.getFirstGid());
+		output.writeBoolean(
+				TiledMapData.OBJECT_TEMPLATE_TILESET_SOURCES.contains(tileset.getSourceInternalUuid()));
+
+		final TilesetSource tilesetSource = tileset.getTilesetSource();
+		if (tilesetSource instanceof TsxTilesetSource) {
+			output.writeByte(TILESET_TSX);
+			writeString(output, relativise(mapDirectory, ((TsxTilesetSource) tilesetSource).getTsxPath()));
+			return;
+		}
+		if (!(tilesetSource instanceof ImageTilesetSource)) {
+			throw new TiledException("Cannot write tileset source " + tilesetSource.getClass().getName());
+		}
+		final ImageTilesetSource imageTilesetSource = (ImageTilesetSource) tilesetSource;
+		output.writeByte(TILESET_IMAGE);
+		writeString(output, imageTilesetSource.getName());
+		writeString(output, relativise(mapDirectory, imageTilesetSource.getTilesetImagePath()));
+		writeString(output, imageTilesetSource.getTransparentColorValue());
+		output.writeInt(imageTilesetSource.getWidth());
+		output.writeInt(imageTilesetSource.getHeight());
+		output.writeInt(imageTilesetSource.getTileWidth());
+		output.writeInt(imageTilesetSource.getTileHeight());
+		output.writeInt(imageTilesetSource.getSpacing());
+		output.writeInt(imageTilesetSource.getMargin());
+		writeProperties(output, imageTilesetSource.getProperties());
+
+		final Array<Tile> tiles = new Array<Tile>(true, 2, Tile.class);
+		for (int y = 0; y < imageTilesetSource.getHeightInTiles(); y++) {
+			for (int x = 0; x < imageTilesetSource.getWidthInTiles(); x++) {
+				final Tile tile = imageTilesetSource.getTileByPosition(x, y);
+				if (tile.getProperties() != null || tile.getTileRenderer() instanceof AnimatedTileRenderer) {
+					tiles.add(tile);
+				}
+			}
+		}
+		output.writeInt(tiles.size);
+		for (int i = 0; i < tiles.size; i++) {
+			final Tile tile = tiles.get(i);
+			output.writeInt(tile.getTileId(0));
+			writeProperties(output, tile.getProperties());
+
+			if (!(tile.getTileRenderer() instanceof AnimatedTileRenderer)) {
+				output.writeInt(0);
+				continue;
+			}
+			final TileFrame[] frames = ((AnimatedTileRenderer) tile.getTileRenderer()).getFrames();
+			output.writeInt(frames.length);
+			for (int j = 0; j < frames.length; j++) {
+				output.writeInt(frames[j].getTileId());
+				output.writeFloat(frames[j].getDuration());
+			}
+		}
+	}
+
+	private void writeLayer(DataOutputStream output, Array<Layer> layers, Layer layer) throws IOException {
+		switch (layer.getLayerType()) {
+		case TILE:
+			output.writeByte(LAYER_TILE);
+			break;
+		case OBJECT:
+			output.writeByte(LAYER_OBJECT);
+			break;
+		case GROUP:
+		default:
+			output.writeByte(LAYER_GROUP);
+			break;
+		}
+		writeString(output, layer.getName());
+		output.writeBoolean(layer.isVisible());
+		writeProperties(output, layer.getProperties());
+
+		switch (layer.getLayerType()) {
+		case TILE:
+			writeTileLayer(output, (TileLayer) layer);
+			break;
+		case OBJECT:
+			writeObjectGroup(output, (TiledObjectGroup) layer);
+			break;
+		case GROUP:
+		default:
+			final Array<Layer> children = ((GroupLayer) layer).getLayers();
+			output.writeInt(children.size);
+			for (int i = 0; i < children.size; i++) {
+				final int index = layers.indexOf(children.get(i), true);
+				if (index < 0) {
+					throw new TiledException("Layer " + children.get(i).getName() + " of group " + layer.getName()
+							+ " is not a layer of the map");
+				}
+				output.writeInt(index);
+			}
+			break;
+		}
+	}
+
+	private void checkLayers(TiledMapData tiledMapData) {
+		for (int i = 0; i < tiledMapData.getLayers().size; i++) {
+			final Layer layer = tiledMapData.getLayers().get(i);
+			if (layer instanceof ChunkedTileLayer) {
+				throw new TiledException("Cannot write infinite layer " + layer.getName()
+						+ ", infinite maps are not supported by the binary map format");
+			}
+		}
+	}
+
+	private void writeTileLayer(DataOutputStream output, TileLayer layer) throws IOException {
+		output.writeInt(layer.getWidth());
+		output.writeInt(layer.getHeight());
+		output.writeInt(layer.getTotalFilledTiles());
+
+		// Align tile data so it can be bulk read through an IntBuffer view
+		while (output.size() % 4 != 0) {
+			output.writeByte(0);
+		}
+		final int[] tiles = layer.getPackedTiles();
+		for (int i = 0; i < tiles.length; i++) {
+			output.writeInt(tiles[i]);
+		}
+	}
+
+	private void writeObjectGroup(DataOutputStream output, TiledObjectGroup objectGroup) throws IOException {
+		output.writeInt(objectGroup.getWidth());
+		output.writeInt(objectGroup.getHeight());
+
+		final Array<TiledObject> objects = objectGroup.getObjects();
+		output.writeInt(objects.size);
+		for (int i = 0; i < objects.size; i++) {
+			final TiledObject object = objects.get(i);
+			output.writeInt(object.getId());
+			output.writeFloat(object.getX());
+			output.writeFloat(object.getY());
+			output.writeFloat(object.getWidth());
+			output.writeFloat(object.getHeight());
+			writeString(output, object.getName());
+			writeString(output, object.getType());
+			output.writeBoolean(object.isVisible());
+			output.writeInt(object.getGid());
+			output.writeBoolean(object.isGidFlipHorizontally());
+			output.writeBoolean(object.isGidFlipVertically());
+			output.writeBoolean(object.isGidFlipDiagonally());
+			writeProperties(output, object.getProperties());
+
+			output.writeByte(object.getObjectShape().ordinal());
+			final float[] vertices = object.getVertices();
+			if (vertices == null) {
+				output.writeInt(-1);
+			} else {
+				output.writeInt(vertices.length);
+				for (int j = 0; j < vertices.length; j++) {
+					output.writeFloat(vertices[j]);
+				}
+			}
+			writeString(output, object.getText());
+			output.writeBoolean(object.isWrapText());
+		}
+	}
+
+	private void writeProperties(DataOutputStream output, ObjectMap<String, String> properties) throws IOException {
+		if (properties == null) {
+			output.writeInt(-1);
+			return;
+		}
+		output.writeInt(properties.size);
+		for (ObjectMap.Entry<String, String> property : properties.entries()) {
+			writeString(output, property.key);
+			writeString(output, property.value);
+		}
+	}
+
+	private void writeString(DataOutputStream output, String value) throws IOException {
+		if (value == null) {
+			output.writeInt(-1);
+			return;
+		}
+		final byte[] bytes = value.getBytes("UTF-8");
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	static String relativise(String directory, String path) {
+		if (directory.isEmpty()) {
+			return path;
+		}
+		final String[] directorySegments = directory.split("/");
+		final String[] pathSegments = path.split("/");
+
+		int commonSegments = 0;
+		while (commonSegments < directorySegments.length && commonSegments < pathSegments.length - 1
+				&& directorySegments[commonSegments].equals(pathSegments[commonSegments])) {
+			commonSegments++;
+		}
+
+		final StringBuilder result = new StringBuilder();
+		for (int i = commonSegments; i < directorySegments.length; i++) {
+			result.append("../");
+		}
+		for (int i = commonSegments; i < pathSegments.length; i++) {
+			if (i > commonSegments) {
+				result.append('/');
+			}
+			result.append(pathSegments[i]);
+		}
+		return result.toString();
+	}
+}
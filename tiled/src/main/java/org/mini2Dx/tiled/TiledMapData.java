@@ -23,6 +23,8 @@ import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.ObjectSet;
 import org.mini2Dx.tiled.exception.TiledException;
 import org.mini2Dx.tiled.exception.TiledParsingException;
+import org.mini2Dx.tiled.tileset.ImageTilesetSource;
+import org.mini2Dx.tiled.tileset.TilesetAtlas;
 import org.mini2Dx.tiled.tileset.TilesetSource;
 
 import java.io.IOException;
@@ -36,6 +38,10 @@ public class TiledMapData implements TiledParserListener {
 
 	protected final Array<Tileset> tilesets = new Array<Tileset>(true, 2, Tileset.class);
 	protected final IntSet tilesetGids = new IntSet();
+	protected final TileLookup tileLookup = new TileLookup();
+	protected final TilePropertyIndex tilePropertyIndex = new TilePropertyIndex();
+	protected TilesetAtlas tilesetAtlas = new TilesetAtlas();
+	private boolean tilePropertyIndexDirty = true;
 	protected final Array<Layer> layers = new Array<Layer>(true, 2, Layer.class);
 	protected final ObjectMap<String, TiledObjectGroup> objectGroups = new ObjectMap<String, TiledObjectGroup>();
 
@@ -77,6 +83,30 @@ public class TiledMapData implements TiledParserListener {
 		tiledParser.removeListener(this);
 	}
 
+	/**
+	 * Constructs map data from a binary map file produced by
+	 * {@link TiledMapBinaryWriter}
+	 * 
+	 * @param binaryParser
+	 *            The {@link TiledMapBinaryParser} to use
+	 * @param fileHandle
+	 *            The binary map file
+	 * @throws TiledException
+	 */
+	public TiledMapData(TiledMapBinaryParser binaryParser, FileHandle fileHandle) {
+		super();
+		this.fileHandle = fileHandle;
+
+		binaryParser.addListener(this);
+		try {
+			binaryParser.parseTmb(fileHandle);
+		} catch (IOException e) {
+			binaryParser.removeListener(this);
+			throw new TiledParsingException(e);
+		}
+		binaryParser.removeListener(this);
+	}
+
 	public Array<AssetDescriptor> getDependencies() {
 		Array<AssetDescriptor> dependencies = new Array<AssetDescriptor>();
 		for (int i = 0; i < tilesets.size; i++) {
@@ -108,6 +138,9 @@ public class TiledMapData implements TiledParserListener {
 			}
 			tileset.loadTexture(fileHandle);
 		}
+		packTilesetTextures();
+		tileLookup.rebuild(tilesets);
+		tilePropertyIndexDirty = true;
 	}
 
 	public void loadTilesetTextures(AssetManager assetManager, boolean loadObjectTemplateTilesets) {
@@ -121,6 +154,9 @@ public class TiledMapData implements TiledParserListener {
 			}
 			tileset.loadTexture(assetManager, fileHandle);
 		}
+		packTilesetTextures();
+		tileLookup.rebuild(tilesets);
+		tilePropertyIndexDirty = true;
 	}
 
 	public void loadTilesetTextures(TextureAtlas textureAtlas, boolean loadObjectTemplateTilesets) {
@@ -134,6 +170,23 @@ public class TiledMapData implements TiledParserListener {
 			}
 			tileset.loadTexture(textureAtlas);
 		}
+		tileLookup.rebuild(tilesets);
+		tilePropertyIndexDirty = true;
+	}
+
+	private void packTilesetTextures() {
+		final Array<ImageTilesetSource> sources = new Array<ImageTilesetSource>();
+		for (int i = 0; i < tilesets.size; i++) {
+			final ImageTilesetSource source = tilesets.get(i).getTilesetSource().getImageTilesetSource();
+			if (source == null || !source.isAwaitingPacking() || sources.contains(source, true)) {
+				continue;
+			}
+			sources.add(source);
+		}
+		if (sources.size == 0) {
+			return;
+		}
+		tilesetAtlas.pack(sources, TiledMap.TILESET_ATLAS_PAGE_SIZE);
 	}
 
 	@Override
@@ -141,7 +194,11 @@ public class TiledMapData implements TiledParserListener {
 			int width, int height, int tileWidth, int tileHeight, int sideLength) {
 		this.orientationValue = orientation;
 		try {
-			this.orientation = Orientation.valueOf(orientation.toUpperCase());
+			if (orientation.equalsIgnoreCase("staggered")) {
+				this.orientation = Orientation.ISOMETRIC_STAGGERED;
+			} else {
+				this.orientation = Orientation.valueOf(orientation.toUpperCase());
+			}
 		} catch (Exception e) {
 			this.orientation = Orientation.UNKNOWN;
 		}
@@ -186,6 +243,13 @@ public class TiledMapData implements TiledParserListener {
 			}
 			break;
 		case ISOMETRIC_STAGGERED:
+			if (this.staggerAxis == StaggerAxis.X) {
+				this.pixelWidth = MathUtils.round((tileWidth * 0.5f * width) + (tileWidth * 0.5f));
+				this.pixelHeight = (tileHeight * height) + (tileHeight / 2);
+			} else {
+				this.pixelWidth = (tileWidth * width) + (tileWidth / 2);
+				this.pixelHeight = MathUtils.round((tileHeight * 0.5f * height) + (tileHeight * 0.5f));
+			}
 			break;
 		case ISOMETRIC:
 		case ORTHOGONAL:
@@ -237,6 +301,15 @@ public class TiledMapData implements TiledParserListener {
 		properties.put(propertyName, value);
 	}
 
+	/**
+	 * Returns the properties {@link ObjectMap} of this map
+	 * 
+	 * @return Null if there are no properties
+	 */
+	public ObjectMap<String, String> getProperties() {
+		return properties;
+	}
+
 	@Override
 	public void onMapPropertyParsed(String propertyName, String value) {
 		setProperty(propertyName, value);
@@ -250,6 +323,10 @@ public class TiledMapData implements TiledParserListener {
 		if (animatedTiles == null) {
 			animatedTiles = new Array<Tile>(true,1, Tile.class);
 		}
+		// TSX tilesets shared with object templates are notified once per reference
+		if (animatedTiles.contains(tile, true)) {
+			return;
+		}
 		animatedTiles.add(tile);
 	}
 
@@ -257,6 +334,8 @@ public class TiledMapData implements TiledParserListener {
 	public void onTilesetParsed(Tileset parsedTileset) {
 		if(tilesetGids.add(parsedTileset.getFirstGid())) {
 			tilesets.add(parsedTileset);
+			tileLookup.rebuild(tilesets);
+			tilePropertyIndexDirty = true;
 		}
 	}
 
@@ -269,6 +348,7 @@ public class TiledMapData implements TiledParserListener {
 	@Override
 	public void onObjectGroupParsed(TiledObjectGroup parsedObjectGroup) {
 		parsedObjectGroup.setIndex(layers.size);
+		parsedObjectGroup.updateIndex();
 		layers.add(parsedObjectGroup);
 		objectGroups.put(parsedObjectGroup.getName(), parsedObjectGroup);
 	}
@@ -409,6 +489,28 @@ public class TiledMapData implements TiledParserListener {
 		return -1;
 	}
 
+	/**
+	 * Returns the {@link TilePropertyIndex} of this map, rebuilding it if
+	 * tilesets have changed
+	 * 
+	 * @return The {@link TilePropertyIndex}
+	 */
+	public TilePropertyIndex getTilePropertyIndex() {
+		if (tilePropertyIndexDirty) {
+			tilePropertyIndex.rebuild(tileLookup);
+			tilePropertyIndexDirty = false;
+		}
+		return tilePropertyIndex;
+	}
+
+	/**
+	 * Rebuilds the {@link TilePropertyIndex} on next access. Must be called
+	 * after tile properties are changed at runtime.
+	 */
+	public void invalidateTilePropertyIndex() {
+		tilePropertyIndexDirty = true;
+	}
+
 	/**
 	 * Returns the {@link Tile} for the given tile ID
 	 * 
@@ -417,12 +519,27 @@ public class TiledMapData implements TiledParserListener {
 	 * @return Null if there is no {@link Tile} with the given ID
 	 */
 	public Tile getTile(int tileId) {
-		for (int i = 0; i < tilesets.size; i++) {
-			if (tilesets.get(i).contains(tileId)) {
-				return tilesets.get(i).getTile(tileId);
-			}
-		}
-		return null;
+		return tileLookup.getTile(tileId);
+	}
+
+	/**
+	 * Returns the {@link Tileset} containing the given tile ID
+	 * 
+	 * @param tileId
+	 *            The tile ID to search for
+	 * @return Null if no {@link Tileset} contains the tile ID
+	 */
+	public Tileset getTileset(int tileId) {
+		return tileLookup.getTileset(tileId);
+	}
+
+	/**
+	 * Rebuilds the tile ID lookup table. Call this after modifying the
+	 * {@link Array} returned by {@link #getTilesets()}.
+	 */
+	public void updateTileLookup() {
+		tileLookup.rebuild(tilesets);
+		tilePropertyIndexDirty = true;
 	}
 
 	/**
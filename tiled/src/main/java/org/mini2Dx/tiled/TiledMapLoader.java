@@ -22,20 +22,30 @@ import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.ObjectMap;
 import org.mini2Dx.tiled.TiledMapLoader.TiledMapParameter;
 
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * An {@link AssetLoader} implementation for loading {@link TiledMap} instances
+ * An {@link AssetLoader} implementation for loading {@link TiledMap} instances.
+ * Files with the {@link TiledMapBinaryParser#EXTENSION} extension are loaded
+ * with {@link TiledMapBinaryParser}, all others are parsed as TMX.
+ * 
+ * Different maps may be loaded concurrently; only loads of the same file wait
+ * on each other. Each file's {@link TiledMap} is kept separately between
+ * {@link #loadAsync(AssetManager, String, FileHandle, TiledMapParameter)} and
+ * {@link #loadSync(AssetManager, String, FileHandle, TiledMapParameter)}. TMX tile layers and TSX tilesets are decoded in parallel on a
+ * shared {@link ForkJoinPool}.
  */
 public class TiledMapLoader extends AsynchronousAssetLoader<TiledMap, TiledMapParameter> {
 	private static final TiledMapParameter DEFAULT_PARAMETERS = new TiledMapParameter();
 
-	private final ReadWriteLock lock = new ReentrantReadWriteLock();
-	private final ObjectMap<String, TiledMapData> tiledMapData = new ObjectMap<String, TiledMapData>();
-	private final TiledParser tiledParser = new TiledParser();
-	
-	private TiledMap nextTiledMap;
+	private static final ForkJoinPool DECODE_POOL = new ForkJoinPool();
+
+	private final ConcurrentMap<String, TiledMapData> tiledMapData = new ConcurrentHashMap<String, TiledMapData>();
+	private final ConcurrentMap<String, TiledMap> nextTiledMaps = new ConcurrentHashMap<String, TiledMap>();
+	private final ConcurrentMap<String, Object> loadLocks = new ConcurrentHashMap<String, Object>();
+	private final ObjectMap<String, TiledObjectTemplate> objectTemplates = new ObjectMap<String, TiledObjectTemplate>();
 	
 	public TiledMapLoader(FileHandleResolver resolver) {
 		super(resolver);
@@ -47,7 +57,7 @@ public class TiledMapLoader extends AsynchronousAssetLoader<TiledMap, TiledMapPa
 			parameter = DEFAULT_PARAMETERS;
 		}
 		if(parameter.cacheLayers) {
-			nextTiledMap = null;
+			nextTiledMaps.remove(fileName);
 			return;
 		}
 		loadNextTiledMap(fileName, file, parameter);
@@ -60,7 +70,7 @@ public class TiledMapLoader extends AsynchronousAssetLoader<TiledMap, TiledMapPa
 		}
 		final TiledMap result = loadNextTiledMap(fileName, file, parameter);
 		result.loadTilesetTextures(manager);
-		this.nextTiledMap = null;
+		nextTiledMaps.remove(fileName);
 		return result;
 	}
 
@@ -76,24 +86,41 @@ public class TiledMapLoader extends AsynchronousAssetLoader<TiledMap, TiledMapPa
 	}
 
 	private TiledMap loadNextTiledMap(String fileName, FileHandle file, TiledMapParameter parameter) {
-		if(nextTiledMap == null) {
-			nextTiledMap = new TiledMap(getTiledMapData(fileName, file), false, parameter.cacheLayers);
+		final TiledMap result = nextTiledMaps.get(fileName);
+		if(result != null) {
+			return result;
 		}
-		return nextTiledMap;
+		final TiledMap tiledMap = new TiledMap(getTiledMapData(fileName, file), false, parameter.cacheLayers);
+		final TiledMap existingTiledMap = nextTiledMaps.putIfAbsent(fileName, tiledMap);
+		return existingTiledMap != null ? existingTiledMap : tiledMap;
 	}
 	
 	private TiledMapData getTiledMapData(String fileName, FileHandle file) {
-		lock.readLock().lock();
-		final TiledMapData result;
-		if(!tiledMapData.containsKey(fileName)) {
-			lock.readLock().unlock();
-			lock.writeLock().lock();
-			result = new TiledMapData(tiledParser, file);
-			tiledMapData.put(fileName, result);
-			lock.writeLock().unlock();
-		} else {
-			result = tiledMapData.get(fileName);
-			lock.readLock().unlock();
+		TiledMapData result = tiledMapData.get(fileName);
+		if(result != null) {
+			return result;
+		}
+		final Object newLock = new Object();
+		final Object existingLock = loadLocks.putIfAbsent(fileName, newLock);
+		final Object lock = existingLock != null ? existingLock : newLock;
+
+		try {
+			synchronized (lock) {
+				result = tiledMapData.get(fileName);
+				if(result != null) {
+					return result;
+				}
+				// Parsers hold per-parse state so each load gets its own
+				if (TiledMapBinaryParser.EXTENSION.equalsIgnoreCase(file.extension())) {
+					result = new TiledMapData(new TiledMapBinaryParser(), file);
+				} else {
+					result = new TiledMapData(new TiledParser(objectTemplates, DECODE_POOL), file);
+				}
+				tiledMapData.put(fileName, result);
+			}
+		} finally {
+			// Later loads find the parsed data so the lock is no longer needed
+			loadLocks.remove(fileName, lock);
 		}
 		return result;
 	}
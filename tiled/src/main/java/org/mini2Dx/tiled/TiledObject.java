@@ -297,6 +297,20 @@ public class TiledObject {
 		}
 	}
 
+	/**
+	 * Restores the shape of a previously serialized object
+	 * @param objectShape The {@link TiledObjectShape}
+	 * @param vertices The absolute vertices or null
+	 * @param text The text or null
+	 * @param wrapText True if the text wraps
+	 */
+	void setShape(TiledObjectShape objectShape, float [] vertices, String text, boolean wrapText) {
+		this.objectShape = objectShape;
+		this.vertices = vertices;
+		this.text = text;
+		this.wrapText = wrapText;
+	}
+
 	public boolean isVisible() {
 		return visible;
 	}
@@ -17,8 +17,10 @@ import com.badlogic.gdx.utils.Array;
  * Represents a group of {@link TiledObject}s loaded from a {@link TiledMap}
  */
 public class TiledObjectGroup extends Layer {
+	private final TiledObjectIndex objectIndex = new TiledObjectIndex();
 	private int width, height;
 	private Array<TiledObject> objects;
+	private boolean indexed;
 	
 	/**
 	 * Constructor
@@ -68,23 +70,33 @@ public class TiledObjectGroup extends Layer {
 		return objects;
 	}
 
+	/**
+	 * Rebuilds the spatial, type and name indexes of this group. This is
+	 * called once the group has been parsed and must be called again if
+	 * objects are added, removed or moved.
+	 */
+	public void updateIndex() {
+		objectIndex.build(objects);
+		indexed = true;
+	}
+
+	private TiledObjectIndex getObjectIndex() {
+		if (!indexed || objectIndex.isStale(objects)) {
+			updateIndex();
+		}
+		return objectIndex;
+	}
+
 	/**
 	 * Returns the {@link TiledObject} with the specified ID
 	 * @param id The ID to search for
 	 * @return Null if this layer does not contain an object with the specified ID
 	 */
 	public TiledObject getObjectById(int id) {
-		for(int i = 0; i < objects.size; i++) {
-			final TiledObject tiledObject = objects.get(i);
-			if(tiledObject.getId() < 0) {
-				continue;
-			}
-			if(tiledObject.getId() != id) {
-				continue;
-			}
-			return tiledObject;
+		if(id < 0) {
+			return null;
 		}
-		return null;
+		return getObjectIndex().getObjectById(id);
 	}
 
 	/**
@@ -93,19 +105,83 @@ public class TiledObjectGroup extends Layer {
 	 * @return Null if this layer does not contain an object with the specified name
 	 */
 	public TiledObject getObjectByName(String name) {
-		if(name == null) {
+		final Array<TiledObject> result = getObjectIndex().getObjectsByName(name);
+		if(result == null) {
 			return null;
 		}
-		for(int i = 0; i < objects.size; i++) {
-			final TiledObject tiledObject = objects.get(i);
-			if(tiledObject.getName() == null) {
-				continue;
-			}
-			if(!tiledObject.getName().equals(name)) {
-				continue;
-			}
-			return tiledObject;
-		}
-		return null;
+		return result.get(0);
+	}
+
+	/**
+	 * Returns all {@link TiledObject}s with the specified name
+	 * @param name The name to search for
+	 * @return Null if this layer does not contain an object with the specified name. The returned {@link Array} must not be modified.
+	 */
+	public Array<TiledObject> getObjectsByName(String name) {
+		return getObjectIndex().getObjectsByName(name);
+	}
+
+	/**
+	 * Returns all {@link TiledObject}s with the specified type
+	 * @param type The type to search for (case-sensitive)
+	 * @return Null if this layer does not contain an object with the specified type. The returned {@link Array} must not be modified.
+	 */
+	public Array<TiledObject> getObjectsByType(String type) {
+		return getObjectIndex().getObjectsByType(type);
+	}
+
+	/**
+	 * Returns the distinct object types within this group
+	 * @return An empty list if none. The returned {@link Array} must not be modified.
+	 */
+	public Array<String> getObjectTypes() {
+		return getObjectIndex().getTypes();
+	}
+
+	/**
+	 * Adds the {@link TiledObject}s whose bounds overlap an area to an {@link Array}
+	 * @param x The x coordinate of the area in pixels
+	 * @param y The y coordinate of the area in pixels
+	 * @param width The width of the area in pixels
+	 * @param height The height of the area in pixels
+	 * @param result The {@link Array} to add the objects to
+	 */
+	public void getObjectsWithinArea(float x, float y, float width, float height, Array<TiledObject> result) {
+		getObjectIndex().getObjectsWithinArea(x, y, width, height, TiledObjectIndex.NO_TYPE, false, result);
+	}
+
+	/**
+	 * Adds the {@link TiledObject}s of a specific type whose bounds overlap an area to an {@link Array}
+	 * @param x The x coordinate of the area in pixels
+	 * @param y The y coordinate of the area in pixels
+	 * @param width The width of the area in pixels
+	 * @param height The height of the area in pixels
+	 * @param type The type to search for (case-sensitive)
+	 * @param result The {@link Array} to add the objects to
+	 */
+	public void getObjectsWithinArea(float x, float y, float width, float height, String type, Array<TiledObject> result) {
+		final TiledObjectIndex objectIndex = getObjectIndex();
+		objectIndex.getObjectsWithinArea(x, y, width, height, objectIndex.getTypeId(type), true, result);
+	}
+
+	/**
+	 * Adds the {@link TiledObject}s whose bounds contain a point to an {@link Array}
+	 * @param x The x coordinate in pixels
+	 * @param y The y coordinate in pixels
+	 * @param result The {@link Array} to add the objects to
+	 */
+	public void getObjectsContainingPoint(float x, float y, Array<TiledObject> result) {
+		getObjectsWithinArea(x, y, 0f, 0f, result);
+	}
+
+	/**
+	 * Adds the {@link TiledObject}s of a specific type whose bounds contain a point to an {@link Array}
+	 * @param x The x coordinate in pixels
+	 * @param y The y coordinate in pixels
+	 * @param type The type to search for (case-sensitive)
+	 * @param result The {@link Array} to add the objects to
+	 */
+	public void getObjectsContainingPoint(float x, float y, String type, Array<TiledObject> result) {
+		getObjectsWithinArea(x, y, 0f, 0f, type, result);
 	}
 }
@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the bounds of the objects in a {@link TiledObjectGroup}
+ * with hash indexes of object types, names and IDs.
+ * 
+ * Object bounds include polygon and polyline vertices. Type strings are
+ * interned into integer IDs so filtered queries compare integers rather than
+ * strings. Queries do not allocate but are not thread-safe.
+ */
+class TiledObjectIndex {
+	private static final int TARGET_OBJECTS_PER_CELL = 2;
+	private static final int MAX_CELLS_PER_AXIS = 1024;
+	/**
+	 * Objects covering more cells than this are stored in a separate list that
+	 * every area query checks
+	 */
+	private static final int MAX_CELLS_PER_OBJECT = 64;
+
+	static final int NO_TYPE = -1;
+
+	private final Array<TiledObject> objects = new Array<TiledObject>(true, 2, TiledObject.class);
+	private final ObjectIntMap<String> typeIds = new ObjectIntMap<String>();
+	private final Array<String> types = new Array<String>();
+	private final Array<Array<TiledObject>> objectsByTypeId = new Array<Array<TiledObject>>();
+	private final ObjectMap<String, Array<TiledObject>> objectsByName =
+			new ObjectMap<String, Array<TiledObject>>();
+	private final IntMap<TiledObject> objectsById = new IntMap<TiledObject>();
+
+	private float[] bounds = new float[0];
+	private int[] objectTypeIds = new int[0];
+	private int[] queryStamps = new int[0];
+	private int queryStamp;
+
+	private float minX, minY, cellWidth, cellHeight;
+	private int columns, rows;
+	private int[] cellStarts = new int[0];
+	private int[] cellObjects = new int[0];
+	private int[] largeObjects = new int[0];
+	private int totalLargeObjects;
+
+	void build(Array<TiledObject> source) {
+		objects.clear();
+		objects.addAll(source);
+		typeIds.clear();
+		types.clear();
+		objectsByTypeId.clear();
+		objectsByName.clear();
+		objectsById.clear();
+
+		final int totalObjects = objects.size;
+		if (bounds.length < totalObjects * 4) {
+			bounds = new float[totalObjects * 4];
+			objectTypeIds = new int[totalObjects];
+			queryStamps = new int[totalObjects];
+		}
+		Arrays.fill(queryStamps, 0);
+		queryStamp = 0;
+
+		float maxX = 0f, maxY = 0f;
+		minX = 0f;
+		minY = 0f;
+		for (int i = 0; i < totalObjects; i++) {
+			final TiledObject object = objects.get(i);
+			computeBounds(object, i * 4);
+			if (i == 0) {
+				minX = bounds[0];
+				minY = bounds[1];
+				maxX = bounds[2];
+				maxY = bounds[3];
+			} else {
+				minX = Math.min(minX, bounds[i * 4]);
+				minY = Math.min(minY, bounds[(i * 4) + 1]);
+				maxX = Math.max(maxX, bounds[(i * 4) + 2]);
+				maxY = Math.max(maxY, bounds[(i * 4) + 3]);
+			}
+			objectTypeIds[i] = internType(object);
+
+			if (object.getName() != null) {
+				Array<TiledObject> namedObjects = objectsByName.get(object.getName());
+				if (namedObjects == null) {
+					namedObjects = new Array<TiledObject>(true, 1, TiledObject.class);
+					objectsByName.put(object.getName(), namedObjects);
+				}
+				namedObjects.add(object);
+			}
+			if (object.getId() >= 0 && !objectsById.containsKey(object.getId())) {
+				objectsById.put(object.getId(), object);
+			}
+		}
+
+		final float extentX = Math.max(1f, maxX - minX);
+		final float extentY = Math.max(1f, maxY - minY);
+		final int totalCells = Math.max(1, totalObjects / TARGET_OBJECTS_PER_CELL);
+		columns = clamp((int) Math.ceil(Math.sqrt(totalCells * (extentX / extentY))));
+		rows = clamp((int) Math.ceil(totalCells / (float) columns));
+		cellWidth = extentX / columns;
+		cellHeight = extentY / rows;
+
+		if (cellStarts.length < (columns * rows) + 1) {
+			cellStarts = new int[(columns * rows) + 1];
+		} else {
+			Arrays.fill(cellStarts, 0);
+		}
+		if (largeObjects.length < totalObjects) {
+			largeObjects = new int[totalObjects];
+		}
+		totalLargeObjects = 0;
+
+		for (int i = 0; i < totalObjects; i++) {
+			if (isLargeObject(i)) {
+				largeObjects[totalLargeObjects++] = i;
+				continue;
+			}
+			for (int y = getRow(bounds[(i * 4) + 1]); y <= getRow(bounds[(i * 4) + 3]); y++) {
+				for (int x = getColumn(bounds[i * 4]); x <= getColumn(bounds[(i * 4) + 2]); x++) {
+					cellStarts[(y * columns) + x + 1]++;
+				}
+			}
+		}
+		for (int i = 1; i <= columns * rows; i++) {
+			cellStarts[i] += cellStarts[i - 1];
+		}
+		if (cellObjects.length < cellStarts[columns * rows]) {
+			cellObjects = new int[cellStarts[columns * rows]];
+		}
+		final int[] cellOffsets = Arrays.copyOf(cellStarts, columns * rows);
+		for (int i = 0; i < totalObjects; i++) {
+			if (isLargeObject(i)) {
+				continue;
+			}
+			for (int y = getRow(bounds[(i * 4) + 1]); y <= getRow(bounds[(i * 4) + 3]); y++) {
+				for (int x = getColumn(bounds[i * 4]); x <= getColumn(bounds[(i * 4) + 2]); x++) {
+					cellObjects[cellOffsets[(y * columns) + x]++] = i;
+				}
+			}
+		}
+	}
+
+	private void computeBounds(TiledObject object, int offset) {
+		float objectMinX = object.getX();
+		float objectMinY = object.getY();
+		float objectMaxX = object.getX() + object.getWidth();
+		float objectMaxY = object.getY() + object.getHeight();
+
+		final float[] vertices = object.getVertices();
+		if (vertices != null) {
+			for (int i = 0; i < vertices.length; i += 2) {
+				objectMinX = Math.min(objectMinX, vertices[i]);
+				objectMinY = Math.min(objectMinY, vertices[i + 1]);
+				objectMaxX = Math.max(objectMaxX, vertices[i]);
+				objectMaxY = Math.max(objectMaxY, vertices[i + 1]);
+			}
+		}
+		bounds[offset] = objectMinX;
+		bounds[offset + 1] = objectMinY;
+		bounds[offset + 2] = objectMaxX;
+		bounds[offset + 3] = objectMaxY;
+	}
+
+	private int internType(TiledObject object) {
+		if (object.getType() == null) {
+			return NO_TYPE;
+		}
+		int typeId = typeIds.get(object.getType(), NO_TYPE);
+		if (typeId == NO_TYPE) {
+			typeId = types.size;
+			typeIds.put(object.getType(), typeId);
+			types.add(object.getType());
+			objectsByTypeId.add(new Array<TiledObject>(true, 2, TiledObject.class));
+		}
+		objectsByTypeId.get(typeId).add(object);
+		return typeId;
+	}
+
+	private boolean isLargeObject(int index) {
+		final int totalColumns = getColumn(bounds[(index * 4) + 2]) - getColumn(bounds[index * 4]) + 1;
+		final int totalRows = getRow(bounds[(index * 4) + 3]) - getRow(bounds[(index * 4) + 1]) + 1;
+		return totalColumns * totalRows > MAX_CELLS_PER_OBJECT;
+	}
+
+	private int getColumn(float x) {
+		return Math.max(0, Math.min(columns - 1, (int) ((x - minX) / cellWidth)));
+	}
+
+	private int getRow(float y) {
+		return Math.max(0, Math.min(rows - 1, (int) ((y - minY) / cellHeight)));
+	}
+
+	private static int clamp(int cells) {
+		return Math.max(1, Math.min(MAX_CELLS_PER_AXIS, cells));
+	}
+
+	boolean isStale(Array<TiledObject> source) {
+		return source.size != objects.size;
+	}
+
+	int getTypeId(String type) {
+		if (type == null) {
+			return NO_TYPE;
+		}
+		return typeIds.get(type, NO_TYPE);
+	}
+
+	Array<TiledObject> getObjectsByType(String type) {
+		final int typeId = getTypeId(type);
+		if (typeId == NO_TYPE) {
+			return null;
+		}
+		return objectsByTypeId.get(typeId);
+	}
+
+	Array<String> getTypes() {
+		return types;
+	}
+
+	Array<TiledObject> getObjectsByName(String name) {
+		if (name == null) {
+			return null;
+		}
+		return objectsByName.get(name);
+	}
+
+	TiledObject getObjectById(int id) {
+		return objectsById.get(id);
+	}
+
+	void getObjectsWithinArea(float x, float y, float width, float height, int typeId, boolean filterType,
+			Array<TiledObject> result) {
+		if (objects.size == 0) {
+			return;
+		}
+		if (filterType && typeId == NO_TYPE) {
+			return;
+		}
+		final float maxX = x + width;
+		final float maxY = y + height;
+		nextQueryStamp();
+
+		for (int i = 0; i < totalLargeObjects; i++) {
+			addIfOverlaps(largeObjects[i], x, y, maxX, maxY, typeId, filterType, result);
+		}
+		if (maxX < minX || maxY < minY || x > minX + (cellWidth * columns) || y > minY + (cellHeight * rows)) {
+			return;
+		}
+		final int endRow = getRow(maxY);
+		final int endColumn = getColumn(maxX);
+		for (int row = getRow(y); row <= endRow; row++) {
+			for (int column = getColumn(x); column <= endColumn; column++) {
+				final int cell = (row * columns) + column;
+				for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+					addIfOverlaps(cellObjects[i], x, y, maxX, maxY, typeId, filterType, result);
+				}
+			}
+		}
+	}
+
+	private void addIfOverlaps(int index, float x, float y, float maxX, float maxY, int typeId, boolean filterType,
+			Array<TiledObject> result) {
+		if (queryStamps[index] == queryStamp) {
+			return;
+		}
+		queryStamps[index] = queryStamp;
+		if (filterType && objectTypeIds[index] != typeId) {
+			return;
+		}
+		final int offset = index * 4;
+		if (bounds[offset] > maxX || bounds[offset + 1] > maxY || bounds[offset + 2] < x
+				|| bounds[offset + 3] < y) {
+			return;
+		}
+		result.add(objects.get(index));
+	}
+
+	private void nextQueryStamp() {
+		queryStamp++;
+		if (queryStamp == Integer.MAX_VALUE) {
+			Arrays.fill(queryStamps, 0);
+			queryStamp = 1;
+		}
+	}
+}
@@ -23,26 +23,43 @@ import org.mini2Dx.tiled.tileset.ImageTilesetSource;
 import org.mini2Dx.tiled.tileset.TilesetSource;
 import org.mini2Dx.tiled.tileset.TsxTilesetSource;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.zip.DataFormatException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 /**
- * Parses Tiled XML files and notifies {@link TiledParserListener}s of map data
+ * Parses Tiled XML files and notifies {@link TiledParserListener}s of map data.
+ * 
+ * When constructed with an {@link ExecutorService}, tile layer data and TSX
+ * tilesets are decoded on the executor while the XML continues to stream.
+ * Listeners are then notified on the parsing thread once the map has been read,
+ * in the same order as a sequential parse.
  * 
  * @author MobiDevelop (parsing logic from LibGDX)
  */
 public class TiledParser implements TiledParserNotifier {
-	protected static final int FLAG_FLIP_HORIZONTALLY = 0x80000000;
-	protected static final int FLAG_FLIP_VERTICALLY = 0x40000000;
-	protected static final int FLAG_FLIP_DIAGONALLY = 0x20000000;
-	protected static final int MASK_CLEAR = 0xE0000000;
+	protected static final int FLAG_FLIP_HORIZONTALLY = TileLayer.FLAG_FLIP_HORIZONTALLY;
+	protected static final int FLAG_FLIP_VERTICALLY = TileLayer.FLAG_FLIP_VERTICALLY;
+	protected static final int FLAG_FLIP_DIAGONALLY = TileLayer.FLAG_FLIP_DIAGONALLY;
+	protected static final int MASK_CLEAR = TileLayer.MASK_FLIP_FLAGS;
+
+	private static final int DATA_BUFFER_SIZE = 4096;
 
 	private XmlReader xmlReader;
 	private Array<TiledParserListener> listeners;
+	private boolean infinite;
 	private final ObjectMap<String, TiledObjectTemplate> objectTemplates;
+	private final ExecutorService executor;
+	private Array<ParseEvent> pendingEvents;
 
 	/**
 	 * Constructor
@@ -52,8 +69,24 @@ public class TiledParser implements TiledParserNotifier {
 	}
 
 	public TiledParser(ObjectMap<String, TiledObjectTemplate> objectTemplates) {
+		this(objectTemplates, null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param objectTemplates
+	 *            The cache of object templates. Access is synchronized on this
+	 *            instance so it may be shared between parsers. Template files
+	 *            are read outside of the lock.
+	 * @param executor
+	 *            The {@link ExecutorService} to decode layers and tilesets on,
+	 *            or null to parse sequentially
+	 */
+	public TiledParser(ObjectMap<String, TiledObjectTemplate> objectTemplates, ExecutorService executor) {
 		super();
 		this.objectTemplates = objectTemplates;
+		this.executor = executor;
 
 		xmlReader = new XmlReader();
 		listeners = new Array<TiledParserListener>();
@@ -69,41 +102,60 @@ public class TiledParser implements TiledParserNotifier {
 	 *             Thrown if the map file could not be parsed
 	 */
 	public void parseTmx(FileHandle tmxFileHandle) throws IOException {
-		Element root = xmlReader.parse(tmxFileHandle);
-		String mapOrientation = root.getAttribute("orientation", null);
-		int mapWidth = root.getIntAttribute("width", 0);
-		int mapHeight = root.getIntAttribute("height", 0);
-		int tileWidth = root.getIntAttribute("tilewidth", 0);
-		int tileHeight = root.getIntAttribute("tileheight", 0);
-		int sideLength = root.getInt("hexsidelength", -1);
-		String staggerAxis = root.getAttribute("staggeraxis", null);
-		String staggerIndex = root.getAttribute("staggerindex", null);
-		String mapBackgroundColor = root.getAttribute("backgroundcolor", null);
-		Color backgroundColor = null;
-		if (mapBackgroundColor != null) {
-			backgroundColor = convertHexColorToColor(mapBackgroundColor);
-		}
-
-		notifyBeginParsing(mapOrientation, staggerAxis, staggerIndex, backgroundColor, mapWidth, mapHeight, tileWidth, tileHeight, sideLength);
-
-		Element properties = root.getChildByName("properties");
-		if (properties != null) {
-			loadMapProperties(properties);
-		}
-		Array<Element> tilesets = root.getChildrenByName("tileset");
-		for (Element element : tilesets) {
-			loadTileSet(element, tmxFileHandle);
-			root.removeChild(element);
+		final XmlPullReader reader = new XmlPullReader(tmxFileHandle.reader("UTF-8"));
+		final Array<ParseEvent> events = executor != null ? new Array<ParseEvent>() : null;
+		pendingEvents = events;
+		try {
+			if (!reader.nextChildElement()) {
+				throw new GdxRuntimeException("No map found in " + tmxFileHandle.path());
+			}
+			String mapOrientation = reader.getAttribute("orientation", null);
+			int mapWidth = reader.getIntAttribute("width", 0);
+			int mapHeight = reader.getIntAttribute("height", 0);
+			int tileWidth = reader.getIntAttribute("tilewidth", 0);
+			int tileHeight = reader.getIntAttribute("tileheight", 0);
+			int sideLength = reader.getIntAttribute("hexsidelength", -1);
+			String staggerAxis = reader.getAttribute("staggeraxis", null);
+			String staggerIndex = reader.getAttribute("staggerindex", null);
+			String mapBackgroundColor = reader.getAttribute("backgroundcolor", null);
+			infinite = reader.getIntAttribute("infinite", 0) == 1;
+			Color backgroundColor = null;
+			if (mapBackgroundColor != null) {
+				backgroundColor = convertHexColorToColor(mapBackgroundColor);
+			}
+
+			notifyBeginParsing(mapOrientation, staggerAxis, staggerIndex, backgroundColor, mapWidth, mapHeight, tileWidth, tileHeight, sideLength);
+
+			while (reader.nextChildElement()) {
+				String name = reader.getName();
+				if (name.equals("properties")) {
+					loadMapProperties(reader.readElement());
+				} else if (name.equals("tileset")) {
+					final Element element = reader.readElement();
+					if (executor != null && element.getAttribute("source", null) != null) {
+						loadTsxTileSetAsync(element, tmxFileHandle);
+					} else {
+						loadTileSet(element, tmxFileHandle);
+					}
+				} else if (name.equals("layer")) {
+					loadTileLayer(reader);
+				} else if (name.equals("objectgroup")) {
+					loadObjectGroup(reader.readElement(), tmxFileHandle);
+				} else if (name.equals("group")) {
+					loadGroupLayer(reader, tmxFileHandle);
+				} else {
+					reader.skipElement();
+				}
+			}
+		} finally {
+			pendingEvents = null;
+			reader.close();
 		}
-		for (int i = 0, j = root.getChildCount(); i < j; i++) {
-			Element element = root.getChild(i);
-			String name = element.getName();
-			if (name.equals("layer")) {
-				loadTileLayer(element);
-			} else if (name.equals("objectgroup")) {
-				loadObjectGroup(element, tmxFileHandle);
-			} else if (name.equals("group")) {
-				loadGroupLayer(element, tmxFileHandle);
+
+		// Notify listeners in document order once all decoding has been queued
+		if (events != null) {
+			for (int i = 0; i < events.size; i++) {
+				events.get(i).dispatch();
 			}
 		}
 	}
@@ -118,37 +170,62 @@ public class TiledParser implements TiledParserNotifier {
 	 *             Thrown if the tileset file could not be parsed
 	 */
 	public ImageTilesetSource parseTsx(FileHandle tsxFileHandle) throws IOException {
-		Element element = xmlReader.parse(tsxFileHandle);
-		String name = element.get("name", null);
-		int tileWidth = element.getIntAttribute("tilewidth", 0);
-		int tileHeight = element.getIntAttribute("tileheight", 0);
-		int spacing = element.getIntAttribute("spacing", 0);
-		int margin = element.getIntAttribute("margin", 0);
-		String imageSource = element.getChildByName("image").getAttribute("source");
-		int imageWidth = element.getChildByName("image").getIntAttribute("width", 0);
-		int imageHeight = element.getChildByName("image").getIntAttribute("height", 0);
-		String transparentColor = element.getChildByName("image").get("trans", null);
-
-		ImageTilesetSource result = new ImageTilesetSource(imageWidth, imageHeight, tileWidth, tileHeight, spacing,
-				margin);
-		result.setName(name);
-		result.setTilesetImagePath(FileHandleUtils.normalise(tsxFileHandle.sibling(imageSource).path()));
-		result.setTransparentColorValue(transparentColor);
-
-		loadTileProperties(result, element.getChildrenByName("tile"));
-
-		Element properties = element.getChildByName("properties");
-		if (properties != null) {
-			for (Element property : properties.getChildrenByName("property")) {
-				String propertyName = property.getAttribute("name", null);
-				String propertyValue = property.getAttribute("value", null);
-				if (propertyValue == null) {
-					propertyValue = property.getText();
+		final XmlPullReader reader = new XmlPullReader(tsxFileHandle.reader("UTF-8"));
+		try {
+			if (!reader.nextChildElement()) {
+				throw new GdxRuntimeException("No tileset found in " + tsxFileHandle.path());
+			}
+			String name = reader.getAttribute("name", null);
+			int tileWidth = reader.getIntAttribute("tilewidth", 0);
+			int tileHeight = reader.getIntAttribute("tileheight", 0);
+			int spacing = reader.getIntAttribute("spacing", 0);
+			int margin = reader.getIntAttribute("margin", 0);
+
+			Element image = null;
+			Element properties = null;
+			Array<Element> tileElements = new Array<Element>();
+			while (reader.nextChildElement()) {
+				String childName = reader.getName();
+				if (childName.equals("image")) {
+					image = reader.readElement();
+				} else if (childName.equals("tile")) {
+					tileElements.add(reader.readElement());
+				} else if (childName.equals("properties")) {
+					properties = reader.readElement();
+				} else {
+					reader.skipElement();
 				}
-				result.setProperty(propertyName, propertyValue);
 			}
+			if (image == null) {
+				throw new GdxRuntimeException("No image found for tileset " + tsxFileHandle.path());
+			}
+			String imageSource = image.getAttribute("source");
+			int imageWidth = image.getIntAttribute("width", 0);
+			int imageHeight = image.getIntAttribute("height", 0);
+			String transparentColor = image.get("trans", null);
+
+			ImageTilesetSource result = new ImageTilesetSource(imageWidth, imageHeight, tileWidth, tileHeight, spacing,
+					margin);
+			result.setName(name);
+			result.setTilesetImagePath(FileHandleUtils.normalise(tsxFileHandle.sibling(imageSource).path()));
+			result.setTransparentColorValue(transparentColor);
+
+			loadTileProperties(result, tileElements);
+
+			if (properties != null) {
+				for (Element property : properties.getChildrenByName("property")) {
+					String propertyName = property.getAttribute("name", null);
+					String propertyValue = property.getAttribute("value", null);
+					if (propertyValue == null) {
+						propertyValue = property.getText();
+					}
+					result.setProperty(propertyName, propertyValue);
+				}
+			}
+			return result;
+		} finally {
+			reader.close();
 		}
-		return result;
 	}
 
 	private void loadMapProperties(Element element) {
@@ -213,23 +290,7 @@ public class TiledParser implements TiledParserNotifier {
 				// TSX tileset
 				TsxTilesetSource tilesetSource = new TsxTilesetSource(tmxFile, source);
 				tileset = new Tileset(firstGid, tilesetSource);
-				
-				for(int x = 0; x < tilesetSource.getWidthInTiles(); x++) {
-					for(int y = 0; y < tilesetSource.getHeightInTiles(); y++) {
-						Tile tile = tilesetSource.getTileByPosition(x, y);
-						if (tile == null) {
-							continue;
-						}
-						if (tile.getTileRenderer() == null) {
-							continue;
-						}
-						if (tile.getTileRenderer() instanceof AnimatedTileRenderer) {
-							notifyTilePropertyParsed(tile);
-						} else if(tile.getProperties() != null) {
-							notifyTilePropertyParsed(tile);
-						}
-					}
-				}
+				notifyTsxTileProperties(tilesetSource);
 			}
 
 			notifyTilesetParsed(tileset);
@@ -237,6 +298,45 @@ public class TiledParser implements TiledParserNotifier {
 		return tileset;
 	}
 
+	private void loadTsxTileSetAsync(Element element, final FileHandle tmxFile) {
+		final String source = element.getAttribute("source");
+		final int firstGid = element.getIntAttribute("firstgid", 1);
+		final Future<TsxTilesetSource> task = submit(new Callable<TsxTilesetSource>() {
+			@Override
+			public TsxTilesetSource call() throws Exception {
+				return new TsxTilesetSource(tmxFile, source);
+			}
+		});
+		pendingEvents.add(new ParseEvent() {
+			@Override
+			public void dispatch() throws IOException {
+				final TsxTilesetSource tilesetSource = await(task);
+				final Tileset tileset = new Tileset(firstGid, tilesetSource);
+				notifyTsxTileProperties(tilesetSource);
+				notifyTilesetParsed(tileset);
+			}
+		});
+	}
+
+	private void notifyTsxTileProperties(TsxTilesetSource tilesetSource) {
+		for(int x = 0; x < tilesetSource.getWidthInTiles(); x++) {
+			for(int y = 0; y < tilesetSource.getHeightInTiles(); y++) {
+				Tile tile = tilesetSource.getTileByPosition(x, y);
+				if (tile == null) {
+					continue;
+				}
+				if (tile.getTileRenderer() == null) {
+					continue;
+				}
+				if (tile.getTileRenderer() instanceof AnimatedTileRenderer) {
+					notifyTilePropertyParsed(tile);
+				} else if(tile.getProperties() != null) {
+					notifyTilePropertyParsed(tile);
+				}
+			}
+		}
+	}
+
 	private void loadTileProperties(TilesetSource tilesetSource, Array<Element> tileElements) {
 		for (Element tileElement : tileElements) {
 			int localtid = tileElement.getIntAttribute("id", 0);
@@ -297,42 +397,29 @@ public class TiledParser implements TiledParserNotifier {
 		}
 	}
 
-	protected GroupLayer loadGroupLayer(Element layerElement, FileHandle tmxFileHandle) {
-		if (!layerElement.getName().equals("group")) {
-			return null;
-		}
-
-		final String groupName = layerElement.getAttribute("name", null);
-		final boolean visible = layerElement.getIntAttribute("visible", 1) == 1;
+	protected GroupLayer loadGroupLayer(XmlPullReader reader, FileHandle tmxFileHandle) throws IOException {
+		final String groupName = reader.getAttribute("name", null);
+		final boolean visible = reader.getIntAttribute("visible", 1) == 1;
 
 		final GroupLayer groupLayer = new GroupLayer();
 		groupLayer.setName(groupName);
 		groupLayer.setVisible(visible);
 
-		Element properties = layerElement.getChildByName("properties");
-		if (properties != null) {
-			for (Element property : properties.getChildrenByName("property")) {
-				String propertyName = property.getAttribute("name", null);
-				String propertyValue = property.getAttribute("value", null);
-				if (propertyValue == null) {
-					propertyValue = property.getText();
-				}
-				groupLayer.setProperty(propertyName, propertyValue);
-			}
-		}
-
-		for (int i = 0, j = layerElement.getChildCount(); i < j; i++) {
-			Element element = layerElement.getChild(i);
-			String name = element.getName();
+		while (reader.nextChildElement()) {
+			String name = reader.getName();
 
 			final Layer layer;
 			if (name.equals("layer")) {
-				layer = loadTileLayer(element);
+				layer = loadTileLayer(reader);
 			} else if (name.equals("objectgroup")) {
-				layer = loadObjectGroup(element, tmxFileHandle);
+				layer = loadObjectGroup(reader.readElement(), tmxFileHandle);
 			} else if (name.equals("group")) {
-				layer = loadGroupLayer(element, tmxFileHandle);
+				layer = loadGroupLayer(reader, tmxFileHandle);
+			} else if (name.equals("properties")) {
+				loadLayerProperties(groupLayer, reader.readElement());
+				layer = null;
 			} else {
+				reader.skipElement();
 				layer = null;
 			}
 			if(layer != null) {
@@ -344,122 +431,287 @@ public class TiledParser implements TiledParserNotifier {
 		return groupLayer;
 	}
 
-	protected TileLayer loadTileLayer(Element element) {
-		if (element.getName().equals("layer")) {
-			String name = element.getAttribute("name", null);
-			int width = element.getIntAttribute("width", 0);
-			int height = element.getIntAttribute("height", 0);
-			boolean visible = element.getIntAttribute("visible", 1) == 1;
-			TileLayer layer = new TileLayer(width, height);
-			layer.setVisible(visible);
-			layer.setName(name);
-
-			Element data = element.getChildByName("data");
-			String encoding = data.getAttribute("encoding", null);
-			String compression = data.getAttribute("compression", null);
-			if (encoding == null) { // no 'encoding' attribute means that the
-									// encoding is XML
-				throw new GdxRuntimeException("Unsupported encoding (XML) for TMX Layer Data");
-			}
-			if (encoding.equals("csv")) {
-				String[] array = data.getText().split(",");
-				for (int y = 0; y < height; y++) {
-					for (int x = 0; x < width; x++) {
-						int id = (int) Long.parseLong(array[y * width + x].trim());
-						id = id & ~MASK_CLEAR;
-						layer.setTileId(x, y, id);
-					}
+	protected TileLayer loadTileLayer(XmlPullReader reader) throws IOException {
+		String name = reader.getAttribute("name", null);
+		int width = reader.getIntAttribute("width", 0);
+		int height = reader.getIntAttribute("height", 0);
+		boolean visible = reader.getIntAttribute("visible", 1) == 1;
+		TileLayer layer = null;
+		Future<Void> decodeTask = null;
+		Element properties = null;
+
+		while (reader.nextChildElement()) {
+			if (reader.getName().equals("data")) {
+				final String encoding = reader.getAttribute("encoding", null);
+				final String compression = reader.getAttribute("compression", null);
+				if (infinite) {
+					layer = loadChunkedTileLayerData(reader, encoding, compression);
+				} else {
+					final TileLayer tileLayer = new TileLayer(width, height);
+					final Reader data = readData(reader);
+					decodeTask = submit(new Callable<Void>() {
+						@Override
+						public Void call() throws Exception {
+							loadTileLayerData(tileLayer, encoding, compression, data);
+							return null;
+						}
+					});
+					reader.skipElement();
+					layer = tileLayer;
 				}
+			} else if (reader.getName().equals("properties")) {
+				properties = reader.readElement();
 			} else {
-				if (encoding.equals("base64")) {
-					byte[] bytes = Base64Coder.decode(data.getText());
-					if (compression == null) {
-						int read = 0;
-						for (int y = 0; y < height; y++) {
-							for (int x = 0; x < width; x++) {
-
-								int id = unsignedByteToInt(bytes[read++]) | unsignedByteToInt(bytes[read++]) << 8
-										| unsignedByteToInt(bytes[read++]) << 16
-										| unsignedByteToInt(bytes[read++]) << 24;
-								boolean flipHorizontally = (id & FLAG_FLIP_HORIZONTALLY) != 0;
-							    boolean flipVertically = (id & FLAG_FLIP_VERTICALLY) != 0;
-							    boolean flipDiagonally = (id & FLAG_FLIP_DIAGONALLY) != 0;
-								id = id & ~MASK_CLEAR;
-								layer.setTileId(x, y, id, flipHorizontally, flipVertically, flipDiagonally);
-							}
-						}
-					} else if (compression.equals("gzip")) {
-						GZIPInputStream GZIS = null;
-						try {
-							GZIS = new GZIPInputStream(new ByteArrayInputStream(bytes), bytes.length);
-						} catch (IOException e) {
-							throw new GdxRuntimeException(
-									"Error Reading TMX Layer Data - IOException: " + e.getMessage());
-						}
+				reader.skipElement();
+			}
+		}
+		if (layer == null) {
+			layer = new TileLayer(width, height);
+		}
+		layer.setVisible(visible);
+		layer.setName(name);
+		if (properties != null) {
+			loadLayerProperties(layer, properties);
+		}
+		if (decodeTask != null) {
+			awaitBeforeNextEvent(decodeTask);
+		}
+		notifyTileLayerParsed(layer);
+		return layer;
+	}
 
-						byte[] temp = new byte[4];
-						for (int y = 0; y < height; y++) {
-							for (int x = 0; x < width; x++) {
-								try {
-									GZIS.read(temp, 0, 4);
-									int id = unsignedByteToInt(temp[0]) | unsignedByteToInt(temp[1]) << 8
-											| unsignedByteToInt(temp[2]) << 16 | unsignedByteToInt(temp[3]) << 24;
-									boolean flipHorizontally = (id & FLAG_FLIP_HORIZONTALLY) != 0;
-								    boolean flipVertically = (id & FLAG_FLIP_VERTICALLY) != 0;
-								    boolean flipDiagonally = (id & FLAG_FLIP_DIAGONALLY) != 0;
-									id = id & ~MASK_CLEAR;
-									layer.setTileId(x, y, id, flipHorizontally, flipVertically, flipDiagonally);
-								} catch (IOException e) {
-									throw new GdxRuntimeException("Error Reading TMX Layer Data.", e);
-								}
-							}
-						}
-					} else if (compression.equals("zlib")) {
-						Inflater zlib = new Inflater();
-
-						byte[] temp = new byte[4];
-
-						zlib.setInput(bytes, 0, bytes.length);
-
-						for (int y = 0; y < height; y++) {
-							for (int x = 0; x < width; x++) {
-								try {
-									zlib.inflate(temp, 0, 4);
-									int id = unsignedByteToInt(temp[0]) | unsignedByteToInt(temp[1]) << 8
-											| unsignedByteToInt(temp[2]) << 16 | unsignedByteToInt(temp[3]) << 24;
-									boolean flipHorizontally = (id & FLAG_FLIP_HORIZONTALLY) != 0;
-								    boolean flipVertically = (id & FLAG_FLIP_VERTICALLY) != 0;
-								    boolean flipDiagonally = (id & FLAG_FLIP_DIAGONALLY) != 0;
-									id = id & ~MASK_CLEAR;
-									layer.setTileId(x, y, id, flipHorizontally, flipVertically, flipDiagonally);
-
-								} catch (DataFormatException e) {
-									throw new GdxRuntimeException("Error Reading TMX Layer Data.", e);
-								}
-							}
-						}
-					}
-				} else {
-					// any other value of 'encoding' is one we're not aware of,
-					// probably a feature of a future version of Tiled
-					throw new GdxRuntimeException("Unrecognised encoding (" + encoding + ") for TMX Layer Data");
+	private ChunkedTileLayer loadChunkedTileLayerData(XmlPullReader reader, final String encoding,
+			final String compression) throws IOException {
+		final Array<Future<DecodedChunk>> chunkData = new Array<Future<DecodedChunk>>();
+		final IntArray chunkAttributes = new IntArray();
+		int chunkWidth = -1, chunkHeight = -1;
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+
+		while (reader.nextChildElement()) {
+			if (!reader.getName().equals("chunk")) {
+				reader.skipElement();
+				continue;
+			}
+			final int chunkX = reader.getIntAttribute("x", 0);
+			final int chunkY = reader.getIntAttribute("y", 0);
+			final int width = reader.getIntAttribute("width", 0);
+			final int height = reader.getIntAttribute("height", 0);
+			if (chunkWidth < 0) {
+				chunkWidth = width;
+				chunkHeight = height;
+			} else if (width != chunkWidth || height != chunkHeight) {
+				throw new GdxRuntimeException("Unsupported chunk layout: chunks must all be the same size");
+			}
+
+			final Reader data = readData(reader);
+			chunkData.add(submit(new Callable<DecodedChunk>() {
+				@Override
+				public DecodedChunk call() throws Exception {
+					// Keep only the compressed chunk so the whole layer is never decoded at once
+					final TileLayer chunk = new TileLayer(width, height);
+					loadTileLayerData(chunk, encoding, compression, data);
+					final int[] packedTiles = new int[width * height];
+					chunk.getPackedRegion(0, 0, width, height, packedTiles);
+					return new DecodedChunk(ChunkedTileLayer.compress(packedTiles), chunk.getTotalFilledTiles());
+				}
+			}));
+			reader.skipElement();
+			chunkAttributes.add(chunkX);
+			chunkAttributes.add(chunkY);
+			minX = Math.min(minX, chunkX);
+			minY = Math.min(minY, chunkY);
+			maxX = Math.max(maxX, chunkX + width);
+			maxY = Math.max(maxY, chunkY + height);
+		}
+		if (chunkData.size == 0) {
+			return new ChunkedTileLayer(0, 0, 0, 0, 1, 1);
+		}
+
+		final ChunkedTileLayer result = new ChunkedTileLayer(minX, minY, maxX - minX, maxY - minY, chunkWidth,
+				chunkHeight);
+		for (int i = 0; i < chunkData.size; i++) {
+			final int chunkX = chunkAttributes.get(i * 2);
+			final int chunkY = chunkAttributes.get((i * 2) + 1);
+			if ((chunkX - minX) % chunkWidth != 0 || (chunkY - minY) % chunkHeight != 0) {
+				throw new GdxRuntimeException("Unsupported chunk layout: chunk " + chunkX + "," + chunkY
+						+ " is not aligned to the chunk size");
+			}
+			final DecodedChunk chunk = await(chunkData.get(i));
+			result.putChunk(chunkX, chunkY, chunk.data, chunk.totalFilledTiles);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the text of the current element. When decoding on an executor
+	 * the text is copied so it outlives the streaming reader's position.
+	 */
+	private Reader readData(XmlPullReader reader) throws IOException {
+		final Reader data = reader.getTextReader();
+		if (executor == null) {
+			return data;
+		}
+		final java.lang.StringBuilder result = new java.lang.StringBuilder();
+		final char[] chars = new char[DATA_BUFFER_SIZE];
+		int read;
+		while ((read = data.read(chars, 0, chars.length)) != -1) {
+			result.append(chars, 0, read);
+		}
+		return new StringReader(result.toString());
+	}
+
+	/**
+	 * Submits a task to the executor, or runs it immediately on the calling
+	 * thread when parsing sequentially
+	 */
+	private <T> Future<T> submit(Callable<T> task) {
+		if (executor != null) {
+			return executor.submit(task);
+		}
+		final FutureTask<T> result = new FutureTask<T>(task);
+		result.run();
+		return result;
+	}
+
+	/**
+	 * Holds back listener notifications queued after this point until a task
+	 * completes
+	 */
+	private void awaitBeforeNextEvent(final Future<?> task) throws IOException {
+		if (pendingEvents == null) {
+			await(task);
+			return;
+		}
+		pendingEvents.add(new ParseEvent() {
+			@Override
+			public void dispatch() throws IOException {
+				await(task);
+			}
+		});
+	}
+
+	private static <T> T await(Future<T> task) throws IOException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.getMessage());
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new GdxRuntimeException(cause);
+		}
+	}
+
+	private void loadLayerProperties(Layer layer, Element properties) {
+		for (Element property : properties.getChildrenByName("property")) {
+			String propertyName = property.getAttribute("name", null);
+			String propertyValue = property.getAttribute("value", null);
+			if (propertyValue == null) {
+				propertyValue = property.getText();
+			}
+			layer.setProperty(propertyName, propertyValue);
+		}
+	}
+
+	private void loadTileLayerData(TileLayer layer, String encoding, String compression, Reader data) throws IOException {
+		if (encoding == null) { // no 'encoding' attribute means that the
+								// encoding is XML
+			throw new GdxRuntimeException("Unsupported encoding (XML) for TMX Layer Data");
+		}
+		if (encoding.equals("csv")) {
+			loadCsvTileLayerData(layer, data);
+		} else if (encoding.equals("base64")) {
+			InputStream inputStream = new Base64InputStream(data);
+			if (compression == null) {
+				loadBinaryTileLayerData(layer, inputStream);
+			} else if (compression.equals("gzip")) {
+				loadBinaryTileLayerData(layer, new GZIPInputStream(inputStream));
+			} else if (compression.equals("zlib")) {
+				loadBinaryTileLayerData(layer, new InflaterInputStream(inputStream));
+			} else {
+				throw new GdxRuntimeException("Unsupported compression (" + compression + ") for TMX Layer Data");
+			}
+		} else {
+			// any other value of 'encoding' is one we're not aware of,
+			// probably a feature of a future version of Tiled
+			throw new GdxRuntimeException("Unrecognised encoding (" + encoding + ") for TMX Layer Data");
+		}
+	}
+
+	private void loadCsvTileLayerData(TileLayer layer, Reader data) throws IOException {
+		final char[] chars = new char[DATA_BUFFER_SIZE];
+		int x = 0, y = 0;
+		long value = 0;
+		boolean hasValue = false;
+
+		int read;
+		while ((read = data.read(chars, 0, chars.length)) != -1) {
+			for (int i = 0; i < read; i++) {
+				final char c = chars[i];
+				if (c >= '0' && c <= '9') {
+					value = (value * 10) + (c - '0');
+					hasValue = true;
+					continue;
+				}
+				if (!hasValue) {
+					continue;
+				}
+				if (y >= layer.getHeight()) {
+					return;
+				}
+				layer.setPackedTile(x, y, (int) value);
+				value = 0;
+				hasValue = false;
+
+				x++;
+				if (x == layer.getWidth()) {
+					x = 0;
+					y++;
 				}
 			}
-			Element properties = element.getChildByName("properties");
-			if (properties != null) {
-				for (Element property : properties.getChildrenByName("property")) {
-					String propertyName = property.getAttribute("name", null);
-					String propertyValue = property.getAttribute("value", null);
-					if (propertyValue == null) {
-						propertyValue = property.getText();
-					}
-					layer.setProperty(propertyName, propertyValue);
+		}
+		if (hasValue && y < layer.getHeight()) {
+			layer.setPackedTile(x, y, (int) value);
+		}
+	}
+
+	private void loadBinaryTileLayerData(TileLayer layer, InputStream data) throws IOException {
+		final byte[] bytes = new byte[DATA_BUFFER_SIZE];
+		int x = 0, y = 0;
+		int packedTile = 0, shift = 0;
+
+		int read;
+		while ((read = data.read(bytes, 0, bytes.length)) != -1) {
+			for (int i = 0; i < read; i++) {
+				packedTile |= (bytes[i] & 0xFF) << shift;
+				shift += 8;
+				if (shift < 32) {
+					continue;
+				}
+				if (y >= layer.getHeight()) {
+					return;
+				}
+				layer.setPackedTile(x, y, packedTile);
+				packedTile = 0;
+				shift = 0;
+
+				x++;
+				if (x == layer.getWidth()) {
+					x = 0;
+					y++;
 				}
 			}
-			notifyTileLayerParsed(layer);
-			return layer;
 		}
-		return null;
 	}
 
 	protected TiledObjectGroup loadObjectGroup(Element element, FileHandle tmxFile) {
@@ -503,12 +755,15 @@ public class TiledParser implements TiledParserNotifier {
 
 			final TiledObject objectTemplate;
 			if(template != null) {
-				final TiledObjectTemplate tiledObjectTemplate;
-				if(!objectTemplates.containsKey(template)) {
-					tiledObjectTemplate = loadObjectTemplate(template, tmxFile);
-				} else {
+				TiledObjectTemplate tiledObjectTemplate;
+				final boolean cachedTemplate;
+				synchronized (objectTemplates) {
+					cachedTemplate = objectTemplates.containsKey(template);
 					tiledObjectTemplate = objectTemplates.get(template, null);
 				}
+				if(!cachedTemplate) {
+					tiledObjectTemplate = loadObjectTemplate(template, tmxFile);
+				}
 				if(tiledObjectTemplate == null) {
 					objectTemplate = null;
 				} else if(tiledObjectTemplate.getTiledObject() != null) {
@@ -636,15 +891,18 @@ public class TiledParser implements TiledParserNotifier {
 		}
 
 		final TiledObjectTemplate objectTemplate = new TiledObjectTemplate(path, tileset, tiledObject);
-		objectTemplates.put(path, objectTemplate);
+		// The file is read outside of the lock so another parser may have loaded it first
+		synchronized (objectTemplates) {
+			final TiledObjectTemplate existingTemplate = objectTemplates.get(path, null);
+			if(existingTemplate != null) {
+				return existingTemplate;
+			}
+			objectTemplates.put(path, objectTemplate);
+		}
 		notifyObjectTemplateParsed(objectTemplate);
 		return objectTemplate;
 	}
 
-	static int unsignedByteToInt(byte b) {
-		return (int) b & 0xFF;
-	}
-
 	/**
 	 * Adds a listener to be notified of parsing results
 	 * 
@@ -668,8 +926,19 @@ public class TiledParser implements TiledParserNotifier {
 	}
 
 	@Override
-	public void notifyBeginParsing(String orientation, String staggerAxis, String staggerIndex, Color backgroundColor,
-			int width, int height, int tileWidth, int tileHeight, int sideLength) {
+	public void notifyBeginParsing(final String orientation, final String staggerAxis, final String staggerIndex,
+			final Color backgroundColor, final int width, final int height, final int tileWidth, final int tileHeight,
+			final int sideLength) {
+		if (pendingEvents != null) {
+			pendingEvents.add(new ParseEvent() {
+				@Override
+				public void dispatch() {
+					notifyBeginParsing(orientation, staggerAxis, staggerIndex, backgroundColor, width, height,
+							tileWidth, tileHeight, sideLength);
+				}
+			});
+			return;
+		}
 		for (TiledParserListener tiledParserListener : listeners) {
 			tiledParserListener.onBeginParsing(orientation, staggerAxis, staggerIndex, backgroundColor, width, height,
 					tileWidth, tileHeight, sideLength);
@@ -677,49 +946,112 @@ public class TiledParser implements TiledParserNotifier {
 	}
 
 	@Override
-	public void notifyMapPropertyParsed(String propertyName, String value) {
+	public void notifyMapPropertyParsed(final String propertyName, final String value) {
+		if (pendingEvents != null) {
+			pendingEvents.add(new ParseEvent() {
+				@Override
+				public void dispatch() {
+					notifyMapPropertyParsed(propertyName, value);
+				}
+			});
+			return;
+		}
 		for (TiledParserListener tiledParserListener : listeners) {
 			tiledParserListener.onMapPropertyParsed(propertyName, value);
 		}
 	}
 
 	@Override
-	public void notifyTilePropertyParsed(Tile tile) {
+	public void notifyTilePropertyParsed(final Tile tile) {
+		if (pendingEvents != null) {
+			pendingEvents.add(new ParseEvent() {
+				@Override
+				public void dispatch() {
+					notifyTilePropertyParsed(tile);
+				}
+			});
+			return;
+		}
 		for (TiledParserListener tiledParserListener : listeners) {
 			tiledParserListener.onTilePropertiesParsed(tile);
 		}
 	}
 
 	@Override
-	public void notifyTilesetParsed(Tileset parsedTileset) {
+	public void notifyTilesetParsed(final Tileset parsedTileset) {
+		if (pendingEvents != null) {
+			pendingEvents.add(new ParseEvent() {
+				@Override
+				public void dispatch() {
+					notifyTilesetParsed(parsedTileset);
+				}
+			});
+			return;
+		}
 		for (TiledParserListener tiledParserListener : listeners) {
 			tiledParserListener.onTilesetParsed(parsedTileset);
 		}
 	}
 
 	@Override
-	public void notifyTileLayerParsed(TileLayer parsedLayer) {
+	public void notifyTileLayerParsed(final TileLayer parsedLayer) {
+		if (pendingEvents != null) {
+			pendingEvents.add(new ParseEvent() {
+				@Override
+				public void dispatch() {
+					notifyTileLayerParsed(parsedLayer);
+				}
+			});
+			return;
+		}
 		for (TiledParserListener tiledParserListener : listeners) {
 			tiledParserListener.onTileLayerParsed(parsedLayer);
 		}
 	}
 
 	@Override
-	public void notifyObjectGroupParsed(TiledObjectGroup parsedObjectGroup) {
+	public void notifyObjectGroupParsed(final TiledObjectGroup parsedObjectGroup) {
+		if (pendingEvents != null) {
+			pendingEvents.add(new ParseEvent() {
+				@Override
+				public void dispatch() {
+					notifyObjectGroupParsed(parsedObjectGroup);
+				}
+			});
+			return;
+		}
 		for (TiledParserListener tiledParserListener : listeners) {
 			tiledParserListener.onObjectGroupParsed(parsedObjectGroup);
 		}
 	}
 
 	@Override
-	public void notifyGroupLayerParsed(GroupLayer parsedGroupLayer) {
+	public void notifyGroupLayerParsed(final GroupLayer parsedGroupLayer) {
+		if (pendingEvents != null) {
+			pendingEvents.add(new ParseEvent() {
+				@Override
+				public void dispatch() {
+					notifyGroupLayerParsed(parsedGroupLayer);
+				}
+			});
+			return;
+		}
 		for (TiledParserListener tiledParserListener : listeners) {
 			tiledParserListener.onGroupLayerParsed(parsedGroupLayer);
 		}
 	}
 
 	@Override
-	public void notifyObjectTemplateParsed(TiledObjectTemplate parsedObjectTemplate) {
+	public void notifyObjectTemplateParsed(final TiledObjectTemplate parsedObjectTemplate) {
+		if (pendingEvents != null) {
+			pendingEvents.add(new ParseEvent() {
+				@Override
+				public void dispatch() {
+					notifyObjectTemplateParsed(parsedObjectTemplate);
+				}
+			});
+			return;
+		}
 		for (TiledParserListener tiledParserListener : listeners) {
 			tiledParserListener.onObjectTemplateParsed(parsedObjectTemplate);
 		}
@@ -730,4 +1062,18 @@ public class TiledParser implements TiledParserNotifier {
 				(Integer.valueOf(hexColor.substring(3, 5), 16) / 255f),
 				(Integer.valueOf(hexColor.substring(5, 7), 16) / 255f), 0f);
 	}
+
+	private interface ParseEvent {
+		public void dispatch() throws IOException;
+	}
+
+	private static class DecodedChunk {
+		final byte[] data;
+		final int totalFilledTiles;
+
+		DecodedChunk(byte[] data, int totalFilledTiles) {
+			this.data = data;
+			this.totalFilledTiles = totalFilledTiles;
+		}
+	}
 }
@@ -320,6 +320,15 @@ public class Tileset implements Disposable {
 		return firstGid;
 	}
 
+	/**
+	 * Returns the last GID contained in this tileset
+	 * 
+	 * @return
+	 */
+	public int getLastGid() {
+		return lastGid;
+	}
+
 	/**
 	 * Returns the {@link TilesetSource} UUID generated by mini2Dx
 	 * @return A non-null String
@@ -327,4 +336,8 @@ public class Tileset implements Disposable {
 	public String getSourceInternalUuid() {
 		return tilesetSource.getInternalUuid();
 	}
+
+	TilesetSource getTilesetSource() {
+		return tilesetSource;
+	}
 }
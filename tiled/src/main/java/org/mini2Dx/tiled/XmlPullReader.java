@@ -0,0 +1,545 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import com.badlogic.gdx.utils.SerializationException;
+import com.badlogic.gdx.utils.XmlReader.Element;
+
+/**
+ * A minimal streaming XML reader used by {@link TiledParser} to read Tiled
+ * files without building a full document tree. Element text can be streamed
+ * through {@link #getTextReader()} so that large layer data is decoded
+ * directly from the read buffer.
+ */
+public class XmlPullReader implements Closeable {
+	/**
+	 * Returned by {@link #next()} when the start of an element has been read
+	 */
+	public static final int START_ELEMENT = 1;
+	/**
+	 * Returned by {@link #next()} when the end of an element has been read
+	 */
+	public static final int END_ELEMENT = 2;
+	/**
+	 * Returned by {@link #next()} when the end of the document has been reached
+	 */
+	public static final int END_DOCUMENT = 3;
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Reader reader;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private final char[] terminatorWindow = new char[3];
+	private final StringBuilder stringBuilder = new StringBuilder();
+	private final TextReader textReader = new TextReader();
+
+	private int position, limit;
+	private String name;
+	private String[] attributeNames = new String[8];
+	private String[] attributeValues = new String[8];
+	private int totalAttributes;
+	private boolean emptyElement;
+
+	/**
+	 * Constructor
+	 * @param reader The {@link Reader} to read XML from
+	 */
+	public XmlPullReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Reads until the next element start or end, skipping any text, comments
+	 * and processing instructions
+	 * @return {@link #START_ELEMENT}, {@link #END_ELEMENT} or {@link #END_DOCUMENT}
+	 * @throws IOException Thrown if the underlying {@link Reader} could not be read
+	 */
+	public int next() throws IOException {
+		if (emptyElement) {
+			emptyElement = false;
+			totalAttributes = 0;
+			return END_ELEMENT;
+		}
+		while (true) {
+			int c = read();
+			if (c == -1) {
+				return END_DOCUMENT;
+			}
+			if (c != '<') {
+				continue;
+			}
+			c = read();
+			switch (c) {
+			case '?':
+				skipPast("?>");
+				continue;
+			case '!':
+				skipDeclaration();
+				continue;
+			case '/':
+				name = readName();
+				skipPast(">");
+				totalAttributes = 0;
+				return END_ELEMENT;
+			case -1:
+				throw new SerializationException("Unexpected end of XML document");
+			default:
+				position--;
+				name = readName();
+				readAttributes();
+				return START_ELEMENT;
+			}
+		}
+	}
+
+	/**
+	 * Reads until the next child element of the current element
+	 * @return False if the end of the current element was reached instead
+	 * @throws IOException Thrown if the underlying {@link Reader} could not be read
+	 */
+	public boolean nextChildElement() throws IOException {
+		return next() == START_ELEMENT;
+	}
+
+	/**
+	 * Reads the current element and all its children into an {@link Element}.
+	 * Must be called immediately after {@link #START_ELEMENT} is returned.
+	 * Afterwards the reader is positioned after the end of the element.
+	 * @return The resulting {@link Element}
+	 * @throws IOException Thrown if the underlying {@link Reader} could not be read
+	 */
+	public Element readElement() throws IOException {
+		final Element root = createElement(null);
+		Element current = root;
+		while (true) {
+			readText(current);
+
+			switch (next()) {
+			case START_ELEMENT:
+				final Element child = createElement(current);
+				current.addChild(child);
+				current = child;
+				break;
+			case END_ELEMENT:
+				if (current == root) {
+					return root;
+				}
+				current = current.getParent();
+				break;
+			default:
+				throw new SerializationException("Unexpected end of XML document inside <" + root.getName() + ">");
+			}
+		}
+	}
+
+	/**
+	 * Skips the current element and all its children. Must be called after
+	 * {@link #START_ELEMENT} is returned and before the element's
+	 * {@link #END_ELEMENT}. Afterwards the reader is positioned after the end
+	 * of the element.
+	 * @throws IOException Thrown if the underlying {@link Reader} could not be read
+	 */
+	public void skipElement() throws IOException {
+		int depth = 1;
+		while (depth > 0) {
+			switch (next()) {
+			case START_ELEMENT:
+				depth++;
+				break;
+			case END_ELEMENT:
+				depth--;
+				break;
+			default:
+				throw new SerializationException("Unexpected end of XML document");
+			}
+		}
+	}
+
+	/**
+	 * Returns a {@link Reader} over the raw text content of the current
+	 * element up to its next child or end. Entities are not decoded.
+	 * @return A {@link Reader} that is re-used between calls
+	 */
+	public Reader getTextReader() {
+		return textReader;
+	}
+
+	/**
+	 * Returns the name of the current element
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns if the current element was self-closing, e.g. &lt;point/&gt;
+	 * @return True if the element has no content
+	 */
+	public boolean isEmptyElement() {
+		return emptyElement;
+	}
+
+	/**
+	 * Returns the value of an attribute of the current element
+	 * @param name The attribute name
+	 * @param defaultValue The value to return if the attribute is not present
+	 * @return The attribute value
+	 */
+	public String getAttribute(String name, String defaultValue) {
+		for (int i = 0; i < totalAttributes; i++) {
+			if (attributeNames[i].equals(name)) {
+				return attributeValues[i];
+			}
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * Returns the integer value of an attribute of the current element
+	 * @param name The attribute name
+	 * @param defaultValue The value to return if the attribute is not present
+	 * @return The attribute value
+	 */
+	public int getIntAttribute(String name, int defaultValue) {
+		final String value = getAttribute(name, null);
+		if (value == null) {
+			return defaultValue;
+		}
+		return Integer.parseInt(value);
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	private Element createElement(Element parent) {
+		final Element element = new Element(name, parent);
+		for (int i = 0; i < totalAttributes; i++) {
+			element.setAttribute(attributeNames[i], attributeValues[i]);
+		}
+		return element;
+	}
+
+	private void readText(Element element) throws IOException {
+		if (emptyElement) {
+			return;
+		}
+		stringBuilder.setLength(0);
+		while (true) {
+			if (position == limit && !fill()) {
+				break;
+			}
+			final char c = buffer[position];
+			if (c == '<') {
+				if (!readCData()) {
+					break;
+				}
+				continue;
+			}
+			position++;
+			if (c == '&') {
+				readEntity();
+			} else {
+				stringBuilder.append(c);
+			}
+		}
+		int start = 0;
+		int end = stringBuilder.length();
+		while (start < end && Character.isWhitespace(stringBuilder.charAt(start))) {
+			start++;
+		}
+		while (end > start && Character.isWhitespace(stringBuilder.charAt(end - 1))) {
+			end--;
+		}
+		if (start == end) {
+			return;
+		}
+		final String text = stringBuilder.substring(start, end);
+		final String existingText = element.getText();
+		element.setText(existingText != null ? existingText + text : text);
+	}
+
+	private boolean readCData() throws IOException {
+		final String prefix = "<![CDATA[";
+		if (!ensureAvailable(prefix.length())) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if (buffer[position + i] != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		position += prefix.length();
+
+		clearTerminatorWindow();
+		while (true) {
+			final int c = read();
+			if (c == -1) {
+				throw new SerializationException("Unexpected end of XML document inside CDATA");
+			}
+			stringBuilder.append((char) c);
+			if (matchesTerminator(c, "]]>")) {
+				stringBuilder.setLength(stringBuilder.length() - 3);
+				return true;
+			}
+		}
+	}
+
+	private String readName() throws IOException {
+		stringBuilder.setLength(0);
+		while (true) {
+			if (position == limit && !fill()) {
+				break;
+			}
+			final char c = buffer[position];
+			if (Character.isWhitespace(c) || c == '/' || c == '>' || c == '=') {
+				break;
+			}
+			stringBuilder.append(c);
+			position++;
+		}
+		if (stringBuilder.length() == 0) {
+			throw new SerializationException("Expected XML name");
+		}
+		return stringBuilder.toString();
+	}
+
+	private void readAttributes() throws IOException {
+		totalAttributes = 0;
+		emptyElement = false;
+		while (true) {
+			int c = readNonWhitespace();
+			switch (c) {
+			case '>':
+				return;
+			case '/':
+				if (read() != '>') {
+					throw new SerializationException("Expected '>' after '/' in <" + name + ">");
+				}
+				emptyElement = true;
+				return;
+			case -1:
+				throw new SerializationException("Unexpected end of XML document in <" + name + ">");
+			default:
+				position--;
+				final String attributeName = readName();
+				if (readNonWhitespace() != '=') {
+					throw new SerializationException("Expected '=' after attribute " + attributeName);
+				}
+				final int quote = readNonWhitespace();
+				if (quote != '"' && quote != '\'') {
+					throw new SerializationException("Expected quoted value for attribute " + attributeName);
+				}
+				addAttribute(attributeName, readAttributeValue(quote));
+				break;
+			}
+		}
+	}
+
+	private String readAttributeValue(int quote) throws IOException {
+		stringBuilder.setLength(0);
+		while (true) {
+			final int c = read();
+			if (c == -1) {
+				throw new SerializationException("Unexpected end of XML document in attribute value");
+			}
+			if (c == quote) {
+				return stringBuilder.toString();
+			}
+			if (c == '&') {
+				readEntity();
+			} else {
+				stringBuilder.append((char) c);
+			}
+		}
+	}
+
+	private void readEntity() throws IOException {
+		int value = 0;
+		int c = read();
+		if (c == '#') {
+			int radix = 10;
+			c = read();
+			if (c == 'x') {
+				radix = 16;
+				c = read();
+			}
+			while (c != ';') {
+				final int digit = Character.digit(c, radix);
+				if (digit < 0) {
+					throw new SerializationException("Invalid XML character reference");
+				}
+				value = (value * radix) + digit;
+				c = read();
+			}
+			stringBuilder.appendCodePoint(value);
+			return;
+		}
+		final int start = stringBuilder.length();
+		while (c != ';') {
+			if (c == -1) {
+				throw new SerializationException("Unexpected end of XML document in entity");
+			}
+			stringBuilder.append((char) c);
+			c = read();
+		}
+		final String entity = stringBuilder.substring(start);
+		stringBuilder.setLength(start);
+		if (entity.equals("lt")) {
+			stringBuilder.append('<');
+		} else if (entity.equals("gt")) {
+			stringBuilder.append('>');
+		} else if (entity.equals("amp")) {
+			stringBuilder.append('&');
+		} else if (entity.equals("quot")) {
+			stringBuilder.append('"');
+		} else if (entity.equals("apos")) {
+			stringBuilder.append('\'');
+		} else {
+			stringBuilder.append('&').append(entity).append(';');
+		}
+	}
+
+	private void addAttribute(String attributeName, String attributeValue) {
+		if (totalAttributes == attributeNames.length) {
+			final String[] names = new String[totalAttributes * 2];
+			final String[] values = new String[totalAttributes * 2];
+			System.arraycopy(attributeNames, 0, names, 0, totalAttributes);
+			System.arraycopy(attributeValues, 0, values, 0, totalAttributes);
+			attributeNames = names;
+			attributeValues = values;
+		}
+		attributeNames[totalAttributes] = attributeName;
+		attributeValues[totalAttributes] = attributeValue;
+		totalAttributes++;
+	}
+
+	private void skipDeclaration() throws IOException {
+		final int c = read();
+		if (c == '-') {
+			skipPast("-->");
+		} else if (c == '[') {
+			skipPast("]]>");
+		} else {
+			skipPast(">");
+		}
+	}
+
+	private void skipPast(String terminator) throws IOException {
+		clearTerminatorWindow();
+		while (true) {
+			final int c = read();
+			if (c == -1) {
+				throw new SerializationException("Unexpected end of XML document, expected " + terminator);
+			}
+			if (matchesTerminator(c, terminator)) {
+				return;
+			}
+		}
+	}
+
+	private void clearTerminatorWindow() {
+		for (int i = 0; i < terminatorWindow.length; i++) {
+			terminatorWindow[i] = 0;
+		}
+	}
+
+	private boolean matchesTerminator(int c, String terminator) {
+		terminatorWindow[0] = terminatorWindow[1];
+		terminatorWindow[1] = terminatorWindow[2];
+		terminatorWindow[2] = (char) c;
+
+		final int offset = terminatorWindow.length - terminator.length();
+		for (int i = 0; i < terminator.length(); i++) {
+			if (terminatorWindow[offset + i] != terminator.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int readNonWhitespace() throws IOException {
+		int c = read();
+		while (c != -1 && Character.isWhitespace(c)) {
+			c = read();
+		}
+		return c;
+	}
+
+	private int read() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position++];
+	}
+
+	private boolean ensureAvailable(int length) throws IOException {
+		if (limit - position >= length) {
+			return true;
+		}
+		final int remaining = limit - position;
+		System.arraycopy(buffer, position, buffer, 0, remaining);
+		position = 0;
+		limit = remaining;
+		while (limit < length) {
+			final int read = reader.read(buffer, limit, buffer.length - limit);
+			if (read < 0) {
+				return false;
+			}
+			limit += read;
+		}
+		return true;
+	}
+
+	private boolean fill() throws IOException {
+		final int read = reader.read(buffer, 0, buffer.length);
+		position = 0;
+		limit = Math.max(read, 0);
+		return read > 0;
+	}
+
+	/**
+	 * Streams element text directly from the read buffer
+	 */
+	private class TextReader extends Reader {
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			if (emptyElement) {
+				return -1;
+			}
+			int count = 0;
+			while (count < len) {
+				if (position == limit && !fill()) {
+					break;
+				}
+				final char c = buffer[position];
+				if (c == '<') {
+					break;
+				}
+				cbuf[off + count] = c;
+				count++;
+				position++;
+			}
+			return count == 0 && len > 0 ? -1 : count;
+		}
+
+		@Override
+		public void close() throws IOException {
+		}
+	}
+}
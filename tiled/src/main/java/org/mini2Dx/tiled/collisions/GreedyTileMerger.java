@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.collisions;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import org.mini2Dx.core.exception.MdxException;
+import org.mini2Dx.tiled.Tile;
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TiledMap;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Merges tiles into rectangles by greedy meshing. Run lengths of mergeable
+ * tiles are computed for each row, then tiles are visited in row-major order
+ * and each unmerged tile starts a rectangle that is widened along its run and
+ * extended down while the run of each following row is at least as wide.
+ * Every tile is visited a constant number of times so merging is linear in
+ * the size of the layer.
+ * 
+ * Adjacent tiles are compared with the {@link TiledCollisionMerger}, so the
+ * merger should be transitive (e.g. {@link org.mini2Dx.tiled.collisions.merger.TileIdCollisionMerger}).
+ * 
+ * Layers can be split into bands of rows that are merged in parallel. Merged
+ * rectangles never cross a band boundary.
+ */
+public class GreedyTileMerger {
+	/**
+	 * The default height (in tiles) of each band when merging in parallel
+	 */
+	public static final int DEFAULT_BAND_HEIGHT = 64;
+
+	private final TiledCollisionMerger collisionMerger;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param collisionMerger
+	 *            The {@link TiledCollisionMerger} that determines if two tiles
+	 *            can be merged
+	 */
+	public GreedyTileMerger(TiledCollisionMerger collisionMerger) {
+		super();
+		this.collisionMerger = collisionMerger;
+	}
+
+	/**
+	 * Merges tiles into rectangles, optionally merging bands of rows in
+	 * parallel
+	 * 
+	 * @param tiledMap
+	 *            The {@link TiledMap} the layer belongs to
+	 * @param layer
+	 *            The {@link TileLayer} to merge tiles of
+	 * @param tiles
+	 *            The tiles to merge indexed by [x][y]. Tiles set to 0 are
+	 *            ignored.
+	 * @param maxColumns
+	 *            The maximum number of columns to merge
+	 * @param maxRows
+	 *            The maximum number of rows to merge
+	 * @param executor
+	 *            The {@link ExecutorService} to merge bands on or null to merge
+	 *            on the calling thread
+	 * @param bandHeight
+	 *            The height of each band in tiles
+	 * @param results
+	 *            Receives each rectangle as x, y, width, height (in tiles)
+	 */
+	public void merge(final TiledMap tiledMap, final TileLayer layer, final byte[][] tiles, final int maxColumns,
+			final int maxRows, ExecutorService executor, int bandHeight, IntArray results) {
+		if (executor == null || bandHeight < 1 || layer.getHeight() <= bandHeight) {
+			merge(tiledMap, layer, tiles, 0, layer.getHeight(), maxColumns, maxRows, results);
+			return;
+		}
+
+		final Array<Future<IntArray>> tasks = new Array<Future<IntArray>>();
+		for (int y = 0; y < layer.getHeight(); y += bandHeight) {
+			final int startY = y;
+			final int endY = Math.min(y + bandHeight, layer.getHeight());
+			tasks.add(executor.submit(new Callable<IntArray>() {
+				@Override
+				public IntArray call() throws Exception {
+					final IntArray result = new IntArray();
+					merge(tiledMap, layer, tiles, startY, endY, maxColumns, maxRows, result);
+					return result;
+				}
+			}));
+		}
+		for (int i = 0; i < tasks.size; i++) {
+			try {
+				results.addAll(tasks.get(i).get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new MdxException("Interrupted while merging tiles", e);
+			} catch (ExecutionException e) {
+				throw new MdxException("Could not merge tiles", e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Merges tiles within a band of rows into rectangles
+	 * 
+	 * @param tiledMap
+	 *            The {@link TiledMap} the layer belongs to
+	 * @param layer
+	 *            The {@link TileLayer} to merge tiles of
+	 * @param tiles
+	 *            The tiles to merge indexed by [x][y]. Tiles set to 0 are
+	 *            ignored.
+	 * @param startY
+	 *            The first row of the band (inclusive)
+	 * @param endY
+	 *            The last row of the band (exclusive)
+	 * @param maxColumns
+	 *            The maximum number of columns to merge
+	 * @param maxRows
+	 *            The maximum number of rows to merge
+	 * @param results
+	 *            Receives each rectangle as x, y, width, height (in tiles)
+	 */
+	public void merge(TiledMap tiledMap, TileLayer layer, byte[][] tiles, int startY, int endY, int maxColumns,
+			int maxRows, IntArray results) {
+		merge(tiledMap, layer, tiles, 0, startY, layer.getWidth(), endY, maxColumns, maxRows, results);
+	}
+
+	/**
+	 * Merges tiles within a rectangular region into rectangles
+	 * 
+	 * @param tiledMap
+	 *            The {@link TiledMap} the layer belongs to
+	 * @param layer
+	 *            The {@link TileLayer} to merge tiles of
+	 * @param tiles
+	 *            The tiles to merge indexed by [x][y]. Tiles set to 0 are
+	 *            ignored.
+	 * @param startX
+	 *            The first column of the region (inclusive)
+	 * @param startY
+	 *            The first row of the region (inclusive)
+	 * @param endX
+	 *            The last column of the region (exclusive)
+	 * @param endY
+	 *            The last row of the region (exclusive)
+	 * @param maxColumns
+	 *            The maximum number of columns to merge
+	 * @param maxRows
+	 *            The maximum number of rows to merge
+	 * @param results
+	 *            Receives each rectangle as x, y, width, height (in tiles)
+	 */
+	public void merge(TiledMap tiledMap, TileLayer layer, byte[][] tiles, int startX, int startY, int endX, int endY,
+			int maxColumns, int maxRows, IntArray results) {
+		final int width = endX - startX;
+		final int height = endY - startY;
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+		final int[] runs = new int[width * height];
+		final boolean[] merged = new boolean[width * height];
+
+		for (int y = startY; y < endY; y++) {
+			final int rowIndex = ((y - startY) * width) - startX;
+			for (int x = endX - 1; x >= startX; x--) {
+				if (tiles[x][y] == 0) {
+					continue;
+				}
+				if (x + 1 < endX && runs[rowIndex + x + 1] > 0 && collisionMerger.isMergable(tiledMap, layer,
+						tiledMap.getTile(layer.getTileId(x, y)), x, y, x + 1, y)) {
+					runs[rowIndex + x] = runs[rowIndex + x + 1] + 1;
+				} else {
+					runs[rowIndex + x] = 1;
+				}
+			}
+		}
+
+		for (int y = startY; y < endY; y++) {
+			final int rowIndex = ((y - startY) * width) - startX;
+			for (int x = startX; x < endX; x++) {
+				final int index = rowIndex + x;
+				if (runs[index] == 0 || merged[index]) {
+					continue;
+				}
+				final Tile startTile = tiledMap.getTile(layer.getTileId(x, y));
+
+				// Tiles further along this row may have been merged into a rectangle from a previous row
+				int rectWidth = 1;
+				while (rectWidth < maxColumns && rectWidth < runs[index] && !merged[index + rectWidth]) {
+					rectWidth++;
+				}
+
+				// Rows beneath cannot contain merged tiles within [x, x + rectWidth) since any
+				// rectangle covering them would also cover this row
+				int rectHeight = 1;
+				while (rectHeight < maxRows && y + rectHeight < endY) {
+					if (runs[index + (rectHeight * width)] < rectWidth) {
+						break;
+					}
+					if (!collisionMerger.isMergable(tiledMap, layer, startTile, x, y, x, y + rectHeight)) {
+						break;
+					}
+					rectHeight++;
+				}
+
+				for (int mergedY = 0; mergedY < rectHeight; mergedY++) {
+					final int mergedRowIndex = index + (mergedY * width);
+					for (int mergedX = 0; mergedX < rectWidth; mergedX++) {
+						merged[mergedRowIndex + mergedX] = true;
+					}
+				}
+				results.add(x);
+				results.add(y);
+				results.add(rectWidth);
+				results.add(rectHeight);
+			}
+		}
+	}
+}
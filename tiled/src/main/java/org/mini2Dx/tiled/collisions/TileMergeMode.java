@@ -367,6 +367,22 @@ public enum TileMergeMode {
 					startY * tiledMap.getTileHeight(), tiledMap.getTileWidth() + (maxXTiles * tiledMap.getTileWidth()),
 					tiledMap.getTileHeight() + (maxYTiles * tiledMap.getTileHeight()));
 		}
+	},
+
+	/**
+	 * Merges the whole layer at once with a {@link GreedyTileMerger}, visiting
+	 * tiles in row-major order and expanding across the X axis then the Y axis.
+	 * Produces fewer collisions than the other modes in linear time. When
+	 * merging from a single tile this behaves as {@link #X_THEN_Y}.
+	 */
+	GREEDY {
+		@Override
+		public <T extends Positionable> T merge(TiledCollisionFactory<T> collisionFactory,
+												TiledCollisionMerger collisionMerger, int startX, int startY, int maxColumns, int maxRows,
+												byte[][] collisions, TileLayer layer, TiledMap tiledMap) {
+			return X_THEN_Y.merge(collisionFactory, collisionMerger, startX, startY, maxColumns, maxRows, collisions,
+					layer, tiledMap);
+		}
 	};
 
 	public abstract <T extends Positionable> T merge(TiledCollisionFactory<T> collisionFactory,
@@ -0,0 +1,237 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.collisions;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import org.mini2Dx.core.collisions.QuadTree;
+import org.mini2Dx.core.engine.Positionable;
+import org.mini2Dx.tiled.Tile;
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TiledMap;
+
+/**
+ * Keeps the merged collisions of a {@link TileLayer} in a {@link QuadTree} up
+ * to date as tiles change at runtime.
+ * 
+ * The layer is divided into square regions and merged collisions never cross
+ * a region boundary. When a tile changes only its region is re-merged on the
+ * next {@link #update()}; the region's previous collisions are removed from
+ * the {@link QuadTree} and the new collisions are added.
+ *
+ * @param <T>
+ *            The collision type
+ */
+public class TiledCollisionMap<T extends Positionable> {
+	/**
+	 * The default width and height of each region in tiles
+	 */
+	public static final int DEFAULT_REGION_SIZE = 16;
+
+	private final TiledMap tiledMap;
+	private final TileLayer layer;
+	private final QuadTree<T> quadTree;
+	private final TiledCollisionFactory<T> collisionFactory;
+	private final TiledCollisionMerger collisionMerger;
+	private final TileMergeMode mergeMode;
+	private final GreedyTileMerger greedyMerger;
+	private final int regionSize, regionsX, regionsY;
+
+	private final byte[][] collisions;
+	private final Array<Array<T>> regionCollisions;
+	private final boolean[] dirtyRegions;
+	private final IntArray dirtyRegionIndices = new IntArray();
+	private final IntArray rectangles = new IntArray();
+
+	/**
+	 * Constructor. Collisions for the whole layer are added to the
+	 * {@link QuadTree} immediately.
+	 * 
+	 * @param tiledMap
+	 *            The {@link TiledMap} the layer belongs to
+	 * @param layerIndex
+	 *            The index of the layer to map collisions for. Each tile drawn
+	 *            in the layer is treated as a collision.
+	 * @param quadTree
+	 *            The {@link QuadTree} to keep up to date
+	 * @param collisionFactory
+	 *            An implementation of {@link TiledCollisionFactory} for creating
+	 *            collision instances
+	 * @param collisionMerger
+	 *            An implementation of {@link TiledCollisionMerger} for determining
+	 *            if two tiles can be merged into a single collision
+	 * @param mergeMode
+	 *            The {@link TileMergeMode} to use for searching mergable tiles
+	 * @param regionSize
+	 *            The width and height of each region in tiles
+	 */
+	public TiledCollisionMap(TiledMap tiledMap, int layerIndex, QuadTree<T> quadTree,
+			TiledCollisionFactory<T> collisionFactory, TiledCollisionMerger collisionMerger, TileMergeMode mergeMode,
+			int regionSize) {
+		super();
+		this.tiledMap = tiledMap;
+		this.layer = tiledMap.getTileLayer(layerIndex);
+		this.quadTree = quadTree;
+		this.collisionFactory = collisionFactory;
+		this.collisionMerger = collisionMerger;
+		this.mergeMode = mergeMode;
+		this.greedyMerger = new GreedyTileMerger(collisionMerger);
+		this.regionSize = Math.max(1, regionSize);
+		this.regionsX = (layer.getWidth() + this.regionSize - 1) / this.regionSize;
+		this.regionsY = (layer.getHeight() + this.regionSize - 1) / this.regionSize;
+
+		collisions = new byte[layer.getWidth()][layer.getHeight()];
+		regionCollisions = new Array<Array<T>>(regionsX * regionsY);
+		dirtyRegions = new boolean[regionsX * regionsY];
+		for (int i = 0; i < regionsX * regionsY; i++) {
+			regionCollisions.add(new Array<T>());
+		}
+		rebuild();
+	}
+
+	/**
+	 * Sets the tile at a location and marks its region for re-merging
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @param tileId
+	 *            The new tile id
+	 */
+	public void setTileId(int x, int y, int tileId) {
+		layer.setTileId(x, y, tileId);
+		markDirty(x, y);
+	}
+
+	/**
+	 * Marks the region containing a tile for re-merging on the next
+	 * {@link #update()}. Call this after changing the layer directly.
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 */
+	public void markDirty(int x, int y) {
+		if (x < 0 || y < 0 || x >= layer.getWidth() || y >= layer.getHeight()) {
+			return;
+		}
+		final int regionIndex = ((y / regionSize) * regionsX) + (x / regionSize);
+		if (dirtyRegions[regionIndex]) {
+			return;
+		}
+		dirtyRegions[regionIndex] = true;
+		dirtyRegionIndices.add(regionIndex);
+	}
+
+	/**
+	 * Re-merges the collisions of regions with changed tiles and applies the
+	 * differences to the {@link QuadTree}
+	 * 
+	 * @return True if any region was re-merged
+	 */
+	public boolean update() {
+		if (dirtyRegionIndices.size == 0) {
+			return false;
+		}
+		for (int i = 0; i < dirtyRegionIndices.size; i++) {
+			final int regionIndex = dirtyRegionIndices.get(i);
+			updateRegion(regionIndex % regionsX, regionIndex / regionsX);
+			dirtyRegions[regionIndex] = false;
+		}
+		dirtyRegionIndices.clear();
+		return true;
+	}
+
+	/**
+	 * Re-merges the collisions of all regions immediately
+	 */
+	public void rebuild() {
+		for (int i = 0; i < dirtyRegions.length; i++) {
+			if (dirtyRegions[i]) {
+				continue;
+			}
+			dirtyRegions[i] = true;
+			dirtyRegionIndices.add(i);
+		}
+		update();
+	}
+
+	private void updateRegion(int regionX, int regionY) {
+		final Array<T> previousCollisions = regionCollisions.get((regionY * regionsX) + regionX);
+		quadTree.removeAll(previousCollisions);
+		previousCollisions.clear();
+
+		final int startX = regionX * regionSize;
+		final int startY = regionY * regionSize;
+		final int endX = Math.min(startX + regionSize, layer.getWidth());
+		final int endY = Math.min(startY + regionSize, layer.getHeight());
+		for (int x = startX; x < endX; x++) {
+			for (int y = startY; y < endY; y++) {
+				collisions[x][y] = (byte) (TiledCollisionMapper.isResident(layer, x, y) && layer.getTileId(x, y) > 0
+						? 1 : 0);
+			}
+		}
+
+		if (mergeMode == TileMergeMode.GREEDY) {
+			rectangles.clear();
+			greedyMerger.merge(tiledMap, layer, collisions, startX, startY, endX, endY, regionSize, regionSize,
+					rectangles);
+			for (int i = 0; i < rectangles.size; i += 4) {
+				final int x = rectangles.get(i);
+				final int y = rectangles.get(i + 1);
+				final Tile tile = tiledMap.getTile(layer.getTileId(x, y));
+				addCollision(previousCollisions,
+						collisionFactory.createCollision(tiledMap, tile, x * tiledMap.getTileWidth(),
+								y * tiledMap.getTileHeight(), rectangles.get(i + 2) * tiledMap.getTileWidth(),
+								rectangles.get(i + 3) * tiledMap.getTileHeight()));
+			}
+		} else {
+			for (int x = startX; x < endX; x++) {
+				for (int y = startY; y < endY; y++) {
+					if (collisions[x][y] == 0) {
+						continue;
+					}
+					addCollision(previousCollisions, mergeMode.merge(collisionFactory, collisionMerger, x, y,
+							endX - x, endY - y, collisions, layer, tiledMap));
+				}
+			}
+		}
+		quadTree.addAll(previousCollisions);
+	}
+
+	private void addCollision(Array<T> regionCollisions, T collision) {
+		if (collision == null) {
+			return;
+		}
+		regionCollisions.add(collision);
+	}
+
+	/**
+	 * Returns the {@link TileLayer} this map tracks
+	 * 
+	 * @return The {@link TileLayer}
+	 */
+	public TileLayer getLayer() {
+		return layer;
+	}
+
+	/**
+	 * Returns the width and height of each region
+	 * 
+	 * @return The region size in tiles
+	 */
+	public int getRegionSize() {
+		return regionSize;
+	}
+}
@@ -12,22 +12,37 @@
 package org.mini2Dx.tiled.collisions;
 
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 import org.mini2Dx.core.collisions.QuadTree;
 import org.mini2Dx.core.engine.Positionable;
 import org.mini2Dx.core.exception.MdxException;
+import org.mini2Dx.tiled.ChunkedTileLayer;
+import org.mini2Dx.tiled.Tile;
 import org.mini2Dx.tiled.TileLayer;
 import org.mini2Dx.tiled.TiledMap;
 import org.mini2Dx.tiled.TiledObject;
 import org.mini2Dx.tiled.TiledObjectGroup;
 import org.mini2Dx.tiled.collisions.merger.TileIdCollisionMerger;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * Utility class for converting {@link TiledMap} data into collision data.
+ * 
+ * Only resident chunks of a {@link ChunkedTileLayer} are mapped. Tiles in
+ * chunks that are not resident are skipped rather than loaded, so they
+ * produce neither collisions nor empty spaces. Call
+ * {@link ChunkedTileLayer#updateResidentChunks(int, int)} around the area of
+ * interest before mapping an infinite map. Coordinates are relative to the
+ * layer's {@link ChunkedTileLayer#getStartX()} and
+ * {@link ChunkedTileLayer#getStartY()}.
  */
 public class TiledCollisionMapper<T extends Positionable> {
 	private final TileMergeMode mergeMode;
 	private final TiledCollisionFactory<T> collisionFactory;
 	private final TiledCollisionMerger collisionMerger;
+	private final GreedyTileMerger greedyMerger;
+	private final ExecutorService executor;
 
 	/**
 	 * Creates a {@link TiledCollisionMapper} with a {@link TileIdCollisionMerger}
@@ -71,10 +86,34 @@ public class TiledCollisionMapper<T extends Positionable> {
 	 */
 	public TiledCollisionMapper(TiledCollisionFactory<T> collisionFactory, TiledCollisionMerger collisionMerger,
 			TileMergeMode mergeMode) {
+		this(collisionFactory, collisionMerger, mergeMode, null);
+	}
+
+	/**
+	 * Creates a {@link TiledCollisionMapper} with a specifc
+	 * {@link TiledCollisionMerger} implementation for merge operations
+	 * 
+	 * @param collisionFactory
+	 *            An implementation of {@link TiledCollisionFactory} for creating
+	 *            collision instances
+	 * @param collisionMerger
+	 *            An implementation of {@link TiledCollisionMerger} for determining
+	 *            if two tiles can be merged into a single collision
+	 * @param mergeMode
+	 *            The {@link TileMergeMode} to use for searching mergable tiles
+	 * @param executor
+	 *            The {@link ExecutorService} to merge bands of
+	 *            {@link GreedyTileMerger#DEFAULT_BAND_HEIGHT} rows on in parallel
+	 *            when using {@link TileMergeMode#GREEDY}. May be null.
+	 */
+	public TiledCollisionMapper(TiledCollisionFactory<T> collisionFactory, TiledCollisionMerger collisionMerger,
+			TileMergeMode mergeMode, ExecutorService executor) {
 		super();
 		this.collisionFactory = collisionFactory;
 		this.collisionMerger = collisionMerger;
 		this.mergeMode = mergeMode;
+		this.greedyMerger = new GreedyTileMerger(collisionMerger);
+		this.executor = executor;
 	}
 
 	/**
@@ -113,6 +152,9 @@ public class TiledCollisionMapper<T extends Positionable> {
 		byte[][] result = new byte[layer.getWidth()][layer.getHeight()];
 		for (int x = 0; x < layer.getWidth(); x++) {
 			for (int y = 0; y < layer.getHeight(); y++) {
+				if (!isResident(layer, x, y)) {
+					continue;
+				}
 				if (layer.getTileId(x, y) > 0) {
 					result[x][y] = 1;
 				}
@@ -121,6 +163,18 @@ public class TiledCollisionMapper<T extends Positionable> {
 		return result;
 	}
 
+	/**
+	 * Tiles in non-resident chunks of a {@link ChunkedTileLayer} are skipped
+	 * rather than loaded, so they are treated as neither collisions nor empty
+	 * spaces
+	 */
+	static boolean isResident(TileLayer layer, int x, int y) {
+		if (!(layer instanceof ChunkedTileLayer)) {
+			return true;
+		}
+		return ((ChunkedTileLayer) layer).isResident(x, y);
+	}
+
 	/**
 	 * Creates a 2D byte array representing the empty spaces (non-collisions) in a
 	 * {@link TiledMap} layer
@@ -157,6 +211,9 @@ public class TiledCollisionMapper<T extends Positionable> {
 		byte[][] result = new byte[layer.getWidth()][layer.getHeight()];
 		for (int x = 0; x < layer.getWidth(); x++) {
 			for (int y = 0; y < layer.getHeight(); y++) {
+				if (!isResident(layer, x, y)) {
+					continue;
+				}
 				if (layer.getTileId(x, y) == 0) {
 					result[x][y] = 1;
 				}
@@ -184,6 +241,9 @@ public class TiledCollisionMapper<T extends Positionable> {
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
 		for (int x = 0; x < layer.getWidth(); x++) {
 			for (int y = 0; y < layer.getHeight(); y++) {
+				if (!isResident(layer, x, y)) {
+					continue;
+				}
 				if (layer.getTileId(x, y) > 0) {
 					T collision = collisionFactory.createCollision(tiledMap, tiledMap.getTile(layer.getTileId(x, y)),
 							x * tiledMap.getTileWidth(), y * tiledMap.getTileHeight(), tiledMap.getTileWidth(),
@@ -216,6 +276,9 @@ public class TiledCollisionMapper<T extends Positionable> {
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
 		for (int x = 0; x < layer.getWidth(); x++) {
 			for (int y = 0; y < layer.getHeight(); y++) {
+				if (!isResident(layer, x, y)) {
+					continue;
+				}
 				if (layer.getTileId(x, y) == 0) {
 					T collision = collisionFactory.createCollision(tiledMap, tiledMap.getTile(layer.getTileId(x, y)),
 							x * tiledMap.getTileWidth(), y * tiledMap.getTileHeight(), tiledMap.getTileWidth(),
@@ -248,6 +311,9 @@ public class TiledCollisionMapper<T extends Positionable> {
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
 		for (int x = 0; x < layer.getWidth(); x++) {
 			for (int y = 0; y < layer.getHeight(); y++) {
+				if (!isResident(layer, x, y)) {
+					continue;
+				}
 				if (layer.getTileId(x, y) > 0) {
 					T collision = collisionFactory.createCollision(tiledMap, tiledMap.getTile(layer.getTileId(x, y)),
 							x * tiledMap.getTileWidth(), y * tiledMap.getTileHeight(), tiledMap.getTileWidth(),
@@ -280,6 +346,9 @@ public class TiledCollisionMapper<T extends Positionable> {
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
 		for (int x = 0; x < layer.getWidth(); x++) {
 			for (int y = 0; y < layer.getHeight(); y++) {
+				if (!isResident(layer, x, y)) {
+					continue;
+				}
 				if (layer.getTileId(x, y) == 0) {
 					T collision = collisionFactory.createCollision(tiledMap, tiledMap.getTile(layer.getTileId(x, y)),
 							x * tiledMap.getTileWidth(), y * tiledMap.getTileHeight(), tiledMap.getTileWidth(),
@@ -405,18 +474,19 @@ public class TiledCollisionMapper<T extends Positionable> {
 			return;
 		}
 
-		for (TiledObject tiledObject : objectGroup.getObjects()) {
-			if (tiledObject.getType() == null) {
-				continue;
-			}
-			if (!tiledObject.getType().equalsIgnoreCase(objectType)) {
+		final Array<String> objectTypes = objectGroup.getObjectTypes();
+		for (int i = 0; i < objectTypes.size; i++) {
+			if (!objectTypes.get(i).equalsIgnoreCase(objectType)) {
 				continue;
 			}
-			T collision = collisionFactory.createCollision(tiledMap, tiledObject);
-			if (collision == null) {
-				continue;
+			final Array<TiledObject> objects = objectGroup.getObjectsByType(objectTypes.get(i));
+			for (int j = 0; j < objects.size; j++) {
+				T collision = collisionFactory.createCollision(tiledMap, objects.get(j));
+				if (collision == null) {
+					continue;
+				}
+				quadTree.add(collision);
 			}
-			quadTree.add(collision);
 		}
 	}
 
@@ -467,18 +537,19 @@ public class TiledCollisionMapper<T extends Positionable> {
 			return;
 		}
 
-		for (TiledObject tiledObject : objectGroup.getObjects()) {
-			if (tiledObject.getType() == null) {
-				continue;
-			}
-			if (!tiledObject.getType().equalsIgnoreCase(objectType)) {
+		final Array<String> objectTypes = objectGroup.getObjectTypes();
+		for (int i = 0; i < objectTypes.size; i++) {
+			if (!objectTypes.get(i).equalsIgnoreCase(objectType)) {
 				continue;
 			}
-			T collision = collisionFactory.createCollision(tiledMap, tiledObject);
-			if (collision == null) {
-				continue;
+			final Array<TiledObject> objects = objectGroup.getObjectsByType(objectTypes.get(i));
+			for (int j = 0; j < objects.size; j++) {
+				T collision = collisionFactory.createCollision(tiledMap, objects.get(j));
+				if (collision == null) {
+					continue;
+				}
+				results.add(collision);
 			}
-			results.add(collision);
 		}
 	}
 
@@ -500,6 +571,27 @@ public class TiledCollisionMapper<T extends Positionable> {
 		mapAndMergeCollisionsByLayer(quadTree, tiledMap, tiledMap.getLayerIndex(layerName));
 	}
 
+	/**
+	 * Extracts and merges collisions in a {@link TiledMap} layer into a
+	 * {@link QuadTree} instance and returns a {@link TiledCollisionMap} that
+	 * keeps the {@link QuadTree} up to date as tiles change. Uses the
+	 * {@link TiledCollisionFactory}, {@link TiledCollisionMerger} and
+	 * {@link TileMergeMode} associated with this {@link TiledCollisionMapper}.
+	 * 
+	 * @param quadTree
+	 *            The {@link QuadTree} instance to add collisions to
+	 * @param tiledMap
+	 *            The {@link TiledMap} to extract collisions from
+	 * @param layerIndex
+	 *            The index of the layer to extract collisions from. Each tile drawn
+	 *            in the layer is treated as a collision.
+	 * @return A new {@link TiledCollisionMap} bound to the layer
+	 */
+	public TiledCollisionMap<T> createCollisionMap(QuadTree<T> quadTree, TiledMap tiledMap, int layerIndex) {
+		return new TiledCollisionMap<T>(tiledMap, layerIndex, quadTree, collisionFactory, collisionMerger, mergeMode,
+				TiledCollisionMap.DEFAULT_REGION_SIZE);
+	}
+
 	/**
 	 * Extracts and merges collisions in a {@link TiledMap} layer and adds them to a
 	 * {@link QuadTree} instance. Tiles are determined as mergeable by the
@@ -550,6 +642,10 @@ public class TiledCollisionMapper<T extends Positionable> {
 
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
 		byte[][] collisions = mapCollisionsByLayer(tiledMap, layer);
+		if (mergeMode == TileMergeMode.GREEDY) {
+			quadTree.addAll(mergeGreedy(collisions, layer, tiledMap, maxColumns, maxRows));
+			return;
+		}
 
 		for (int x = 0; x < layer.getWidth(); x++) {
 			for (int y = 0; y < layer.getHeight(); y++) {
@@ -633,6 +729,10 @@ public class TiledCollisionMapper<T extends Positionable> {
 
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
 		byte[][] emptySpaces = mapEmptySpacesByLayer(tiledMap, layer);
+		if (mergeMode == TileMergeMode.GREEDY) {
+			quadTree.addAll(mergeGreedy(emptySpaces, layer, tiledMap, maxColumns, maxRows));
+			return;
+		}
 
 		for (int x = 0; x < layer.getWidth(); x++) {
 			for (int y = 0; y < layer.getHeight(); y++) {
@@ -716,6 +816,10 @@ public class TiledCollisionMapper<T extends Positionable> {
 
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
 		byte[][] collisions = mapCollisionsByLayer(tiledMap, layer);
+		if (mergeMode == TileMergeMode.GREEDY) {
+			results.addAll(mergeGreedy(collisions, layer, tiledMap, maxColumns, maxRows));
+			return;
+		}
 
 		for (int x = 0; x < layer.getWidth(); x++) {
 			for (int y = 0; y < layer.getHeight(); y++) {
@@ -799,6 +903,10 @@ public class TiledCollisionMapper<T extends Positionable> {
 
 		TileLayer layer = tiledMap.getTileLayer(layerIndex);
 		byte[][] emptySpaces = mapEmptySpacesByLayer(tiledMap, layer);
+		if (mergeMode == TileMergeMode.GREEDY) {
+			results.addAll(mergeGreedy(emptySpaces, layer, tiledMap, maxColumns, maxRows));
+			return;
+		}
 
 		for (int x = 0; x < layer.getWidth(); x++) {
 			for (int y = 0; y < layer.getHeight(); y++) {
@@ -814,6 +922,27 @@ public class TiledCollisionMapper<T extends Positionable> {
 		}
 	}
 
+	private Array<T> mergeGreedy(byte[][] tiles, TileLayer layer, TiledMap tiledMap, int maxColumns, int maxRows) {
+		final IntArray rectangles = new IntArray();
+		greedyMerger.merge(tiledMap, layer, tiles, maxColumns, maxRows, executor, GreedyTileMerger.DEFAULT_BAND_HEIGHT,
+				rectangles);
+
+		final Array<T> result = new Array<T>(rectangles.size / 4);
+		for (int i = 0; i < rectangles.size; i += 4) {
+			final int x = rectangles.get(i);
+			final int y = rectangles.get(i + 1);
+			final Tile tile = tiledMap.getTile(layer.getTileId(x, y));
+			T collision = collisionFactory.createCollision(tiledMap, tile, x * tiledMap.getTileWidth(),
+					y * tiledMap.getTileHeight(), rectangles.get(i + 2) * tiledMap.getTileWidth(),
+					rectangles.get(i + 3) * tiledMap.getTileHeight());
+			if (collision == null) {
+				continue;
+			}
+			result.add(collision);
+		}
+		return result;
+	}
+
 	private T mergeCollisions(final int startX, final int startY, final int maxColumns, final int maxRows,
 			byte[][] collisions, TileLayer layer, TiledMap tiledMap) {
 		return mergeMode.merge(collisionFactory, collisionMerger, startX, startY, maxColumns, maxRows, collisions,
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.collisions.merger;
+
+import org.mini2Dx.tiled.Tile;
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TilePropertyIndex;
+import org.mini2Dx.tiled.TiledMap;
+import org.mini2Dx.tiled.collisions.TiledCollisionMerger;
+
+/**
+ * An implementation of {@link TiledCollisionMerger} that merges tiles if they
+ * have the same values for a set of boolean properties. Compares the flag
+ * masks of the map's {@link TilePropertyIndex} rather than property strings.
+ */
+public class TileFlagCollisionMerger implements TiledCollisionMerger {
+	private final long flagMask;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param flagMask
+	 *            The flags to compare, e.g. from
+	 *            {@link TilePropertyIndex#getFlagMask(String...)}
+	 */
+	public TileFlagCollisionMerger(long flagMask) {
+		super();
+		this.flagMask = flagMask;
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param tiledMap
+	 *            The {@link TiledMap} to look up flag IDs in
+	 * @param propertyNames
+	 *            The boolean properties to compare
+	 */
+	public TileFlagCollisionMerger(TiledMap tiledMap, String... propertyNames) {
+		this(tiledMap.getTilePropertyIndex().getFlagMask(propertyNames));
+	}
+
+	@Override
+	public boolean isMergable(TiledMap tiledMap, TileLayer layer, Tile tile1, int tile1X, int tile1Y, int tile2X, int tile2Y) {
+		final TilePropertyIndex tilePropertyIndex = tiledMap.getTilePropertyIndex();
+		final long flags1 = tilePropertyIndex.getFlags(layer.getTileId(tile1X, tile1Y));
+		final long flags2 = tilePropertyIndex.getFlags(layer.getTileId(tile2X, tile2Y));
+		return ((flags1 ^ flags2) & flagMask) == 0L;
+	}
+}
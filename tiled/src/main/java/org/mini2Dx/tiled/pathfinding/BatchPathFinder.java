@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import com.badlogic.gdx.utils.Array;
+import org.mini2Dx.core.exception.MdxException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Answers batches of {@link PathRequest}s in parallel. Each worker keeps its
+ * own {@link JumpPointSearch} so search state is reused between batches.
+ * 
+ * If a {@link HierarchicalPathGraph} is provided it is updated at the start
+ * of each batch and used for all requests. Batches should be submitted from
+ * a single thread.
+ */
+public class BatchPathFinder {
+	private final PathGrid grid;
+	private final HierarchicalPathGraph graph;
+	private final ExecutorService executor;
+	private final Array<SearchTask> tasks = new Array<SearchTask>();
+	private final Array<Future<Void>> futures = new Array<Future<Void>>();
+
+	/**
+	 * Creates a {@link BatchPathFinder} that searches the full grid for each
+	 * request
+	 * 
+	 * @param grid
+	 *            The {@link PathGrid} to search
+	 * @param executor
+	 *            The {@link ExecutorService} to search on or null to search on
+	 *            the calling thread
+	 * @param parallelism
+	 *            The number of workers to split each batch between
+	 */
+	public BatchPathFinder(PathGrid grid, ExecutorService executor, int parallelism) {
+		this(grid, null, executor, parallelism);
+	}
+
+	/**
+	 * Creates a {@link BatchPathFinder} that searches a
+	 * {@link HierarchicalPathGraph} for each request
+	 * 
+	 * @param graph
+	 *            The {@link HierarchicalPathGraph} to search
+	 * @param executor
+	 *            The {@link ExecutorService} to search on or null to search on
+	 *            the calling thread
+	 * @param parallelism
+	 *            The number of workers to split each batch between
+	 */
+	public BatchPathFinder(HierarchicalPathGraph graph, ExecutorService executor, int parallelism) {
+		this(graph.getGrid(), graph, executor, parallelism);
+	}
+
+	private BatchPathFinder(PathGrid grid, HierarchicalPathGraph graph, ExecutorService executor,
+			int parallelism) {
+		super();
+		this.grid = grid;
+		this.graph = graph;
+		this.executor = executor;
+
+		final int totalTasks = executor == null ? 1 : Math.max(1, parallelism);
+		for (int i = 0; i < totalTasks; i++) {
+			tasks.add(new SearchTask());
+		}
+	}
+
+	/**
+	 * Finds paths for a batch of requests, blocking until all are complete
+	 * 
+	 * @param requests
+	 *            The {@link PathRequest}s to answer
+	 */
+	public void findPaths(Array<PathRequest> requests) {
+		if (graph != null) {
+			graph.update();
+		}
+		if (executor == null || tasks.size == 1 || requests.size < 2) {
+			final SearchTask task = tasks.get(0);
+			task.set(requests, 0, requests.size);
+			task.call();
+			return;
+		}
+
+		final int requestsPerTask = (requests.size + tasks.size - 1) / tasks.size;
+		try {
+			for (int i = 0; i < tasks.size; i++) {
+				final int from = i * requestsPerTask;
+				final int to = Math.min(from + requestsPerTask, requests.size);
+				if (from >= to) {
+					break;
+				}
+				final SearchTask task = tasks.get(i);
+				task.set(requests, from, to);
+				futures.add(executor.submit(task));
+			}
+			for (int i = 0; i < futures.size; i++) {
+				futures.get(i).get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MdxException("Interrupted while finding paths", e);
+		} catch (ExecutionException e) {
+			throw new MdxException("Could not find paths", e.getCause());
+		} finally {
+			futures.clear();
+		}
+	}
+
+	private class SearchTask implements Callable<Void> {
+		private final JumpPointSearch search = new JumpPointSearch(grid);
+		private Array<PathRequest> requests;
+		private int from, to;
+
+		public void set(Array<PathRequest> requests, int from, int to) {
+			this.requests = requests;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public Void call() {
+			for (int i = from; i < to; i++) {
+				final PathRequest request = requests.get(i);
+				request.getPath().clear();
+				if (graph != null) {
+					request.setFound(graph.findPath(search, request.getStartX(), request.getStartY(),
+							request.getGoalX(), request.getGoalY(), request.getPath()));
+				} else {
+					request.setFound(search.findPath(request.getStartX(), request.getStartY(), request.getGoalX(),
+							request.getGoalY(), request.getPath()));
+				}
+			}
+			requests = null;
+			return null;
+		}
+	}
+}
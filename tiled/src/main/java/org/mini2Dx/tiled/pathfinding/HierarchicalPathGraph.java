@@ -0,0 +1,467 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A hierarchical (HPA*) abstraction of a {@link PathGrid}. The grid is split
+ * into square clusters and entrances are placed along each shared cluster
+ * border. The path costs between the entrances of each cluster are
+ * precomputed so long paths are found by searching the small graph of
+ * entrances and then refining each step with a {@link JumpPointSearch}
+ * bounded to a single cluster. Paths are near-optimal rather than optimal.
+ * 
+ * Tiles should be changed via {@link #setWalkable(int, int, boolean)} (or
+ * followed by {@link #markDirty(int, int)}) so that only the affected
+ * clusters are recomputed by the next {@link #update()}. Searching is
+ * thread-safe as long as {@link #update()} is not called at the same time.
+ */
+public class HierarchicalPathGraph {
+	/**
+	 * The default width and height of each cluster in tiles
+	 */
+	public static final int DEFAULT_CLUSTER_SIZE = 16;
+	/**
+	 * Openings along a border up to this length get a single entrance in their
+	 * middle, longer openings get an entrance at each end
+	 */
+	private static final int MAX_SINGLE_ENTRANCE_LENGTH = 6;
+
+	private final PathGrid grid;
+	private final int clusterSize, clustersX, clustersY;
+	private final IntArray[] eastEntrances, southEntrances;
+	private final Cluster[] clusters;
+	private final boolean[] dirtyClusters, rebuildClusters;
+	private final JumpPointSearch buildSearch;
+	private boolean dirty = true;
+
+	/**
+	 * Creates a {@link HierarchicalPathGraph} with
+	 * {@link #DEFAULT_CLUSTER_SIZE}
+	 * 
+	 * @param grid
+	 *            The {@link PathGrid} to abstract
+	 */
+	public HierarchicalPathGraph(PathGrid grid) {
+		this(grid, DEFAULT_CLUSTER_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param grid
+	 *            The {@link PathGrid} to abstract
+	 * @param clusterSize
+	 *            The width and height of each cluster in tiles
+	 */
+	public HierarchicalPathGraph(PathGrid grid, int clusterSize) {
+		super();
+		this.grid = grid;
+		this.clusterSize = Math.max(2, clusterSize);
+		this.clustersX = (grid.getWidth() + this.clusterSize - 1) / this.clusterSize;
+		this.clustersY = (grid.getHeight() + this.clusterSize - 1) / this.clusterSize;
+
+		final int totalClusters = clustersX * clustersY;
+		eastEntrances = new IntArray[totalClusters];
+		southEntrances = new IntArray[totalClusters];
+		clusters = new Cluster[totalClusters];
+		dirtyClusters = new boolean[totalClusters];
+		rebuildClusters = new boolean[totalClusters];
+		for (int i = 0; i < totalClusters; i++) {
+			eastEntrances[i] = new IntArray();
+			southEntrances[i] = new IntArray();
+			clusters[i] = new Cluster();
+			dirtyClusters[i] = true;
+		}
+		buildSearch = new JumpPointSearch(grid);
+	}
+
+	/**
+	 * Sets if a tile can be moved through and marks its cluster for
+	 * recomputation
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @param walkable
+	 *            True if the tile can be moved through
+	 */
+	public void setWalkable(int x, int y, boolean walkable) {
+		if (grid.isWalkable(x, y) == walkable) {
+			return;
+		}
+		grid.setWalkable(x, y, walkable);
+		markDirty(x, y);
+	}
+
+	/**
+	 * Marks the cluster containing a tile for recomputation on the next
+	 * {@link #update()}
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 */
+	public void markDirty(int x, int y) {
+		if (x < 0 || y < 0 || x >= grid.getWidth() || y >= grid.getHeight()) {
+			return;
+		}
+		dirtyClusters[getClusterIndex(x, y)] = true;
+		dirty = true;
+	}
+
+	/**
+	 * Recomputes the entrances and entrance costs of clusters affected by
+	 * changed tiles
+	 * 
+	 * @return True if any cluster was recomputed
+	 */
+	public boolean update() {
+		if (!dirty) {
+			return false;
+		}
+		for (int cy = 0; cy < clustersY; cy++) {
+			for (int cx = 0; cx < clustersX; cx++) {
+				final int index = (cy * clustersX) + cx;
+				if (!dirtyClusters[index]) {
+					continue;
+				}
+				computeEastEntrances(cx, cy);
+				computeSouthEntrances(cx, cy);
+				rebuildClusters[index] = true;
+				if (cx > 0) {
+					computeEastEntrances(cx - 1, cy);
+					rebuildClusters[index - 1] = true;
+				}
+				if (cy > 0) {
+					computeSouthEntrances(cx, cy - 1);
+					rebuildClusters[index - clustersX] = true;
+				}
+				if (cx < clustersX - 1) {
+					rebuildClusters[index + 1] = true;
+				}
+				if (cy < clustersY - 1) {
+					rebuildClusters[index + clustersX] = true;
+				}
+				dirtyClusters[index] = false;
+			}
+		}
+		for (int cy = 0; cy < clustersY; cy++) {
+			for (int cx = 0; cx < clustersX; cx++) {
+				final int index = (cy * clustersX) + cx;
+				if (!rebuildClusters[index]) {
+					continue;
+				}
+				rebuildCluster(cx, cy);
+				rebuildClusters[index] = false;
+			}
+		}
+		dirty = false;
+		return true;
+	}
+
+	/**
+	 * Recomputes all clusters immediately
+	 */
+	public void rebuild() {
+		for (int i = 0; i < dirtyClusters.length; i++) {
+			dirtyClusters[i] = true;
+		}
+		dirty = true;
+		update();
+	}
+
+	private void computeEastEntrances(int cx, int cy) {
+		final IntArray entrances = eastEntrances[(cy * clustersX) + cx];
+		entrances.clear();
+		if (cx >= clustersX - 1) {
+			return;
+		}
+		final int x = ((cx + 1) * clusterSize) - 1;
+		final int startY = cy * clusterSize;
+		final int endY = Math.min(startY + clusterSize, grid.getHeight());
+
+		int runStart = -1;
+		for (int y = startY; y <= endY; y++) {
+			final boolean open = y < endY && grid.isWalkable(x, y) && grid.isWalkable(x + 1, y);
+			if (open) {
+				if (runStart < 0) {
+					runStart = y;
+				}
+				continue;
+			}
+			if (runStart < 0) {
+				continue;
+			}
+			final int runEnd = y - 1;
+			if (runEnd - runStart + 1 <= MAX_SINGLE_ENTRANCE_LENGTH) {
+				addEntrance(entrances, x, (runStart + runEnd) / 2, x + 1, (runStart + runEnd) / 2);
+			} else {
+				addEntrance(entrances, x, runStart, x + 1, runStart);
+				addEntrance(entrances, x, runEnd, x + 1, runEnd);
+			}
+			runStart = -1;
+		}
+	}
+
+	private void computeSouthEntrances(int cx, int cy) {
+		final IntArray entrances = southEntrances[(cy * clustersX) + cx];
+		entrances.clear();
+		if (cy >= clustersY - 1) {
+			return;
+		}
+		final int y = ((cy + 1) * clusterSize) - 1;
+		final int startX = cx * clusterSize;
+		final int endX = Math.min(startX + clusterSize, grid.getWidth());
+
+		int runStart = -1;
+		for (int x = startX; x <= endX; x++) {
+			final boolean open = x < endX && grid.isWalkable(x, y) && grid.isWalkable(x, y + 1);
+			if (open) {
+				if (runStart < 0) {
+					runStart = x;
+				}
+				continue;
+			}
+			if (runStart < 0) {
+				continue;
+			}
+			final int runEnd = x - 1;
+			if (runEnd - runStart + 1 <= MAX_SINGLE_ENTRANCE_LENGTH) {
+				addEntrance(entrances, (runStart + runEnd) / 2, y, (runStart + runEnd) / 2, y + 1);
+			} else {
+				addEntrance(entrances, runStart, y, runStart, y + 1);
+				addEntrance(entrances, runEnd, y, runEnd, y + 1);
+			}
+			runStart = -1;
+		}
+	}
+
+	private void addEntrance(IntArray entrances, int x1, int y1, int x2, int y2) {
+		entrances.add((y1 * grid.getWidth()) + x1);
+		entrances.add((y2 * grid.getWidth()) + x2);
+	}
+
+	private void rebuildCluster(int cx, int cy) {
+		final int index = (cy * clustersX) + cx;
+		final Cluster cluster = clusters[index];
+		cluster.cells.clear();
+		cluster.partners.clear();
+
+		addEntrances(cluster, eastEntrances[index], false);
+		addEntrances(cluster, southEntrances[index], false);
+		if (cx > 0) {
+			addEntrances(cluster, eastEntrances[index - 1], true);
+		}
+		if (cy > 0) {
+			addEntrances(cluster, southEntrances[index - clustersX], true);
+		}
+
+		final int totalEntrances = cluster.cells.size;
+		if (cluster.costs.length < totalEntrances * totalEntrances) {
+			cluster.costs = new float[totalEntrances * totalEntrances];
+		}
+		final int minX = cx * clusterSize;
+		final int minY = cy * clusterSize;
+		final int maxX = minX + clusterSize - 1;
+		final int maxY = minY + clusterSize - 1;
+		final int width = grid.getWidth();
+
+		for (int i = 0; i < totalEntrances; i++) {
+			cluster.costs[(i * totalEntrances) + i] = 0f;
+			final int fromCell = cluster.cells.get(i);
+			for (int j = i + 1; j < totalEntrances; j++) {
+				final int toCell = cluster.cells.get(j);
+				final float cost = buildSearch.findPath(fromCell % width, fromCell / width, toCell % width,
+						toCell / width, minX, minY, maxX, maxY, null);
+				cluster.costs[(i * totalEntrances) + j] = cost;
+				cluster.costs[(j * totalEntrances) + i] = cost;
+			}
+		}
+	}
+
+	private void addEntrances(Cluster cluster, IntArray entrances, boolean secondSide) {
+		for (int i = 0; i < entrances.size; i += 2) {
+			if (secondSide) {
+				cluster.cells.add(entrances.get(i + 1));
+				cluster.partners.add(entrances.get(i));
+			} else {
+				cluster.cells.add(entrances.get(i));
+				cluster.partners.add(entrances.get(i + 1));
+			}
+		}
+	}
+
+	/**
+	 * Finds a path between two tiles. {@link #update()} should be called
+	 * beforehand if tiles have changed.
+	 * 
+	 * @param search
+	 *            The {@link JumpPointSearch} to use for searching. Each thread
+	 *            should use its own instance.
+	 * @param startX
+	 *            The start x coordinate in tiles
+	 * @param startY
+	 *            The start y coordinate in tiles
+	 * @param goalX
+	 *            The goal x coordinate in tiles
+	 * @param goalY
+	 *            The goal y coordinate in tiles
+	 * @param path
+	 *            Receives the waypoints of the path as x, y pairs from the
+	 *            start to the goal (inclusive)
+	 * @return True if a path was found
+	 */
+	public boolean findPath(JumpPointSearch search, int startX, int startY, int goalX, int goalY, IntArray path) {
+		if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+			return false;
+		}
+		final int width = grid.getWidth();
+		final int startClusterIndex = getClusterIndex(startX, startY);
+		final int goalClusterIndex = getClusterIndex(goalX, goalY);
+		if (startClusterIndex == goalClusterIndex && findPathInCluster(search, startClusterIndex, startX, startY,
+				goalX, goalY, path) != JumpPointSearch.NO_PATH) {
+			return true;
+		}
+
+		final Cluster startCluster = clusters[startClusterIndex];
+		final FloatArray startCosts = search.startCosts;
+		startCosts.clear();
+		for (int i = 0; i < startCluster.cells.size; i++) {
+			final int cell = startCluster.cells.get(i);
+			startCosts.add(
+					findPathInCluster(search, startClusterIndex, startX, startY, cell % width, cell / width, null));
+		}
+		final Cluster goalCluster = clusters[goalClusterIndex];
+		final FloatArray goalCosts = search.goalCosts;
+		goalCosts.clear();
+		for (int i = 0; i < goalCluster.cells.size; i++) {
+			final int cell = goalCluster.cells.get(i);
+			goalCosts.add(findPathInCluster(search, goalClusterIndex, cell % width, cell / width, goalX, goalY, null));
+		}
+
+		final int startCell = (startY * width) + startX;
+		final int goalCell = (goalY * width) + goalX;
+		search.begin(goalX, goalY);
+		search.relax(startCell, -1, 0f);
+
+		int current;
+		while ((current = search.poll()) >= 0) {
+			if (current == goalCell) {
+				break;
+			}
+			final float cost = search.getCost(current);
+			if (current == startCell) {
+				for (int i = 0; i < startCosts.size; i++) {
+					if (startCosts.get(i) != JumpPointSearch.NO_PATH) {
+						search.relax(startCluster.cells.get(i), startCell, startCosts.get(i));
+					}
+				}
+			}
+
+			final int clusterIndex = getClusterIndex(current % width, current / width);
+			final Cluster cluster = clusters[clusterIndex];
+			final int totalEntrances = cluster.cells.size;
+			for (int i = 0; i < totalEntrances; i++) {
+				if (cluster.cells.get(i) != current) {
+					continue;
+				}
+				search.relax(cluster.partners.get(i), current, cost + 1f);
+				for (int j = 0; j < totalEntrances; j++) {
+					final float entranceCost = cluster.costs[(i * totalEntrances) + j];
+					if (j == i || entranceCost == JumpPointSearch.NO_PATH) {
+						continue;
+					}
+					search.relax(cluster.cells.get(j), current, cost + entranceCost);
+				}
+				if (clusterIndex == goalClusterIndex && goalCosts.get(i) != JumpPointSearch.NO_PATH) {
+					search.relax(goalCell, current, cost + goalCosts.get(i));
+				}
+			}
+		}
+		if (current != goalCell) {
+			return false;
+		}
+
+		final IntArray abstractPath = search.abstractPath;
+		abstractPath.clear();
+		for (int cell = goalCell; cell >= 0; cell = search.getParent(cell)) {
+			abstractPath.add(cell);
+		}
+		abstractPath.reverse();
+
+		final int offset = path.size;
+		path.add(startX);
+		path.add(startY);
+		for (int i = 1; i < abstractPath.size; i++) {
+			final int from = abstractPath.get(i - 1);
+			final int to = abstractPath.get(i);
+			final int fromCluster = getClusterIndex(from % width, from / width);
+			if (fromCluster != getClusterIndex(to % width, to / width)) {
+				path.add(to % width);
+				path.add(to / width);
+				continue;
+			}
+			final IntArray segment = search.segment;
+			segment.clear();
+			if (findPathInCluster(search, fromCluster, from % width, from / width, to % width, to / width,
+					segment) == JumpPointSearch.NO_PATH) {
+				path.size = offset;
+				return false;
+			}
+			for (int j = 2; j < segment.size; j++) {
+				path.add(segment.get(j));
+			}
+		}
+		return true;
+	}
+
+	private float findPathInCluster(JumpPointSearch search, int clusterIndex, int startX, int startY, int goalX,
+			int goalY, IntArray path) {
+		final int minX = (clusterIndex % clustersX) * clusterSize;
+		final int minY = (clusterIndex / clustersX) * clusterSize;
+		return search.findPath(startX, startY, goalX, goalY, minX, minY, minX + clusterSize - 1,
+				minY + clusterSize - 1, path);
+	}
+
+	private int getClusterIndex(int x, int y) {
+		return ((y / clusterSize) * clustersX) + (x / clusterSize);
+	}
+
+	/**
+	 * Returns the {@link PathGrid} this graph abstracts
+	 * 
+	 * @return The {@link PathGrid}
+	 */
+	public PathGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Returns the width and height of each cluster
+	 * 
+	 * @return The cluster size in tiles
+	 */
+	public int getClusterSize() {
+		return clusterSize;
+	}
+
+	private static class Cluster {
+		final IntArray cells = new IntArray();
+		final IntArray partners = new IntArray();
+		float[] costs = new float[0];
+	}
+}
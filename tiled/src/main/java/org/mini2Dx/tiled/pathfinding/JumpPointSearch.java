@@ -0,0 +1,426 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Finds paths on a {@link PathGrid} using Jump Point Search. Movement is
+ * 8-directional and diagonal moves may not cut the corner of a blocked tile.
+ * 
+ * All search state is allocated up-front so searching does not allocate once
+ * the open list has grown to its working size. Instances are not thread-safe;
+ * use one instance per thread.
+ */
+public class JumpPointSearch {
+	/**
+	 * Returned as the path cost when no path was found
+	 */
+	public static final float NO_PATH = -1f;
+
+	private static final float DIAGONAL_COST = 1.4142135f;
+
+	private final PathGrid grid;
+	private final int width, height;
+	private final float[] costs;
+	private final int[] parents;
+	private final int[] openStamps;
+	private final int[] closedStamps;
+	private int generation;
+
+	private int[] heapCells = new int[64];
+	private float[] heapKeys = new float[64];
+	private int heapSize;
+
+	private int minX, minY, maxX, maxY;
+	private int goalX, goalY;
+
+	final FloatArray startCosts = new FloatArray();
+	final FloatArray goalCosts = new FloatArray();
+	final IntArray abstractPath = new IntArray();
+	final IntArray segment = new IntArray();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param grid
+	 *            The {@link PathGrid} to search
+	 */
+	public JumpPointSearch(PathGrid grid) {
+		super();
+		this.grid = grid;
+		this.width = grid.getWidth();
+		this.height = grid.getHeight();
+
+		final int totalCells = width * height;
+		costs = new float[totalCells];
+		parents = new int[totalCells];
+		openStamps = new int[totalCells];
+		closedStamps = new int[totalCells];
+	}
+
+	/**
+	 * Finds a path between two tiles
+	 * 
+	 * @param startX
+	 *            The start x coordinate in tiles
+	 * @param startY
+	 *            The start y coordinate in tiles
+	 * @param goalX
+	 *            The goal x coordinate in tiles
+	 * @param goalY
+	 *            The goal y coordinate in tiles
+	 * @param path
+	 *            Receives the jump points of the path as x, y pairs from the
+	 *            start to the goal (inclusive)
+	 * @return True if a path was found
+	 */
+	public boolean findPath(int startX, int startY, int goalX, int goalY, IntArray path) {
+		return findPath(startX, startY, goalX, goalY, 0, 0, width - 1, height - 1, path) != NO_PATH;
+	}
+
+	/**
+	 * Finds a path between two tiles without leaving a rectangular area
+	 * 
+	 * @param startX
+	 *            The start x coordinate in tiles
+	 * @param startY
+	 *            The start y coordinate in tiles
+	 * @param goalX
+	 *            The goal x coordinate in tiles
+	 * @param goalY
+	 *            The goal y coordinate in tiles
+	 * @param minX
+	 *            The minimum x coordinate of the search area (inclusive)
+	 * @param minY
+	 *            The minimum y coordinate of the search area (inclusive)
+	 * @param maxX
+	 *            The maximum x coordinate of the search area (inclusive)
+	 * @param maxY
+	 *            The maximum y coordinate of the search area (inclusive)
+	 * @param path
+	 *            Receives the jump points of the path as x, y pairs from the
+	 *            start to the goal (inclusive). May be null.
+	 * @return The cost of the path or {@link #NO_PATH}
+	 */
+	public float findPath(int startX, int startY, int goalX, int goalY, int minX, int minY, int maxX, int maxY,
+			IntArray path) {
+		this.minX = Math.max(0, minX);
+		this.minY = Math.max(0, minY);
+		this.maxX = Math.min(width - 1, maxX);
+		this.maxY = Math.min(height - 1, maxY);
+
+		if (!isWalkable(startX, startY) || !isWalkable(goalX, goalY)) {
+			return NO_PATH;
+		}
+		final int start = (startY * width) + startX;
+		final int goal = (goalY * width) + goalX;
+
+		begin(goalX, goalY);
+		relax(start, -1, 0f);
+
+		int current;
+		while ((current = poll()) >= 0) {
+			if (current == goal) {
+				if (path != null) {
+					appendPath(goal, path);
+				}
+				return costs[goal];
+			}
+			expand(current);
+		}
+		return NO_PATH;
+	}
+
+	void begin(int goalX, int goalY) {
+		this.goalX = goalX;
+		this.goalY = goalY;
+		heapSize = 0;
+
+		generation++;
+		if (generation == Integer.MAX_VALUE) {
+			Arrays.fill(openStamps, 0);
+			Arrays.fill(closedStamps, 0);
+			generation = 1;
+		}
+	}
+
+	void relax(int cell, int parent, float cost) {
+		if (closedStamps[cell] == generation) {
+			return;
+		}
+		if (openStamps[cell] == generation && cost >= costs[cell]) {
+			return;
+		}
+		openStamps[cell] = generation;
+		costs[cell] = cost;
+		parents[cell] = parent;
+		push(cell, cost + distance(cell % width, cell / width, goalX, goalY));
+	}
+
+	int poll() {
+		while (heapSize > 0) {
+			final int cell = pop();
+			if (closedStamps[cell] == generation) {
+				continue;
+			}
+			closedStamps[cell] = generation;
+			return cell;
+		}
+		return -1;
+	}
+
+	float getCost(int cell) {
+		return costs[cell];
+	}
+
+	int getParent(int cell) {
+		return parents[cell];
+	}
+
+	private void expand(int current) {
+		final int x = current % width;
+		final int y = current / width;
+		final int parent = parents[current];
+
+		if (parent < 0) {
+			for (int dy = -1; dy <= 1; dy++) {
+				for (int dx = -1; dx <= 1; dx++) {
+					if (dx == 0 && dy == 0) {
+						continue;
+					}
+					if (!isWalkable(x + dx, y + dy)) {
+						continue;
+					}
+					if (dx != 0 && dy != 0 && (!isWalkable(x + dx, y) || !isWalkable(x, y + dy))) {
+						continue;
+					}
+					jumpFrom(current, x, y, dx, dy);
+				}
+			}
+			return;
+		}
+
+		final int dx = Integer.signum(x - (parent % width));
+		final int dy = Integer.signum(y - (parent / width));
+		if (dx != 0 && dy != 0) {
+			final boolean vertical = isWalkable(x, y + dy);
+			final boolean horizontal = isWalkable(x + dx, y);
+			if (vertical) {
+				jumpFrom(current, x, y, 0, dy);
+			}
+			if (horizontal) {
+				jumpFrom(current, x, y, dx, 0);
+			}
+			if (vertical && horizontal) {
+				jumpFrom(current, x, y, dx, dy);
+			}
+		} else if (dx != 0) {
+			final boolean next = isWalkable(x + dx, y);
+			final boolean up = isWalkable(x, y - 1);
+			final boolean down = isWalkable(x, y + 1);
+			if (next) {
+				jumpFrom(current, x, y, dx, 0);
+				if (up) {
+					jumpFrom(current, x, y, dx, -1);
+				}
+				if (down) {
+					jumpFrom(current, x, y, dx, 1);
+				}
+			}
+			if (up) {
+				jumpFrom(current, x, y, 0, -1);
+			}
+			if (down) {
+				jumpFrom(current, x, y, 0, 1);
+			}
+		} else {
+			final boolean next = isWalkable(x, y + dy);
+			final boolean left = isWalkable(x - 1, y);
+			final boolean right = isWalkable(x + 1, y);
+			if (next) {
+				jumpFrom(current, x, y, 0, dy);
+				if (left) {
+					jumpFrom(current, x, y, -1, dy);
+				}
+				if (right) {
+					jumpFrom(current, x, y, 1, dy);
+				}
+			}
+			if (left) {
+				jumpFrom(current, x, y, -1, 0);
+			}
+			if (right) {
+				jumpFrom(current, x, y, 1, 0);
+			}
+		}
+	}
+
+	private void jumpFrom(int current, int x, int y, int dx, int dy) {
+		final int jumpPoint = jump(x + dx, y + dy, dx, dy);
+		if (jumpPoint < 0) {
+			return;
+		}
+		relax(jumpPoint, current,
+				costs[current] + distance(x, y, jumpPoint % width, jumpPoint / width));
+	}
+
+	private int jump(int x, int y, int dx, int dy) {
+		if (dx == 0 || dy == 0) {
+			return jumpStraight(x, y, dx, dy);
+		}
+		while (isWalkable(x, y)) {
+			if (x == goalX && y == goalY) {
+				return (y * width) + x;
+			}
+			if (jumpStraight(x + dx, y, dx, 0) >= 0 || jumpStraight(x, y + dy, 0, dy) >= 0) {
+				return (y * width) + x;
+			}
+			if (!isWalkable(x + dx, y) || !isWalkable(x, y + dy)) {
+				return -1;
+			}
+			x += dx;
+			y += dy;
+		}
+		return -1;
+	}
+
+	private int jumpStraight(int x, int y, int dx, int dy) {
+		while (isWalkable(x, y)) {
+			if (x == goalX && y == goalY) {
+				return (y * width) + x;
+			}
+			if (dx != 0) {
+				if ((isWalkable(x, y - 1) && !isWalkable(x - dx, y - 1))
+						|| (isWalkable(x, y + 1) && !isWalkable(x - dx, y + 1))) {
+					return (y * width) + x;
+				}
+			} else if ((isWalkable(x - 1, y) && !isWalkable(x - 1, y - dy))
+					|| (isWalkable(x + 1, y) && !isWalkable(x + 1, y - dy))) {
+				return (y * width) + x;
+			}
+			x += dx;
+			y += dy;
+		}
+		return -1;
+	}
+
+	private boolean isWalkable(int x, int y) {
+		if (x < minX || y < minY || x > maxX || y > maxY) {
+			return false;
+		}
+		return grid.isWalkable(x, y);
+	}
+
+	private void appendPath(int goal, IntArray path) {
+		final int offset = path.size;
+		for (int cell = goal; cell >= 0; cell = parents[cell]) {
+			path.add(cell % width);
+			path.add(cell / width);
+		}
+		reversePairs(path, offset);
+	}
+
+	private void push(int cell, float key) {
+		if (heapSize == heapCells.length) {
+			heapCells = Arrays.copyOf(heapCells, heapSize * 2);
+			heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+		}
+		int index = heapSize++;
+		while (index > 0) {
+			final int parent = (index - 1) >>> 1;
+			if (heapKeys[parent] <= key) {
+				break;
+			}
+			heapCells[index] = heapCells[parent];
+			heapKeys[index] = heapKeys[parent];
+			index = parent;
+		}
+		heapCells[index] = cell;
+		heapKeys[index] = key;
+	}
+
+	private int pop() {
+		final int result = heapCells[0];
+		heapSize--;
+		if (heapSize == 0) {
+			return result;
+		}
+		final int cell = heapCells[heapSize];
+		final float key = heapKeys[heapSize];
+		int index = 0;
+		while (true) {
+			int child = (index * 2) + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+				child++;
+			}
+			if (key <= heapKeys[child]) {
+				break;
+			}
+			heapCells[index] = heapCells[child];
+			heapKeys[index] = heapKeys[child];
+			index = child;
+		}
+		heapCells[index] = cell;
+		heapKeys[index] = key;
+		return result;
+	}
+
+	/**
+	 * Returns the octile distance between two tiles
+	 * 
+	 * @param x1
+	 *            The x coordinate of the first tile
+	 * @param y1
+	 *            The y coordinate of the first tile
+	 * @param x2
+	 *            The x coordinate of the second tile
+	 * @param y2
+	 *            The y coordinate of the second tile
+	 * @return The cost of moving between the tiles on an open grid
+	 */
+	public static float distance(int x1, int y1, int x2, int y2) {
+		final int dx = Math.abs(x2 - x1);
+		final int dy = Math.abs(y2 - y1);
+		return (dx + dy) + ((DIAGONAL_COST - 2f) * Math.min(dx, dy));
+	}
+
+	static void reversePairs(IntArray array, int offset) {
+		int left = offset;
+		int right = array.size - 2;
+		while (left < right) {
+			final int x = array.get(left);
+			final int y = array.get(left + 1);
+			array.set(left, array.get(right));
+			array.set(left + 1, array.get(right + 1));
+			array.set(right, x);
+			array.set(right + 1, y);
+			left += 2;
+			right -= 2;
+		}
+	}
+
+	/**
+	 * Returns the {@link PathGrid} being searched
+	 * 
+	 * @return The {@link PathGrid}
+	 */
+	public PathGrid getGrid() {
+		return grid;
+	}
+}
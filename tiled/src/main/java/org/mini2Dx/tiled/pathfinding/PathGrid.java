@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import org.mini2Dx.tiled.TiledMap;
+import org.mini2Dx.tiled.collisions.TiledCollisionMapper;
+
+/**
+ * A walkability grid packed into a bitset, one bit per tile
+ */
+public class PathGrid {
+	private final int width, height;
+	private final long[] bits;
+
+	/**
+	 * Constructor. All tiles are initially blocked.
+	 * 
+	 * @param width
+	 *            The width of the grid in tiles
+	 * @param height
+	 *            The height of the grid in tiles
+	 */
+	public PathGrid(int width, int height) {
+		super();
+		this.width = width;
+		this.height = height;
+		this.bits = new long[((width * height) + 63) >>> 6];
+	}
+
+	/**
+	 * Creates a {@link PathGrid} from a collision array as produced by
+	 * {@link TiledCollisionMapper#mapCollisionsByLayer(TiledMap, int)}. Tiles
+	 * without a collision are walkable.
+	 * 
+	 * @param collisions
+	 *            The collisions indexed by [x][y]
+	 * @return A new {@link PathGrid}
+	 */
+	public static PathGrid fromCollisions(byte[][] collisions) {
+		final int width = collisions.length;
+		final int height = width > 0 ? collisions[0].length : 0;
+		final PathGrid result = new PathGrid(width, height);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				if (collisions[x][y] == 0) {
+					result.setWalkable(x, y, true);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a {@link PathGrid} where any tile on a layer blocks movement
+	 * 
+	 * @param tiledMap
+	 *            The {@link TiledMap} to read the layer from
+	 * @param layerIndex
+	 *            The index of the collision layer
+	 * @return A new {@link PathGrid}
+	 */
+	public static PathGrid fromLayer(TiledMap tiledMap, int layerIndex) {
+		return fromCollisions(TiledCollisionMapper.mapCollisionsByLayer(tiledMap, layerIndex));
+	}
+
+	/**
+	 * Creates a {@link PathGrid} where any tile on a layer blocks movement
+	 * 
+	 * @param tiledMap
+	 *            The {@link TiledMap} to read the layer from
+	 * @param layerName
+	 *            The name of the collision layer
+	 * @return A new {@link PathGrid}
+	 */
+	public static PathGrid fromLayer(TiledMap tiledMap, String layerName) {
+		return fromCollisions(TiledCollisionMapper.mapCollisionsByLayer(tiledMap, layerName));
+	}
+
+	/**
+	 * Returns if a tile can be moved through
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @return False if the tile is blocked or outside the grid
+	 */
+	public boolean isWalkable(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return false;
+		}
+		final int index = (y * width) + x;
+		return (bits[index >>> 6] & (1L << (index & 63))) != 0L;
+	}
+
+	/**
+	 * Sets if a tile can be moved through
+	 * 
+	 * @param x
+	 *            The x coordinate in tiles
+	 * @param y
+	 *            The y coordinate in tiles
+	 * @param walkable
+	 *            True if the tile can be moved through
+	 */
+	public void setWalkable(int x, int y, boolean walkable) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return;
+		}
+		final int index = (y * width) + x;
+		if (walkable) {
+			bits[index >>> 6] |= 1L << (index & 63);
+		} else {
+			bits[index >>> 6] &= ~(1L << (index & 63));
+		}
+	}
+
+	/**
+	 * Returns the width of the grid
+	 * 
+	 * @return The width in tiles
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the grid
+	 * 
+	 * @return The height in tiles
+	 */
+	public int getHeight() {
+		return height;
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A path query answered by a {@link BatchPathFinder}. Instances can be
+ * reused between batches via {@link #set(int, int, int, int)}.
+ */
+public class PathRequest {
+	private final IntArray path = new IntArray();
+	private int startX, startY, goalX, goalY;
+	private boolean found;
+
+	/**
+	 * Constructor
+	 */
+	public PathRequest() {
+		super();
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param startX
+	 *            The start x coordinate in tiles
+	 * @param startY
+	 *            The start y coordinate in tiles
+	 * @param goalX
+	 *            The goal x coordinate in tiles
+	 * @param goalY
+	 *            The goal y coordinate in tiles
+	 */
+	public PathRequest(int startX, int startY, int goalX, int goalY) {
+		super();
+		set(startX, startY, goalX, goalY);
+	}
+
+	/**
+	 * Sets the start and goal of this request and clears any previous result
+	 * 
+	 * @param startX
+	 *            The start x coordinate in tiles
+	 * @param startY
+	 *            The start y coordinate in tiles
+	 * @param goalX
+	 *            The goal x coordinate in tiles
+	 * @param goalY
+	 *            The goal y coordinate in tiles
+	 */
+	public void set(int startX, int startY, int goalX, int goalY) {
+		this.startX = startX;
+		this.startY = startY;
+		this.goalX = goalX;
+		this.goalY = goalY;
+		path.clear();
+		found = false;
+	}
+
+	void setFound(boolean found) {
+		this.found = found;
+	}
+
+	/**
+	 * Returns if a path was found
+	 * 
+	 * @return False if no path exists or the request has not been processed
+	 */
+	public boolean isFound() {
+		return found;
+	}
+
+	/**
+	 * Returns the path found
+	 * 
+	 * @return The waypoints of the path as x, y pairs
+	 */
+	public IntArray getPath() {
+		return path;
+	}
+
+	/**
+	 * Returns the start x coordinate of this request
+	 * 
+	 * @return The coordinate in tiles
+	 */
+	public int getStartX() {
+		return startX;
+	}
+
+	/**
+	 * Returns the start y coordinate of this request
+	 * 
+	 * @return The coordinate in tiles
+	 */
+	public int getStartY() {
+		return startY;
+	}
+
+	/**
+	 * Returns the goal x coordinate of this request
+	 * 
+	 * @return The coordinate in tiles
+	 */
+	public int getGoalX() {
+		return goalX;
+	}
+
+	/**
+	 * Returns the goal y coordinate of this request
+	 * 
+	 * @return The coordinate in tiles
+	 */
+	public int getGoalY() {
+		return goalY;
+	}
+}
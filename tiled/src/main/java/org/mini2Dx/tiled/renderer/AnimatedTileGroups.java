@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.renderer;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.tiled.Tile;
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TiledMap;
+
+/**
+ * Groups the animated tiles of a cached chunk by tile so that each animation
+ * is looked up once per chunk when drawn. Used by the {@link TileLayerRenderer}
+ * implementations that cache chunks with a {@link TileLayerChunkCache}.
+ * 
+ * Groups are stored as [tileId, total, (renderX, renderY, packedTile) * total]
+ * per tile.
+ */
+class AnimatedTileGroups {
+	private final IntMap<IntArray> groups = new IntMap<IntArray>();
+
+	/**
+	 * Adds an animated tile to the chunk being built
+	 * @param tileId The tile ID
+	 * @param renderX The x coordinate the tile is drawn at
+	 * @param renderY The y coordinate the tile is drawn at
+	 * @param packedTile The tile ID and flip flags
+	 */
+	public void add(int tileId, int renderX, int renderY, int packedTile) {
+		IntArray group = groups.get(tileId);
+		if (group == null) {
+			group = new IntArray();
+			groups.put(tileId, group);
+		}
+		group.add(renderX);
+		group.add(renderY);
+		group.add(packedTile);
+	}
+
+	/**
+	 * Moves the tiles added since the last call into an array of groups
+	 * @param animatedTiles The array to add the groups to
+	 */
+	public void flush(IntArray animatedTiles) {
+		for (IntMap.Entry<IntArray> group : groups.entries()) {
+			if (group.value.size == 0) {
+				continue;
+			}
+			animatedTiles.add(group.key);
+			animatedTiles.add(group.value.size / 3);
+			animatedTiles.addAll(group.value);
+			group.value.clear();
+		}
+	}
+
+	/**
+	 * Draws groups of animated tiles
+	 * @param g The {@link Graphics} context
+	 * @param tiledMap The {@link TiledMap} the tiles belong to
+	 * @param animatedTiles The groups written by {@link #flush(IntArray)}
+	 */
+	public static void draw(Graphics g, TiledMap tiledMap, IntArray animatedTiles) {
+		int i = 0;
+		while (i < animatedTiles.size) {
+			final Tile tile = tiledMap.getTile(animatedTiles.get(i));
+			final int totalTiles = animatedTiles.get(i + 1);
+			i += 2;
+			if (tile == null) {
+				i += totalTiles * 3;
+				continue;
+			}
+			for (int j = 0; j < totalTiles; j++) {
+				final int tileRenderX = animatedTiles.get(i);
+				final int tileRenderY = animatedTiles.get(i + 1);
+				final int packedTile = animatedTiles.get(i + 2);
+				i += 3;
+
+				tile.draw(g, tileRenderX, tileRenderY, (packedTile & TileLayer.FLAG_FLIP_HORIZONTALLY) != 0,
+						(packedTile & TileLayer.FLAG_FLIP_VERTICALLY) != 0,
+						(packedTile & TileLayer.FLAG_FLIP_DIAGONALLY) != 0);
+			}
+		}
+	}
+}
@@ -64,6 +64,14 @@ public class AnimatedTileRenderer implements TileRenderer {
 		return tilesetSource.getTileImage(frames[currentFrame].tileId);
 	}
 
+	/**
+	 * Returns the frames of the animation
+	 * @return
+	 */
+	public TileFrame[] getFrames() {
+		return frames;
+	}
+
 	@Override
 	public void dispose() {
 	}
@@ -12,173 +12,52 @@
 package org.mini2Dx.tiled.renderer;
 
 import com.badlogic.gdx.math.MathUtils;
-import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.tiled.StaggerAxis;
 import org.mini2Dx.tiled.TileLayer;
 import org.mini2Dx.tiled.TiledMap;
-import org.mini2Dx.tiled.Tileset;
 
 /**
  * Renders hexagonal {@link TileLayer}s
  */
-public class HexagonalTileLayerRenderer implements TileLayerRenderer {
-	private final boolean cacheLayers;
-	private final TiledMap tiledMap;
-
+public class HexagonalTileLayerRenderer extends StaggeredTileLayerRenderer {
 	private final int hexWidth, hexHeight;
 	private final int sideOffsetX, sideOffsetY;
-	private final int quarterHexWidth, quarterHexHeight, halfHexWidth, halfHexHeight, threeQuarterHexWidth,
-			threeQuarterHexHeight;
+	private final int halfHexWidth, halfHexHeight, threeQuarterHexWidth, threeQuarterHexHeight;
 
 	public HexagonalTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers) {
-		super();
-		this.cacheLayers = cacheLayers;
-		this.tiledMap = tiledMap;
+		this(tiledMap, cacheLayers, TiledMap.CACHED_CHUNK_SIZE, TiledMap.MAX_CACHED_CHUNKS);
+	}
+
+	/**
+	 * Constructor
+	 * @param tiledMap The {@link TiledMap} to render
+	 * @param cacheLayers True if tile layers should be cached
+	 * @param chunkSize The width and height of each cached chunk in tiles
+	 * @param maxCachedChunks The maximum amount of chunks to keep cached per layer
+	 */
+	public HexagonalTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers, int chunkSize, int maxCachedChunks) {
+		super(tiledMap, cacheLayers, chunkSize, maxCachedChunks);
 
 		sideOffsetX = (tiledMap.getTileWidth() - (tiledMap.getSideLength() * 2)) / 2;
 		sideOffsetY = (tiledMap.getTileHeight() - (tiledMap.getSideLength() * 2)) / 2;
 
-		switch (tiledMap.getStaggerAxis()) {
-		case X:
+		if (tiledMap.getStaggerAxis() == StaggerAxis.X) {
 			hexWidth = (tiledMap.getSideLength() * 2) + sideOffsetX;
 			hexHeight = tiledMap.getTileHeight();
-			break;
-		case Y:
-		default:
+		} else {
 			hexWidth = tiledMap.getTileWidth();
 			hexHeight = (tiledMap.getSideLength() * 2) + sideOffsetY;
-			break;
 		}
 
-		quarterHexWidth = MathUtils.round(hexWidth * 0.25f);
-		quarterHexHeight = MathUtils.round(hexHeight * 0.25f);
 		halfHexWidth = MathUtils.round(hexWidth * 0.5f);
 		halfHexHeight = MathUtils.round(hexHeight * 0.5f);
 		threeQuarterHexWidth = MathUtils.round(hexWidth * 0.75f);
 		threeQuarterHexHeight = MathUtils.round(hexHeight * 0.75f);
-	}
-
-	@Override
-	public void drawLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX, int startTileY,
-			int widthInTiles, int heightInTiles) {
-		// TODO: Support caching
-		switch (tiledMap.getStaggerAxis()) {
-		case X:
-			drawStaggeredXLayer(g, layer, renderX, renderY, startTileX, startTileY, widthInTiles, heightInTiles);
-			break;
-		case Y:
-		default:
-			drawStaggeredYLayer(g, layer, renderX, renderY, startTileX, startTileY, widthInTiles, heightInTiles);
-			break;
-		}
-	}
-
-	private void drawStaggeredXLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX,
-			int startTileY, int widthInTiles, int heightInTiles) {
-		for (int y = 0; y < heightInTiles; y++) {
-			switch (tiledMap.getStaggerIndex()) {
-			case EVEN: {
-				int row1Offset = startTileX % 2 == 0 ? 1 : 0;
-				int row2Offset = startTileX % 2 == 0 ? 0 : 1;
-				for (int x = row1Offset; x < widthInTiles; x += 2) {
-					int tileId = layer.getTileId(x + startTileX, y + startTileY);
-
-					if (tileId < 1) {
-						continue;
-					}
-					int tileRenderX = renderX + (x * threeQuarterHexWidth);
-					int tileRenderY = renderY + (y * hexHeight);
-					renderTile(g, tileId, tileRenderX, tileRenderY);
-				}
-				for (int x = row2Offset; x < widthInTiles; x += 2) {
-					int tileId = layer.getTileId(x + startTileX, y + startTileY);
-
-					if (tileId < 1) {
-						continue;
-					}
-					int tileRenderX = renderX + (x * threeQuarterHexWidth);
-					int tileRenderY = renderY + (y * hexHeight) + halfHexHeight;
-					renderTile(g, tileId, tileRenderX, tileRenderY);
-				}
-				break;
-			}
-			case ODD:
-			default: {
-				int row1Offset = startTileX % 2 == 0 ? 0 : 1;
-				int row2Offset = startTileX % 2 == 0 ? 1 : 0;
-				for (int x = row1Offset; x <  + widthInTiles; x += 2) {
-					int tileId = layer.getTileId(x + startTileX, y + startTileY);
-
-					if (tileId < 1) {
-						continue;
-					}
-					int tileRenderX = renderX + (x * threeQuarterHexWidth);
-					int tileRenderY = renderY + (y * hexHeight);
-					renderTile(g, tileId, tileRenderX, tileRenderY);
-				}
-				for (int x = row2Offset; x < widthInTiles; x += 2) {
-					int tileId = layer.getTileId(x + startTileX, y + startTileY);
-
-					if (tileId < 1) {
-						continue;
-					}
-					int tileRenderX = renderX + (x * threeQuarterHexWidth);
-					int tileRenderY = renderY + (y * hexHeight) + halfHexHeight;
-					renderTile(g, tileId, tileRenderX, tileRenderY);
-				}
-				break;
-			}
-			}
-		}
-	}
-
-	private void drawStaggeredYLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX,
-			int startTileY, int widthInTiles, int heightInTiles) {
-		for (int y = 0; y < heightInTiles; y++) {
-			int tileRenderY = renderY + (y * threeQuarterHexHeight);
-
-			for (int x = 0; x < widthInTiles; x++) {
-				int tileId = layer.getTileId(x + startTileX, y + startTileY);
-
-				if (tileId < 1) {
-					continue;
-				}
 
-				int tileRenderX = renderX + (x * hexWidth);
-
-				switch (tiledMap.getStaggerIndex()) {
-				case EVEN: {
-					if (y % 2 == 0) {
-						tileRenderX += halfHexWidth;
-					}
-					break;
-				}
-				default:
-				case ODD: {
-					if (y % 2 == 1) {
-						tileRenderX += halfHexWidth;
-					}
-					break;
-				}
-				}
-
-				renderTile(g, tileId, tileRenderX, tileRenderY);
-			}
+		if (tiledMap.getStaggerAxis() == StaggerAxis.X) {
+			setLayout(threeQuarterHexWidth, hexHeight, halfHexHeight);
+		} else {
+			setLayout(hexWidth, threeQuarterHexHeight, halfHexWidth);
 		}
 	}
-
-	private void renderTile(Graphics g, int tileId, int tileRenderX, int tileRenderY) {
-		for (int i = 0; i < tiledMap.getTilesets().size; i++) {
-			Tileset tileset = tiledMap.getTilesets().get(i);
-			if (tileset.contains(tileId)) {
-				tileset.getTile(tileId).draw(g, tileRenderX, tileRenderY);
-				break;
-			}
-		}
-	}
-
-	@Override
-	public void dispose() {
-
-	}
-
 }
@@ -11,27 +11,38 @@
  */
 package org.mini2Dx.tiled.renderer;
 
-import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.tiled.StaggerAxis;
 import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TiledMap;
 
 /**
  * Renders isometric {@link TileLayer}s in <a href=
  * "http://gamedev.stackexchange.com/questions/49847/difference-between-staggered-isometric-and-normal-isometric-tilemaps/49848#49848">
  * staggered mode</a>
  */
-public class IsometricStaggeredTileLayerRenderer implements TileLayerRenderer {
+public class IsometricStaggeredTileLayerRenderer extends StaggeredTileLayerRenderer {
 
-	@Override
-	public void drawLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX, int startTileY,
-			int widthInTiles, int heightInTiles) {
-		// TODO Auto-generated method stub
-		
+	public IsometricStaggeredTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers) {
+		this(tiledMap, cacheLayers, TiledMap.CACHED_CHUNK_SIZE, TiledMap.MAX_CACHED_CHUNKS);
 	}
 
-	@Override
-	public void dispose() {
-		// TODO Auto-generated method stub
-		
-	}
+	/**
+	 * Constructor
+	 * @param tiledMap The {@link TiledMap} to render
+	 * @param cacheLayers True if tile layers should be cached
+	 * @param chunkSize The width and height of each cached chunk in tiles
+	 * @param maxCachedChunks The maximum amount of chunks to keep cached per layer
+	 */
+	public IsometricStaggeredTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers, int chunkSize,
+			int maxCachedChunks) {
+		super(tiledMap, cacheLayers, chunkSize, maxCachedChunks);
 
+		final float tileWidth = tiledMap.getTileWidth();
+		final float tileHeight = tiledMap.getTileHeight();
+		if (tiledMap.getStaggerAxis() == StaggerAxis.X) {
+			setLayout(tileWidth / 2f, tileHeight, tileHeight / 2f);
+		} else {
+			setLayout(tileWidth, tileHeight / 2f, tileWidth / 2f);
+		}
+	}
 }
@@ -11,101 +11,70 @@
  */
 package org.mini2Dx.tiled.renderer;
 
-import com.badlogic.gdx.math.MathUtils;
-import org.mini2Dx.core.graphics.Graphics;
 import org.mini2Dx.tiled.TileLayer;
 import org.mini2Dx.tiled.TiledMap;
-import org.mini2Dx.tiled.Tileset;
 
 /**
  * Renders isometric {@link TileLayer}s
+ * 
+ * Tiles are drawn one diagonal row at a time. The range of visible diagonals
+ * and the visible tiles within each diagonal are calculated from the
+ * viewport so that the cost of drawing a layer depends on the viewport size
+ * rather than the map size.
  */
-public class IsometricTileLayerRenderer implements TileLayerRenderer {
-	private TiledMapRenderArea mapClip, tmpClip;
-	
-	private final boolean cacheLayers;
-	private final TiledMap tiledMap;
+public class IsometricTileLayerRenderer extends ProjectedTileLayerRenderer {
 	private final float halfTileWidth, halfTileHeight;
 
 	public IsometricTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers) {
-		super();
-		this.cacheLayers = cacheLayers;
-		this.tiledMap = tiledMap;
-		
+		this(tiledMap, cacheLayers, TiledMap.CACHED_CHUNK_SIZE, TiledMap.MAX_CACHED_CHUNKS);
+	}
+
+	/**
+	 * Constructor
+	 * @param tiledMap The {@link TiledMap} to render
+	 * @param cacheLayers True if tile layers should be cached
+	 * @param chunkSize The width and height of each cached chunk in tiles
+	 * @param maxCachedChunks The maximum amount of chunks to keep cached per layer
+	 */
+	public IsometricTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers, int chunkSize, int maxCachedChunks) {
+		super(tiledMap, cacheLayers, chunkSize, maxCachedChunks);
 		this.halfTileWidth = tiledMap.getTileWidth() / 2f;
 		this.halfTileHeight = tiledMap.getTileHeight() / 2f;
 	}
 
 	@Override
-	public void drawLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX, int startTileY,
-			int widthInTiles, int heightInTiles) {
-		
-		//TODO: Support cached layers through SpriteCache
-		renderLayer(g, layer, renderX, renderY, startTileX,
-				startTileY, widthInTiles, heightInTiles);
-	}
-	
-	private void renderLayer(Graphics g, TileLayer layer, int renderX,
-			int renderY, int startTileX, int startTileY, int widthInTiles,
-			int heightInTiles) {
-		int totalRows = widthInTiles + heightInTiles;
-		
-		for(int row = 0; row < totalRows - 1; row++) {
-			int startX = getStartX(row, heightInTiles);
-			int endY = getEndY(row, widthInTiles);
-			int totalCols = getTotalCols(row, widthInTiles, heightInTiles);
-			
-			for(int col = 0; col < totalCols; col++) {
-				int relativeTileX = col + startX;
-				int relativeTileY = totalCols - col - 1 + endY;
-				
-				int tileId = layer.getTileId(startTileX + relativeTileX, 
-						startTileY + relativeTileY);
-				if (tileId < 1) {
-					continue;
-				}
-				
-				int tileRenderX = MathUtils.round(renderX + ((relativeTileX - relativeTileY) * halfTileWidth));
-				int tileRenderY = MathUtils.round(renderY + ((relativeTileX + relativeTileY) * halfTileHeight));
-				
-				for (int i = 0; i < tiledMap.getTilesets().size; i++) {
-					Tileset tileset = tiledMap.getTilesets().get(i);
-					if (tileset.contains(tileId)) {
-						tileset.getTile(tileId).draw(g, tileRenderX, tileRenderY);
-						break;
-					}
-				}
-			}
-		}
-	}
-	
-	private int getTotalCols(int row, int width, int height) {
-		if(row < width && row < height) {
-			return row + 1;
-		}
-		if(row >= height) {
-			return width + height - row - 1;
-		}
-		return Math.min(width, height);
-	}
-	
-	private int getStartX(int row, int height) {
-		if(row < height) {
-			return 0;
-		}
-		return row - height + 1;
+	public float getTileRenderX(int tileX, int tileY) {
+		return (tileX - tileY) * halfTileWidth;
 	}
-	
-	private int getEndY(int row, int width) {
-		if(row < width) {
-			return 0;
-		}
-		return row - width + 1;
-	}
-	
+
 	@Override
-	public void dispose() {
-		
+	public float getTileRenderY(int tileX, int tileY) {
+		return (tileX + tileY) * halfTileHeight;
 	}
 
+	@Override
+	protected void visitTiles(TileLayer layer, int startTileX, int startTileY, int endTileX, int endTileY) {
+		final int lastTileX = endTileX - 1;
+		final int lastTileY = endTileY - 1;
+
+		// Each diagonal is drawn at y = (x + y) * halfTileHeight
+		final int firstDiagonal = ceil(getVisibleMinY() / halfTileHeight, startTileX + startTileY,
+				lastTileX + lastTileY + 1);
+		final int lastDiagonal = floor(getVisibleMaxY() / halfTileHeight, startTileX + startTileY - 1,
+				lastTileX + lastTileY);
+		final float minColumn = getVisibleMinX() / halfTileWidth;
+		final float maxColumn = getVisibleMaxX() / halfTileWidth;
+
+		for (int diagonal = firstDiagonal; diagonal <= lastDiagonal; diagonal++) {
+			final int fromX = Math.max(startTileX, diagonal - lastTileY);
+			final int toX = Math.min(lastTileX, diagonal - startTileY);
+
+			// Tiles are drawn at x = (2x - diagonal) * halfTileWidth
+			final int firstX = ceil((minColumn + diagonal) * 0.5f, fromX, toX + 1);
+			final int lastX = floor((maxColumn + diagonal) * 0.5f, fromX - 1, toX);
+			for (int x = firstX; x <= lastX; x++) {
+				visitTile(layer, x, diagonal - x);
+			}
+		}
+	}
 }
@@ -17,7 +17,6 @@ import org.mini2Dx.core.graphics.Graphics;
 import org.mini2Dx.tiled.Tile;
 import org.mini2Dx.tiled.TileLayer;
 import org.mini2Dx.tiled.TiledMap;
-import org.mini2Dx.tiled.Tileset;
 
 /**
  * Optimises CPU time (at cost of memory) for rendering orthogonal {@link TileLayer}s
@@ -76,18 +75,13 @@ public class OrthogonalEmptyTileLayerRenderer implements TileLayerRenderer {
 			}
 
 			if(tileRef.tile == null) {
-				for (int i = 0; i < tiledMap.getTilesets().size; i++) {
-					Tileset tileset = tiledMap.getTilesets().get(i);
-					if (tileset.contains(tileRef.tileId)) {
-						tileRef.tile = tileset.getTile(tileRef.tileId);
-						break;
-					}
-				}
+				tileRef.tile = tiledMap.getTile(tileRef.tileId);
 			}
 			if(tileRef.tile != null) {
-				boolean flipHorizontally = layer.isFlippedHorizontally(tileRef.x, tileRef.y);
-				boolean flipVertically = layer.isFlippedVertically(tileRef.x, tileRef.y);
-				boolean flipDiagonally = layer.isFlippedDiagonally(tileRef.x, tileRef.y);
+				final int packedTile = layer.getPackedTile(tileRef.x, tileRef.y);
+				boolean flipHorizontally = (packedTile & TileLayer.FLAG_FLIP_HORIZONTALLY) != 0;
+				boolean flipVertically = (packedTile & TileLayer.FLAG_FLIP_VERTICALLY) != 0;
+				boolean flipDiagonally = (packedTile & TileLayer.FLAG_FLIP_DIAGONALLY) != 0;
 
 				int tileRenderX = renderX + (tileRef.x * tiledMap.getTileWidth());
 				int tileRenderY = renderY + (tileRef.y * tiledMap.getTileHeight());
@@ -13,7 +13,7 @@ package org.mini2Dx.tiled.renderer;
 
 import com.badlogic.gdx.graphics.g2d.SpriteCache;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.IntMap;
 import org.mini2Dx.core.geom.Rectangle;
 import org.mini2Dx.core.graphics.Graphics;
@@ -21,28 +21,53 @@ import org.mini2Dx.tiled.*;
 
 /**
  * Renders orthogonal {@link TileLayer}s
+ * 
+ * When layers are cached, each layer is split into chunks of
+ * {@link TiledMap#CACHED_CHUNK_SIZE} tiles which are cached on demand by a
+ * {@link TileLayerChunkCache}. Only chunks intersecting the rendered area are
+ * drawn so scrolling never requires the whole layer to be rebuilt. Cached
+ * chunks of a {@link ChunkedTileLayer} are rebuilt whenever its resident
+ * chunks change. Tiles of a {@link ChunkedTileLayer} are offset by
+ * {@link ChunkedTileLayer#getStartX()} and {@link ChunkedTileLayer#getStartY()}
+ * so that layers with different bounds line up. Tiles with an
+ * {@link AnimatedTileRenderer} are left out of the cache and drawn every frame
+ * in one pass after all of the layer's chunks, grouped by tile so each
+ * animation is looked up once per chunk.
+ * 
+ * When {@link TiledMap#OCCLUSION_CULLING} is enabled, tiles hidden by an
+ * opaque tile on a higher layer are skipped using the map's
+ * {@link TileOcclusionMask}. When a tile is set, only the cached chunks
+ * containing cells whose occlusion changed are rebuilt.
  */
-public class OrthogonalTileLayerRenderer implements TileLayerRenderer {
-	private TiledMapRenderArea mapClip, tmpClip;
-	private SpriteCache layerCache;
-	private IntIntMap layerCacheIds;
+public class OrthogonalTileLayerRenderer implements TileLayerRenderer, TileLayerChunkCache.ChunkBuilder {
+	private TileLayerChunkCache chunkCache;
 	private IntMap<OrthogonalEmptyTileLayerRenderer> emptyTileLayerRenderers;
+	private final AnimatedTileGroups animatedTileGroups = new AnimatedTileGroups();
+	private final IntArray changedCells = new IntArray();
 
 	private final boolean cacheLayers;
 	private final TiledMap tiledMap;
 	private final Rectangle graphicsClip = new Rectangle();
 
 	public OrthogonalTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers) {
+		this(tiledMap, cacheLayers, TiledMap.CACHED_CHUNK_SIZE, TiledMap.MAX_CACHED_CHUNKS);
+	}
+
+	/**
+	 * Constructor
+	 * @param tiledMap The {@link TiledMap} to render
+	 * @param cacheLayers True if tile layers should be cached
+	 * @param chunkSize The width and height of each cached chunk in tiles
+	 * @param maxCachedChunks The maximum amount of chunks to keep cached per layer
+	 */
+	public OrthogonalTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers, int chunkSize, int maxCachedChunks) {
 		super();
 		this.cacheLayers = cacheLayers;
 		this.tiledMap = tiledMap;
 
 		if (cacheLayers) {
-			layerCache = new SpriteCache(5000, true);
-			layerCacheIds = new IntIntMap();
+			chunkCache = new TileLayerChunkCache(chunkSize, maxCachedChunks, this);
 		}
-		mapClip = new TiledMapRenderArea();
-		tmpClip = new TiledMapRenderArea();
 
 		if(TiledMap.FAST_RENDER_EMPTY_LAYERS && !cacheLayers) {
 			emptyTileLayerRenderers = new IntMap<OrthogonalEmptyTileLayerRenderer>();
@@ -51,6 +76,9 @@ public class OrthogonalTileLayerRenderer implements TileLayerRenderer {
 					continue;
 				}
 				final TileLayer tileLayer = tiledMap.getTileLayer(layer.getIndex());
+				if(tileLayer instanceof ChunkedTileLayer) {
+					continue;
+				}
 				if(!tileLayer.isMostlyEmptyTiles()) {
 					continue;
 				}
@@ -62,6 +90,14 @@ public class OrthogonalTileLayerRenderer implements TileLayerRenderer {
 	@Override
 	public void drawLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX, int startTileY,
 			int widthInTiles, int heightInTiles) {
+		final TileOcclusionMask occlusionMask = tiledMap.getOcclusionMask();
+		if (occlusionMask != null) {
+			if (occlusionMask.update()) {
+				invalidateCache();
+			} else {
+				invalidateOcclusionChanges(occlusionMask);
+			}
+		}
 		if(TiledMap.FAST_RENDER_EMPTY_LAYERS && emptyTileLayerRenderers != null) {
 			final OrthogonalEmptyTileLayerRenderer renderer = emptyTileLayerRenderers.get(layer.getIndex(), null);
 			if(renderer != null) {
@@ -69,6 +105,10 @@ public class OrthogonalTileLayerRenderer implements TileLayerRenderer {
 				return;
 			}
 		}
+		if (layer instanceof ChunkedTileLayer) {
+			startTileX -= ((ChunkedTileLayer) layer).getStartX();
+			startTileY -= ((ChunkedTileLayer) layer).getStartY();
+		}
 		if(cacheLayers) {
 			renderWithClipAndTranslate(g, layer, renderX, renderY, startTileX, startTileY, widthInTiles, heightInTiles);
 		} else {
@@ -111,7 +151,7 @@ public class OrthogonalTileLayerRenderer implements TileLayerRenderer {
 			g.setClip(graphicsClip);
 		}
 
-		renderCachedLayer(g, layer, 0, 0, startTileX, startTileY, widthInTiles, heightInTiles);
+		renderCachedLayer(g, layer, startTileX, startTileY, widthInTiles, heightInTiles);
 
 		g.removeClip();
 		g.translate(tileRenderX, tileRenderY);
@@ -121,37 +161,46 @@ public class OrthogonalTileLayerRenderer implements TileLayerRenderer {
 		}
 	}
 
-	private void renderCachedLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX,
-			int startTileY, int widthInTiles, int heightInTiles) {
-		tmpClip.set(startTileX, startTileY, widthInTiles, heightInTiles);
-		if (!mapClip.equals(tmpClip)) {
-			layerCache.clear();
-			layerCacheIds.clear();
-			mapClip.set(startTileX, startTileY, widthInTiles, heightInTiles);
-		}
-		if (!layerCacheIds.containsKey(layer.getIndex())) {
-			renderLayerToCache(g, layer, renderX, renderY, startTileX, startTileY, widthInTiles, heightInTiles);
+	private void renderCachedLayer(Graphics g, TileLayer layer, int startTileX, int startTileY, int widthInTiles,
+			int heightInTiles) {
+		final int chunkSize = chunkCache.getChunkSize();
+		final int endTileX = Math.min(startTileX + widthInTiles, layer.getWidth()) - 1;
+		final int endTileY = Math.min(startTileY + heightInTiles, layer.getHeight()) - 1;
+		if (endTileX < 0 || endTileY < 0) {
+			return;
 		}
+		final int startChunkX = Math.max(0, startTileX) / chunkSize;
+		final int startChunkY = Math.max(0, startTileY) / chunkSize;
 
-		int cacheId = layerCacheIds.get(layer.getIndex(), -1);
-		if(cacheId < 0) {
-			return;
+		if (layer instanceof ChunkedTileLayer && ((ChunkedTileLayer) layer).pollResidencyChanged()) {
+			chunkCache.invalidate(layer.getIndex());
 		}
-		g.drawSpriteCache(layerCache, cacheId);
+		chunkCache.markUsage();
+		for (int chunkY = startChunkY; chunkY <= endTileY / chunkSize; chunkY++) {
+			for (int chunkX = startChunkX; chunkX <= endTileX / chunkSize; chunkX++) {
+				chunkCache.draw(g, layer, chunkX, chunkY);
+			}
+		}
+		chunkCache.drawAnimatedTiles(g, layer);
 	}
 
 	private void renderLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX, int startTileY,
 			int widthInTiles, int heightInTiles) {
-		for (int y = startTileY; y < startTileY + heightInTiles && y < layer.getHeight(); y++) {
-			for (int x = startTileX; x < startTileX + widthInTiles && x < layer.getWidth(); x++) {
-				int tileId = layer.getTileId(x, y);
+		final TileOcclusionMask occlusionMask = getOcclusionMask(layer);
+		for (int y = Math.max(0, startTileY); y < startTileY + heightInTiles && y < layer.getHeight(); y++) {
+			for (int x = Math.max(0, startTileX); x < startTileX + widthInTiles && x < layer.getWidth(); x++) {
+				final int packedTile = layer.getPackedTile(x, y);
+				final int tileId = packedTile & TileLayer.MASK_TILE_ID;
 
 				if (tileId < 1) {
 					continue;
 				}
-				boolean flipHorizontally = layer.isFlippedHorizontally(x, y);
-				boolean flipVertically = layer.isFlippedVertically(x, y);
-				boolean flipDiagonally = layer.isFlippedDiagonally(x, y);
+				if (occlusionMask != null && occlusionMask.isOccluded(layer.getIndex(), x, y)) {
+					continue;
+				}
+				boolean flipHorizontally = (packedTile & TileLayer.FLAG_FLIP_HORIZONTALLY) != 0;
+				boolean flipVertically = (packedTile & TileLayer.FLAG_FLIP_VERTICALLY) != 0;
+				boolean flipDiagonally = (packedTile & TileLayer.FLAG_FLIP_DIAGONALLY) != 0;
 
 				int tileRenderX = renderX + (x * tiledMap.getTileWidth());
 				int tileRenderY = renderY + (y * tiledMap.getTileHeight());
@@ -169,46 +218,106 @@ public class OrthogonalTileLayerRenderer implements TileLayerRenderer {
 					continue;
 				}
 
-				for (int i = 0; i < tiledMap.getTilesets().size; i++) {
-					Tileset tileset = tiledMap.getTilesets().get(i);
-					if (tileset.contains(tileId)) {
-						tileset.getTile(tileId).draw(g, tileRenderX, tileRenderY, flipHorizontally, flipVertically, flipDiagonally);
-						break;
-					}
+				final Tile tile = tiledMap.getTile(tileId);
+				if (tile != null) {
+					tile.draw(g, tileRenderX, tileRenderY, flipHorizontally, flipVertically, flipDiagonally);
 				}
 			}
 		}
 	}
 
-	private void renderLayerToCache(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX,
-			int startTileY, int widthInTiles, int heightInTiles) {
-		layerCache.beginCache();
-		for (int y = startTileY; y < startTileY + heightInTiles && y < layer.getHeight(); y++) {
-			for (int x = startTileX; x < startTileX + widthInTiles && x < layer.getWidth(); x++) {
-				int tileId = layer.getTileId(x, y);
+	@Override
+	public int buildChunk(SpriteCache spriteCache, TileLayer layer, int startTileX, int startTileY, int widthInTiles,
+			int heightInTiles, IntArray animatedTiles) {
+		final TileOcclusionMask occlusionMask = getOcclusionMask(layer);
+		int totalTiles = 0;
+		for (int y = startTileY; y < startTileY + heightInTiles; y++) {
+			for (int x = startTileX; x < startTileX + widthInTiles; x++) {
+				final int packedTile = layer.getPackedTile(x, y);
+				final int tileId = packedTile & TileLayer.MASK_TILE_ID;
 
 				if (tileId < 1) {
 					continue;
 				}
-				
-				boolean flipHorizontally = layer.isFlippedHorizontally(x, y);
-				boolean flipVertically = layer.isFlippedVertically(x, y);
-				boolean flipDiagonally = layer.isFlippedDiagonally(x, y);
-				
-				int tileRenderX = renderX + (x * tiledMap.getTileWidth());
-				int tileRenderY = renderY + (y * tiledMap.getTileHeight());
+				if (occlusionMask != null && occlusionMask.isOccluded(layer.getIndex(), x, y)) {
+					continue;
+				}
+
+				int tileRenderX = x * tiledMap.getTileWidth();
+				int tileRenderY = y * tiledMap.getTileHeight();
 
-				for (int i = 0; i < tiledMap.getTilesets().size; i++) {
-					Tileset tileset = tiledMap.getTilesets().get(i);
-					if (tileset.contains(tileId)) {
-						layerCache.add(tileset.getTile(tileId).getTileRenderer().getCurrentTileImage(), tileRenderX,
-								tileRenderY);
-						break;
-					}
+				final Tile tile = tiledMap.getTile(tileId);
+				if (tile == null) {
+					continue;
 				}
+				if (tile.getTileRenderer() instanceof AnimatedTileRenderer) {
+					animatedTileGroups.add(tileId, tileRenderX, tileRenderY, packedTile);
+					continue;
+				}
+				spriteCache.add(tile.getTileRenderer().getCurrentTileImage(), tileRenderX, tileRenderY);
+				totalTiles++;
+			}
+		}
+
+		animatedTileGroups.flush(animatedTiles);
+		return totalTiles;
+	}
+
+	@Override
+	public void drawAnimatedTiles(Graphics g, TileLayer layer, IntArray animatedTiles) {
+		AnimatedTileGroups.draw(g, tiledMap, animatedTiles);
+	}
+
+	private void invalidateOcclusionChanges(TileOcclusionMask occlusionMask) {
+		changedCells.clear();
+		occlusionMask.pollChangedCells(changedCells);
+		if (chunkCache == null) {
+			return;
+		}
+		// Stored as [x, y, previousTopOpaqueLayer, topOpaqueLayer] per cell
+		for (int i = 0; i < changedCells.size; i += 4) {
+			final int x = changedCells.get(i);
+			final int y = changedCells.get(i + 1);
+			final int previousLayer = changedCells.get(i + 2);
+			final int currentLayer = changedCells.get(i + 3);
+			final int firstLayer = Math.max(0, Math.min(previousLayer, currentLayer));
+			final int lastLayer = Math.max(previousLayer, currentLayer);
+			for (int layerIndex = firstLayer; layerIndex <= lastLayer; layerIndex++) {
+				chunkCache.invalidate(layerIndex, x, y);
 			}
 		}
-		layerCacheIds.put(layer.getIndex(), layerCache.endCache());
+	}
+
+	private TileOcclusionMask getOcclusionMask(TileLayer layer) {
+		if (layer instanceof ChunkedTileLayer) {
+			return null;
+		}
+		return tiledMap.getOcclusionMask();
+	}
+
+	/**
+	 * Rebuilds all cached chunks the next time they are drawn. Call this
+	 * after modifying tiles when layers are cached.
+	 */
+	public void invalidateCache() {
+		if (chunkCache == null) {
+			return;
+		}
+		chunkCache.invalidate();
+	}
+
+	/**
+	 * Rebuilds the cached chunk containing a tile the next time it is drawn.
+	 * Call this after modifying a tile when layers are cached.
+	 * @param layer The {@link TileLayer} containing the tile
+	 * @param tileX The x coordinate in tiles
+	 * @param tileY The y coordinate in tiles
+	 */
+	public void invalidateCache(TileLayer layer, int tileX, int tileY) {
+		if (chunkCache == null) {
+			return;
+		}
+		chunkCache.invalidate(layer.getIndex(), tileX, tileY);
 	}
 
 	@Override
@@ -220,10 +329,10 @@ public class OrthogonalTileLayerRenderer implements TileLayerRenderer {
 			emptyTileLayerRenderers.clear();
 			emptyTileLayerRenderers = null;
 		}
-		if (layerCache == null) {
+		if (chunkCache == null) {
 			return;
 		}
-		layerCache.dispose();
+		chunkCache.dispose();
 	}
 
 }
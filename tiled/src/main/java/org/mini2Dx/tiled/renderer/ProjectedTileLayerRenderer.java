@@ -0,0 +1,394 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.renderer;
+
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.IntArray;
+import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.tiled.*;
+
+/**
+ * Base class for renderers of {@link TileLayer}s whose tiles are not laid
+ * out on a rectangular grid, e.g. isometric and hexagonal maps.
+ * 
+ * Implementations place each tile relative to tile (0,0) and visit the tiles
+ * of an area in back-to-front order. Only tiles that may overlap the
+ * {@link Graphics} viewport are visited, so implementations should derive
+ * the range of visible tiles from {@link #getVisibleMinX()} and related
+ * methods rather than testing every tile in the area.
+ * 
+ * When layers are cached, each layer is split into chunks of
+ * {@link TiledMap#CACHED_CHUNK_SIZE} tiles which are cached on demand by a
+ * {@link TileLayerChunkCache}, the same as
+ * {@link OrthogonalTileLayerRenderer}. Chunks are drawn diagonally from the
+ * top-left chunk so that overlapping tiles of neighbouring chunks are drawn
+ * back-to-front. Whole chunks are drawn so tiles just outside of the rendered
+ * area may be drawn when it does not line up with chunk boundaries. Animated
+ * tiles are drawn after all of the layer's chunks.
+ * 
+ * Tiles of a {@link ChunkedTileLayer} are offset by
+ * {@link ChunkedTileLayer#getStartX()} and {@link ChunkedTileLayer#getStartY()}
+ * so that layers with different bounds line up.
+ */
+public abstract class ProjectedTileLayerRenderer implements TileLayerRenderer, TileLayerChunkCache.ChunkBuilder {
+	protected final TiledMap tiledMap;
+
+	private final boolean cacheLayers;
+	private final AnimatedTileGroups animatedTileGroups = new AnimatedTileGroups();
+	private TileLayerChunkCache chunkCache;
+	private int maxTileWidth, maxTileHeight;
+
+	private Graphics graphics;
+	private SpriteCache spriteCache;
+	private float offsetX, offsetY;
+	private int totalCachedTiles;
+	private float visibleMinX, visibleMinY, visibleMaxX, visibleMaxY;
+
+	/**
+	 * Constructor
+	 * @param tiledMap The {@link TiledMap} to render
+	 * @param cacheLayers True if tile layers should be cached
+	 * @param chunkSize The width and height of each cached chunk in tiles
+	 * @param maxCachedChunks The maximum amount of chunks to keep cached per layer
+	 */
+	public ProjectedTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers, int chunkSize, int maxCachedChunks) {
+		super();
+		this.tiledMap = tiledMap;
+		this.cacheLayers = cacheLayers;
+
+		if (cacheLayers) {
+			chunkCache = new TileLayerChunkCache(chunkSize, maxCachedChunks, this);
+		}
+	}
+
+	/**
+	 * Returns the x coordinate a tile is drawn at relative to tile (0,0)
+	 * @param tileX The x coordinate in tiles
+	 * @param tileY The y coordinate in tiles
+	 * @return The x coordinate in pixels
+	 */
+	public abstract float getTileRenderX(int tileX, int tileY);
+
+	/**
+	 * Returns the y coordinate a tile is drawn at relative to tile (0,0)
+	 * @param tileX The x coordinate in tiles
+	 * @param tileY The y coordinate in tiles
+	 * @return The y coordinate in pixels
+	 */
+	public abstract float getTileRenderY(int tileX, int tileY);
+
+	/**
+	 * Returns the x coordinate relative to tile (0,0) that the render
+	 * position of a layer is anchored on when drawing starts from a tile
+	 * @param startTileX The first x coordinate being drawn (in tiles)
+	 * @param startTileY The first y coordinate being drawn (in tiles)
+	 * @return The x coordinate in pixels
+	 */
+	protected float getLayerAnchorX(int startTileX, int startTileY) {
+		return getTileRenderX(startTileX, startTileY);
+	}
+
+	/**
+	 * Returns the y coordinate relative to tile (0,0) that the render
+	 * position of a layer is anchored on when drawing starts from a tile
+	 * @param startTileX The first x coordinate being drawn (in tiles)
+	 * @param startTileY The first y coordinate being drawn (in tiles)
+	 * @return The y coordinate in pixels
+	 */
+	protected float getLayerAnchorY(int startTileX, int startTileY) {
+		return getTileRenderY(startTileX, startTileY);
+	}
+
+	/**
+	 * Calls {@link #visitTile(TileLayer, int, int)} for each tile in an area
+	 * in the order they should be drawn. Tiles that cannot be drawn within
+	 * the visible bounds may be skipped.
+	 * @param layer The {@link TileLayer} being drawn
+	 * @param startTileX The first x coordinate (in tiles, inclusive)
+	 * @param startTileY The first y coordinate (in tiles, inclusive)
+	 * @param endTileX The last x coordinate (in tiles, exclusive)
+	 * @param endTileY The last y coordinate (in tiles, exclusive)
+	 */
+	protected abstract void visitTiles(TileLayer layer, int startTileX, int startTileY, int endTileX, int endTileY);
+
+	@Override
+	public void drawLayer(Graphics g, TileLayer layer, int renderX, int renderY, int startTileX, int startTileY,
+			int widthInTiles, int heightInTiles) {
+		if (layer instanceof ChunkedTileLayer) {
+			// Tiled aligns chunks to the chunk size so staggered rows keep their parity for even sizes
+			startTileX -= ((ChunkedTileLayer) layer).getStartX();
+			startTileY -= ((ChunkedTileLayer) layer).getStartY();
+		}
+		final int endTileX = Math.min(startTileX + widthInTiles, layer.getWidth());
+		final int endTileY = Math.min(startTileY + heightInTiles, layer.getHeight());
+		final float originX = renderX - getLayerAnchorX(startTileX, startTileY);
+		final float originY = renderY - getLayerAnchorY(startTileX, startTileY);
+		startTileX = Math.max(0, startTileX);
+		startTileY = Math.max(0, startTileY);
+		if (startTileX >= endTileX || startTileY >= endTileY) {
+			return;
+		}
+		updateMaxTileSize();
+
+		if (cacheLayers) {
+			renderCachedLayer(g, layer, MathUtils.round(originX), MathUtils.round(originY), startTileX, startTileY,
+					endTileX, endTileY);
+			return;
+		}
+		setVisibleBounds(g, originX, originY);
+		graphics = g;
+		offsetX = originX;
+		offsetY = originY;
+		visitTiles(layer, startTileX, startTileY, endTileX, endTileY);
+		graphics = null;
+	}
+
+	private void renderCachedLayer(Graphics g, TileLayer layer, int originX, int originY, int startTileX,
+			int startTileY, int endTileX, int endTileY) {
+		if (layer instanceof ChunkedTileLayer && ((ChunkedTileLayer) layer).pollResidencyChanged()) {
+			chunkCache.invalidate(layer.getIndex());
+		}
+		chunkCache.markUsage();
+
+		g.translate(-originX, -originY);
+		setVisibleBounds(g, 0f, 0f);
+
+		final int chunkSize = chunkCache.getChunkSize();
+		final int startChunkX = startTileX / chunkSize;
+		final int startChunkY = startTileY / chunkSize;
+		final int endChunkX = (endTileX - 1) / chunkSize;
+		final int endChunkY = (endTileY - 1) / chunkSize;
+
+		for (int diagonal = startChunkX + startChunkY; diagonal <= endChunkX + endChunkY; diagonal++) {
+			final int fromChunkY = Math.max(startChunkY, diagonal - endChunkX);
+			final int toChunkY = Math.min(endChunkY, diagonal - startChunkX);
+			for (int chunkY = fromChunkY; chunkY <= toChunkY; chunkY++) {
+				final int chunkX = diagonal - chunkY;
+				if (!isChunkVisible(layer, chunkX * chunkSize, chunkY * chunkSize, chunkSize)) {
+					continue;
+				}
+				chunkCache.draw(g, layer, chunkX, chunkY);
+			}
+		}
+		chunkCache.drawAnimatedTiles(g, layer);
+		g.translate(originX, originY);
+	}
+
+	private boolean isChunkVisible(TileLayer layer, int startTileX, int startTileY, int chunkSize) {
+		final int endTileX = Math.min(startTileX + chunkSize, layer.getWidth()) - 1;
+		final int endTileY = Math.min(startTileY + chunkSize, layer.getHeight()) - 1;
+
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+		for (int corner = 0; corner < 4; corner++) {
+			final int tileX = (corner & 1) == 0 ? startTileX : endTileX;
+			final int tileY = (corner & 2) == 0 ? startTileY : endTileY;
+			final float tileRenderX = getTileRenderX(tileX, tileY);
+			final float tileRenderY = getTileRenderY(tileX, tileY);
+			minX = Math.min(minX, tileRenderX);
+			minY = Math.min(minY, tileRenderY);
+			maxX = Math.max(maxX, tileRenderX);
+			maxY = Math.max(maxY, tileRenderY);
+		}
+
+		// Staggered layouts offset every other row or column
+		final int paddingX = tiledMap.getTileWidth();
+		final int paddingY = tiledMap.getTileHeight();
+		if (maxX + paddingX < visibleMinX || minX - paddingX > visibleMaxX) {
+			return false;
+		}
+		if (maxY + paddingY < visibleMinY || minY - paddingY > visibleMaxY) {
+			return false;
+		}
+		return true;
+	}
+
+	private void setVisibleBounds(Graphics g, float originX, float originY) {
+		visibleMinX = g.getTranslationX() - originX - maxTileWidth;
+		visibleMinY = g.getTranslationY() - originY - maxTileHeight;
+		visibleMaxX = g.getTranslationX() + g.getViewportWidth() - originX;
+		visibleMaxY = g.getTranslationY() + g.getViewportHeight() - originY;
+	}
+
+	private void updateMaxTileSize() {
+		maxTileWidth = tiledMap.getTileWidth();
+		maxTileHeight = tiledMap.getTileHeight();
+		for (int i = 0; i < tiledMap.getTilesets().size; i++) {
+			final Tileset tileset = tiledMap.getTilesets().get(i);
+			maxTileWidth = Math.max(maxTileWidth, tileset.getTileWidth());
+			maxTileHeight = Math.max(maxTileHeight, tileset.getTileHeight());
+		}
+	}
+
+	/**
+	 * Draws or caches a tile if it can be drawn within the visible bounds
+	 * @param layer The {@link TileLayer} being drawn
+	 * @param tileX The x coordinate in tiles
+	 * @param tileY The y coordinate in tiles
+	 */
+	protected void visitTile(TileLayer layer, int tileX, int tileY) {
+		final int packedTile = layer.getPackedTile(tileX, tileY);
+		final int tileId = packedTile & TileLayer.MASK_TILE_ID;
+		if (tileId < 1) {
+			return;
+		}
+		final float tileRenderX = getTileRenderX(tileX, tileY);
+		final float tileRenderY = getTileRenderY(tileX, tileY);
+		if (tileRenderX < visibleMinX || tileRenderX > visibleMaxX) {
+			return;
+		}
+		if (tileRenderY < visibleMinY || tileRenderY > visibleMaxY) {
+			return;
+		}
+		final Tile tile = tiledMap.getTile(tileId);
+		if (tile == null) {
+			return;
+		}
+		if (spriteCache == null) {
+			tile.draw(graphics, MathUtils.round(offsetX + tileRenderX), MathUtils.round(offsetY + tileRenderY),
+					(packedTile & TileLayer.FLAG_FLIP_HORIZONTALLY) != 0,
+					(packedTile & TileLayer.FLAG_FLIP_VERTICALLY) != 0,
+					(packedTile & TileLayer.FLAG_FLIP_DIAGONALLY) != 0);
+			return;
+		}
+		if (tile.getTileRenderer() instanceof AnimatedTileRenderer) {
+			animatedTileGroups.add(tileId, MathUtils.round(tileRenderX), MathUtils.round(tileRenderY), packedTile);
+			return;
+		}
+		spriteCache.add(tile.getTileRenderer().getCurrentTileImage(), MathUtils.round(tileRenderX),
+				MathUtils.round(tileRenderY));
+		totalCachedTiles++;
+	}
+
+	@Override
+	public int buildChunk(SpriteCache spriteCache, TileLayer layer, int startTileX, int startTileY, int widthInTiles,
+			int heightInTiles, IntArray animatedTiles) {
+		this.spriteCache = spriteCache;
+		totalCachedTiles = 0;
+		visibleMinX = -Float.MAX_VALUE;
+		visibleMinY = -Float.MAX_VALUE;
+		visibleMaxX = Float.MAX_VALUE;
+		visibleMaxY = Float.MAX_VALUE;
+		visitTiles(layer, startTileX, startTileY, startTileX + widthInTiles, startTileY + heightInTiles);
+		this.spriteCache = null;
+
+		animatedTileGroups.flush(animatedTiles);
+		return totalCachedTiles;
+	}
+
+	@Override
+	public void drawAnimatedTiles(Graphics g, TileLayer layer, IntArray animatedTiles) {
+		AnimatedTileGroups.draw(g, tiledMap, animatedTiles);
+	}
+
+	/**
+	 * Returns the left edge of the area tiles must be drawn at to be visible
+	 * @return The x coordinate relative to tile (0,0)
+	 */
+	protected float getVisibleMinX() {
+		return visibleMinX;
+	}
+
+	/**
+	 * Returns the top edge of the area tiles must be drawn at to be visible
+	 * @return The y coordinate relative to tile (0,0)
+	 */
+	protected float getVisibleMinY() {
+		return visibleMinY;
+	}
+
+	/**
+	 * Returns the right edge of the area tiles must be drawn at to be visible
+	 * @return The x coordinate relative to tile (0,0)
+	 */
+	protected float getVisibleMaxX() {
+		return visibleMaxX;
+	}
+
+	/**
+	 * Returns the bottom edge of the area tiles must be drawn at to be visible
+	 * @return The y coordinate relative to tile (0,0)
+	 */
+	protected float getVisibleMaxY() {
+		return visibleMaxY;
+	}
+
+	/**
+	 * Returns the smallest integer greater than or equal to a value, clamped
+	 * between a minimum and maximum
+	 * @param value The value to round
+	 * @param min The minimum result
+	 * @param max The maximum result
+	 * @return The rounded value
+	 */
+	protected static int ceil(float value, int min, int max) {
+		if (value <= min) {
+			return min;
+		}
+		if (value >= max) {
+			return max;
+		}
+		return (int) Math.ceil(value);
+	}
+
+	/**
+	 * Returns the largest integer less than or equal to a value, clamped
+	 * between a minimum and maximum
+	 * @param value The value to round
+	 * @param min The minimum result
+	 * @param max The maximum result
+	 * @return The rounded value
+	 */
+	protected static int floor(float value, int min, int max) {
+		if (value <= min) {
+			return min;
+		}
+		if (value >= max) {
+			return max;
+		}
+		return (int) Math.floor(value);
+	}
+
+	/**
+	 * Rebuilds all cached chunks the next time they are drawn. Call this
+	 * after modifying tiles when layers are cached.
+	 */
+	public void invalidateCache() {
+		if (chunkCache == null) {
+			return;
+		}
+		chunkCache.invalidate();
+	}
+
+	/**
+	 * Rebuilds the cached chunk containing a tile the next time it is drawn.
+	 * Call this after modifying a tile when layers are cached.
+	 * @param layer The {@link TileLayer} containing the tile
+	 * @param tileX The x coordinate in tiles
+	 * @param tileY The y coordinate in tiles
+	 */
+	public void invalidateCache(TileLayer layer, int tileX, int tileY) {
+		if (chunkCache == null) {
+			return;
+		}
+		chunkCache.invalidate(layer.getIndex(), tileX, tileY);
+	}
+
+	@Override
+	public void dispose() {
+		if (chunkCache == null) {
+			return;
+		}
+		chunkCache.dispose();
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.renderer;
+
+import org.mini2Dx.tiled.StaggerAxis;
+import org.mini2Dx.tiled.StaggerIndex;
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TiledMap;
+
+/**
+ * Base class for renderers of {@link TileLayer}s where every other row or
+ * column is offset along the {@link StaggerAxis} of the map
+ * 
+ * Tiles are laid out in fixed size steps so the range of visible rows and
+ * columns is calculated directly from the viewport. Rows are drawn top to
+ * bottom. When staggered along the x axis, the columns of each row that are
+ * not offset are drawn before the columns that are.
+ */
+public abstract class StaggeredTileLayerRenderer extends ProjectedTileLayerRenderer {
+	private final StaggerAxis staggerAxis;
+	private final StaggerIndex staggerIndex;
+
+	private float columnStep, rowStep, staggerOffset;
+
+	/**
+	 * Constructor
+	 * @param tiledMap The {@link TiledMap} to render
+	 * @param cacheLayers True if tile layers should be cached
+	 * @param chunkSize The width and height of each cached chunk in tiles
+	 * @param maxCachedChunks The maximum amount of chunks to keep cached per layer
+	 */
+	public StaggeredTileLayerRenderer(TiledMap tiledMap, boolean cacheLayers, int chunkSize, int maxCachedChunks) {
+		super(tiledMap, cacheLayers, chunkSize, maxCachedChunks);
+		this.staggerAxis = tiledMap.getStaggerAxis() == null ? StaggerAxis.Y : tiledMap.getStaggerAxis();
+		this.staggerIndex = tiledMap.getStaggerIndex() == null ? StaggerIndex.ODD : tiledMap.getStaggerIndex();
+	}
+
+	/**
+	 * Sets the spacing between tiles. Must be called by the constructor of
+	 * implementations.
+	 * @param columnStep The horizontal distance between columns
+	 * @param rowStep The vertical distance between rows
+	 * @param staggerOffset The distance staggered rows or columns are offset by
+	 */
+	protected void setLayout(float columnStep, float rowStep, float staggerOffset) {
+		this.columnStep = columnStep;
+		this.rowStep = rowStep;
+		this.staggerOffset = staggerOffset;
+	}
+
+	/**
+	 * Returns if a row or column is offset
+	 * @param index The x coordinate of a column or y coordinate of a row
+	 * @return True if the row or column is offset
+	 */
+	protected boolean isStaggered(int index) {
+		switch (staggerIndex) {
+		case EVEN:
+			return (index & 1) == 0;
+		case ODD:
+		default:
+			return (index & 1) == 1;
+		}
+	}
+
+	@Override
+	public float getTileRenderX(int tileX, int tileY) {
+		final float tileRenderX = tileX * columnStep;
+		if (staggerAxis == StaggerAxis.Y && isStaggered(tileY)) {
+			return tileRenderX + staggerOffset;
+		}
+		return tileRenderX;
+	}
+
+	@Override
+	public float getTileRenderY(int tileX, int tileY) {
+		final float tileRenderY = tileY * rowStep;
+		if (staggerAxis == StaggerAxis.X && isStaggered(tileX)) {
+			return tileRenderY + staggerOffset;
+		}
+		return tileRenderY;
+	}
+
+	@Override
+	protected float getLayerAnchorX(int startTileX, int startTileY) {
+		//Staggered rows and columns are offset relative to the layer, not the layer itself
+		return startTileX * columnStep;
+	}
+
+	@Override
+	protected float getLayerAnchorY(int startTileX, int startTileY) {
+		return startTileY * rowStep;
+	}
+
+	@Override
+	protected void visitTiles(TileLayer layer, int startTileX, int startTileY, int endTileX, int endTileY) {
+		final float minOffsetX = staggerAxis == StaggerAxis.Y ? staggerOffset : 0f;
+		final float minOffsetY = staggerAxis == StaggerAxis.X ? staggerOffset : 0f;
+
+		final int firstX = ceil((getVisibleMinX() - minOffsetX) / columnStep, startTileX, endTileX);
+		final int lastX = floor(getVisibleMaxX() / columnStep, startTileX - 1, endTileX - 1);
+		final int firstY = ceil((getVisibleMinY() - minOffsetY) / rowStep, startTileY, endTileY);
+		final int lastY = floor(getVisibleMaxY() / rowStep, startTileY - 1, endTileY - 1);
+		if (firstX > lastX) {
+			return;
+		}
+
+		for (int y = firstY; y <= lastY; y++) {
+			switch (staggerAxis) {
+			case X: {
+				final int firstUnstaggeredX = isStaggered(firstX) ? firstX + 1 : firstX;
+				final int firstStaggeredX = isStaggered(firstX) ? firstX : firstX + 1;
+				for (int x = firstUnstaggeredX; x <= lastX; x += 2) {
+					visitTile(layer, x, y);
+				}
+				for (int x = firstStaggeredX; x <= lastX; x += 2) {
+					visitTile(layer, x, y);
+				}
+				break;
+			}
+			case Y:
+			default:
+				for (int x = firstX; x <= lastX; x++) {
+					visitTile(layer, x, y);
+				}
+				break;
+			}
+		}
+	}
+}
@@ -0,0 +1,348 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.renderer;
+
+import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.tiled.TileLayer;
+
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Caches {@link TileLayer}s as fixed-size chunks of tiles, each in its own
+ * {@link SpriteCache}. Chunks are built lazily the first time they are drawn
+ * and the least recently used chunks of a layer are evicted once the amount
+ * of chunks cached for that layer reaches the budget. Each layer has its own
+ * budget so drawing one layer never evicts the chunks of another. Chunks
+ * drawn since the last call to {@link #markUsage()} are never evicted so the
+ * budget should be larger than the amount of chunks visible in a layer.
+ * 
+ * Animated tiles cannot be baked into a {@link SpriteCache}, so each chunk
+ * also keeps the positions of its animated tiles. The animated tiles of every
+ * chunk drawn in a pass are collected and drawn together by
+ * {@link #drawAnimatedTiles(Graphics, TileLayer)} once all of the layer's
+ * chunks have been drawn.
+ */
+public class TileLayerChunkCache implements Disposable {
+	private static final int MAX_INDEXED_SPRITES = 8191;
+
+	private final LongMap<TileLayerChunk> chunks = new LongMap<TileLayerChunk>();
+	private final IntIntMap totalLayerChunks = new IntIntMap();
+	private final Array<SpriteCache> spriteCachePool = new Array<SpriteCache>();
+	private final IntArray animatedTiles = new IntArray();
+	private final IntArray layerAnimatedTiles = new IntArray();
+	private final int chunkSize;
+	private final int maxChunks;
+	private final ChunkBuilder chunkBuilder;
+
+	private long usage = 0L;
+
+	/**
+	 * Constructor
+	 * @param chunkSize The width and height of each chunk in tiles
+	 * @param maxChunks The maximum amount of chunks to keep cached per layer
+	 * @param chunkBuilder The {@link ChunkBuilder} that adds tiles to each chunk
+	 */
+	public TileLayerChunkCache(int chunkSize, int maxChunks, ChunkBuilder chunkBuilder) {
+		this.chunkSize = Math.max(1, chunkSize);
+		this.maxChunks = Math.max(1, maxChunks);
+		this.chunkBuilder = chunkBuilder;
+	}
+
+	/**
+	 * Marks the beginning of a new draw pass of a layer. Chunks drawn during
+	 * previous passes become candidates for eviction.
+	 */
+	public void markUsage() {
+		usage++;
+		layerAnimatedTiles.clear();
+	}
+
+	/**
+	 * Draws the cached tiles of a chunk, building it first if it is not
+	 * cached. Its animated tiles are drawn by
+	 * {@link #drawAnimatedTiles(Graphics, TileLayer)}.
+	 * @param g The {@link Graphics} context
+	 * @param layer The {@link TileLayer} the chunk belongs to
+	 * @param chunkX The x coordinate of the chunk (in chunks)
+	 * @param chunkY The y coordinate of the chunk (in chunks)
+	 */
+	public void draw(Graphics g, TileLayer layer, int chunkX, int chunkY) {
+		final long key = getKey(layer.getIndex(), chunkX, chunkY);
+		TileLayerChunk chunk = chunks.get(key);
+		if (chunk == null) {
+			chunk = buildChunk(layer, chunkX, chunkY);
+			chunks.put(key, chunk);
+			totalLayerChunks.getAndIncrement(layer.getIndex(), 0, 1);
+		}
+		chunk.lastUsage = usage;
+		if (chunk.spriteCache != null) {
+			g.drawSpriteCache(chunk.spriteCache, chunk.cacheId);
+		}
+		if (chunk.animatedTiles != null) {
+			layerAnimatedTiles.addAll(chunk.animatedTiles);
+		}
+	}
+
+	/**
+	 * Draws the animated tiles of all chunks drawn since the last call to
+	 * {@link #markUsage()} over the cached tiles. Call this once all chunks
+	 * of the layer have been drawn. The {@link Graphics} is flushed afterwards
+	 * so that the animated tiles are not drawn over the next layer's chunks.
+	 * @param g The {@link Graphics} context
+	 * @param layer The {@link TileLayer} being drawn
+	 */
+	public void drawAnimatedTiles(Graphics g, TileLayer layer) {
+		if (layerAnimatedTiles.size == 0) {
+			return;
+		}
+		chunkBuilder.drawAnimatedTiles(g, layer, layerAnimatedTiles);
+		layerAnimatedTiles.clear();
+		g.flush();
+	}
+
+	private TileLayerChunk buildChunk(TileLayer layer, int chunkX, int chunkY) {
+		final TileLayerChunk chunk = new TileLayerChunk(layer.getIndex());
+		final SpriteCache spriteCache = allocateSpriteCache(layer.getIndex());
+
+		final int startTileX = chunkX * chunkSize;
+		final int startTileY = chunkY * chunkSize;
+		final int widthInTiles = Math.min(chunkSize, layer.getWidth() - startTileX);
+		final int heightInTiles = Math.min(chunkSize, layer.getHeight() - startTileY);
+
+		spriteCache.clear();
+		spriteCache.beginCache();
+		animatedTiles.clear();
+		int totalTiles = chunkBuilder.buildChunk(spriteCache, layer, startTileX, startTileY, widthInTiles,
+				heightInTiles, animatedTiles);
+		int cacheId = spriteCache.endCache();
+
+		if (animatedTiles.size > 0) {
+			chunk.animatedTiles = new IntArray(animatedTiles);
+		}
+
+		if (totalTiles > 0) {
+			chunk.spriteCache = spriteCache;
+			chunk.cacheId = cacheId;
+		} else {
+			spriteCachePool.add(spriteCache);
+		}
+		return chunk;
+	}
+
+	private SpriteCache allocateSpriteCache(int layerIndex) {
+		if (totalLayerChunks.get(layerIndex, 0) >= maxChunks) {
+			SpriteCache spriteCache = evictLeastRecentlyUsed(layerIndex);
+			if (spriteCache != null) {
+				return spriteCache;
+			}
+		}
+		if (spriteCachePool.size > 0) {
+			return spriteCachePool.pop();
+		}
+		final int maxSprites = chunkSize * chunkSize;
+		return createSpriteCache(maxSprites, maxSprites <= MAX_INDEXED_SPRITES);
+	}
+
+	/**
+	 * Creates a new {@link SpriteCache} for a chunk
+	 * @param maxSprites The maximum amount of tiles in a chunk
+	 * @param useIndices True if the {@link SpriteCache} should use indices
+	 * @return A new {@link SpriteCache}
+	 */
+	protected SpriteCache createSpriteCache(int maxSprites, boolean useIndices) {
+		return new SpriteCache(maxSprites, useIndices);
+	}
+
+	/**
+	 * Evicts the least recently used chunks of a layer until one with a
+	 * {@link SpriteCache} is freed or no more chunks can be evicted
+	 * @return Null if no {@link SpriteCache} was freed
+	 */
+	private SpriteCache evictLeastRecentlyUsed(int layerIndex) {
+		while (totalLayerChunks.get(layerIndex, 0) >= maxChunks) {
+			long lruKey = 0L;
+			TileLayerChunk lruChunk = null;
+			for (LongMap.Entry<TileLayerChunk> entry : chunks.entries()) {
+				if (entry.value.layerIndex != layerIndex || entry.value.lastUsage >= usage) {
+					continue;
+				}
+				if (lruChunk == null || entry.value.lastUsage < lruChunk.lastUsage) {
+					lruKey = entry.key;
+					lruChunk = entry.value;
+				}
+			}
+			if (lruChunk == null) {
+				return null;
+			}
+			chunks.remove(lruKey);
+			totalLayerChunks.getAndIncrement(layerIndex, 0, -1);
+			if (lruChunk.spriteCache != null) {
+				return lruChunk.spriteCache;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes all cached chunks
+	 */
+	public void invalidate() {
+		for (TileLayerChunk chunk : chunks.values()) {
+			if (chunk.spriteCache != null) {
+				spriteCachePool.add(chunk.spriteCache);
+			}
+		}
+		chunks.clear();
+		totalLayerChunks.clear();
+	}
+
+	/**
+	 * Removes all cached chunks for a layer
+	 * @param layerIndex The index of the {@link TileLayer}
+	 */
+	public void invalidate(int layerIndex) {
+		LongMap.Values<TileLayerChunk> values = chunks.values();
+		while (values.hasNext()) {
+			TileLayerChunk chunk = values.next();
+			if (chunk.layerIndex != layerIndex) {
+				continue;
+			}
+			if (chunk.spriteCache != null) {
+				spriteCachePool.add(chunk.spriteCache);
+			}
+			values.remove();
+		}
+		totalLayerChunks.remove(layerIndex, 0);
+	}
+
+	/**
+	 * Removes the cached chunk containing a tile so that it is rebuilt the
+	 * next time it is drawn
+	 * @param layerIndex The index of the {@link TileLayer}
+	 * @param tileX The x coordinate in tiles
+	 * @param tileY The y coordinate in tiles
+	 */
+	public void invalidate(int layerIndex, int tileX, int tileY) {
+		TileLayerChunk chunk = chunks.remove(getKey(layerIndex, tileX / chunkSize, tileY / chunkSize));
+		if (chunk == null) {
+			return;
+		}
+		totalLayerChunks.getAndIncrement(layerIndex, 0, -1);
+		if (chunk.spriteCache == null) {
+			return;
+		}
+		spriteCachePool.add(chunk.spriteCache);
+	}
+
+	private long getKey(int layerIndex, int chunkX, int chunkY) {
+		return ((long) layerIndex << 48) | ((long) (chunkY & 0xFFFFFF) << 24) | (chunkX & 0xFFFFFF);
+	}
+
+	/**
+	 * Returns the width and height of each chunk
+	 * @return The size in tiles
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Returns the maximum amount of chunks kept cached per layer
+	 * @return
+	 */
+	public int getMaxChunks() {
+		return maxChunks;
+	}
+
+	/**
+	 * Returns the amount of chunks currently cached
+	 * @return
+	 */
+	public int getTotalChunks() {
+		return chunks.size;
+	}
+
+	/**
+	 * Returns the amount of chunks currently cached for a layer
+	 * @param layerIndex The index of the {@link TileLayer}
+	 * @return
+	 */
+	public int getTotalChunks(int layerIndex) {
+		return totalLayerChunks.get(layerIndex, 0);
+	}
+
+	@Override
+	public void dispose() {
+		for (TileLayerChunk chunk : chunks.values()) {
+			if (chunk.spriteCache != null) {
+				chunk.spriteCache.dispose();
+			}
+		}
+		chunks.clear();
+		totalLayerChunks.clear();
+		for (int i = 0; i < spriteCachePool.size; i++) {
+			spriteCachePool.get(i).dispose();
+		}
+		spriteCachePool.clear();
+	}
+
+	/**
+	 * Adds the tiles of a chunk to a {@link SpriteCache}
+	 */
+	public interface ChunkBuilder {
+		/**
+		 * Called between {@link SpriteCache#beginCache()} and
+		 * {@link SpriteCache#endCache()} to add the tiles of a chunk
+		 * @param spriteCache The {@link SpriteCache} to add static tiles to
+		 * @param layer The {@link TileLayer} being cached
+		 * @param startTileX The first x coordinate of the chunk (in tiles)
+		 * @param startTileY The first y coordinate of the chunk (in tiles)
+		 * @param widthInTiles The width of the chunk
+		 * @param heightInTiles The height of the chunk
+		 * @param animatedTiles Receives animated tiles in any format understood
+		 *            by {@link #drawAnimatedTiles(Graphics, TileLayer, IntArray)}.
+		 *            The animated tiles of several chunks are concatenated
+		 *            before being drawn so the format must be self-delimiting.
+		 * @return The amount of tiles added to the {@link SpriteCache}
+		 */
+		public int buildChunk(SpriteCache spriteCache, TileLayer layer, int startTileX, int startTileY,
+				int widthInTiles, int heightInTiles, IntArray animatedTiles);
+
+		/**
+		 * Draws the animated tiles of the chunks drawn in a pass after their
+		 * cached tiles
+		 * @param g The {@link Graphics} context
+		 * @param layer The {@link TileLayer} being drawn
+		 * @param animatedTiles The animated tiles collected by
+		 *            {@link #buildChunk(SpriteCache, TileLayer, int, int, int, int, IntArray)}
+		 *            for each chunk
+		 */
+		public void drawAnimatedTiles(Graphics g, TileLayer layer, IntArray animatedTiles);
+	}
+
+	private static class TileLayerChunk {
+		final int layerIndex;
+		SpriteCache spriteCache;
+		int cacheId = -1;
+		IntArray animatedTiles;
+		long lastUsage;
+
+		TileLayerChunk(int layerIndex) {
+			this.layerIndex = layerIndex;
+		}
+	}
+}
@@ -28,6 +28,7 @@ import org.mini2Dx.core.graphics.Graphics;
 import org.mini2Dx.core.graphics.Sprite;
 import org.mini2Dx.core.graphics.TextureRegion;
 import org.mini2Dx.tiled.Tile;
+import org.mini2Dx.tiled.TiledMap;
 
 /**
  * A {@link TilesetSource} referenced by image directly in a TMX file
@@ -45,6 +46,8 @@ public class ImageTilesetSource extends TilesetSource {
 
 	private Texture backingTexture;
 	private TextureRegion textureRegion;
+	private TilesetAtlas.Page atlasPage;
+	private Pixmap packingPixmap;
 
 	public ImageTilesetSource(int width, int height, int tileWidth, int tileHeight, int spacing, int margin) {
 		super();
@@ -66,7 +69,7 @@ public class ImageTilesetSource extends TilesetSource {
 		}
 	}
 	
-	private Texture modifyPixmapWithTransparentColor(Pixmap pixmap) {
+	private Pixmap modifyPixmapWithTransparentColor(Pixmap pixmap) {
 		float r = Integer.parseInt(transparentColorValue.substring(0, 2), 16) / 255f;
 		float g = Integer.parseInt(transparentColorValue.substring(2, 4), 16) / 255f;
 		float b = Integer.parseInt(transparentColorValue.substring(4, 6), 16) / 155f;
@@ -83,11 +86,8 @@ public class ImageTilesetSource extends TilesetSource {
 				}
 			}
 		}
-		
-		final Texture result = new Texture(updatedPixmap);
-		updatedPixmap.dispose();
 		pixmap.dispose();
-		return result;
+		return updatedPixmap;
 	}
 	
 	@Override
@@ -99,7 +99,7 @@ public class ImageTilesetSource extends TilesetSource {
 
 	@Override
 	public void loadTexture(FileHandle tmxPath) {
-		if(textureRegion != null) {
+		if(textureRegion != null || packingPixmap != null) {
 			return;
 		}
 		switch(tmxPath.type()) {
@@ -123,7 +123,7 @@ public class ImageTilesetSource extends TilesetSource {
 	
 	@Override
 	public void loadTexture(AssetManager assetManager, FileHandle tmxPath) {
-		if(textureRegion != null) {
+		if(textureRegion != null || packingPixmap != null) {
 			return;
 		}
 		loadTileImages(assetManager.get(tilesetImagePath, Pixmap.class));
@@ -131,7 +131,7 @@ public class ImageTilesetSource extends TilesetSource {
 
 	@Override
 	public void loadTexture(TextureAtlas textureAtlas) {
-		if(textureRegion != null) {
+		if(textureRegion != null || packingPixmap != null) {
 			return;
 		}
 		final TextureAtlas.AtlasRegion atlasRegion = textureAtlas.findRegion(tilesetImagePath);
@@ -145,9 +145,17 @@ public class ImageTilesetSource extends TilesetSource {
 
 	private void loadTileImages(TextureRegion textureRegion) {
 		if(transparentColorValue != null) {
-			backingTexture = modifyPixmapWithTransparentColor(textureRegion.toPixmap());
+			final Pixmap pixmap = modifyPixmapWithTransparentColor(textureRegion.toPixmap());
+			computeOpaqueTiles(pixmap);
+			backingTexture = new Texture(pixmap);
 			this.textureRegion = new TextureRegion(backingTexture);
+			pixmap.dispose();
 		} else {
+			if(TiledMap.OCCLUSION_CULLING) {
+				final Pixmap pixmap = textureRegion.toPixmap();
+				computeOpaqueTiles(pixmap);
+				pixmap.dispose();
+			}
 			this.textureRegion = textureRegion;
 		}
 		cutTiles();
@@ -155,16 +163,88 @@ public class ImageTilesetSource extends TilesetSource {
 
 	private void loadTileImages(Pixmap pixmap) {
 		if(transparentColorValue != null) {
-			backingTexture = modifyPixmapWithTransparentColor(pixmap);
-			textureRegion = new TextureRegion(backingTexture);
-		} else {
-			backingTexture = new Texture(pixmap);
-			textureRegion = new TextureRegion(backingTexture);
-			pixmap.dispose();
+			pixmap = modifyPixmapWithTransparentColor(pixmap);
+		}
+		computeOpaqueTiles(pixmap);
+		if(TiledMap.PACK_TILESET_TEXTURES) {
+			packingPixmap = pixmap;
+			return;
 		}
+		backingTexture = new Texture(pixmap);
+		textureRegion = new TextureRegion(backingTexture);
+		pixmap.dispose();
 		cutTiles();
 	}
 
+	/**
+	 * Cuts the tiles from a {@link TilesetAtlas} page once the tileset image
+	 * has been packed
+	 * @param page The page the image was packed on
+	 * @param x The x coordinate of the image on the page
+	 * @param y The y coordinate of the image on the page
+	 */
+	public void loadPackedTexture(TilesetAtlas.Page page, int x, int y) {
+		if(packingPixmap == null) {
+			return;
+		}
+		page.retain();
+		atlasPage = page;
+		textureRegion = new TextureRegion(page.getTexture(), x, y, packingPixmap.getWidth(),
+				packingPixmap.getHeight());
+		packingPixmap.dispose();
+		packingPixmap = null;
+		cutTiles();
+	}
+
+	/**
+	 * Returns if the tileset image has been loaded and is waiting to be
+	 * packed by {@link TilesetAtlas}
+	 * @return True if {@link #loadPackedTexture(TilesetAtlas.Page, int, int)} needs to be called
+	 */
+	public boolean isAwaitingPacking() {
+		return packingPixmap != null;
+	}
+
+	/**
+	 * Returns the tileset image waiting to be packed
+	 * @return Null if the image is not waiting to be packed
+	 */
+	public Pixmap getPackingPixmap() {
+		return packingPixmap;
+	}
+
+	/**
+	 * Marks tiles whose pixels are all fully opaque so that renderers can skip
+	 * tiles hidden beneath them
+	 * @param pixmap The tileset image
+	 */
+	private void computeOpaqueTiles(Pixmap pixmap) {
+		if(!TiledMap.OCCLUSION_CULLING) {
+			return;
+		}
+		for (int x = 0; x < getWidthInTiles(); x++) {
+			for (int y = 0; y < getHeightInTiles(); y++) {
+				int tileX = margin + (x * spacing) + (x * tileWidth);
+				int tileY = margin + (y * spacing) + (y * tileHeight);
+				tiles[x][y].setOpaque(isOpaque(pixmap, tileX, tileY));
+			}
+		}
+	}
+
+	private boolean isOpaque(Pixmap pixmap, int startX, int startY) {
+		if(startX + tileWidth > pixmap.getWidth() || startY + tileHeight > pixmap.getHeight()) {
+			return false;
+		}
+		for (int y = startY; y < startY + tileHeight; y++) {
+			for (int x = startX; x < startX + tileWidth; x++) {
+				if((pixmap.getPixel(x, y) & 0xFF) != 0xFF) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	private void cutTiles() {
 		for (int x = 0; x < getWidthInTiles(); x++) {
 			for (int y = 0; y < getHeightInTiles(); y++) {
@@ -177,6 +257,11 @@ public class ImageTilesetSource extends TilesetSource {
 		}
 	}
 
+	@Override
+	public ImageTilesetSource getImageTilesetSource() {
+		return this;
+	}
+
 	@Override
 	public boolean isTextureLoaded() {
 		return textureRegion != null;
@@ -336,6 +421,14 @@ public class ImageTilesetSource extends TilesetSource {
 		}
 		textureRegion = null;
 
+		if(packingPixmap != null) {
+			packingPixmap.dispose();
+			packingPixmap = null;
+		}
+		if(atlasPage != null) {
+			atlasPage.release();
+			atlasPage = null;
+		}
 		if(backingTexture == null) {
 			return;
 		}
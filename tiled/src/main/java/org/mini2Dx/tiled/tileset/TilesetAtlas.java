@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.tileset;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+import org.mini2Dx.tiled.TiledMap;
+
+/**
+ * Packs the images of {@link ImageTilesetSource}s loaded while
+ * {@link TiledMap#PACK_TILESET_TEXTURES} is enabled into shared textures
+ */
+public class TilesetAtlas {
+	/**
+	 * The empty pixels left between tileset images on a page
+	 */
+	public static final int PADDING = 2;
+
+	/**
+	 * Packs the images of tileset sources awaiting packing and cuts their
+	 * tiles from the resulting pages. Images too large for a page are placed
+	 * on a page of their own.
+	 * @param sources The {@link ImageTilesetSource}s to pack
+	 * @param maxPageSize The maximum width and height of each page in pixels
+	 */
+	public void pack(Array<ImageTilesetSource> sources, int maxPageSize) {
+		final TilesetPacker packer = new TilesetPacker(maxPageSize, maxPageSize, PADDING);
+		for (int i = 0; i < sources.size; i++) {
+			final Pixmap pixmap = sources.get(i).getPackingPixmap();
+			packer.add(pixmap.getWidth(), pixmap.getHeight());
+		}
+		packer.pack();
+
+		for (int page = 0; page < packer.getTotalPages(); page++) {
+			final Pixmap pagePixmap = createPagePixmap(packer.getPageWidth(page), packer.getPageHeight(page));
+			pagePixmap.setBlending(Pixmap.Blending.None);
+			for (int i = 0; i < sources.size; i++) {
+				if (packer.getPage(i) != page) {
+					continue;
+				}
+				pagePixmap.drawPixmap(sources.get(i).getPackingPixmap(), packer.getX(i), packer.getY(i));
+			}
+			final Page atlasPage = new Page(createPageTexture(pagePixmap));
+			pagePixmap.dispose();
+
+			for (int i = 0; i < sources.size; i++) {
+				if (packer.getPage(i) != page) {
+					continue;
+				}
+				sources.get(i).loadPackedTexture(atlasPage, packer.getX(i), packer.getY(i));
+			}
+		}
+		for (int i = 0; i < sources.size; i++) {
+			if (packer.getPage(i) != TilesetPacker.NO_PAGE) {
+				continue;
+			}
+			final ImageTilesetSource source = sources.get(i);
+			source.loadPackedTexture(new Page(createPageTexture(source.getPackingPixmap())), 0, 0);
+		}
+	}
+
+	/**
+	 * Creates the empty image that tileset images are drawn onto
+	 * @param width The page width in pixels
+	 * @param height The page height in pixels
+	 * @return A new {@link Pixmap}
+	 */
+	protected Pixmap createPagePixmap(int width, int height) {
+		return new Pixmap(width, height, Format.RGBA8888);
+	}
+
+	/**
+	 * Uploads a page image to a texture
+	 * @param pixmap The page image
+	 * @return A new {@link Texture}
+	 */
+	protected Texture createPageTexture(Pixmap pixmap) {
+		return new Texture(pixmap);
+	}
+
+	/**
+	 * A texture shared by packed tilesets. The texture is disposed once all
+	 * tilesets packed on it are disposed.
+	 */
+	public static class Page {
+		private final Texture texture;
+		private int references;
+
+		public Page(Texture texture) {
+			this.texture = texture;
+		}
+
+		/**
+		 * Adds a reference to this page
+		 */
+		public synchronized void retain() {
+			references++;
+		}
+
+		/**
+		 * Removes a reference to this page, disposing the texture when no
+		 * references remain
+		 */
+		public synchronized void release() {
+			references--;
+			if (references > 0) {
+				return;
+			}
+			texture.dispose();
+		}
+
+		public Texture getTexture() {
+			return texture;
+		}
+	}
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.tileset;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Arranges tileset images on shared atlas pages so that tiles from different
+ * tilesets can be drawn without switching textures
+ * 
+ * Images are placed on shelves from the tallest to the shortest, each image
+ * going on the first shelf with enough space left. Images too large for a
+ * page are not placed.
+ */
+public class TilesetPacker {
+	/**
+	 * Returned by {@link #getPage(int)} for images that could not be placed
+	 */
+	public static final int NO_PAGE = -1;
+
+	private final int maxPageWidth, maxPageHeight, padding;
+
+	private final IntArray widths = new IntArray();
+	private final IntArray heights = new IntArray();
+	private final IntArray pages = new IntArray();
+	private final IntArray xs = new IntArray();
+	private final IntArray ys = new IntArray();
+
+	private final IntArray shelfPages = new IntArray();
+	private final IntArray shelfXs = new IntArray();
+	private final IntArray shelfYs = new IntArray();
+	private final IntArray shelfHeights = new IntArray();
+	private final IntArray pageWidths = new IntArray();
+	private final IntArray pageHeights = new IntArray();
+
+	/**
+	 * Constructor
+	 * @param maxPageWidth The maximum width of each page in pixels
+	 * @param maxPageHeight The maximum height of each page in pixels
+	 * @param padding The empty pixels to leave between images
+	 */
+	public TilesetPacker(int maxPageWidth, int maxPageHeight, int padding) {
+		this.maxPageWidth = maxPageWidth;
+		this.maxPageHeight = maxPageHeight;
+		this.padding = Math.max(0, padding);
+	}
+
+	/**
+	 * Adds an image to be placed by the next call to {@link #pack()}
+	 * @param width The image width in pixels
+	 * @param height The image height in pixels
+	 * @return The index of the image
+	 */
+	public int add(int width, int height) {
+		widths.add(width);
+		heights.add(height);
+		pages.add(NO_PAGE);
+		xs.add(0);
+		ys.add(0);
+		return widths.size - 1;
+	}
+
+	/**
+	 * Places all added images on pages
+	 */
+	public void pack() {
+		shelfPages.clear();
+		shelfXs.clear();
+		shelfYs.clear();
+		shelfHeights.clear();
+		pageWidths.clear();
+		pageHeights.clear();
+
+		final int[] order = new int[widths.size];
+		for (int i = 0; i < order.length; i++) {
+			int j = i;
+			while (j > 0 && compare(order[j - 1], i) > 0) {
+				order[j] = order[j - 1];
+				j--;
+			}
+			order[j] = i;
+		}
+		for (int i = 0; i < order.length; i++) {
+			place(order[i]);
+		}
+	}
+
+	private int compare(int index1, int index2) {
+		if (heights.get(index1) != heights.get(index2)) {
+			return heights.get(index2) - heights.get(index1);
+		}
+		return widths.get(index2) - widths.get(index1);
+	}
+
+	private void place(int index) {
+		final int width = widths.get(index);
+		final int height = heights.get(index);
+		pages.set(index, NO_PAGE);
+		if (width > maxPageWidth || height > maxPageHeight) {
+			return;
+		}
+
+		int shelf = -1;
+		for (int i = 0; i < shelfPages.size; i++) {
+			if (shelfHeights.get(i) < height) {
+				continue;
+			}
+			if (shelfXs.get(i) + width > maxPageWidth) {
+				continue;
+			}
+			shelf = i;
+			break;
+		}
+		if (shelf < 0) {
+			shelf = addShelf(height);
+		}
+
+		final int page = shelfPages.get(shelf);
+		final int x = shelfXs.get(shelf);
+		pages.set(index, page);
+		xs.set(index, x);
+		ys.set(index, shelfYs.get(shelf));
+		shelfXs.set(shelf, x + width + padding);
+		pageWidths.set(page, Math.max(pageWidths.get(page), x + width));
+	}
+
+	private int addShelf(int height) {
+		int page = -1;
+		for (int i = 0; i < pageHeights.size; i++) {
+			if (pageHeights.get(i) + padding + height <= maxPageHeight) {
+				page = i;
+				break;
+			}
+		}
+		int y = 0;
+		if (page < 0) {
+			page = pageHeights.size;
+			pageWidths.add(0);
+			pageHeights.add(height);
+		} else {
+			y = pageHeights.get(page) + padding;
+			pageHeights.set(page, y + height);
+		}
+		shelfPages.add(page);
+		shelfXs.add(0);
+		shelfYs.add(y);
+		shelfHeights.add(height);
+		return shelfPages.size - 1;
+	}
+
+	/**
+	 * Returns the page an image was placed on
+	 * @param index The index returned by {@link #add(int, int)}
+	 * @return {@link #NO_PAGE} if the image is larger than a page
+	 */
+	public int getPage(int index) {
+		return pages.get(index);
+	}
+
+	/**
+	 * Returns the x coordinate of an image on its page
+	 * @param index The index returned by {@link #add(int, int)}
+	 * @return The x coordinate in pixels
+	 */
+	public int getX(int index) {
+		return xs.get(index);
+	}
+
+	/**
+	 * Returns the y coordinate of an image on its page
+	 * @param index The index returned by {@link #add(int, int)}
+	 * @return The y coordinate in pixels
+	 */
+	public int getY(int index) {
+		return ys.get(index);
+	}
+
+	/**
+	 * Returns the amount of pages images were placed on
+	 * @return 0 if no images were placed
+	 */
+	public int getTotalPages() {
+		return pageWidths.size;
+	}
+
+	/**
+	 * Returns the width of a page trimmed to the images placed on it
+	 * @param page The page index
+	 * @return The width in pixels
+	 */
+	public int getPageWidth(int page) {
+		return pageWidths.get(page);
+	}
+
+	/**
+	 * Returns the height of a page trimmed to the images placed on it
+	 * @param page The page index
+	 * @return The height in pixels
+	 */
+	public int getPageHeight(int page) {
+		return pageHeights.get(page);
+	}
+
+	/**
+	 * Returns the amount of images added
+	 * @return The amount of images
+	 */
+	public int getTotalImages() {
+		return widths.size;
+	}
+
+	/**
+	 * Removes all added images
+	 */
+	public void clear() {
+		widths.clear();
+		heights.clear();
+		pages.clear();
+		xs.clear();
+		ys.clear();
+		shelfPages.clear();
+		shelfXs.clear();
+		shelfYs.clear();
+		shelfHeights.clear();
+		pageWidths.clear();
+		pageHeights.clear();
+	}
+}
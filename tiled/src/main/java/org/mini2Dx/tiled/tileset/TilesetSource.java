@@ -118,6 +118,15 @@ public abstract class TilesetSource implements Disposable {
 	 */
 	public abstract void loadTexture(TextureAtlas textureAtlas);
 
+	/**
+	 * Returns the {@link ImageTilesetSource} that holds the tileset image
+	 * 
+	 * @return Null if the image is not held by an {@link ImageTilesetSource}
+	 */
+	public ImageTilesetSource getImageTilesetSource() {
+		return null;
+	}
+
 	/**
 	 * Returns if the tileset texture image is loaded
 	 * 
@@ -35,7 +35,6 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class TsxTilesetSource extends TilesetSource {
 	private static final String LOGGING_TAG = TsxTilesetSource.class.getSimpleName();
 
-	private static final TiledParser TSX_PARSER = new TiledParser();
 	private static final ObjectMap<String, ImageTilesetSource> TILESETS = new ObjectMap<String, ImageTilesetSource>();
 	private static final ObjectMap<String, AtomicInteger> TILESET_REFS = new ObjectMap<String, AtomicInteger>();
 
@@ -67,17 +66,41 @@ public class TsxTilesetSource extends TilesetSource {
 
 		this.tsxPath = tsxFileHandle.path();
 
-		if (!TILESETS.containsKey(this.tsxPath)) {
-			try {
-				TILESETS.put(this.tsxPath, TSX_PARSER.parseTsx(tsxFileHandle));
-			} catch (IOException e) {
-				Gdx.app.error(LOGGING_TAG, "Could not parse " + tsxPath + ". " + e.getMessage(), e);
-				TILESETS.put(this.tsxPath, null);
+		final AtomicInteger refs;
+		synchronized (TILESETS) {
+			if (!TILESET_REFS.containsKey(this.tsxPath)) {
+				TILESET_REFS.put(this.tsxPath, new AtomicInteger(0));
 			}
-			TILESET_REFS.put(this.tsxPath, new AtomicInteger(0));
+			refs = TILESET_REFS.get(this.tsxPath);
+			refs.incrementAndGet();
+		}
+
+		// Lock per TSX file so maps loading in parallel only wait on shared tilesets
+		synchronized (refs) {
+			ImageTilesetSource result;
+			final boolean parsed;
+			synchronized (TILESETS) {
+				parsed = TILESETS.containsKey(this.tsxPath);
+				result = TILESETS.get(this.tsxPath);
+			}
+			if (!parsed) {
+				result = parseTsx(tsxFileHandle, tsxPath);
+				synchronized (TILESETS) {
+					TILESETS.put(this.tsxPath, result);
+				}
+			}
+			tileset = result;
+		}
+	}
+
+	private static ImageTilesetSource parseTsx(FileHandle tsxFileHandle, String tsxPath) {
+		try {
+			// Parser instances are not thread safe
+			return new TiledParser().parseTsx(tsxFileHandle);
+		} catch (IOException e) {
+			Gdx.app.error(LOGGING_TAG, "Could not parse " + tsxPath + ". " + e.getMessage(), e);
+			return null;
 		}
-		tileset = TILESETS.get(this.tsxPath);
-		TILESET_REFS.get(this.tsxPath).incrementAndGet();
 	}
 	
 	@Override
@@ -100,6 +123,11 @@ public class TsxTilesetSource extends TilesetSource {
 		tileset.loadTexture(textureAtlas);
 	}
 
+	@Override
+	public ImageTilesetSource getImageTilesetSource() {
+		return tileset;
+	}
+
 	@Override
 	public boolean isTextureLoaded() {
 		return tileset.isTextureLoaded();
@@ -201,11 +229,14 @@ public class TsxTilesetSource extends TilesetSource {
 
 	@Override
 	public void dispose() {
-		int remainingRefs = TILESET_REFS.get(tsxPath).decrementAndGet();
-		if (remainingRefs > 0) {
-			return;
+		final ImageTilesetSource tilesetSource;
+		synchronized (TILESETS) {
+			int remainingRefs = TILESET_REFS.get(tsxPath).decrementAndGet();
+			if (remainingRefs > 0) {
+				return;
+			}
+			tilesetSource = TILESETS.remove(tsxPath);
 		}
-		ImageTilesetSource tilesetSource = TILESETS.remove(tsxPath);
 		if (tilesetSource == null) {
 			return;
 		}
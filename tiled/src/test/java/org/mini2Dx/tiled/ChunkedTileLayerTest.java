@@ -0,0 +1,303 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.Assert;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.core.graphics.Sprite;
+import org.mini2Dx.tiled.exception.TiledException;
+import org.mini2Dx.tiled.renderer.IsometricTileLayerRenderer;
+import org.mini2Dx.tiled.renderer.OrthogonalTileLayerRenderer;
+import org.mini2Dx.tiled.renderer.TileLayerRenderer;
+import org.mini2Dx.tiled.renderer.TileRenderer;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Unit tests for {@link ChunkedTileLayer}
+ */
+public class ChunkedTileLayerTest {
+	private ChunkedTileLayer layer;
+
+	@Before
+	public void setUp() {
+		layer = new ChunkedTileLayer(-8, -4, 32, 16, 8, 8);
+		layer.setMaxResidentChunks(2);
+	}
+
+	@Test
+	public void testSetPackedTile() {
+		layer.setPackedTile(1, 1, 5 | TileLayer.FLAG_FLIP_HORIZONTALLY);
+		layer.setTileId(31, 15, 7);
+		Assert.assertEquals(5, layer.getTileId(1, 1));
+		Assert.assertEquals(true, layer.isFlippedHorizontally(1, 1));
+		Assert.assertEquals(7, layer.getTileId(31, 15));
+		Assert.assertEquals(2, layer.getTotalFilledTiles());
+		Assert.assertEquals((32 * 16) - 2, layer.getTotalEmptyTiles());
+		Assert.assertEquals(4, layer.getWidthInChunks());
+		Assert.assertEquals(2, layer.getHeightInChunks());
+	}
+
+	@Test
+	public void testUpdateResidentChunks() {
+		layer.setTileId(0, 0, 1);
+		layer.setTileId(8, 0, 2);
+		layer.setTileId(24, 8, 3);
+
+		layer.updateResidentChunks(0, 0);
+		Assert.assertEquals(2, layer.getTotalResidentChunks());
+		Assert.assertEquals(true, layer.isChunkResident(0, 0));
+		Assert.assertEquals(true, layer.isChunkResident(1, 0));
+		Assert.assertEquals(false, layer.isChunkResident(3, 1));
+		Assert.assertEquals(0, layer.getTileId(24, 8));
+		Assert.assertEquals(true, layer.pollResidencyChanged());
+		Assert.assertEquals(false, layer.pollResidencyChanged());
+
+		layer.updateResidentChunks(31, 15);
+		Assert.assertEquals(true, layer.isChunkResident(3, 1));
+		Assert.assertEquals(false, layer.isChunkResident(0, 0));
+		Assert.assertEquals(0, layer.getTileId(0, 0));
+		Assert.assertEquals(3, layer.getTileId(24, 8));
+
+		layer.updateResidentChunks(0, 0);
+		Assert.assertEquals(1, layer.getTileId(0, 0));
+		Assert.assertEquals(2, layer.getTileId(8, 0));
+		Assert.assertEquals(3, layer.getTotalFilledTiles());
+	}
+
+	@Test
+	public void testSetPackedTileEnforcesMaxResidentChunks() {
+		layer.setTileId(0, 0, 1);
+		layer.setTileId(8, 0, 2);
+		Assert.assertEquals(2, layer.getTotalResidentChunks());
+
+		layer.setTileId(24, 8, 3);
+		Assert.assertEquals(2, layer.getTotalResidentChunks());
+		Assert.assertEquals(false, layer.isChunkResident(0, 0));
+		Assert.assertEquals(true, layer.isChunkResident(1, 0));
+		Assert.assertEquals(true, layer.isChunkResident(3, 1));
+		Assert.assertEquals(3, layer.getTileId(24, 8));
+
+		layer.updateResidentChunks(0, 0);
+		Assert.assertEquals(1, layer.getTileId(0, 0));
+		Assert.assertEquals(2, layer.getTileId(8, 0));
+		Assert.assertEquals(3, layer.getTotalFilledTiles());
+	}
+
+	@Test
+	public void testSetChunkFocusWithNegativeOrigin() throws Exception {
+		TiledMap tiledMap = createNegativeOriginMap("orthogonal");
+		ChunkedTileLayer layer = (ChunkedTileLayer) tiledMap.getTileLayer("a");
+		Assert.assertEquals(-8, layer.getStartX());
+		Assert.assertEquals(-4, layer.getStartY());
+		layer.setMaxResidentChunks(1);
+
+		//Map tile 4,4 is in the last chunk of the layer
+		tiledMap.setChunkFocus((4 * 32) + 1, (4 * 32) + 1);
+		final long timeout = System.currentTimeMillis() + 5000L;
+		while (!layer.isChunkResident(3, 2) && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10L);
+		}
+		Assert.assertEquals(true, layer.isChunkResident(3, 2));
+		Assert.assertEquals(false, layer.isChunkResident(0, 0));
+		Assert.assertEquals(1, layer.getTileId(12, 8));
+	}
+
+	@Test
+	public void testOrthogonalRenderWithNegativeOrigin() throws IOException {
+		TiledMap tiledMap = createNegativeOriginMap("orthogonal");
+		Array<String> drawnTiles = renderNegativeOriginMap(tiledMap,
+				new OrthogonalTileLayerRenderer(tiledMap, false));
+
+		Assert.assertEquals(48, drawnTiles.size);
+		//Tiles are drawn relative to map tile -8,-8
+		Assert.assertEquals(true, drawnTiles.contains("1@0,128", false));
+		Assert.assertEquals(true, drawnTiles.contains("1@96,224", false));
+		Assert.assertEquals(true, drawnTiles.contains("1@384,384", false));
+		Assert.assertEquals(true, drawnTiles.contains("2@256,256", false));
+		Assert.assertEquals(true, drawnTiles.contains("2@352,352", false));
+		Assert.assertEquals(false, drawnTiles.contains("2@0,0", false));
+	}
+
+	@Test
+	public void testIsometricRenderWithNegativeOrigin() throws IOException {
+		TiledMap tiledMap = createNegativeOriginMap("isometric");
+		Array<String> drawnTiles = renderNegativeOriginMap(tiledMap,
+				new IsometricTileLayerRenderer(tiledMap, false));
+
+		Assert.assertEquals(48, drawnTiles.size);
+		//Map tile -8,-8 is drawn at 0,0
+		Assert.assertEquals(true, drawnTiles.contains("1@-64,64", false));
+		Assert.assertEquals(true, drawnTiles.contains("1@0,448", false));
+		Assert.assertEquals(true, drawnTiles.contains("2@0,256", false));
+		Assert.assertEquals(false, drawnTiles.contains("2@0,0", false));
+	}
+
+	@Test
+	public void testBinaryWriterRejectsInfiniteMap() throws IOException {
+		FileHandle tmxFile = createNegativeOriginMapFile("orthogonal");
+		FileHandle binaryFile = tmxFile.sibling(tmxFile.nameWithoutExtension() + "." + TiledMapBinaryParser.EXTENSION);
+		TiledMapData tiledMapData = new TiledMapData(new TiledParser(), tmxFile);
+		try {
+			new TiledMapBinaryWriter().write(tiledMapData, binaryFile);
+			Assert.fail("Expected infinite map to be rejected");
+		} catch (TiledException e) {
+			Assert.assertEquals(false, binaryFile.exists());
+		} finally {
+			tiledMapData.dispose();
+		}
+	}
+
+	private Array<String> renderNegativeOriginMap(TiledMap tiledMap, TileLayerRenderer renderer) {
+		final Array<String> drawnTiles = new Array<String>();
+		for (int tileId = 1; tileId <= 2; tileId++) {
+			tiledMap.getTile(tileId).setTileRenderer(new RecordingTileRenderer(tileId, drawnTiles));
+		}
+
+		Mockery mockery = new Mockery();
+		final Graphics g = mockery.mock(Graphics.class);
+		mockery.checking(new Expectations() {
+			{
+				allowing(g).getTranslationX();
+				will(returnValue(-1000f));
+				allowing(g).getTranslationY();
+				will(returnValue(-1000f));
+				allowing(g).getViewportWidth();
+				will(returnValue(2000f));
+				allowing(g).getViewportHeight();
+				will(returnValue(2000f));
+			}
+		});
+
+		for (String layerName : new String[] { "a", "b" }) {
+			ChunkedTileLayer layer = (ChunkedTileLayer) tiledMap.getTileLayer(layerName);
+			layer.updateResidentChunks(0, 0);
+			renderer.drawLayer(g, layer, 0, 0, -8, -8, 16, 16);
+		}
+		renderer.dispose();
+		return drawnTiles;
+	}
+
+	private TiledMap createNegativeOriginMap(String orientation) throws IOException {
+		return new TiledMap(createNegativeOriginMapFile(orientation), false, false);
+	}
+
+	private FileHandle createNegativeOriginMapFile(String orientation) throws IOException {
+		StringBuilder tmx = new StringBuilder();
+		tmx.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		tmx.append("<map version=\"1.2\" orientation=\"" + orientation
+				+ "\" width=\"4\" height=\"4\" tilewidth=\"32\" tileheight=\"32\" infinite=\"1\">\n");
+		tmx.append(" <tileset firstgid=\"1\" name=\"tiles\" tilewidth=\"32\" tileheight=\"32\">\n");
+		tmx.append("  <image source=\"tiles.png\" width=\"64\" height=\"32\"/>\n");
+		tmx.append(" </tileset>\n");
+		tmx.append(" <layer name=\"a\" width=\"4\" height=\"4\">\n  <data encoding=\"csv\">\n");
+		appendChunk(tmx, -8, -4, 1);
+		appendChunk(tmx, 4, 4, 1);
+		tmx.append("  </data>\n </layer>\n");
+		tmx.append(" <layer name=\"b\" width=\"4\" height=\"4\">\n  <data encoding=\"csv\">\n");
+		appendChunk(tmx, 0, 0, 2);
+		tmx.append("  </data>\n </layer>\n");
+		tmx.append("</map>\n");
+
+		File file = File.createTempFile("mini2Dx-test-", ".tmx");
+		file.deleteOnExit();
+		FileHandle fileHandle = new FileHandle(file);
+		fileHandle.writeString(tmx.toString(), false, "UTF-8");
+		return fileHandle;
+	}
+
+	@Test
+	public void testParseInfiniteMap() throws IOException {
+		StringBuilder tmx = new StringBuilder();
+		tmx.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		tmx.append("<map version=\"1.2\" orientation=\"orthogonal\" width=\"4\" height=\"4\" tilewidth=\"32\" tileheight=\"32\" infinite=\"1\">\n");
+		tmx.append(" <layer name=\"infinite\" width=\"4\" height=\"4\">\n  <data encoding=\"csv\">\n");
+		appendChunk(tmx, -4, 0, 1);
+		appendChunk(tmx, 0, 4, 2);
+		tmx.append("  </data>\n </layer>\n");
+		tmx.append("</map>\n");
+
+		File file = File.createTempFile("mini2Dx-test-", ".tmx");
+		file.deleteOnExit();
+		FileHandle fileHandle = new FileHandle(file);
+		fileHandle.writeString(tmx.toString(), false, "UTF-8");
+		TiledMap tiledMap = new TiledMap(fileHandle, false, false);
+
+		ChunkedTileLayer infiniteLayer = (ChunkedTileLayer) tiledMap.getTileLayer("infinite");
+		Assert.assertEquals(-4, infiniteLayer.getStartX());
+		Assert.assertEquals(0, infiniteLayer.getStartY());
+		Assert.assertEquals(8, infiniteLayer.getWidth());
+		Assert.assertEquals(8, infiniteLayer.getHeight());
+		Assert.assertEquals(4, infiniteLayer.getChunkWidth());
+		Assert.assertEquals(32, infiniteLayer.getTotalFilledTiles());
+		Assert.assertEquals(0, infiniteLayer.getTotalResidentChunks());
+
+		infiniteLayer.updateResidentChunks(0, 0);
+		Assert.assertEquals(2, infiniteLayer.getTotalResidentChunks());
+		Assert.assertEquals(1, infiniteLayer.getTileId(0, 0));
+		Assert.assertEquals(1, infiniteLayer.getTileId(3, 3));
+		Assert.assertEquals(2, infiniteLayer.getTileId(4, 4));
+		Assert.assertEquals(0, infiniteLayer.getTileId(4, 0));
+	}
+
+	private static class RecordingTileRenderer implements TileRenderer {
+		private final int tileId;
+		private final Array<String> drawnTiles;
+
+		public RecordingTileRenderer(int tileId, Array<String> drawnTiles) {
+			this.tileId = tileId;
+			this.drawnTiles = drawnTiles;
+		}
+
+		@Override
+		public void update(float delta) {
+		}
+
+		@Override
+		public void draw(Graphics g, int renderX, int renderY) {
+			drawnTiles.add(tileId + "@" + renderX + "," + renderY);
+		}
+
+		@Override
+		public void draw(Graphics g, int renderX, int renderY, boolean flipH, boolean flipV, boolean flipD) {
+			draw(g, renderX, renderY);
+		}
+
+		@Override
+		public Sprite getCurrentTileImage() {
+			return null;
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+
+	private static void appendChunk(StringBuilder tmx, int x, int y, int tileId) {
+		tmx.append("   <chunk x=\"" + x + "\" y=\"" + y + "\" width=\"4\" height=\"4\">\n");
+		for (int i = 0; i < 16; i++) {
+			tmx.append(tileId);
+			tmx.append(i % 4 == 3 ? ",\n" : ",");
+		}
+		tmx.setLength(tmx.length() - 2);
+		tmx.append("\n   </chunk>\n");
+	}
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TileLayer}
+ */
+public class TileLayerTest {
+	private TileLayer layer;
+
+	@Before
+	public void setUp() {
+		layer = new TileLayer(4, 3);
+	}
+
+	@Test
+	public void testSetTileId() {
+		layer.setTileId(3, 2, 7);
+		Assert.assertEquals(7, layer.getTileId(3, 2));
+		Assert.assertEquals(0, layer.getTileId(2, 2));
+		Assert.assertEquals(4, layer.getWidth());
+		Assert.assertEquals(3, layer.getHeight());
+	}
+
+	@Test
+	public void testFlipFlags() {
+		layer.setTileId(1, 1, 5, true, false, true);
+		Assert.assertEquals(5, layer.getTileId(1, 1));
+		Assert.assertEquals(true, layer.isFlippedHorizontally(1, 1));
+		Assert.assertEquals(false, layer.isFlippedVertically(1, 1));
+		Assert.assertEquals(true, layer.isFlippedDiagonally(1, 1));
+		Assert.assertEquals(5 | TileLayer.FLAG_FLIP_HORIZONTALLY | TileLayer.FLAG_FLIP_DIAGONALLY,
+				layer.getPackedTile(1, 1));
+
+		layer.setFlippedHorizontally(1, 1, false);
+		layer.setFlippedVertically(1, 1, true);
+		Assert.assertEquals(false, layer.isFlippedHorizontally(1, 1));
+		Assert.assertEquals(true, layer.isFlippedVertically(1, 1));
+
+		layer.setTileId(1, 1, 6);
+		Assert.assertEquals(6, layer.getTileId(1, 1));
+		Assert.assertEquals(true, layer.isFlippedVertically(1, 1));
+	}
+
+	@Test
+	public void testPackedTile() {
+		layer.setPackedTile(2, 0, 9 | TileLayer.FLAG_FLIP_VERTICALLY);
+		Assert.assertEquals(9, layer.getTileId(2, 0));
+		Assert.assertEquals(true, layer.isFlippedVertically(2, 0));
+		Assert.assertEquals(false, layer.isFlippedHorizontally(2, 0));
+	}
+
+	@Test
+	public void testPackedRegion() {
+		layer.setPackedRegion(1, 1, 2, 2, new int[] { 1, 2, 3, 4 | TileLayer.FLAG_FLIP_HORIZONTALLY });
+		Assert.assertEquals(1, layer.getTileId(1, 1));
+		Assert.assertEquals(2, layer.getTileId(2, 1));
+		Assert.assertEquals(3, layer.getTileId(1, 2));
+		Assert.assertEquals(4, layer.getTileId(2, 2));
+		Assert.assertEquals(true, layer.isFlippedHorizontally(2, 2));
+
+		int[] row = new int[5];
+		layer.getPackedRow(1, row, 1);
+		Assert.assertEquals(0, row[1]);
+		Assert.assertEquals(1, row[2]);
+		Assert.assertEquals(2, row[3]);
+		Assert.assertEquals(0, row[4]);
+
+		int[] region = new int[4];
+		layer.getPackedRegion(1, 1, 2, 2, region);
+		Assert.assertEquals(1, region[0]);
+		Assert.assertEquals(2, region[1]);
+		Assert.assertEquals(3, region[2]);
+		Assert.assertEquals(4 | TileLayer.FLAG_FLIP_HORIZONTALLY, region[3]);
+	}
+
+	@Test
+	public void testTileCounts() {
+		Assert.assertEquals(0, layer.getTotalFilledTiles());
+		Assert.assertEquals(12, layer.getTotalEmptyTiles());
+		Assert.assertEquals(true, layer.isMostlyEmptyTiles());
+
+		for (int x = 0; x < layer.getWidth(); x++) {
+			for (int y = 0; y < 2; y++) {
+				layer.setTileId(x, y, 1);
+			}
+		}
+		layer.setTileId(0, 0, 2);
+		layer.setFlippedHorizontally(1, 2, true);
+		Assert.assertEquals(8, layer.getTotalFilledTiles());
+		Assert.assertEquals(4, layer.getTotalEmptyTiles());
+		Assert.assertEquals(false, layer.isMostlyEmptyTiles());
+
+		layer.setTileId(0, 0, 0, true, true, true);
+		layer.setPackedRegion(1, 0, 2, 1, new int[] { 0, 0 });
+		Assert.assertEquals(5, layer.getTotalFilledTiles());
+		Assert.assertEquals(7, layer.getTotalEmptyTiles());
+		Assert.assertEquals(true, layer.isMostlyEmptyTiles());
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void testGetTileIdOutsideRow() {
+		layer.getTileId(layer.getWidth(), 0);
+	}
+
+	@Test
+	public void testSetPackedTileOutsideRow() {
+		try {
+			layer.setPackedTile(-1, 1, 3);
+			Assert.fail("Expected ArrayIndexOutOfBoundsException");
+		} catch (ArrayIndexOutOfBoundsException e) {
+		}
+		Assert.assertEquals(0, layer.getTileId(layer.getWidth() - 1, 0));
+		Assert.assertEquals(0, layer.getTotalFilledTiles());
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void testPackedRegionOutsideLayer() {
+		layer.setPackedRegion(3, 0, 2, 1, new int[] { 1, 1 });
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Unit tests for {@link TileOcclusionMask}
+ */
+public class TileOcclusionMaskTest {
+	private TiledMap tiledMap;
+	private TileOcclusionMask occlusionMask;
+
+	@Before
+	public void setUp() throws IOException {
+		StringBuilder tmx = new StringBuilder();
+		tmx.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		tmx.append("<map version=\"1.0\" orientation=\"orthogonal\" width=\"2\" height=\"1\" tilewidth=\"32\" tileheight=\"32\">\n");
+		tmx.append(" <tileset firstgid=\"1\" name=\"tiles\" tilewidth=\"32\" tileheight=\"32\">\n");
+		tmx.append("  <image source=\"tiles.png\" width=\"64\" height=\"32\"/>\n");
+		tmx.append(" </tileset>\n");
+		tmx.append(" <layer name=\"bottom\" width=\"2\" height=\"1\">\n  <data encoding=\"csv\">1,2</data>\n </layer>\n");
+		tmx.append(" <layer name=\"top\" width=\"2\" height=\"1\">\n  <data encoding=\"csv\">1,0</data>\n </layer>\n");
+		tmx.append("</map>\n");
+
+		File file = File.createTempFile("mini2Dx-test-", ".tmx");
+		file.deleteOnExit();
+		FileHandle fileHandle = new FileHandle(file);
+		fileHandle.writeString(tmx.toString(), false, "UTF-8");
+
+		TiledMap.OCCLUSION_CULLING = true;
+		tiledMap = new TiledMap(fileHandle, false, false);
+		tiledMap.getTile(1).setOpaque(true);
+		occlusionMask = tiledMap.getOcclusionMask();
+	}
+
+	@After
+	public void tearDown() {
+		TiledMap.OCCLUSION_CULLING = false;
+	}
+
+	@Test
+	public void testOcclusion() {
+		Assert.assertEquals(true, occlusionMask.update());
+		Assert.assertEquals(false, occlusionMask.update());
+
+		Assert.assertEquals(1, occlusionMask.getTopOpaqueLayer(0, 0));
+		Assert.assertEquals(TileOcclusionMask.NO_LAYER, occlusionMask.getTopOpaqueLayer(1, 0));
+		Assert.assertEquals(true, occlusionMask.isOccluded(0, 0, 0));
+		Assert.assertEquals(false, occlusionMask.isOccluded(1, 0, 0));
+		Assert.assertEquals(false, occlusionMask.isOccluded(0, 1, 0));
+	}
+
+	@Test
+	public void testSetTileIdUpdatesCell() {
+		occlusionMask.update();
+		tiledMap.getTileLayer("top").setTileId(0, 0, 2);
+
+		Assert.assertEquals(false, occlusionMask.update());
+		Assert.assertEquals(0, occlusionMask.getTopOpaqueLayer(0, 0));
+		Assert.assertEquals(false, occlusionMask.isOccluded(0, 0, 0));
+
+		tiledMap.getTileLayer("bottom").setTileId(1, 0, 1);
+		Assert.assertEquals(false, occlusionMask.update());
+		Assert.assertEquals(0, occlusionMask.getTopOpaqueLayer(1, 0));
+
+		IntArray changedCells = new IntArray();
+		occlusionMask.pollChangedCells(changedCells);
+		Assert.assertEquals(8, changedCells.size);
+		Assert.assertEquals(0, changedCells.get(0));
+		Assert.assertEquals(0, changedCells.get(1));
+		Assert.assertEquals(1, changedCells.get(2));
+		Assert.assertEquals(0, changedCells.get(3));
+		Assert.assertEquals(1, changedCells.get(4));
+		Assert.assertEquals(0, changedCells.get(5));
+		Assert.assertEquals(TileOcclusionMask.NO_LAYER, changedCells.get(6));
+		Assert.assertEquals(0, changedCells.get(7));
+
+		changedCells.clear();
+		occlusionMask.pollChangedCells(changedCells);
+		Assert.assertEquals(0, changedCells.size);
+	}
+
+	@Test
+	public void testSetHiddenTileDoesNotChangeMask() {
+		occlusionMask.update();
+		tiledMap.getTileLayer("bottom").setTileId(0, 0, 2);
+
+		IntArray changedCells = new IntArray();
+		occlusionMask.pollChangedCells(changedCells);
+		Assert.assertEquals(0, changedCells.size);
+		Assert.assertEquals(1, occlusionMask.getTopOpaqueLayer(0, 0));
+	}
+
+	@Test
+	public void testTooManyChangesRebuildsMask() {
+		occlusionMask.update();
+		TileLayer topLayer = tiledMap.getTileLayer("top");
+		for (int i = 0; i <= TileOcclusionMask.MAX_CHANGED_CELLS; i++) {
+			topLayer.setTileId(0, 0, i % 2 == 0 ? 2 : 1);
+		}
+		Assert.assertEquals(true, occlusionMask.update());
+		Assert.assertEquals(0, occlusionMask.getTopOpaqueLayer(0, 0));
+
+		IntArray changedCells = new IntArray();
+		occlusionMask.pollChangedCells(changedCells);
+		Assert.assertEquals(0, changedCells.size);
+	}
+
+	@Test
+	public void testVisibilityChangeRebuildsMask() {
+		occlusionMask.update();
+		tiledMap.getTileLayer("top").setVisible(false);
+		Assert.assertEquals(true, occlusionMask.update());
+	}
+
+	@Test
+	public void testDisabled() {
+		TiledMap.OCCLUSION_CULLING = false;
+		Assert.assertNull(tiledMap.getOcclusionMask());
+	}
+}
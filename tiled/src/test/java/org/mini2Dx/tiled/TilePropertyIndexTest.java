@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import com.badlogic.gdx.utils.Array;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.tiled.tileset.ImageTilesetSource;
+
+/**
+ * Unit tests for {@link TilePropertyIndex}
+ */
+public class TilePropertyIndexTest {
+	private Tileset tileset;
+	private TileLookup tileLookup;
+	private TilePropertyIndex tilePropertyIndex;
+
+	@Before
+	public void setUp() {
+		tileset = new Tileset(1, new ImageTilesetSource(128, 128, 32, 32, 0, 0));
+		tileset.getTile(1).setProperty("solid", "true");
+		tileset.getTile(2).setProperty("solid", "false");
+		tileset.getTile(2).setProperty("water", "TRUE");
+		tileset.getTile(3).setProperty("damage", "2.5");
+		tileset.getTile(4).setProperty("damage", "10");
+		tileset.getTile(4).setProperty("name", "lava");
+		tileset.getTile(5).setProperty("mixed", "true");
+		tileset.getTile(6).setProperty("mixed", "3");
+
+		final Array<Tileset> tilesets = new Array<Tileset>();
+		tilesets.add(tileset);
+		tileLookup = new TileLookup();
+		tileLookup.rebuild(tilesets);
+		tilePropertyIndex = new TilePropertyIndex();
+		tilePropertyIndex.rebuild(tileLookup);
+	}
+
+	@Test
+	public void testFlags() {
+		final int solid = tilePropertyIndex.getFlagId("solid");
+		final int water = tilePropertyIndex.getFlagId("water");
+		Assert.assertTrue(solid != TilePropertyIndex.NO_PROPERTY);
+		Assert.assertTrue(water != TilePropertyIndex.NO_PROPERTY);
+
+		Assert.assertTrue(tilePropertyIndex.hasFlag(1, solid));
+		Assert.assertFalse(tilePropertyIndex.hasFlag(2, solid));
+		Assert.assertTrue(tilePropertyIndex.hasFlag(2, water));
+		Assert.assertFalse(tilePropertyIndex.hasFlag(3, solid));
+		Assert.assertFalse(tilePropertyIndex.hasFlag(0, solid));
+		Assert.assertFalse(tilePropertyIndex.hasFlag(1000, solid));
+
+		Assert.assertEquals(1L << water, tilePropertyIndex.getFlags(2));
+		Assert.assertEquals((1L << solid) | (1L << water), tilePropertyIndex.getFlagMask("solid", "water", "damage"));
+	}
+
+	@Test
+	public void testNumericProperties() {
+		final int damage = tilePropertyIndex.getNumericPropertyId("damage");
+		Assert.assertTrue(damage != TilePropertyIndex.NO_PROPERTY);
+		Assert.assertEquals(2.5f, tilePropertyIndex.getNumericProperty(3, damage, 0f));
+		Assert.assertEquals(10f, tilePropertyIndex.getNumericProperty(4, damage, 0f));
+		Assert.assertEquals(-1f, tilePropertyIndex.getNumericProperty(1, damage, -1f));
+	}
+
+	@Test
+	public void testOtherProperties() {
+		Assert.assertEquals(TilePropertyIndex.NO_PROPERTY, tilePropertyIndex.getFlagId("name"));
+		Assert.assertEquals(TilePropertyIndex.NO_PROPERTY, tilePropertyIndex.getNumericPropertyId("name"));
+		Assert.assertEquals(TilePropertyIndex.NO_PROPERTY, tilePropertyIndex.getFlagId("mixed"));
+		Assert.assertEquals(TilePropertyIndex.NO_PROPERTY, tilePropertyIndex.getNumericPropertyId("mixed"));
+		Assert.assertEquals(TilePropertyIndex.NO_PROPERTY, tilePropertyIndex.getFlagId("missing"));
+	}
+
+	@Test
+	public void testRebuild() {
+		tileset.getTile(7).setProperty("solid", "true");
+		Assert.assertFalse(tilePropertyIndex.hasFlag(7, tilePropertyIndex.getFlagId("solid")));
+		tilePropertyIndex.rebuild(tileLookup);
+		Assert.assertTrue(tilePropertyIndex.hasFlag(7, tilePropertyIndex.getFlagId("solid")));
+	}
+}
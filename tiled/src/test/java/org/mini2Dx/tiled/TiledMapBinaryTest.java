@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.IOException;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mini2Dx.tiled.renderer.AnimatedTileRenderer;
+import org.mini2Dx.tiled.renderer.TileFrame;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Round-trip tests for {@link TiledMapBinaryWriter} and
+ * {@link TiledMapBinaryParser}
+ */
+public class TiledMapBinaryTest {
+	private FileHandle binaryFile;
+
+	@BeforeClass
+	public static void setUpFiles() {
+		Gdx.files = new HeadlessFiles();
+	}
+
+	@After
+	public void tearDown() {
+		if (binaryFile != null) {
+			binaryFile.delete();
+		}
+	}
+
+	@Test
+	public void testOrthogonalRoundTrip() throws IOException {
+		assertRoundTrip("orthogonal.tmx");
+	}
+
+	@Test
+	public void testTsxRoundTrip() throws IOException {
+		assertRoundTrip("orthogonal_tsx.tmx");
+	}
+
+	@Test
+	public void testHexagonalRoundTrip() throws IOException {
+		assertRoundTrip("hexagonal_x.tmx");
+	}
+
+	@Test
+	public void testModifyMappedTileLayer() throws IOException {
+		final TiledMapData expected = new TiledMapData(getFile("orthogonal.tmx"));
+		final TiledMapData actual = writeAndRead(expected);
+		final TileLayer layer = actual.getTileLayer("Collisions");
+		final int totalFilledTiles = layer.getTotalFilledTiles();
+		final int originalTileId = layer.getTileId(0, 0);
+
+		layer.setTileId(0, 0, originalTileId == 0 ? 7 : 0);
+		layer.setFlippedHorizontally(1, 0, true);
+		Assert.assertEquals(originalTileId == 0 ? 7 : 0, layer.getTileId(0, 0));
+		Assert.assertTrue(layer.isFlippedHorizontally(1, 0));
+		Assert.assertEquals(totalFilledTiles + (originalTileId == 0 ? 1 : -1), layer.getTotalFilledTiles());
+
+		final TiledMapData reloaded = new TiledMapData(new TiledMapBinaryParser(), binaryFile);
+		Assert.assertEquals(originalTileId, reloaded.getTileLayer("Collisions").getTileId(0, 0));
+	}
+
+	@Test
+	public void testRelativise() {
+		Assert.assertEquals("tileset.png", TiledMapBinaryWriter.relativise("maps", "maps/tileset.png"));
+		Assert.assertEquals("../tilesets/a.tsx", TiledMapBinaryWriter.relativise("maps/level1", "maps/tilesets/a.tsx"));
+		Assert.assertEquals("tileset.png", TiledMapBinaryWriter.relativise("/tmp/maps", "/tmp/maps/tileset.png"));
+		Assert.assertEquals("maps/tileset.png", TiledMapBinaryWriter.relativise("", "maps/tileset.png"));
+	}
+
+	private void assertRoundTrip(String filename) throws IOException {
+		final TiledMapData expected = new TiledMapData(getFile(filename));
+		final TiledMapData actual = writeAndRead(expected);
+
+		Assert.assertEquals(expected.getOrientation(), actual.getOrientation());
+		Assert.assertEquals(expected.getStaggerAxis(), actual.getStaggerAxis());
+		Assert.assertEquals(expected.getStaggerIndex(), actual.getStaggerIndex());
+		Assert.assertEquals(expected.getBackgroundColor(), actual.getBackgroundColor());
+		Assert.assertEquals(expected.getWidth(), actual.getWidth());
+		Assert.assertEquals(expected.getHeight(), actual.getHeight());
+		Assert.assertEquals(expected.getTileWidth(), actual.getTileWidth());
+		Assert.assertEquals(expected.getTileHeight(), actual.getTileHeight());
+		Assert.assertEquals(expected.getPixelWidth(), actual.getPixelWidth());
+		Assert.assertEquals(expected.getPixelHeight(), actual.getPixelHeight());
+		Assert.assertEquals(expected.getSideLength(), actual.getSideLength());
+		assertProperties(expected.getProperties(), actual.getProperties());
+
+		Assert.assertEquals(expected.getTilesets().size, actual.getTilesets().size);
+		for (int i = 0; i < expected.getTilesets().size; i++) {
+			assertTileset(expected.getTilesets().get(i), actual.getTilesets().get(i));
+		}
+		Assert.assertEquals(expected.containsAnimatedTiles(), actual.containsAnimatedTiles());
+		if (expected.containsAnimatedTiles()) {
+			Assert.assertEquals(expected.getAnimatedTiles().size, actual.getAnimatedTiles().size);
+		}
+
+		Assert.assertEquals(expected.getTotalLayers(), actual.getTotalLayers());
+		Assert.assertEquals(expected.getTotalObjectGroups(), actual.getTotalObjectGroups());
+		for (int i = 0; i < expected.getLayers().size; i++) {
+			assertLayer(expected.getLayers().get(i), actual.getLayers().get(i));
+		}
+	}
+
+	private void assertTileset(Tileset expected, Tileset actual) {
+		Assert.assertEquals(expected.getFirstGid(), actual.getFirstGid());
+		Assert.assertEquals(expected.getLastGid(), actual.getLastGid());
+		Assert.assertEquals(expected.getWidth(), actual.getWidth());
+		Assert.assertEquals(expected.getHeight(), actual.getHeight());
+		Assert.assertEquals(expected.getTileWidth(), actual.getTileWidth());
+		Assert.assertEquals(expected.getTileHeight(), actual.getTileHeight());
+		Assert.assertEquals(expected.getSpacing(), actual.getSpacing());
+		Assert.assertEquals(expected.getMargin(), actual.getMargin());
+		Assert.assertEquals(expected.getSourceInternalUuid(), actual.getSourceInternalUuid());
+		assertProperties(expected.getProperties(), actual.getProperties());
+
+		for (int tileId = expected.getFirstGid(); tileId <= expected.getLastGid(); tileId++) {
+			final Tile expectedTile = expected.getTile(tileId);
+			final Tile actualTile = actual.getTile(tileId);
+			assertProperties(expectedTile.getProperties(), actualTile.getProperties());
+			Assert.assertEquals(expectedTile.getTileRenderer() instanceof AnimatedTileRenderer,
+					actualTile.getTileRenderer() instanceof AnimatedTileRenderer);
+			if (!(expectedTile.getTileRenderer() instanceof AnimatedTileRenderer)) {
+				continue;
+			}
+			final TileFrame[] expectedFrames = ((AnimatedTileRenderer) expectedTile.getTileRenderer()).getFrames();
+			final TileFrame[] actualFrames = ((AnimatedTileRenderer) actualTile.getTileRenderer()).getFrames();
+			Assert.assertEquals(expectedFrames.length, actualFrames.length);
+			for (int i = 0; i < expectedFrames.length; i++) {
+				Assert.assertEquals(expectedFrames[i].getTileId(), actualFrames[i].getTileId());
+				Assert.assertEquals(expectedFrames[i].getDuration(), actualFrames[i].getDuration());
+			}
+		}
+	}
+
+	private void assertLayer(Layer expected, Layer actual) {
+		Assert.assertEquals(expected.getLayerType(), actual.getLayerType());
+		Assert.assertEquals(expected.getName(), actual.getName());
+		Assert.assertEquals(expected.getIndex(), actual.getIndex());
+		Assert.assertEquals(expected.isVisible(), actual.isVisible());
+		assertProperties(expected.getProperties(), actual.getProperties());
+
+		switch (expected.getLayerType()) {
+		case TILE:
+			final TileLayer expectedTileLayer = (TileLayer) expected;
+			final TileLayer actualTileLayer = (TileLayer) actual;
+			Assert.assertEquals(expectedTileLayer.getWidth(), actualTileLayer.getWidth());
+			Assert.assertEquals(expectedTileLayer.getHeight(), actualTileLayer.getHeight());
+			Assert.assertEquals(expectedTileLayer.getTotalFilledTiles(), actualTileLayer.getTotalFilledTiles());
+			for (int x = 0; x < expectedTileLayer.getWidth(); x++) {
+				for (int y = 0; y < expectedTileLayer.getHeight(); y++) {
+					Assert.assertEquals(expectedTileLayer.getPackedTile(x, y), actualTileLayer.getPackedTile(x, y));
+				}
+			}
+			break;
+		case OBJECT:
+			final TiledObjectGroup expectedGroup = (TiledObjectGroup) expected;
+			final TiledObjectGroup actualGroup = (TiledObjectGroup) actual;
+			Assert.assertEquals(expectedGroup.getObjects().size, actualGroup.getObjects().size);
+			for (int i = 0; i < expectedGroup.getObjects().size; i++) {
+				assertObject(expectedGroup.getObjects().get(i), actualGroup.getObjects().get(i));
+			}
+			break;
+		case GROUP:
+			final GroupLayer expectedGroupLayer = (GroupLayer) expected;
+			final GroupLayer actualGroupLayer = (GroupLayer) actual;
+			Assert.assertEquals(expectedGroupLayer.getLayers().size, actualGroupLayer.getLayers().size);
+			for (int i = 0; i < expectedGroupLayer.getLayers().size; i++) {
+				Assert.assertEquals(expectedGroupLayer.getLayers().get(i).getIndex(),
+						actualGroupLayer.getLayers().get(i).getIndex());
+			}
+			break;
+		}
+	}
+
+	private void assertObject(TiledObject expected, TiledObject actual) {
+		Assert.assertEquals(expected.getId(), actual.getId());
+		Assert.assertEquals(expected.getX(), actual.getX());
+		Assert.assertEquals(expected.getY(), actual.getY());
+		Assert.assertEquals(expected.getWidth(), actual.getWidth());
+		Assert.assertEquals(expected.getHeight(), actual.getHeight());
+		Assert.assertEquals(expected.getName(), actual.getName());
+		Assert.assertEquals(expected.getType(), actual.getType());
+		Assert.assertEquals(expected.isVisible(), actual.isVisible());
+		Assert.assertEquals(expected.getGid(), actual.getGid());
+		Assert.assertEquals(expected.isGidFlipHorizontally(), actual.isGidFlipHorizontally());
+		Assert.assertEquals(expected.isGidFlipVertically(), actual.isGidFlipVertically());
+		Assert.assertEquals(expected.isGidFlipDiagonally(), actual.isGidFlipDiagonally());
+		Assert.assertEquals(expected.getObjectShape(), actual.getObjectShape());
+		Assert.assertEquals(expected.getText(), actual.getText());
+		Assert.assertEquals(expected.isWrapText(), actual.isWrapText());
+		assertProperties(expected.getProperties(), actual.getProperties());
+
+		if (expected.getVertices() == null) {
+			Assert.assertNull(actual.getVertices());
+			return;
+		}
+		Assert.assertEquals(expected.getVertices().length, actual.getVertices().length);
+		for (int i = 0; i < expected.getVertices().length; i++) {
+			Assert.assertEquals(expected.getVertices()[i], actual.getVertices()[i]);
+		}
+	}
+
+	private void assertProperties(ObjectMap<String, String> expected, ObjectMap<String, String> actual) {
+		if (expected == null) {
+			Assert.assertNull(actual);
+			return;
+		}
+		Assert.assertEquals(expected.size, actual.size);
+		for (String key : expected.keys()) {
+			Assert.assertEquals(expected.get(key), actual.get(key));
+		}
+	}
+
+	private TiledMapData writeAndRead(TiledMapData tiledMapData) throws IOException {
+		final FileHandle tmxFile = tiledMapData.getFileHandle();
+		binaryFile = tmxFile.sibling(tmxFile.nameWithoutExtension() + "-test." + TiledMapBinaryParser.EXTENSION);
+		new TiledMapBinaryWriter().write(tiledMapData, binaryFile);
+		return new TiledMapData(new TiledMapBinaryParser(), binaryFile);
+	}
+
+	private FileHandle getFile(String filename) {
+		return new FileHandle(Thread.currentThread().getContextClassLoader().getResource(filename).getFile()
+				.replaceAll("%20", " "));
+	}
+}
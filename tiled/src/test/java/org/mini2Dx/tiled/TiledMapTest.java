@@ -58,6 +58,22 @@ public class TiledMapTest {
 		Assert.assertEquals("SUCCESS", tiledMap.getTilesets().get(0).getTile(0, 0).getProperty("testTileProperty"));
 	}
 
+	@Test
+	public void testGetTilesetByTileId() {
+		int maxGid = 0;
+		for (int i = 0; i < tiledMap.getTilesets().size; i++) {
+			Tileset tileset = tiledMap.getTilesets().get(i);
+			Assert.assertEquals(tileset, tiledMap.getTileset(tileset.getFirstGid()));
+			Assert.assertEquals(tileset, tiledMap.getTileset(tileset.getLastGid()));
+			Assert.assertEquals(tileset.getTile(tileset.getLastGid()), tiledMap.getTile(tileset.getLastGid()));
+			maxGid = Math.max(maxGid, tileset.getLastGid());
+		}
+		Assert.assertNull(tiledMap.getTileset(0));
+		Assert.assertNull(tiledMap.getTile(0));
+		Assert.assertNull(tiledMap.getTileset(maxGid + 1));
+		Assert.assertNull(tiledMap.getTile(maxGid + 1));
+	}
+
 	@Test
 	public void testGetOrientation() {
 		Assert.assertEquals(Orientation.ORTHOGONAL, tiledMap.getOrientation());
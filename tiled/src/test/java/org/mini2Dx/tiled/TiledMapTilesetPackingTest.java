@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.lib.legacy.ClassImposteriser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.graphics.HeadlessGraphics;
+import org.mini2Dx.core.graphics.RenderStatistics;
+import org.mini2Dx.tiled.tileset.ImageTilesetSource;
+import org.mini2Dx.tiled.tileset.TilesetAtlas;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+
+import junit.framework.Assert;
+
+/**
+ * Renders a map with {@link TiledMap#PACK_TILESET_TEXTURES} enabled through
+ * {@link HeadlessGraphics} to check the texture binds it causes
+ */
+public class TiledMapTilesetPackingTest {
+	private static final int TILESET_WIDTH = 64;
+	private static final int TILESET_HEIGHT = 32;
+
+	private Mockery mockery;
+	private AssetManager assetManager;
+	private int totalPageTextures;
+	private boolean previousPackTilesetTextures;
+	private int previousTilesetAtlasPageSize;
+
+	@Before
+	public void setUp() {
+		mockery = new Mockery();
+		mockery.setImposteriser(ClassImposteriser.INSTANCE);
+		assetManager = mockery.mock(AssetManager.class);
+
+		previousPackTilesetTextures = TiledMap.PACK_TILESET_TEXTURES;
+		previousTilesetAtlasPageSize = TiledMap.TILESET_ATLAS_PAGE_SIZE;
+		TiledMap.PACK_TILESET_TEXTURES = true;
+	}
+
+	@After
+	public void teardown() {
+		TiledMap.PACK_TILESET_TEXTURES = previousPackTilesetTextures;
+		TiledMap.TILESET_ATLAS_PAGE_SIZE = previousTilesetAtlasPageSize;
+	}
+
+	@Test
+	public void testPackedTilesetsShareTexture() throws IOException {
+		TiledMap.TILESET_ATLAS_PAGE_SIZE = 256;
+		final RenderStatistics.Counters counters = render(loadMap());
+		Assert.assertEquals(8, counters.getSprites());
+		Assert.assertEquals(1, counters.getTextureBinds());
+		Assert.assertEquals(1, counters.getBatchFlushes());
+	}
+
+	@Test
+	public void testUnpackedTilesetsSwitchTextures() throws IOException {
+		//Tileset images are larger than a page so each gets its own texture
+		TiledMap.TILESET_ATLAS_PAGE_SIZE = TILESET_HEIGHT;
+		final RenderStatistics.Counters counters = render(loadMap());
+		Assert.assertEquals(8, counters.getSprites());
+		Assert.assertEquals(7, counters.getTextureBinds());
+		Assert.assertEquals(7, counters.getBatchFlushes());
+	}
+
+	private RenderStatistics.Counters render(TiledMap tiledMap) {
+		final HeadlessGraphics g = new HeadlessGraphics() {
+			@Override
+			public float getViewportWidth() {
+				return 640f;
+			}
+
+			@Override
+			public float getViewportHeight() {
+				return 480f;
+			}
+		};
+		g.preRender(640, 480);
+		tiledMap.draw(g, 0, 0);
+		g.postRender();
+		return g.getRenderStatistics().getFrame();
+	}
+
+	private TiledMap loadMap() throws IOException {
+		final TiledMapData tiledMapData = new TiledMapData(createMapFile());
+		tiledMapData.tilesetAtlas = new TilesetAtlas() {
+			@Override
+			protected Pixmap createPagePixmap(int width, int height) {
+				final Pixmap pixmap = mockery.mock(Pixmap.class, "pagePixmap" + totalPageTextures);
+				mockery.checking(new Expectations() {
+					{
+						ignoring(pixmap);
+					}
+				});
+				return pixmap;
+			}
+
+			@Override
+			protected Texture createPageTexture(Pixmap pixmap) {
+				final Texture texture = mockery.mock(Texture.class, "pageTexture" + totalPageTextures);
+				mockery.checking(new Expectations() {
+					{
+						allowing(texture).getWidth();
+						will(returnValue(TiledMap.TILESET_ATLAS_PAGE_SIZE * 2));
+						allowing(texture).getHeight();
+						will(returnValue(TiledMap.TILESET_ATLAS_PAGE_SIZE * 2));
+					}
+				});
+				totalPageTextures++;
+				return texture;
+			}
+		};
+
+		for (int i = 0; i < tiledMapData.getTilesets().size; i++) {
+			final ImageTilesetSource source = tiledMapData.getTilesets().get(i).getTilesetSource()
+					.getImageTilesetSource();
+			final Pixmap pixmap = mockery.mock(Pixmap.class, "tileset" + i);
+			mockery.checking(new Expectations() {
+				{
+					allowing(pixmap).getWidth();
+					will(returnValue(TILESET_WIDTH));
+					allowing(pixmap).getHeight();
+					will(returnValue(TILESET_HEIGHT));
+					allowing(pixmap).dispose();
+					oneOf(assetManager).get(source.getTilesetImagePath(), Pixmap.class);
+					will(returnValue(pixmap));
+				}
+			});
+			source.loadTexture(assetManager, tiledMapData.getFileHandle());
+		}
+		tiledMapData.loadTilesetTextures(true);
+		Assert.assertEquals(true, tiledMapData.isTilesetTexturesLoaded());
+		return new TiledMap(tiledMapData, false, false);
+	}
+
+	private FileHandle createMapFile() throws IOException {
+		StringBuilder tmx = new StringBuilder();
+		tmx.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		tmx.append("<map version=\"1.0\" orientation=\"orthogonal\" width=\"4\" height=\"2\" ");
+		tmx.append("tilewidth=\"32\" tileheight=\"32\">\n");
+		tmx.append(" <tileset firstgid=\"1\" name=\"tileset1\" tilewidth=\"32\" tileheight=\"32\">\n");
+		tmx.append("  <image source=\"tileset1.png\" width=\"64\" height=\"32\"/>\n");
+		tmx.append(" </tileset>\n");
+		tmx.append(" <tileset firstgid=\"3\" name=\"tileset2\" tilewidth=\"32\" tileheight=\"32\">\n");
+		tmx.append("  <image source=\"tileset2.png\" width=\"64\" height=\"32\"/>\n");
+		tmx.append(" </tileset>\n");
+		tmx.append(" <layer name=\"Ground\" width=\"4\" height=\"2\">\n");
+		tmx.append("  <data encoding=\"csv\">\n");
+		//Alternates between the tilesets on every tile except across the row break
+		tmx.append("1,3,2,4,\n4,1,3,2\n");
+		tmx.append("  </data>\n </layer>\n");
+		tmx.append("</map>\n");
+
+		File file = File.createTempFile("mini2Dx-test-", ".tmx");
+		file.deleteOnExit();
+		FileHandle fileHandle = new FileHandle(file);
+		fileHandle.writeString(tmx.toString(), false, "UTF-8");
+		return fileHandle;
+	}
+}
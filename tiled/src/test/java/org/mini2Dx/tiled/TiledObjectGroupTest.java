@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import com.badlogic.gdx.utils.Array;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TiledObjectGroup} queries
+ */
+public class TiledObjectGroupTest {
+	private TiledObjectGroup objectGroup;
+	private Array<TiledObject> result;
+
+	@Before
+	public void setUp() {
+		objectGroup = new TiledObjectGroup();
+		for (int i = 0; i < 100; i++) {
+			final TiledObject object = new TiledObject(i, (i % 10) * 32f, (i / 10) * 32f, 16f, 16f);
+			object.setType(i % 2 == 0 ? "Spawn" : "Trigger");
+			object.setName("Object" + (i % 50));
+			objectGroup.getObjects().add(object);
+		}
+		final TiledObject polygon = new TiledObject(100, 400f, 400f, 0f, 0f);
+		polygon.setAsPolygon(new float[] { 0f, 0f, 150f, 0f, 50f, 80f });
+		polygon.setType("Zone");
+		objectGroup.getObjects().add(polygon);
+
+		final TiledObject large = new TiledObject(101, 0f, 0f, 500f, 500f);
+		large.setType("Zone");
+		objectGroup.getObjects().add(large);
+
+		objectGroup.updateIndex();
+		result = new Array<TiledObject>();
+	}
+
+	@Test
+	public void testGetObjectsWithinArea() {
+		objectGroup.getObjectsWithinArea(30f, 30f, 40f, 10f, result);
+		Assert.assertEquals(3, result.size);
+		Assert.assertTrue(result.contains(objectGroup.getObjectById(11), true));
+		Assert.assertTrue(result.contains(objectGroup.getObjectById(12), true));
+		Assert.assertTrue(result.contains(objectGroup.getObjectById(101), true));
+	}
+
+	@Test
+	public void testGetObjectsWithinAreaByType() {
+		objectGroup.getObjectsWithinArea(0f, 0f, 100f, 10f, "Spawn", result);
+		Assert.assertEquals(2, result.size);
+		Assert.assertEquals(0, result.get(0).getId() % 2);
+		Assert.assertEquals(0, result.get(1).getId() % 2);
+
+		result.clear();
+		objectGroup.getObjectsWithinArea(0f, 0f, 100f, 10f, "Missing", result);
+		Assert.assertEquals(0, result.size);
+	}
+
+	@Test
+	public void testGetObjectsContainingPoint() {
+		objectGroup.getObjectsContainingPoint(450f, 470f, result);
+		Assert.assertEquals(2, result.size);
+
+		result.clear();
+		objectGroup.getObjectsContainingPoint(520f, 470f, "Zone", result);
+		Assert.assertEquals(1, result.size);
+		Assert.assertEquals(100, result.get(0).getId());
+
+		result.clear();
+		objectGroup.getObjectsContainingPoint(600f, 600f, result);
+		Assert.assertEquals(0, result.size);
+	}
+
+	@Test
+	public void testGetObjectsByType() {
+		Assert.assertEquals(50, objectGroup.getObjectsByType("Spawn").size);
+		Assert.assertEquals(50, objectGroup.getObjectsByType("Trigger").size);
+		Assert.assertEquals(2, objectGroup.getObjectsByType("Zone").size);
+		Assert.assertNull(objectGroup.getObjectsByType("spawn"));
+		Assert.assertEquals(3, objectGroup.getObjectTypes().size);
+	}
+
+	@Test
+	public void testGetObjectsByName() {
+		Assert.assertEquals(2, objectGroup.getObjectsByName("Object7").size);
+		Assert.assertEquals(7, objectGroup.getObjectByName("Object7").getId());
+		Assert.assertNull(objectGroup.getObjectByName("Missing"));
+		Assert.assertEquals(57, objectGroup.getObjectById(57).getId());
+		Assert.assertNull(objectGroup.getObjectById(500));
+	}
+
+	@Test
+	public void testIndexUpdatedWhenObjectsAdded() {
+		final TiledObject object = new TiledObject(200, 1000f, 1000f, 10f, 10f);
+		object.setType("Spawn");
+		objectGroup.getObjects().add(object);
+
+		objectGroup.getObjectsContainingPoint(1005f, 1005f, result);
+		Assert.assertEquals(1, result.size);
+		Assert.assertEquals(51, objectGroup.getObjectsByType("Spawn").size);
+	}
+}
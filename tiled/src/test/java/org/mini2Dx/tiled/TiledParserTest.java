@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Base64Coder;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Unit tests for {@link TiledParser}
+ */
+public class TiledParserTest {
+	private static final int[] TILES = new int[] { 1, 0, 3 | TileLayer.FLAG_FLIP_HORIZONTALLY, 4, 5,
+			6 | TileLayer.FLAG_FLIP_VERTICALLY | TileLayer.FLAG_FLIP_DIAGONALLY };
+
+	private FileHandle fileHandle;
+	private TiledMap tiledMap;
+
+	@Before
+	public void setUp() throws IOException {
+		StringBuilder tmx = new StringBuilder();
+		tmx.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		tmx.append("<!-- Generated for unit tests -->\n");
+		tmx.append("<map version=\"1.0\" orientation=\"orthogonal\" width=\"3\" height=\"2\" tilewidth=\"32\" tileheight=\"32\">\n");
+		tmx.append(" <properties>\n");
+		tmx.append("  <property name=\"escaped\" value=\"&lt;a &amp; b&gt;\"/>\n");
+		tmx.append("  <property name=\"multiline\">line1\nline2</property>\n");
+		tmx.append(" </properties>\n");
+		tmx.append(" <layer name=\"csv\" width=\"3\" height=\"2\">\n  <data encoding=\"csv\">\n");
+		for (int i = 0; i < TILES.length; i++) {
+			tmx.append(TILES[i] & 0xFFFFFFFFL);
+			tmx.append(i % 3 == 2 ? ",\n" : ",");
+		}
+		tmx.setLength(tmx.length() - 2);
+		tmx.append("\n  </data>\n </layer>\n");
+		appendBase64Layer(tmx, "base64", null, encode(TILES));
+		appendBase64Layer(tmx, "gzip", "gzip", compress(true));
+		tmx.append(" <group name=\"group\">\n");
+		tmx.append("  <properties><property name=\"groupProperty\" value=\"SUCCESS\"/></properties>\n");
+		appendBase64Layer(tmx, "zlib", "zlib", compress(false));
+		tmx.append(" </group>\n");
+		tmx.append("</map>\n");
+
+		File file = File.createTempFile("mini2Dx-test-", ".tmx");
+		file.deleteOnExit();
+		fileHandle = new FileHandle(file);
+		fileHandle.writeString(tmx.toString(), false, "UTF-8");
+		tiledMap = new TiledMap(fileHandle, false, false);
+	}
+
+	@Test
+	public void testCsvLayer() {
+		assertLayer(tiledMap.getTileLayer("csv"));
+	}
+
+	@Test
+	public void testBase64Layer() {
+		assertLayer(tiledMap.getTileLayer("base64"));
+	}
+
+	@Test
+	public void testGzipLayer() {
+		assertLayer(tiledMap.getTileLayer("gzip"));
+	}
+
+	@Test
+	public void testZlibLayerInGroup() {
+		GroupLayer groupLayer = tiledMap.getGroupLayer("group");
+		Assert.assertEquals("SUCCESS", groupLayer.getProperty("groupProperty"));
+		assertLayer((TileLayer) groupLayer.getLayers().get(0));
+	}
+
+	@Test
+	public void testMapProperties() {
+		Assert.assertEquals("<a & b>", tiledMap.getProperty("escaped"));
+		Assert.assertEquals("line1\nline2", tiledMap.getProperty("multiline"));
+	}
+
+	@Test
+	public void testParallelParse() {
+		ExecutorService executor = new ForkJoinPool(4);
+		try {
+			TiledParser parser = new TiledParser(new ObjectMap<String, TiledObjectTemplate>(), executor);
+			TiledMap parallelMap = new TiledMap(new TiledMapData(parser, fileHandle), false, false);
+			Assert.assertEquals(tiledMap.getLayers().size, parallelMap.getLayers().size);
+			for (int i = 0; i < tiledMap.getLayers().size; i++) {
+				Assert.assertEquals(tiledMap.getLayers().get(i).getName(), parallelMap.getLayers().get(i).getName());
+				Assert.assertEquals(i, parallelMap.getLayers().get(i).getIndex());
+			}
+			assertLayer(parallelMap.getTileLayer("csv"));
+			assertLayer(parallelMap.getTileLayer("base64"));
+			assertLayer(parallelMap.getTileLayer("gzip"));
+			assertLayer((TileLayer) parallelMap.getGroupLayer("group").getLayers().get(0));
+			Assert.assertEquals("<a & b>", parallelMap.getProperty("escaped"));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private void assertLayer(TileLayer layer) {
+		Assert.assertNotNull(layer);
+		Assert.assertEquals(5, layer.getTotalFilledTiles());
+		for (int i = 0; i < TILES.length; i++) {
+			Assert.assertEquals(TILES[i], layer.getPackedTile(i % 3, i / 3));
+		}
+		Assert.assertEquals(3, layer.getTileId(2, 0));
+		Assert.assertEquals(true, layer.isFlippedHorizontally(2, 0));
+		Assert.assertEquals(true, layer.isFlippedDiagonally(2, 1));
+	}
+
+	private static void appendBase64Layer(StringBuilder tmx, String name, String compression, String data) {
+		tmx.append(" <layer name=\"").append(name).append("\" width=\"3\" height=\"2\">\n");
+		tmx.append("  <data encoding=\"base64\"");
+		if (compression != null) {
+			tmx.append(" compression=\"").append(compression).append("\"");
+		}
+		tmx.append(">\n   ").append(data).append("\n  </data>\n </layer>\n");
+	}
+
+	private static String compress(boolean gzip) throws IOException {
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		OutputStream compressedStream = gzip ? new GZIPOutputStream(result) : new DeflaterOutputStream(result);
+		compressedStream.write(toBytes(TILES));
+		compressedStream.close();
+		return new String(Base64Coder.encode(result.toByteArray()));
+	}
+
+	private static String encode(int[] tiles) {
+		return new String(Base64Coder.encode(toBytes(tiles)));
+	}
+
+	private static byte[] toBytes(int[] tiles) {
+		byte[] result = new byte[tiles.length * 4];
+		for (int i = 0; i < tiles.length; i++) {
+			result[i * 4] = (byte) tiles[i];
+			result[(i * 4) + 1] = (byte) (tiles[i] >> 8);
+			result[(i * 4) + 2] = (byte) (tiles[i] >> 16);
+			result[(i * 4) + 3] = (byte) (tiles[i] >> 24);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.collisions;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.collisions.RegionQuadTree;
+import org.mini2Dx.core.engine.geom.CollisionBox;
+import org.mini2Dx.core.geom.Rectangle;
+import org.mini2Dx.tiled.TiledMap;
+import org.mini2Dx.tiled.collisions.merger.AllCollisionMerger;
+import org.mini2Dx.tiled.exception.TiledException;
+
+/**
+ * Unit tests for {@link TiledCollisionMap}
+ */
+public class TiledCollisionMapTest {
+	private TiledMap tiledMap;
+	private int collisionLayerIndex;
+	private RegionQuadTree<CollisionBox> quadTree;
+	private TiledCollisionMap<CollisionBox> collisionMap;
+
+	@Before
+	public void setUp() throws TiledException {
+		FileHandle file = new FileHandle(
+				Thread.currentThread().getContextClassLoader().getResource("orthogonal.tmx").getFile().replaceAll("%20", " "));
+		tiledMap = new TiledMap(file, false, false);
+		collisionLayerIndex = tiledMap.getLayerIndex("Collisions");
+		quadTree = new RegionQuadTree<CollisionBox>(8, 0f, 0f, tiledMap.getWidth() * tiledMap.getTileWidth(),
+				tiledMap.getHeight() * tiledMap.getTileHeight());
+		collisionMap = new TiledCollisionMapper<CollisionBox>(new TiledCollisionBoxFactory())
+				.createCollisionMap(quadTree, tiledMap, collisionLayerIndex);
+	}
+
+	@Test
+	public void testInitialCollisions() {
+		Assert.assertEquals(4, quadTree.getElementsWithinArea(quadTree).size);
+		Assert.assertFalse(collisionMap.update());
+	}
+
+	@Test
+	public void testAddTile() {
+		int tileId = tiledMap.getTileLayer(collisionLayerIndex).getTileId(1, 5);
+		collisionMap.setTileId(8, 1, tileId);
+		Assert.assertTrue(collisionMap.update());
+
+		Assert.assertEquals(5, quadTree.getElementsWithinArea(quadTree).size);
+		Assert.assertEquals(1, getCollisionsAt(8, 1).size);
+	}
+
+	@Test
+	public void testRemoveTile() {
+		collisionMap.setTileId(6, 3, 0);
+		collisionMap.update();
+
+		Assert.assertEquals(3, quadTree.getElementsWithinArea(quadTree).size);
+		Assert.assertEquals(0, getCollisionsAt(6, 3).size);
+		Assert.assertEquals(1, getCollisionsAt(5, 4).size);
+	}
+
+	@Test
+	public void testRegionBoundaries() {
+		quadTree.clear();
+		collisionMap = new TiledCollisionMap<CollisionBox>(tiledMap, collisionLayerIndex, quadTree,
+				new TiledCollisionBoxFactory(), new AllCollisionMerger(),
+				TileMergeMode.GREEDY, 2);
+		Assert.assertEquals(7, quadTree.getElementsWithinArea(quadTree).size);
+		Array<CollisionBox> collisions = getCollisionsAt(1, 5);
+		Assert.assertEquals(1, collisions.size);
+		Assert.assertEquals(tiledMap.getTileWidth() * 1f, collisions.get(0).getWidth());
+		Assert.assertEquals(tiledMap.getTileHeight() * 1f, collisions.get(0).getHeight());
+
+		collisionMap.setTileId(1, 5, 0);
+		collisionMap.update();
+		Assert.assertEquals(0, getCollisionsAt(1, 5).size);
+		Assert.assertEquals(1, getCollisionsAt(1, 6).size);
+		Assert.assertEquals(1, getCollisionsAt(2, 5).size);
+	}
+
+	private Array<CollisionBox> getCollisionsAt(int tileX, int tileY) {
+		return quadTree.getElementsWithinArea(new Rectangle(tileX * tiledMap.getTileWidth(),
+				tileY * tiledMap.getTileHeight(), tiledMap.getTileWidth() - 1f, tiledMap.getTileHeight() - 1f));
+	}
+}
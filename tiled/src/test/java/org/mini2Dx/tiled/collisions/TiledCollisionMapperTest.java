@@ -140,6 +140,45 @@ public class TiledCollisionMapperTest {
 		Assert.assertEquals(tiledMap.getTileHeight() * 1f, collision.getHeight());
 	}
 
+	@Test
+	public void testMapAndMergeCollisionsByLayerGreedy() {
+		int collisionLayerIndex = tiledMap.getLayerIndex("Collisions");
+		RegionQuadTree<CollisionBox> quadTree = new RegionQuadTree<CollisionBox>(8, 0f, 0f,
+				tiledMap.getWidth() * tiledMap.getTileWidth(), tiledMap.getHeight() * tiledMap.getTileHeight());
+
+		collisionBoxMapper = new TiledCollisionMapper<>(new TiledCollisionBoxFactory(), new AllCollisionMerger(),
+				TileMergeMode.GREEDY);
+		collisionBoxMapper.mapAndMergeCollisionsByLayer(quadTree, tiledMap, collisionLayerIndex);
+
+		Array<CollisionBox> collisions = quadTree.getElementsWithinArea(quadTree);
+		Assert.assertEquals(3, collisions.size);
+
+		byte[][] tiles = TiledCollisionMapper.mapCollisionsByLayer(tiledMap, collisionLayerIndex);
+		float expectedArea = 0f;
+		for (int x = 0; x < tiles.length; x++) {
+			for (int y = 0; y < tiles[x].length; y++) {
+				if (tiles[x][y] == 0) {
+					continue;
+				}
+				expectedArea += tiledMap.getTileWidth() * tiledMap.getTileHeight();
+				getCollisionAt(x, y, quadTree, tiledMap);
+			}
+		}
+		float area = 0f;
+		for (int i = 0; i < collisions.size; i++) {
+			area += collisions.get(i).getWidth() * collisions.get(i).getHeight();
+		}
+		Assert.assertEquals(expectedArea, area);
+
+		CollisionBox collision = getCollisionAt(1, 5, quadTree, tiledMap);
+		Assert.assertEquals(tiledMap.getTileWidth() * 2f, collision.getWidth());
+		Assert.assertEquals(tiledMap.getTileHeight() * 2f, collision.getHeight());
+
+		collision = getCollisionAt(6, 3, quadTree, tiledMap);
+		Assert.assertEquals(tiledMap.getTileWidth() * 1f, collision.getWidth());
+		Assert.assertEquals(tiledMap.getTileHeight() * 2f, collision.getHeight());
+	}
+
 	@Test
 	public void testMapCollisionsByLayerIndexToByteArray() {
 		int collisionLayerIndex = tiledMap.getLayerIndex("Collisions");
@@ -221,8 +260,10 @@ public class TiledCollisionMapperTest {
 
 	private CollisionBox getCollisionAt(int tileX, int tileY, RegionQuadTree<CollisionBox> quadTree,
 			TiledMap tiledMap) {
-		Array<CollisionBox> collisions = quadTree.getElementsWithinArea(new Rectangle(tileX * tiledMap.getTileWidth(),
-				tileY * tiledMap.getTileHeight(), tiledMap.getTileWidth() - 1f, tiledMap.getTileHeight() - 1f));
+		//Inset the probe so that merged boxes touching the tile's edges are not returned
+		Array<CollisionBox> collisions = quadTree.getElementsWithinArea(new Rectangle(
+				tileX * tiledMap.getTileWidth() + 1f, tileY * tiledMap.getTileHeight() + 1f,
+				tiledMap.getTileWidth() - 2f, tiledMap.getTileHeight() - 2f));
 		Assert.assertEquals(1, collisions.size);
 		return collisions.get(0);
 	}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Unit tests for {@link HierarchicalPathGraph} and {@link BatchPathFinder}
+ */
+public class HierarchicalPathGraphTest {
+	private static final int WALL_X = 20;
+
+	private PathGrid grid;
+	private HierarchicalPathGraph graph;
+	private JumpPointSearch search;
+	private IntArray path;
+
+	@Before
+	public void setUp() {
+		grid = new PathGrid(64, 64);
+		for (int x = 0; x < grid.getWidth(); x++) {
+			for (int y = 0; y < grid.getHeight(); y++) {
+				grid.setWalkable(x, y, x != WALL_X || y == 40);
+			}
+		}
+		graph = new HierarchicalPathGraph(grid, 16);
+		graph.update();
+		search = new JumpPointSearch(grid);
+		path = new IntArray();
+	}
+
+	@Test
+	public void testFindPath() {
+		Assert.assertTrue(graph.findPath(search, 2, 2, 60, 2, path));
+		JumpPointSearchTest.assertValidPath(grid, path, 2, 2, 60, 2);
+	}
+
+	@Test
+	public void testFindPathWithinCluster() {
+		Assert.assertTrue(graph.findPath(search, 1, 1, 14, 14, path));
+		Assert.assertEquals(4, path.size);
+		JumpPointSearchTest.assertValidPath(grid, path, 1, 1, 14, 14);
+	}
+
+	@Test
+	public void testSetWalkable() {
+		graph.setWalkable(WALL_X, 40, false);
+		Assert.assertTrue(graph.update());
+		Assert.assertFalse(graph.update());
+		Assert.assertFalse(graph.findPath(search, 2, 2, 60, 2, path));
+		Assert.assertEquals(0, path.size);
+
+		graph.setWalkable(WALL_X, 10, true);
+		graph.update();
+		Assert.assertTrue(graph.findPath(search, 2, 2, 60, 2, path));
+		JumpPointSearchTest.assertValidPath(grid, path, 2, 2, 60, 2);
+	}
+
+	@Test
+	public void testBatchPathFinder() {
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			final BatchPathFinder pathFinder = new BatchPathFinder(graph, executor, 2);
+			final Array<PathRequest> requests = new Array<PathRequest>();
+			for (int i = 0; i < 16; i++) {
+				requests.add(new PathRequest(i, 0, 63 - i, 63));
+			}
+			requests.add(new PathRequest(0, 0, WALL_X, 0));
+			pathFinder.findPaths(requests);
+
+			for (int i = 0; i < 16; i++) {
+				final PathRequest request = requests.get(i);
+				Assert.assertTrue(request.isFound());
+				JumpPointSearchTest.assertValidPath(grid, request.getPath(), i, 0, 63 - i, 63);
+			}
+			Assert.assertFalse(requests.get(16).isFound());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
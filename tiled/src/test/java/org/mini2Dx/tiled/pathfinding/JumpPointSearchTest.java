@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.pathfinding;
+
+import com.badlogic.gdx.utils.IntArray;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link JumpPointSearch}
+ */
+public class JumpPointSearchTest {
+	private PathGrid grid;
+	private JumpPointSearch search;
+	private IntArray path;
+
+	@Before
+	public void setUp() {
+		grid = new PathGrid(10, 10);
+		for (int x = 0; x < grid.getWidth(); x++) {
+			for (int y = 0; y < grid.getHeight(); y++) {
+				grid.setWalkable(x, y, true);
+			}
+		}
+		search = new JumpPointSearch(grid);
+		path = new IntArray();
+	}
+
+	@Test
+	public void testOpenGrid() {
+		Assert.assertEquals(9 * 1.4142135f, search.findPath(0, 0, 9, 9, 0, 0, 9, 9, path), 0.0001f);
+		Assert.assertEquals(4, path.size);
+		Assert.assertEquals(0, path.get(0));
+		Assert.assertEquals(0, path.get(1));
+		Assert.assertEquals(9, path.get(2));
+		Assert.assertEquals(9, path.get(3));
+	}
+
+	@Test
+	public void testWallWithGap() {
+		for (int y = 0; y < 9; y++) {
+			grid.setWalkable(5, y, false);
+		}
+		Assert.assertTrue(search.findPath(0, 0, 9, 0, path));
+		assertValidPath(grid, path, 0, 0, 9, 0);
+	}
+
+	@Test
+	public void testNoPath() {
+		for (int y = 0; y < 10; y++) {
+			grid.setWalkable(5, y, false);
+		}
+		Assert.assertFalse(search.findPath(0, 0, 9, 0, path));
+		Assert.assertEquals(0, path.size);
+	}
+
+	@Test
+	public void testNoCornerCutting() {
+		grid.setWalkable(1, 0, false);
+		grid.setWalkable(0, 1, false);
+		Assert.assertFalse(search.findPath(0, 0, 1, 1, path));
+	}
+
+	@Test
+	public void testBlockedGoal() {
+		grid.setWalkable(9, 9, false);
+		Assert.assertFalse(search.findPath(0, 0, 9, 9, path));
+	}
+
+	@Test
+	public void testSearchArea() {
+		Assert.assertEquals(JumpPointSearch.NO_PATH, search.findPath(0, 0, 9, 9, 0, 0, 4, 4, null));
+		Assert.assertEquals(4f * 1.4142135f, search.findPath(0, 0, 4, 4, 0, 0, 4, 4, null), 0.0001f);
+	}
+
+	@Test
+	public void testFromCollisions() {
+		byte[][] collisions = new byte[3][2];
+		collisions[1][0] = 1;
+		PathGrid result = PathGrid.fromCollisions(collisions);
+		Assert.assertEquals(3, result.getWidth());
+		Assert.assertEquals(2, result.getHeight());
+		Assert.assertTrue(result.isWalkable(0, 0));
+		Assert.assertFalse(result.isWalkable(1, 0));
+		Assert.assertTrue(result.isWalkable(1, 1));
+		Assert.assertFalse(result.isWalkable(3, 0));
+	}
+
+	static void assertValidPath(PathGrid grid, IntArray path, int startX, int startY, int goalX, int goalY) {
+		Assert.assertEquals(startX, path.get(0));
+		Assert.assertEquals(startY, path.get(1));
+		Assert.assertEquals(goalX, path.get(path.size - 2));
+		Assert.assertEquals(goalY, path.get(path.size - 1));
+
+		for (int i = 2; i < path.size; i += 2) {
+			int x = path.get(i - 2);
+			int y = path.get(i - 1);
+			final int toX = path.get(i);
+			final int toY = path.get(i + 1);
+			Assert.assertTrue(x == toX || y == toY || Math.abs(toX - x) == Math.abs(toY - y));
+
+			final int dx = Integer.signum(toX - x);
+			final int dy = Integer.signum(toY - y);
+			while (x != toX || y != toY) {
+				if (dx != 0 && dy != 0) {
+					Assert.assertTrue(grid.isWalkable(x + dx, y));
+					Assert.assertTrue(grid.isWalkable(x, y + dy));
+				}
+				x += dx;
+				y += dy;
+				Assert.assertTrue(grid.isWalkable(x, y));
+			}
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.renderer;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.Test;
+import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.core.graphics.Sprite;
+import org.mini2Dx.tiled.TileLayer;
+import org.mini2Dx.tiled.TiledMap;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.ObjectSet;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for the visible range calculations of
+ * {@link ProjectedTileLayerRenderer} implementations
+ */
+public class ProjectedTileLayerRendererTest {
+	private static final int MAP_SIZE = 64;
+	private static final float VIEWPORT_WIDTH = 320f;
+	private static final float VIEWPORT_HEIGHT = 240f;
+
+	private final ObjectSet<String> drawnTiles = new ObjectSet<String>();
+	private int totalVisits;
+
+	@Test
+	public void testIsometricVisibleRange() throws IOException {
+		final TiledMap tiledMap = createMap("orientation=\"isometric\" tilewidth=\"32\" tileheight=\"16\"");
+		assertVisibleRange(tiledMap, new IsometricTileLayerRenderer(tiledMap, false) {
+			@Override
+			protected void visitTile(TileLayer layer, int tileX, int tileY) {
+				totalVisits++;
+				super.visitTile(layer, tileX, tileY);
+			}
+		});
+	}
+
+	@Test
+	public void testStaggeredYVisibleRange() throws IOException {
+		final TiledMap tiledMap = createMap(
+				"orientation=\"staggered\" staggeraxis=\"y\" staggerindex=\"odd\" tilewidth=\"32\" tileheight=\"16\"");
+		assertVisibleRange(tiledMap, new IsometricStaggeredTileLayerRenderer(tiledMap, false) {
+			@Override
+			protected void visitTile(TileLayer layer, int tileX, int tileY) {
+				totalVisits++;
+				super.visitTile(layer, tileX, tileY);
+			}
+		});
+	}
+
+	@Test
+	public void testStaggeredXVisibleRange() throws IOException {
+		final TiledMap tiledMap = createMap(
+				"orientation=\"staggered\" staggeraxis=\"x\" staggerindex=\"even\" tilewidth=\"32\" tileheight=\"16\"");
+		assertVisibleRange(tiledMap, new IsometricStaggeredTileLayerRenderer(tiledMap, false) {
+			@Override
+			protected void visitTile(TileLayer layer, int tileX, int tileY) {
+				totalVisits++;
+				super.visitTile(layer, tileX, tileY);
+			}
+		});
+	}
+
+	@Test
+	public void testHexagonalVisibleRange() throws IOException {
+		final TiledMap tiledMap = createMap("orientation=\"hexagonal\" staggeraxis=\"y\" staggerindex=\"even\" "
+				+ "hexsidelength=\"26\" tilewidth=\"60\" tileheight=\"52\"");
+		assertVisibleRange(tiledMap, new HexagonalTileLayerRenderer(tiledMap, false) {
+			@Override
+			protected void visitTile(TileLayer layer, int tileX, int tileY) {
+				totalVisits++;
+				super.visitTile(layer, tileX, tileY);
+			}
+		});
+	}
+
+	private void assertVisibleRange(TiledMap tiledMap, ProjectedTileLayerRenderer renderer) {
+		tiledMap.getTile(1).setTileRenderer(new RecordingTileRenderer());
+		final TileLayer layer = tiledMap.getTileLayer(0);
+
+		//Top-left, centre, partially outside and entirely outside of the layer
+		final float[] cameraPositions = new float[] { 0f, 0f, 200f, 300f, -250f, -100f, -5000f, -5000f, 5000f,
+				5000f };
+		for (int i = 0; i < cameraPositions.length; i += 2) {
+			final float cameraX = cameraPositions[i];
+			final float cameraY = cameraPositions[i + 1];
+			drawnTiles.clear();
+			totalVisits = 0;
+			renderer.drawLayer(createGraphics(cameraX, cameraY), layer, 0, 0, 0, 0, MAP_SIZE, MAP_SIZE);
+
+			final ObjectSet<String> expectedTiles = getVisibleTiles(tiledMap, renderer, cameraX, cameraY);
+			Assert.assertEquals(expectedTiles.size, drawnTiles.size);
+			for (String tile : expectedTiles) {
+				Assert.assertEquals(true, drawnTiles.contains(tile));
+			}
+			//Only tiles around the viewport are visited
+			Assert.assertEquals(true, totalVisits < (MAP_SIZE * MAP_SIZE) / 4);
+			if (expectedTiles.size == 0) {
+				Assert.assertEquals(0, totalVisits);
+			}
+		}
+	}
+
+	private ObjectSet<String> getVisibleTiles(TiledMap tiledMap, ProjectedTileLayerRenderer renderer, float cameraX,
+			float cameraY) {
+		final float minX = cameraX - tiledMap.getTileWidth();
+		final float minY = cameraY - tiledMap.getTileHeight();
+		final float maxX = cameraX + VIEWPORT_WIDTH;
+		final float maxY = cameraY + VIEWPORT_HEIGHT;
+
+		final ObjectSet<String> result = new ObjectSet<String>();
+		for (int y = 0; y < MAP_SIZE; y++) {
+			for (int x = 0; x < MAP_SIZE; x++) {
+				final float tileRenderX = renderer.getTileRenderX(x, y);
+				final float tileRenderY = renderer.getTileRenderY(x, y);
+				if (tileRenderX < minX || tileRenderX > maxX || tileRenderY < minY || tileRenderY > maxY) {
+					continue;
+				}
+				result.add(MathUtils.round(tileRenderX) + "," + MathUtils.round(tileRenderY));
+			}
+		}
+		return result;
+	}
+
+	private Graphics createGraphics(final float cameraX, final float cameraY) {
+		final Mockery mockery = new Mockery();
+		final Graphics g = mockery.mock(Graphics.class);
+		mockery.checking(new Expectations() {
+			{
+				allowing(g).getTranslationX();
+				will(returnValue(cameraX));
+				allowing(g).getTranslationY();
+				will(returnValue(cameraY));
+				allowing(g).getViewportWidth();
+				will(returnValue(VIEWPORT_WIDTH));
+				allowing(g).getViewportHeight();
+				will(returnValue(VIEWPORT_HEIGHT));
+			}
+		});
+		return g;
+	}
+
+	private TiledMap createMap(String mapAttributes) throws IOException {
+		StringBuilder tmx = new StringBuilder();
+		tmx.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		tmx.append("<map version=\"1.0\" " + mapAttributes + " width=\"" + MAP_SIZE + "\" height=\"" + MAP_SIZE
+				+ "\">\n");
+		tmx.append(" <tileset firstgid=\"1\" name=\"tiles\" tilewidth=\"16\" tileheight=\"16\">\n");
+		tmx.append("  <image source=\"tiles.png\" width=\"16\" height=\"16\"/>\n");
+		tmx.append(" </tileset>\n");
+		tmx.append(" <layer name=\"tiles\" width=\"" + MAP_SIZE + "\" height=\"" + MAP_SIZE + "\">\n");
+		tmx.append("  <data encoding=\"csv\">\n");
+		for (int i = 0; i < MAP_SIZE * MAP_SIZE; i++) {
+			tmx.append(i == 0 ? "1" : ",1");
+		}
+		tmx.append("\n  </data>\n </layer>\n");
+		tmx.append("</map>\n");
+
+		File file = File.createTempFile("mini2Dx-test-", ".tmx");
+		file.deleteOnExit();
+		FileHandle fileHandle = new FileHandle(file);
+		fileHandle.writeString(tmx.toString(), false, "UTF-8");
+		return new TiledMap(fileHandle, false, false);
+	}
+
+	private class RecordingTileRenderer implements TileRenderer {
+		@Override
+		public void update(float delta) {
+		}
+
+		@Override
+		public void draw(Graphics g, int renderX, int renderY) {
+			drawnTiles.add(renderX + "," + renderY);
+		}
+
+		@Override
+		public void draw(Graphics g, int renderX, int renderY, boolean flipH, boolean flipV, boolean flipD) {
+			draw(g, renderX, renderY);
+		}
+
+		@Override
+		public Sprite getCurrentTileImage() {
+			return null;
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.renderer;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.lib.legacy.ClassImposteriser;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.graphics.Graphics;
+import org.mini2Dx.core.graphics.HeadlessGraphics;
+import org.mini2Dx.tiled.TileLayer;
+
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link TileLayerChunkCache}
+ */
+public class TileLayerChunkCacheTest implements TileLayerChunkCache.ChunkBuilder {
+	private static final int CHUNK_SIZE = 4;
+	private static final int MAX_CHUNKS = 2;
+
+	private final Array<String> drawCalls = new Array<String>();
+
+	private Mockery mockery;
+	private Graphics g;
+	private TileLayer layer1, layer2;
+	private TileLayerChunkCache chunkCache;
+	private int totalBuilds, totalSpriteCaches;
+	private boolean buildAnimatedTiles;
+
+	@Before
+	public void setUp() {
+		mockery = new Mockery();
+		mockery.setImposteriser(ClassImposteriser.INSTANCE);
+
+		g = new HeadlessGraphics() {
+			@Override
+			public void drawSpriteCache(SpriteCache spriteCache, int cacheId) {
+				super.drawSpriteCache(spriteCache, cacheId);
+				drawCalls.add("cache");
+			}
+
+			@Override
+			public void flush() {
+				super.flush();
+				drawCalls.add("flush");
+			}
+		};
+		layer1 = new TileLayer(CHUNK_SIZE * 4, CHUNK_SIZE * 4);
+		layer1.setIndex(0);
+		layer2 = new TileLayer(CHUNK_SIZE * 4, CHUNK_SIZE * 4);
+		layer2.setIndex(1);
+
+		chunkCache = new TileLayerChunkCache(CHUNK_SIZE, MAX_CHUNKS, this) {
+			@Override
+			protected SpriteCache createSpriteCache(int maxSprites, boolean useIndices) {
+				final SpriteCache spriteCache = mockery.mock(SpriteCache.class, "spriteCache" + totalSpriteCaches);
+				mockery.checking(new Expectations() {
+					{
+						ignoring(spriteCache);
+					}
+				});
+				totalSpriteCaches++;
+				return spriteCache;
+			}
+		};
+	}
+
+	@Test
+	public void testReusesCachedChunks() {
+		for (int i = 0; i < 10; i++) {
+			chunkCache.markUsage();
+			chunkCache.draw(g, layer1, 0, 0);
+			chunkCache.draw(g, layer1, 1, 0);
+		}
+		Assert.assertEquals(2, totalBuilds);
+		Assert.assertEquals(2, totalSpriteCaches);
+		Assert.assertEquals(2, chunkCache.getTotalChunks(layer1.getIndex()));
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsedChunk() {
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer1, 0, 0);
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer1, 1, 0);
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer1, 2, 0);
+		Assert.assertEquals(3, totalBuilds);
+		Assert.assertEquals(2, chunkCache.getTotalChunks(layer1.getIndex()));
+		//The evicted chunk's SpriteCache is reused
+		Assert.assertEquals(2, totalSpriteCaches);
+
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer1, 1, 0);
+		Assert.assertEquals(3, totalBuilds);
+
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer1, 0, 0);
+		Assert.assertEquals(4, totalBuilds);
+		Assert.assertEquals(2, totalSpriteCaches);
+	}
+
+	@Test
+	public void testChunksDrawnInCurrentPassAreNotEvicted() {
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer1, 0, 0);
+		chunkCache.draw(g, layer1, 1, 0);
+		chunkCache.draw(g, layer1, 2, 0);
+		Assert.assertEquals(3, chunkCache.getTotalChunks(layer1.getIndex()));
+		Assert.assertEquals(3, totalSpriteCaches);
+	}
+
+	@Test
+	public void testLayersHaveSeparateBudgets() {
+		for (int i = 0; i < 10; i++) {
+			chunkCache.markUsage();
+			chunkCache.draw(g, layer1, 0, 0);
+			chunkCache.draw(g, layer1, 1, 0);
+			chunkCache.markUsage();
+			chunkCache.draw(g, layer2, 0, 0);
+			chunkCache.draw(g, layer2, 1, 0);
+		}
+		Assert.assertEquals(4, totalBuilds);
+		Assert.assertEquals(2, chunkCache.getTotalChunks(layer1.getIndex()));
+		Assert.assertEquals(2, chunkCache.getTotalChunks(layer2.getIndex()));
+		Assert.assertEquals(4, chunkCache.getTotalChunks());
+	}
+
+	@Test
+	public void testInvalidate() {
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer1, 0, 0);
+		chunkCache.draw(g, layer1, 1, 0);
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer2, 0, 0);
+
+		chunkCache.invalidate(layer1.getIndex(), CHUNK_SIZE + 1, 0);
+		Assert.assertEquals(1, chunkCache.getTotalChunks(layer1.getIndex()));
+		chunkCache.invalidate(layer1.getIndex());
+		Assert.assertEquals(0, chunkCache.getTotalChunks(layer1.getIndex()));
+		Assert.assertEquals(1, chunkCache.getTotalChunks(layer2.getIndex()));
+		chunkCache.invalidate();
+		Assert.assertEquals(0, chunkCache.getTotalChunks());
+
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer1, 0, 0);
+		Assert.assertEquals(4, totalBuilds);
+		//Invalidated SpriteCaches are pooled
+		Assert.assertEquals(3, totalSpriteCaches);
+	}
+
+	@Test
+	public void testAnimatedTilesDrawnAfterLayerChunks() {
+		buildAnimatedTiles = true;
+
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer1, 0, 0);
+		chunkCache.draw(g, layer1, 1, 0);
+		chunkCache.drawAnimatedTiles(g, layer1);
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer2, 0, 0);
+		chunkCache.drawAnimatedTiles(g, layer2);
+
+		Assert.assertEquals("[cache, cache, animated0x2, flush, cache, animated1x1, flush]", drawCalls.toString());
+	}
+
+	@Test
+	public void testNoFlushWithoutAnimatedTiles() {
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer1, 0, 0);
+		chunkCache.drawAnimatedTiles(g, layer1);
+		chunkCache.markUsage();
+		chunkCache.draw(g, layer2, 0, 0);
+		chunkCache.drawAnimatedTiles(g, layer2);
+
+		Assert.assertEquals("[cache, cache]", drawCalls.toString());
+	}
+
+	@Override
+	public int buildChunk(SpriteCache spriteCache, TileLayer layer, int startTileX, int startTileY, int widthInTiles,
+			int heightInTiles, IntArray animatedTiles) {
+		totalBuilds++;
+		if (buildAnimatedTiles) {
+			animatedTiles.add(startTileX);
+			animatedTiles.add(startTileY);
+		}
+		return 1;
+	}
+
+	@Override
+	public void drawAnimatedTiles(Graphics g, TileLayer layer, IntArray animatedTiles) {
+		drawCalls.add("animated" + layer.getIndex() + "x" + (animatedTiles.size / 2));
+	}
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.tileset;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.lib.legacy.ClassImposteriser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.core.graphics.Sprite;
+import org.mini2Dx.tiled.TiledMap;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+
+import junit.framework.Assert;
+
+/**
+ * Unit tests for {@link TilesetAtlas} and
+ * {@link ImageTilesetSource#loadPackedTexture(TilesetAtlas.Page, int, int)}
+ */
+public class TilesetAtlasTest {
+	private static final int TILE_SIZE = 32;
+
+	private final Array<Texture> pageTextures = new Array<Texture>();
+
+	private Mockery mockery;
+	private AssetManager assetManager;
+	private Pixmap pagePixmap;
+	private TilesetAtlas tilesetAtlas;
+	private boolean previousPackTilesetTextures;
+
+	@Before
+	public void setUp() {
+		mockery = new Mockery();
+		mockery.setImposteriser(ClassImposteriser.INSTANCE);
+		assetManager = mockery.mock(AssetManager.class);
+		pagePixmap = mockery.mock(Pixmap.class, "pagePixmap");
+
+		previousPackTilesetTextures = TiledMap.PACK_TILESET_TEXTURES;
+		TiledMap.PACK_TILESET_TEXTURES = true;
+
+		tilesetAtlas = new TilesetAtlas() {
+			@Override
+			protected Pixmap createPagePixmap(int width, int height) {
+				return pagePixmap;
+			}
+
+			@Override
+			protected Texture createPageTexture(Pixmap pixmap) {
+				final Texture texture = mockery.mock(Texture.class, "pageTexture" + pageTextures.size);
+				final int width = pixmap.getWidth();
+				final int height = pixmap.getHeight();
+				mockery.checking(new Expectations() {
+					{
+						allowing(texture).getWidth();
+						will(returnValue(width));
+						allowing(texture).getHeight();
+						will(returnValue(height));
+					}
+				});
+				pageTextures.add(texture);
+				return texture;
+			}
+		};
+	}
+
+	@After
+	public void teardown() {
+		TiledMap.PACK_TILESET_TEXTURES = previousPackTilesetTextures;
+	}
+
+	@Test
+	public void testPackMapsTileRegionsToPage() {
+		final ImageTilesetSource source1 = createSource("tileset1.png", 64, 32);
+		final ImageTilesetSource source2 = createSource("tileset2.png", 32, 64);
+		final Array<ImageTilesetSource> sources = new Array<ImageTilesetSource>();
+		sources.add(source1);
+		sources.add(source2);
+
+		final TilesetPacker packer = new TilesetPacker(256, 256, TilesetAtlas.PADDING);
+		packer.add(64, 32);
+		packer.add(32, 64);
+		packer.pack();
+
+		mockery.checking(new Expectations() {
+			{
+				allowing(pagePixmap).getWidth();
+				will(returnValue(packer.getPageWidth(0)));
+				allowing(pagePixmap).getHeight();
+				will(returnValue(packer.getPageHeight(0)));
+				oneOf(pagePixmap).setBlending(Pixmap.Blending.None);
+				oneOf(pagePixmap).drawPixmap(source1.getPackingPixmap(), packer.getX(0), packer.getY(0));
+				oneOf(pagePixmap).drawPixmap(source2.getPackingPixmap(), packer.getX(1), packer.getY(1));
+				oneOf(pagePixmap).dispose();
+			}
+		});
+		tilesetAtlas.pack(sources, 256);
+		mockery.assertIsSatisfied();
+
+		Assert.assertEquals(1, pageTextures.size);
+		Assert.assertEquals(false, source1.isAwaitingPacking());
+		Assert.assertEquals(true, source1.isTextureLoaded());
+		Assert.assertEquals(false, source2.isAwaitingPacking());
+		Assert.assertEquals(true, source2.isTextureLoaded());
+
+		assertTileRegion(source1, 0, pageTextures.get(0), packer.getX(0), packer.getY(0));
+		assertTileRegion(source1, 1, pageTextures.get(0), packer.getX(0) + TILE_SIZE, packer.getY(0));
+		assertTileRegion(source2, 0, pageTextures.get(0), packer.getX(1), packer.getY(1));
+		assertTileRegion(source2, 1, pageTextures.get(0), packer.getX(1), packer.getY(1) + TILE_SIZE);
+	}
+
+	@Test
+	public void testOversizedImageGetsOwnPage() {
+		final ImageTilesetSource source1 = createSource("tileset1.png", 64, 32);
+		final ImageTilesetSource source2 = createSource("tileset2.png", 32, 64);
+		final Array<ImageTilesetSource> sources = new Array<ImageTilesetSource>();
+		sources.add(source1);
+		sources.add(source2);
+
+		tilesetAtlas.pack(sources, 48);
+
+		Assert.assertEquals(2, pageTextures.size);
+		assertTileRegion(source1, 0, pageTextures.get(0), 0, 0);
+		assertTileRegion(source1, 1, pageTextures.get(0), TILE_SIZE, 0);
+		assertTileRegion(source2, 0, pageTextures.get(1), 0, 0);
+		assertTileRegion(source2, 1, pageTextures.get(1), 0, TILE_SIZE);
+	}
+
+	@Test
+	public void testPageDisposedWhenAllSourcesDisposed() {
+		final ImageTilesetSource source1 = createSource("tileset1.png", 64, 32);
+		final ImageTilesetSource source2 = createSource("tileset2.png", 32, 64);
+		final Array<ImageTilesetSource> sources = new Array<ImageTilesetSource>();
+		sources.add(source1);
+		sources.add(source2);
+
+		mockery.checking(new Expectations() {
+			{
+				ignoring(pagePixmap);
+			}
+		});
+		tilesetAtlas.pack(sources, 256);
+		Assert.assertEquals(1, pageTextures.size);
+
+		source1.dispose();
+		mockery.assertIsSatisfied();
+
+		mockery.checking(new Expectations() {
+			{
+				oneOf(pageTextures.get(0)).dispose();
+			}
+		});
+		source2.dispose();
+		mockery.assertIsSatisfied();
+	}
+
+	private ImageTilesetSource createSource(final String imagePath, final int width, final int height) {
+		final Pixmap pixmap = mockery.mock(Pixmap.class, imagePath);
+		mockery.checking(new Expectations() {
+			{
+				allowing(pixmap).getWidth();
+				will(returnValue(width));
+				allowing(pixmap).getHeight();
+				will(returnValue(height));
+				allowing(pixmap).dispose();
+			}
+		});
+		final ImageTilesetSource result = new ImageTilesetSource(width, height, TILE_SIZE, TILE_SIZE, 0, 0);
+		result.setTilesetImagePath(imagePath);
+		mockery.checking(new Expectations() {
+			{
+				oneOf(assetManager).get(imagePath, Pixmap.class);
+				will(returnValue(pixmap));
+			}
+		});
+		result.loadTexture(assetManager, null);
+		Assert.assertEquals(true, result.isAwaitingPacking());
+		Assert.assertEquals(false, result.isTextureLoaded());
+		return result;
+	}
+
+	private void assertTileRegion(ImageTilesetSource source, int tileId, Texture expectedTexture, int expectedX,
+			int expectedY) {
+		final Sprite tileImage = source.getTileImage(tileId);
+		Assert.assertSame(expectedTexture, tileImage.getTexture());
+		Assert.assertEquals(expectedX, tileImage.getRegionX());
+		Assert.assertEquals(expectedY, tileImage.getRegionY());
+		Assert.assertEquals(TILE_SIZE, tileImage.getRegionWidth());
+		Assert.assertEquals(TILE_SIZE, tileImage.getRegionHeight());
+	}
+}
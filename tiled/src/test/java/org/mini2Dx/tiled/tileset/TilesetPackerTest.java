@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2019 See AUTHORS file
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * Neither the name of the mini2Dx nor the names of its contributors may be used to endorse or promote products derived from this software without specific prior written permission.
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mini2Dx.tiled.tileset;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TilesetPacker}
+ */
+public class TilesetPackerTest {
+
+	@Test
+	public void testPackWithoutOverlap() {
+		final TilesetPacker packer = new TilesetPacker(256, 256, 2);
+		packer.add(100, 60);
+		packer.add(120, 40);
+		packer.add(50, 50);
+		packer.add(200, 30);
+		packer.add(30, 60);
+		packer.pack();
+
+		Assert.assertEquals(1, packer.getTotalPages());
+		for (int i = 0; i < packer.getTotalImages(); i++) {
+			Assert.assertEquals(0, packer.getPage(i));
+		}
+		assertNoOverlap(packer, new int[] { 100, 120, 50, 200, 30 }, new int[] { 60, 40, 50, 30, 60 }, 2);
+		Assert.assertTrue(packer.getPageWidth(0) <= 256);
+		Assert.assertTrue(packer.getPageHeight(0) <= 256);
+	}
+
+	@Test
+	public void testPackAcrossPages() {
+		final TilesetPacker packer = new TilesetPacker(128, 128, 0);
+		packer.add(128, 128);
+		packer.add(128, 64);
+		packer.add(128, 64);
+		packer.pack();
+
+		Assert.assertEquals(2, packer.getTotalPages());
+		Assert.assertEquals(0, packer.getPage(0));
+		Assert.assertEquals(1, packer.getPage(1));
+		Assert.assertEquals(1, packer.getPage(2));
+		Assert.assertEquals(128, packer.getPageHeight(1));
+	}
+
+	@Test
+	public void testOversizedImageIsNotPacked() {
+		final TilesetPacker packer = new TilesetPacker(128, 128, 0);
+		packer.add(256, 32);
+		packer.add(32, 32);
+		packer.pack();
+
+		Assert.assertEquals(TilesetPacker.NO_PAGE, packer.getPage(0));
+		Assert.assertEquals(0, packer.getPage(1));
+		Assert.assertEquals(1, packer.getTotalPages());
+	}
+
+	private void assertNoOverlap(TilesetPacker packer, int[] widths, int[] heights, int padding) {
+		for (int i = 0; i < widths.length; i++) {
+			for (int j = i + 1; j < widths.length; j++) {
+				final boolean separateX = packer.getX(i) + widths[i] + padding <= packer.getX(j)
+						|| packer.getX(j) + widths[j] + padding <= packer.getX(i);
+				final boolean separateY = packer.getY(i) + heights[i] + padding <= packer.getY(j)
+						|| packer.getY(j) + heights[j] + padding <= packer.getY(i);
+				Assert.assertTrue(separateX || separateY);
+			}
+		}
+	}
+}